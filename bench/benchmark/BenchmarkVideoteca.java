@@ -0,0 +1,198 @@
+package benchmark;
+
+import controller.CatalogoColonnare;
+import controller.CriteriRicerca;
+import controller.FilmController;
+import controller.GestoreVideoteca;
+import controller.RegistroVideoteche;
+import generatore.GeneratoreCatalogo;
+import model.Film;
+import model.StatoVisione;
+import strategy.*;
+import strategy.dao.CsvFilmDAO;
+import strategy.dao.FilmDAO;
+import strategy.dao.JsonFilmDAO;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Benchmark dei percorsi critici della videoteca su cataloghi di dimensioni crescenti:
+ * caricamento e salvataggio con i DAO, ricerca per titolo, catene di filtri come quelle della vista,
+ * ogni strategia di ordinamento ed esecuzione/annullamento dei comandi.
+ * Per ogni operazione riporta il throughput e i byte allocati, con la velocità di allocazione risultante.
+ * I cataloghi sono prodotti da {@link GeneratoreCatalogo} con un seme fisso, quindi identici tra un'esecuzione e l'altra.
+ * <p>
+ * Uso: {@code java -cp out:out-bench benchmark.BenchmarkVideoteca [--dimensioni 1000,10000,100000,1000000]
+ * [--riscaldamento ms] [--misura ms] [--filtro testo]}
+ * <p>
+ * Le dimensioni maggiori richiedono un heap adeguato (es. {@code -Xmx4g} per un milione di films).
+ */
+public class BenchmarkVideoteca {
+
+    private final Misuratore misuratore;
+    private final String filtro;
+    private final List<Misuratore.Risultato> risultati;
+
+    private BenchmarkVideoteca(Misuratore misuratore, String filtro) {
+        this.misuratore = misuratore;
+        this.filtro = filtro;
+        this.risultati = new ArrayList<>();
+    }
+
+    public static void main(String[] args) throws Exception {
+        int[] dimensioni = {1_000, 10_000, 100_000, 1_000_000};
+        long riscaldamentoMs = 1_000;
+        long misuraMs = 2_000;
+        String filtro = null;
+
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--dimensioni":
+                    String[] valori = args[i + 1].split(",");
+                    dimensioni = new int[valori.length];
+                    for (int j = 0; j < valori.length; j++) {
+                        dimensioni[j] = Integer.parseInt(valori[j].trim());
+                    }
+                    break;
+                case "--riscaldamento":
+                    riscaldamentoMs = Long.parseLong(args[i + 1]);
+                    break;
+                case "--misura":
+                    misuraMs = Long.parseLong(args[i + 1]);
+                    break;
+                case "--filtro":
+                    filtro = args[i + 1];
+                    break;
+                default:
+                    System.err.println("Opzione non riconosciuta: " + args[i]);
+                    System.exit(2);
+            }
+        }
+
+        BenchmarkVideoteca benchmark = new BenchmarkVideoteca(new Misuratore(riscaldamentoMs, misuraMs), filtro);
+        File cartella = Files.createTempDirectory("benchmark-videoteca").toFile();
+        try {
+            for (int dimensione : dimensioni) {
+                benchmark.esegui(dimensione, cartella);
+            }
+        } finally {
+            File[] files = cartella.listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    file.delete();
+                }
+            }
+            cartella.delete();
+        }
+        benchmark.stampaRiepilogo();
+    }
+
+    /**
+     * Esegue tutti i benchmark selezionati su un catalogo della dimensione indicata.
+     */
+    private void esegui(int dimensione, File cartella) throws Exception {
+        List<Film> films = new ArrayList<>(new GeneratoreCatalogo(42).films(dimensione));
+
+        // DAO: ogni formato viene prima salvato su file e poi caricato dallo stesso file, uno per dimensione
+        misuraDAO("dao.csv", new CsvFilmDAO(), films, new File(cartella, "catalogo-" + dimensione + ".csv"));
+        misuraDAO("dao.json", new JsonFilmDAO(), films, new File(cartella, "catalogo-" + dimensione + ".json"));
+
+        GestoreVideoteca gestore = new RegistroVideoteche().ottieni("benchmark");
+        gestore.aggiungiFilms(films);
+        FilmController controller = new FilmController(null, gestore);
+
+        misura("gestore.cercaPerTitolo", dimensione, () -> gestore.cercaPerTitolo("ombra"));
+
+        // Catena di filtri come quella della vista: genere, stato di visione e valutazione
+        CriteriRicerca filtri = new CriteriRicerca("", "Titolo", "fantascienza", "Tutti", "Tutti",
+                "Visto", 4, "Predefinito");
+        misura("controller.filtri", dimensione, () -> controller.filtraVideoteca(filtri));
+
+        // Ricerca, filtro per regista e ordinamento insieme
+        CriteriRicerca completa = new CriteriRicerca("notte", "Titolo", "Tutti", films.get(0).getRegista(), "Tutti",
+                "Tutti", -1, "Anno di Uscita (DESC)");
+        misura("controller.ricercaFiltriOrdinamento", dimensione, () -> controller.filtraVideoteca(completa));
+
+        // Gli stessi criteri sulla rappresentazione a colonne
+        CatalogoColonnare colonne = CatalogoColonnare.di(films);
+        misura("colonnare.filtri", dimensione, () -> controller.elaboraFilms(colonne, filtri));
+        misura("colonnare.ricercaFiltriOrdinamento", dimensione, () -> controller.elaboraFilms(colonne, completa));
+
+        // Ricerche sui byte dei testi, con l'arena nell'heap e fuori
+        CatalogoColonnare fuoriHeap = CatalogoColonnare.di(films, true);
+        String regista = films.get(0).getRegista().substring(0, 4);
+        misura("colonnare.cercaPerTitolo", dimensione, () -> colonne.cercaPerTitolo("ombra"));
+        misura("colonnare.cercaPerRegista", dimensione, () -> colonne.cercaPerRegista(regista));
+        misura("colonnare.fuoriHeap.cercaPerTitolo", dimensione, () -> fuoriHeap.cercaPerTitolo("ombra"));
+        misura("colonnare.fuoriHeap.cercaPerRegista", dimensione, () -> fuoriHeap.cercaPerRegista(regista));
+
+        OrdinatoreFilmStrategy[] strategie = {new OrdinaTitoloAZStrategy(), new OrdinaTitoloZAStrategy(),
+                new OrdinaRegistaAZStrategy(), new OrdinaRegistaZAStrategy(),
+                new OrdinaAnnoUscitaCrescenteStrategy(), new OrdinaAnnoUscitaDecrescenteStrategy(),
+                new OrdinaValutazioneAscStrategy(), new OrdinaValutazioneDescStrategy()};
+        for (OrdinatoreFilmStrategy strategia : strategie) {
+            misura("ordina." + strategia.getClass().getSimpleName(), dimensione,
+                    () -> gestore.ordinaFilms(films, strategia));
+        }
+
+        // Comandi: ogni operazione viene eseguita e subito annullata, così il catalogo resta della stessa dimensione
+        misura("comandi.aggiungi+undo", dimensione, () -> {
+            controller.aggiungiFilm("Benchmark", "Regista benchmark", "2024", "dramma", 3, StatoVisione.VISTO);
+            return controller.undo();
+        });
+        Film daModificare = films.get(dimensione / 2);
+        misura("comandi.modifica+undo", dimensione, () -> {
+            Film presente = gestore.getCatalogo().trova(daModificare);
+            controller.modificaFilm(presente, presente.getTitolo(), presente.getRegista(), presente.getAnnoUscita(),
+                    presente.getGenere(), (presente.getValutazione() + 1) % 6, presente.getStatoVisione());
+            return controller.undo();
+        });
+    }
+
+    private void misuraDAO(String nome, FilmDAO dao, List<Film> films, File file) throws Exception {
+        int dimensione = films.size();
+        String percorso = file.getPath();
+        misura(nome + ".salva", dimensione, () -> {
+            dao.salvaFilms(films, percorso);
+            return percorso;
+        });
+        if (selezionato(nome + ".carica")) {
+            // Il file viene sempre riscritto con i films di questa dimensione, anche se il salvataggio è escluso dal filtro
+            dao.salvaFilms(films, percorso);
+            misura(nome + ".carica", dimensione, () -> dao.caricaFilms(percorso));
+        }
+        file.delete();
+    }
+
+    private boolean selezionato(String nome) {
+        return filtro == null || nome.contains(filtro);
+    }
+
+    private void misura(String nome, int dimensione, Misuratore.Operazione operazione) throws Exception {
+        if (!selezionato(nome)) {
+            return;
+        }
+        Misuratore.Risultato risultato = misuratore.misura(nome, dimensione, operazione);
+        risultati.add(risultato);
+        stampa(risultato);
+    }
+
+    private static void stampa(Misuratore.Risultato r) {
+        System.out.println(String.format(Locale.ROOT, "%-48s %9d %14.1f %14.3f %16.0f %12.1f",
+                r.nome, r.dimensione, r.operazioniAlSecondo(), r.nanosecondiPerOperazione / 1e6,
+                r.bytePerOperazione, r.allocazioneMBalSecondo()));
+    }
+
+    private void stampaRiepilogo() {
+        System.out.println();
+        System.out.println(String.format(Locale.ROOT, "%-48s %9s %14s %14s %16s %12s",
+                "Benchmark", "Films", "op/s", "ms/op", "byte/op", "MB/s alloc"));
+        for (Misuratore.Risultato risultato : risultati) {
+            stampa(risultato);
+        }
+    }
+}
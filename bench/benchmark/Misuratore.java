@@ -0,0 +1,116 @@
+package benchmark;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Misura una singola operazione ripetendola per un tempo fissato, dopo una fase di riscaldamento
+ * che lascia al compilatore JIT il tempo di ottimizzare il codice misurato.
+ * Oltre al tempo per operazione rileva i byte allocati dal thread corrente, tramite l'estensione
+ * com.sun.management di ThreadMXBean disponibile nelle JVM HotSpot.
+ */
+final class Misuratore {
+
+    /**
+     * Operazione da misurare. Il valore restituito viene consumato dal misuratore, così che il JIT
+     * non possa eliminare il lavoro come codice inutile.
+     */
+    @FunctionalInterface
+    interface Operazione {
+        Object esegui() throws Exception;
+    }
+
+    /**
+     * Risultato di una misura.
+     */
+    static final class Risultato {
+        final String nome;
+        final int dimensione;
+        final long operazioni;
+        final double nanosecondiPerOperazione;
+        final double bytePerOperazione;
+
+        Risultato(String nome, int dimensione, long operazioni, double nanosecondiPerOperazione, double bytePerOperazione) {
+            this.nome = nome;
+            this.dimensione = dimensione;
+            this.operazioni = operazioni;
+            this.nanosecondiPerOperazione = nanosecondiPerOperazione;
+            this.bytePerOperazione = bytePerOperazione;
+        }
+
+        double operazioniAlSecondo() {
+            return 1e9 / nanosecondiPerOperazione;
+        }
+
+        /**
+         * Velocità di allocazione in MB/s, confrontabile con il tasso "gc.alloc.rate" di JMH.
+         */
+        double allocazioneMBalSecondo() {
+            return bytePerOperazione < 0 ? -1 : bytePerOperazione * operazioniAlSecondo() / (1024 * 1024);
+        }
+    }
+
+    private static final com.sun.management.ThreadMXBean THREADS = threadMXBean();
+
+    // Destinazione dei risultati delle operazioni, volatile per impedirne l'eliminazione
+    private static volatile int consumato;
+
+    private final long riscaldamentoMs;
+    private final long misuraMs;
+
+    /**
+     * @param riscaldamentoMs Durata della fase di riscaldamento per ogni operazione
+     * @param misuraMs        Durata della fase di misura per ogni operazione
+     */
+    Misuratore(long riscaldamentoMs, long misuraMs) {
+        this.riscaldamentoMs = riscaldamentoMs;
+        this.misuraMs = misuraMs;
+    }
+
+    /**
+     * Misura un'operazione: la esegue ripetutamente prima per il riscaldamento, poi per la misura.
+     * Viene eseguita almeno una volta per fase, anche se un'esecuzione dura più della fase stessa.
+     *
+     * @param nome       Nome dell'operazione
+     * @param dimensione Numero di films su cui opera
+     * @param operazione Operazione da misurare
+     * @return Tempo e allocazione medi per operazione
+     */
+    Risultato misura(String nome, int dimensione, Operazione operazione) throws Exception {
+        ripeti(operazione, riscaldamentoMs);
+        System.gc(); // evita che la misura paghi la raccolta dei rifiuti del riscaldamento
+
+        long threadId = Thread.currentThread().getId();
+        long allocatiPrima = THREADS != null ? THREADS.getThreadAllocatedBytes(threadId) : -1;
+        long inizio = System.nanoTime();
+        long operazioni = ripeti(operazione, misuraMs);
+        long durata = System.nanoTime() - inizio;
+        long allocatiDopo = THREADS != null ? THREADS.getThreadAllocatedBytes(threadId) : -1;
+
+        double bytePerOperazione = allocatiPrima < 0 ? -1 : (double) (allocatiDopo - allocatiPrima) / operazioni;
+        return new Risultato(nome, dimensione, operazioni, (double) durata / operazioni, bytePerOperazione);
+    }
+
+    private static long ripeti(Operazione operazione, long durataMs) throws Exception {
+        long fine = System.nanoTime() + durataMs * 1_000_000;
+        long operazioni = 0;
+        do {
+            Object risultato = operazione.esegui();
+            consumato += risultato == null ? 0 : System.identityHashCode(risultato);
+            operazioni++;
+        } while (System.nanoTime() < fine);
+        return operazioni;
+    }
+
+    private static com.sun.management.ThreadMXBean threadMXBean() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean esteso = (com.sun.management.ThreadMXBean) threads;
+            if (esteso.isThreadAllocatedMemorySupported()) {
+                esteso.setThreadAllocatedMemoryEnabled(true);
+                return esteso;
+            }
+        }
+        System.err.println("Misura delle allocazioni non disponibile in questa JVM");
+        return null;
+    }
+}
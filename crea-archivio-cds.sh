@@ -0,0 +1,25 @@
+#!/bin/sh
+# Genera l'archivio AppCDS (Class Data Sharing) con le classi usate all'avvio della Videoteca,
+# così che gli avvii successivi le mappino già verificate invece di caricarle e verificarle una per una.
+#
+# Uso: ./crea-archivio-cds.sh [cartella delle classi compilate]   (predefinita: out)
+# Poi: java -XX:SharedArchiveFile=videoteca.jsa -cp videoteca.jar Videoteca
+#
+# Serve un display: l'avvio di prova apre la finestra e la chiude subito dopo il primo disegno.
+set -e
+
+CLASSI="${1:-out}"
+JAR="videoteca.jar"
+ARCHIVIO="videoteca.jsa"
+
+# CDS archivia solo classi caricate da file JAR, non da cartelle
+jar cf "$JAR" -C "$CLASSI" .
+
+# Avvio di prova: alla chiusura la JVM scrive nell'archivio tutte le classi caricate (JDK e applicazione)
+java -XX:ArchiveClassesAtExit="$ARCHIVIO" -cp "$JAR" Videoteca --prova-avvio
+
+# Confronto dei tempi di avvio senza e con l'archivio
+echo "Senza archivio:"
+java -cp "$JAR" Videoteca --prova-avvio
+echo "Con archivio $ARCHIVIO:"
+java -XX:SharedArchiveFile="$ARCHIVIO" -cp "$JAR" Videoteca --prova-avvio
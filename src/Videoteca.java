@@ -1,21 +1,124 @@
+import batch.ElaborazioneBatch;
+import controller.GestoreVideoteca;
+import metriche.RegistroMetriche;
+import model.Status;
+import server.ServerVideoteca;
+import view.SorveglianzaEDT;
 import view.VideotecaView;
 
+import java.io.IOException;
+import java.util.Arrays;
+
 /**
  * Classe principale dell'applicazione di gestione di una videoteca personale.
- * Avvia l'applicazione creando l'interfaccia utente.
+ * Avvia l'applicazione creando l'interfaccia utente oppure, senza interfaccia grafica, espone la videoteca
+ * tramite HTTP (opzione {@code --server}) o elabora un file di films a riga di comando (opzione {@code --batch}).
  */
 public class Videoteca {
 
+    private static final int PORTA_PREDEFINITA = 8080;
+
+    // Con -Dvideoteca.misuraAvvio=true viene stampato il tempo trascorso fino al primo disegno della finestra
+    private static final String PROPRIETA_MISURA_AVVIO = "videoteca.misuraAvvio";
+
+    // Con -Dvideoteca.rapportoMetriche=true il rapporto delle metriche viene stampato all'uscita
+    private static final String PROPRIETA_RAPPORTO_METRICHE = "videoteca.rapportoMetriche";
+
+    // Con -Dvideoteca.sorveglianzaEdt=true gli eventi Swing lenti vengono segnalati sullo standard error
+    private static final String PROPRIETA_SORVEGLIANZA_EDT = "videoteca.sorveglianzaEdt";
+
+    // Soglia in ms oltre la quale un evento Swing viene segnalato come blocco dell'interfaccia
+    private static final String PROPRIETA_SOGLIA_BLOCCO_EDT = "videoteca.sogliaBloccoEdt";
+
     /**
      * Metodo principale che avvia l'applicazione.
+     * Uso: {@code Videoteca [--prova-avvio | --server [porta] [fileVideoteca] | --batch <input> [opzioni]]}
+     * <p>
+     * Con {@code --prova-avvio} la finestra viene chiusa subito dopo il primo disegno: serve a generare
+     * l'archivio AppCDS delle classi usate all'avvio (vedi {@code crea-archivio-cds.sh}).
      */
     public static void main(String[] args) {
+        long inizioMain = System.nanoTime();
+        if (Boolean.getBoolean(PROPRIETA_RAPPORTO_METRICHE)) {
+            Runtime.getRuntime().addShutdownHook(new Thread(
+                    () -> System.err.print(RegistroMetriche.getInstance().getRapporto()), "rapporto-metriche"));
+        }
+        if (args.length > 0 && args[0].equals("--server")) {
+            avviaServer(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--batch")) {
+            ElaborazioneBatch batch = new ElaborazioneBatch(System.in, System.out, System.err);
+            System.exit(batch.esegui(Arrays.copyOfRange(args, 1, args.length)));
+        }
+
+        boolean provaAvvio = args.length > 0 && args[0].equals("--prova-avvio");
+        boolean misuraAvvio = provaAvvio || Boolean.getBoolean(PROPRIETA_MISURA_AVVIO);
+
+        if (Boolean.getBoolean(PROPRIETA_SORVEGLIANZA_EDT)) {
+            SorveglianzaEDT.installa(Long.getLong(PROPRIETA_SOGLIA_BLOCCO_EDT, SorveglianzaEDT.SOGLIA_PREDEFINITA_MS),
+                    System.err);
+        }
+
         // Utilizza SwingUtilities.invokeLater per garantire che l'interfaccia utente
         // venga creata nel thread di eventi Swing
         javax.swing.SwingUtilities.invokeLater(() -> {
-            // Crea e visualizza l'interfaccia utente
+            // Crea e visualizza l'interfaccia utente; DAO e ultima videoteca vengono caricati dopo
             VideotecaView view = new VideotecaView();
+            if (misuraAvvio) {
+                view.setAzionePrimoDisegno(() -> {
+                    stampaTempoAvvio(inizioMain);
+                    if (provaAvvio) {
+                        view.dispose();
+                        System.exit(0);
+                    }
+                });
+            }
             view.setVisible(true);
         });
+
+        // La pubblicazione su JMX carica diverse classi: avviene in background per non ritardare la finestra
+        Thread jmx = new Thread(() -> RegistroMetriche.getInstance().registraMBean(), "registrazione-metriche");
+        jmx.setDaemon(true);
+        jmx.start();
+    }
+
+    /**
+     * Stampa il tempo trascorso fino al primo disegno della finestra, dall'avvio della JVM e dall'ingresso in main.
+     */
+    private static void stampaTempoAvvio(long inizioMain) {
+        long daMain = (System.nanoTime() - inizioMain) / 1_000_000;
+        String daJvm = ProcessHandle.current().info().startInstant()
+                .map(avvio -> (System.currentTimeMillis() - avvio.toEpochMilli()) + " ms")
+                .orElse("non disponibile");
+        System.out.println("Primo disegno della finestra: " + daJvm + " dall'avvio della JVM, " + daMain + " ms da main");
+    }
+
+    /**
+     * Avvia il server HTTP sulla videoteca predefinita, caricando prima il file indicato se presente.
+     */
+    private static void avviaServer(String[] args) {
+        try {
+            int porta = args.length > 1 ? Integer.parseInt(args[1]) : PORTA_PREDEFINITA;
+            ServerVideoteca server = new ServerVideoteca(GestoreVideoteca.getInstance(), porta,
+                    Runtime.getRuntime().availableProcessors() * 2);
+            if (args.length > 2) {
+                String formato = args[2].toLowerCase().endsWith(".csv") ? "CSV" : "JSON";
+                Status esito = server.caricaVideoteca(args[2], formato);
+                if (!esito.isSuccess()) {
+                    System.err.println(esito.getMessage());
+                    System.exit(1);
+                }
+            }
+            RegistroMetriche.getInstance().registraMBean();
+            server.avvia();
+            System.out.println("Videoteca in ascolto sulla porta " + server.getPorta());
+        } catch (NumberFormatException e) {
+            System.err.println("Porta non valida: " + args[1]);
+            System.exit(1);
+        } catch (IOException e) {
+            System.err.println("Impossibile avviare il server: " + e.getMessage());
+            System.exit(1);
+        }
     }
 }
@@ -0,0 +1,185 @@
+package batch;
+
+import controller.CatalogoColonnare;
+import controller.CriteriRicerca;
+import controller.FilmController;
+import controller.RegistroVideoteche;
+import model.Film;
+import strategy.dao.CsvFilmDAO;
+import strategy.dao.FilmDAO;
+import strategy.dao.JsonFilmDAO;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Esecuzione a riga di comando, senza interfaccia grafica: legge un file di films, applica ricerca, filtri
+ * e ordinamento con gli stessi criteri della vista e scrive il risultato nel formato richiesto.
+ * I films non vengono caricati nella videoteca né passano dai comandi: la lista letta dal file viene
+ * elaborata e scritta direttamente, così che conversioni e report non richiedano un display.
+ * <p>
+ * Uso: {@code Videoteca --batch <input|-> [--output <file|->] [--formato json|csv] [--formato-input json|csv]
+ * [--cerca testo] [--tipo titolo|regista] [--genere g] [--regista r] [--anno a] [--stato s]
+ * [--valutazione n] [--ordina "Titolo (A-Z)"] [--testi heap|fuori-heap]}
+ * <p>
+ * Con "-" si legge dallo standard input o si scrive sullo standard output; in mancanza di un formato
+ * esplicito viene usata l'estensione del file, altrimenti JSON. Con {@code --testi fuori-heap} titoli e registi
+ * vengono tenuti fuori dall'heap durante l'elaborazione, utile per file con milioni di films.
+ */
+public class ElaborazioneBatch {
+
+    /**
+     * Codice di uscita per un'elaborazione completata.
+     */
+    public static final int ESITO_OK = 0;
+
+    /**
+     * Codice di uscita per un errore di lettura o scrittura dei films.
+     */
+    public static final int ESITO_ERRORE_IO = 1;
+
+    /**
+     * Codice di uscita per parametri non validi.
+     */
+    public static final int ESITO_USO_NON_VALIDO = 2;
+
+    private static final String STANDARD = "-";
+    private static final Set<String> OPZIONI = Set.of("output", "formato", "formato-input", "cerca", "tipo",
+            "genere", "regista", "anno", "stato", "valutazione", "ordina", "testi");
+
+    private final InputStream input;
+    private final OutputStream output;
+    private final PrintStream errori;
+    private final FilmController controller;
+
+    /**
+     * Crea un'elaborazione che usa gli stream indicati al posto di standard input e output.
+     *
+     * @param input   Sorgente usata quando l'input è "-"
+     * @param output  Destinazione usata quando l'output è "-"
+     * @param errori  Destinazione dei messaggi di errore
+     */
+    public ElaborazioneBatch(InputStream input, OutputStream output, PrintStream errori) {
+        this.input = input;
+        this.output = output;
+        this.errori = errori;
+        // Il controller serve solo per ricerca, filtri e ordinamento: non tocca la videoteca predefinita
+        this.controller = new FilmController(null, new RegistroVideoteche().ottieni("batch"));
+    }
+
+    /**
+     * Esegue l'elaborazione descritta dagli argomenti della riga di comando.
+     *
+     * @param args Argomenti, senza l'opzione --batch
+     * @return Codice di uscita (ESITO_OK, ESITO_ERRORE_IO o ESITO_USO_NON_VALIDO)
+     */
+    public int esegui(String[] args) {
+        try {
+            Map<String, String> opzioni = leggiOpzioni(args);
+            String percorsoInput = opzioni.get("input");
+            String percorsoOutput = opzioni.getOrDefault("output", STANDARD);
+            FilmDAO daoInput = scegliDAO(opzioni.get("formato-input"), percorsoInput);
+            FilmDAO daoOutput = scegliDAO(opzioni.get("formato"), percorsoOutput);
+            CriteriRicerca criteri = CriteriRicerca.daOpzioni(opzioni);
+            boolean fuoriHeap = leggiTestiFuoriHeap(opzioni.getOrDefault("testi", "heap"));
+
+            // Durante l'elaborazione i films letti restano solo in forma colonnare, molto più compatta
+            CatalogoColonnare catalogo = CatalogoColonnare.di(leggi(daoInput, percorsoInput), fuoriHeap);
+            scrivi(daoOutput, percorsoOutput, controller.elaboraFilms(catalogo, criteri));
+            return ESITO_OK;
+        } catch (IllegalArgumentException e) {
+            errori.println(e.getMessage());
+            return ESITO_USO_NON_VALIDO;
+        } catch (IOException e) {
+            errori.println("Errore durante l'elaborazione: " + e.getMessage());
+            return ESITO_ERRORE_IO;
+        }
+    }
+
+    private List<Film> leggi(FilmDAO dao, String percorso) throws IOException {
+        if (!STANDARD.equals(percorso)) {
+            return dao.caricaFilms(percorso);
+        }
+        return dao.leggiFilms(new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8)));
+    }
+
+    private void scrivi(FilmDAO dao, String percorso, List<Film> films) throws IOException {
+        if (!STANDARD.equals(percorso)) {
+            dao.salvaFilms(films, percorso);
+            return;
+        }
+        // Lo standard output non viene chiuso: il writer viene solo svuotato
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        dao.scriviFilms(films, writer);
+        writer.flush();
+    }
+
+    /**
+     * Sceglie il DAO dal formato esplicito o, in sua assenza, dall'estensione del file.
+     */
+    private static FilmDAO scegliDAO(String formato, String percorso) {
+        if (formato == null) {
+            formato = percorso.toLowerCase().endsWith(".csv") ? "csv" : "json";
+        }
+        switch (formato.toLowerCase()) {
+            case "json":
+                return new JsonFilmDAO();
+            case "csv":
+                return new CsvFilmDAO();
+            default:
+                throw new IllegalArgumentException("Formato non supportato: " + formato);
+        }
+    }
+
+    private static boolean leggiTestiFuoriHeap(String testi) {
+        switch (testi.toLowerCase()) {
+            case "heap":
+                return false;
+            case "fuori-heap":
+                return true;
+            default:
+                throw new IllegalArgumentException("Memorizzazione dei testi non supportata: " + testi);
+        }
+    }
+
+    /**
+     * Legge le opzioni nella forma "--nome valore"; il primo argomento senza trattini è il file di input.
+     */
+    private static Map<String, String> leggiOpzioni(String[] args) {
+        Map<String, String> opzioni = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            String argomento = args[i];
+            if (argomento.startsWith("--")) {
+                if (!OPZIONI.contains(argomento.substring(2))) {
+                    throw new IllegalArgumentException("Opzione non riconosciuta: " + argomento);
+                }
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Manca il valore dell'opzione " + argomento);
+                }
+                opzioni.put(argomento.substring(2), args[++i]);
+            } else if (!opzioni.containsKey("input")) {
+                opzioni.put("input", argomento);
+            } else {
+                throw new IllegalArgumentException("Argomento non riconosciuto: " + argomento);
+            }
+        }
+        if (!opzioni.containsKey("input")) {
+            throw new IllegalArgumentException("Uso: Videoteca --batch <input|-> [--output <file|->] [--formato json|csv] "
+                    + "[--cerca testo] [--tipo titolo|regista] [--genere g] [--regista r] [--anno a] [--stato s] "
+                    + "[--valutazione n] [--ordina criterio] [--testi heap|fuori-heap]");
+        }
+        return opzioni;
+    }
+}
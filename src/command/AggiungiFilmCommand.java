@@ -11,16 +11,12 @@ import model.StatoVisione;
 public class AggiungiFilmCommand implements Command {
 
     private final FilmController controller;
-    private final String titolo;
-    private final String regista;
-    private final String annoUscita;
-    private final String genere;
-    private final int valutazione;
-    private final StatoVisione statoVisione;
-    private Film filmAggiunto; // Riferimento al film aggiunto per l'operazione di undo
+    private final Film filmAggiunto; // Film da aggiungere, conservato anche per l'operazione di undo
 
     /**
      * Costruttore che inizializza il comando con i dati del film da aggiungere.
+     * Il film viene creato subito, con genere e regista condivisi tramite il PoolStringhe,
+     * così che il comando non debba conservare anche i singoli campi.
      *
      * @param controller   Controller della videoteca
      * @param titolo       Titolo del film
@@ -34,24 +30,22 @@ public class AggiungiFilmCommand implements Command {
                                String annoUscita, String genere, int valutazione,
                                StatoVisione statoVisione) {
         this.controller = controller;
-        this.titolo = titolo;
-        this.regista = regista;
-        this.annoUscita = annoUscita;
-        this.genere = genere;
-        this.valutazione = valutazione;
-        this.statoVisione = statoVisione;
+        this.filmAggiunto = new Film(titolo, regista, annoUscita, genere, valutazione, statoVisione);
+    }
+
+    /**
+     * Costruttore usato per ricostruire il comando dalla cronologia persistente.
+     */
+    AggiungiFilmCommand(FilmController controller, Film filmAggiunto) {
+        this.controller = controller;
+        this.filmAggiunto = filmAggiunto;
     }
 
     /**
      * Esegue il comando aggiungendo il film alla videoteca.
-     * Memorizza un riferimento al film aggiunto per supportare l'operazione di undo.
      */
     @Override
     public boolean execute() {
-        // Crea un nuovo film con i dati forniti
-        filmAggiunto = new Film(titolo, regista, annoUscita, genere, valutazione, statoVisione);
-
-        // Aggiungi il film tramite il controller
         return controller.aggiungiFilmInterno(filmAggiunto);
     }
 
@@ -60,9 +54,19 @@ public class AggiungiFilmCommand implements Command {
      */
     @Override
     public void undo() {
-        if (filmAggiunto != null) {
-            controller.eliminaFilmInterno(filmAggiunto);
-        }
+        controller.eliminaFilmInterno(filmAggiunto);
+    }
+
+    /**
+     * Stima la memoria trattenuta dal comando: il film creato.
+     */
+    @Override
+    public long getDimensioneStimata() {
+        return StimaMemoria.OGGETTO + StimaMemoria.RIFERIMENTO * 2 + StimaMemoria.film(filmAggiunto);
+    }
+
+    Film getFilm() {
+        return filmAggiunto;
     }
 
     /**
@@ -72,7 +76,7 @@ public class AggiungiFilmCommand implements Command {
      */
     @Override
     public String getDescription() {
-        return "Aggiunta film: " + titolo + " (" + regista + ")";
+        return "Aggiunta film: " + filmAggiunto.getTitolo() + " (" + filmAggiunto.getRegista() + ")";
     }
 
 }
@@ -0,0 +1,87 @@
+package command;
+
+import controller.FilmController;
+import model.Film;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Comando per l'aggiunta di più films alla videoteca in un'unica operazione.
+ * L'intera aggiunta viene annullata e ripristinata come un solo comando.
+ */
+public class AggiungiFilmsCommand implements Command {
+
+    private final FilmController controller;
+    private final List<Film> films;
+    private List<Film> filmsAggiunti; // Films effettivamente aggiunti, da rimuovere nell'undo
+
+    /**
+     * Costruttore che inizializza il comando con i films da aggiungere.
+     *
+     * @param controller Controller della videoteca
+     * @param films      Films da aggiungere
+     */
+    public AggiungiFilmsCommand(FilmController controller, List<Film> films) {
+        this.controller = controller;
+        this.films = new ArrayList<>(films);
+        this.filmsAggiunti = new ArrayList<>();
+    }
+
+    /**
+     * Costruttore usato per ricostruire il comando dalla cronologia persistente.
+     */
+    AggiungiFilmsCommand(FilmController controller, List<Film> films, List<Film> filmsAggiunti) {
+        this.controller = controller;
+        this.films = films;
+        this.filmsAggiunti = filmsAggiunti;
+    }
+
+    /**
+     * Esegue il comando aggiungendo i films alla videoteca.
+     * I films già presenti vengono ignorati.
+     *
+     * @return true se almeno un film è stato aggiunto, false altrimenti
+     */
+    @Override
+    public boolean execute() {
+        filmsAggiunti = controller.aggiungiFilmsInterno(films);
+        return !filmsAggiunti.isEmpty();
+    }
+
+    /**
+     * Annulla il comando eliminando tutti i films aggiunti.
+     */
+    @Override
+    public void undo() {
+        controller.eliminaFilmsInterno(filmsAggiunti);
+    }
+
+    /**
+     * Stima la memoria trattenuta dal comando: i films da aggiungere e la lista di quelli aggiunti.
+     */
+    @Override
+    public long getDimensioneStimata() {
+        return StimaMemoria.OGGETTO + StimaMemoria.RIFERIMENTO * 3 + StimaMemoria.films(films)
+                + StimaMemoria.OGGETTO + StimaMemoria.RIFERIMENTO * filmsAggiunti.size();
+    }
+
+    List<Film> getFilms() {
+        return films;
+    }
+
+    List<Film> getFilmsAggiunti() {
+        return filmsAggiunti;
+    }
+
+    /**
+     * Restituisce una descrizione del comando.
+     *
+     * @return Descrizione testuale del comando
+     */
+    @Override
+    public String getDescription() {
+        return "Aggiunta di " + films.size() + " films";
+    }
+
+}
@@ -0,0 +1,71 @@
+package command;
+
+import controller.CatalogoFilm;
+import controller.FilmController;
+
+/**
+ * Comando per la sostituzione della videoteca con un catalogo caricato da file.
+ * Implementa l'interfaccia Command per supportare le operazioni di undo/redo:
+ * il file viene letto una sola volta, prima dell'esecuzione, e undo e redo scambiano
+ * semplicemente il catalogo corrente con quello conservato.
+ */
+public class CaricaVideotecaCommand implements Command {
+
+    private final FilmController controller;
+    private final CatalogoFilm catalogoCaricato;
+    private final String percorsoFile;
+    private CatalogoFilm catalogoPrecedente; // Catalogo da ripristinare nell'undo
+
+    /**
+     * Costruttore che inizializza il comando con il catalogo già letto dal file.
+     *
+     * @param controller       Controller della videoteca
+     * @param catalogoCaricato Catalogo letto dal file
+     * @param percorsoFile     Percorso del file, usato nella descrizione
+     */
+    public CaricaVideotecaCommand(FilmController controller, CatalogoFilm catalogoCaricato, String percorsoFile) {
+        this.controller = controller;
+        this.catalogoCaricato = catalogoCaricato;
+        this.percorsoFile = percorsoFile;
+    }
+
+    /**
+     * Esegue il comando sostituendo la videoteca con il catalogo caricato.
+     */
+    @Override
+    public boolean execute() {
+        catalogoPrecedente = controller.getCatalogoInterno();
+        controller.ripristinaCatalogoInterno(catalogoCaricato);
+        return true;
+    }
+
+    /**
+     * Annulla il comando ripristinando il catalogo precedente al caricamento.
+     */
+    @Override
+    public void undo() {
+        if (catalogoPrecedente != null) {
+            controller.ripristinaCatalogoInterno(catalogoPrecedente);
+        }
+    }
+
+    /**
+     * Stima la memoria trattenuta dal comando: il catalogo sostituito, che dopo il caricamento
+     * resta raggiungibile solo dalla cronologia.
+     */
+    @Override
+    public long getDimensioneStimata() {
+        return StimaMemoria.OGGETTO + StimaMemoria.RIFERIMENTO * 4 + StimaMemoria.catalogo(catalogoPrecedente);
+    }
+
+    /**
+     * Restituisce una descrizione del comando.
+     *
+     * @return Descrizione testuale del comando
+     */
+    @Override
+    public String getDescription() {
+        return "Caricamento videoteca: " + percorsoFile;
+    }
+
+}
@@ -23,4 +23,14 @@ public interface Command {
      */
     String getDescription();
 
+    /**
+     * Restituisce una stima della memoria, in byte, trattenuta dal comando finché resta nella cronologia.
+     * Usata dal CommandManager per rispettare il budget di memoria della cronologia undo/redo.
+     *
+     * @return Dimensione stimata in byte
+     */
+    default long getDimensioneStimata() {
+        return StimaMemoria.OGGETTO + StimaMemoria.RIFERIMENTO;
+    }
+
 }
@@ -1,36 +1,127 @@
 package command;
 
-import java.util.Stack;
+import controller.FilmController;
+import metriche.EventoComando;
+import metriche.Istogramma;
+import metriche.RegistroMetriche;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
 
 /**
  * Gestore dei comandi che implementa funzionalità di undo e redo.
  * Mantiene due stack: uno per le operazioni da annullare (undo) e uno per quelle da ripristinare (redo).
+ * La cronologia è limitata sia nel numero di comandi sia nella memoria stimata che trattengono:
+ * superato uno dei due limiti vengono scartati i comandi più vecchi.
+ * Facoltativamente la cronologia può essere collegata a una CronologiaPersistente, che la conserva
+ * tra una sessione e l'altra: alla riapertura vengono letti subito solo i comandi in cima agli stack,
+ * gli altri vengono ricostruiti dal file solo quando servono.
  */
 public class CommandManager {
 
-    private final Stack<Command> undoStack;
-    private final Stack<Command> redoStack;
+    /**
+     * Numero massimo predefinito di comandi conservati nella cronologia.
+     */
+    public static final int PROFONDITA_PREDEFINITA = 1000;
+
+    /**
+     * Memoria massima predefinita (in byte) trattenuta dai comandi nella cronologia.
+     */
+    public static final long BUDGET_PREDEFINITO_BYTE = 64L * 1024 * 1024;
+
+    // Durate di esecuzione, annullamento e ripristino dei comandi
+    private static final Istogramma TEMPO_ESECUZIONE = RegistroMetriche.getInstance().istogramma("comandi.esecuzione");
+    private static final Istogramma TEMPO_ANNULLAMENTO = RegistroMetriche.getInstance().istogramma("comandi.annullamento");
+    private static final Istogramma TEMPO_RIPRISTINO = RegistroMetriche.getInstance().istogramma("comandi.ripristino");
+
+    /**
+     * Comando nella cronologia con la dimensione stimata al momento dell'inserimento.
+     * Un comando ripristinato dalla cronologia persistente resta nel file (comando null)
+     * finché non viene usato.
+     */
+    private static final class Voce {
+        private Command comando;
+        private final long dimensione;
+        private final long posizione; // inizio del record nel file, -1 se il comando è già in memoria
+
+        private Voce(Command comando) {
+            this.comando = comando;
+            this.dimensione = comando.getDimensioneStimata();
+            this.posizione = -1;
+        }
+
+        private Voce(long posizione, long dimensione) {
+            this.dimensione = dimensione;
+            this.posizione = posizione;
+        }
+    }
+
+    private final Deque<Voce> undoStack;
+    private final Deque<Voce> redoStack;
+    private final int profonditaMassima;
+    private final long budgetMassimoByte;
+    private long byteUsati; // Memoria stimata di tutti i comandi nei due stack
+    private CronologiaPersistente cronologia;  // null se la cronologia non viene salvata
+    private FilmController controllerCronologia; // Controller dei comandi letti dalla cronologia
 
     /**
-     * Costruttore del gestore comandi.
+     * Costruttore del gestore comandi con i limiti predefiniti.
      * Inizializza gli stack di undo e redo.
      */
     public CommandManager() {
-        undoStack = new Stack<>();
-        redoStack = new Stack<>();
+        this(PROFONDITA_PREDEFINITA, BUDGET_PREDEFINITO_BYTE);
+    }
+
+    /**
+     * Costruttore del gestore comandi con limiti personalizzati.
+     *
+     * @param profonditaMassima Numero massimo di comandi conservati (undo + redo)
+     * @param budgetMassimoByte Memoria massima stimata, in byte, trattenuta dai comandi conservati
+     * @throws IllegalArgumentException se uno dei limiti non è positivo
+     */
+    public CommandManager(int profonditaMassima, long budgetMassimoByte) {
+        if (profonditaMassima <= 0 || budgetMassimoByte <= 0) {
+            throw new IllegalArgumentException("I limiti della cronologia devono essere positivi.");
+        }
+        this.undoStack = new ArrayDeque<>();
+        this.redoStack = new ArrayDeque<>();
+        this.profonditaMassima = profonditaMassima;
+        this.budgetMassimoByte = budgetMassimoByte;
     }
 
     /**
      * Esegue un comando e lo aggiunge allo stack di undo.
      * Quando viene eseguito un nuovo comando, lo stack di redo viene svuotato.
+     * Se la cronologia supera i limiti, vengono scartati i comandi più vecchi;
+     * l'ultimo comando eseguito viene comunque conservato.
      *
      * @param command Comando da eseguire
      */
     public boolean executeCommand(Command command) {
+        EventoComando evento = new EventoComando();
+        evento.begin();
+        long inizio = System.nanoTime();
         boolean result = command.execute();
+        TEMPO_ESECUZIONE.registraDa(inizio);
+        evento.registra("esecuzione", command, command::getDescription, result);
         if (result) {
-            undoStack.push(command);
-            redoStack.clear();
+            Voce voce = new Voce(command);
+            inserisci(voce);
+            if (cronologia != null && !FormatoComandi.supporta(command)) {
+                // Il comando non può essere scritto nel file: la cronologia verrà riscritta al prossimo salvataggio
+                chiudiCronologia();
+            } else if (cronologia != null) {
+                try {
+                    cronologia.registraEsecuzione(command, voce.dimensione);
+                } catch (IOException e) {
+                    scollegaCronologia(e);
+                }
+            }
             return true;
         }
         return false;
@@ -47,9 +138,18 @@ public class CommandManager {
             return false;
         }
 
-        Command command = undoStack.pop();
-        command.undo();
-        redoStack.push(command);
+        Command comando = comando(undoStack.peek(), true);
+        if (comando == null) {
+            return false;
+        }
+        EventoComando evento = new EventoComando();
+        evento.begin();
+        long inizio = System.nanoTime();
+        comando.undo();
+        TEMPO_ANNULLAMENTO.registraDa(inizio);
+        evento.registra("annullamento", comando, comando::getDescription, true);
+        redoStack.push(undoStack.pop());
+        registra(CronologiaPersistente.ANNULLAMENTO);
         return true;
     }
 
@@ -64,9 +164,18 @@ public class CommandManager {
             return false;
         }
 
-        Command command = redoStack.pop();
-        command.execute();
-        undoStack.push(command);
+        Command comando = comando(redoStack.peek(), false);
+        if (comando == null) {
+            return false;
+        }
+        EventoComando evento = new EventoComando();
+        evento.begin();
+        long inizio = System.nanoTime();
+        boolean riuscito = comando.execute();
+        TEMPO_RIPRISTINO.registraDa(inizio);
+        evento.registra("ripristino", comando, comando::getDescription, riuscito);
+        undoStack.push(redoStack.pop());
+        registra(CronologiaPersistente.RIPRISTINO);
         return true;
     }
 
@@ -97,7 +206,8 @@ public class CommandManager {
         if (undoStack.isEmpty()) {
             return null;
         }
-        return undoStack.peek().getDescription();
+        Command comando = comando(undoStack.peek(), true);
+        return comando != null ? comando.getDescription() : null;
     }
 
     /**
@@ -109,17 +219,343 @@ public class CommandManager {
         if (redoStack.isEmpty()) {
             return null;
         }
-        return redoStack.peek().getDescription();
+        Command comando = comando(redoStack.peek(), false);
+        return comando != null ? comando.getDescription() : null;
+    }
+
+    /**
+     * Ottiene la memoria stimata trattenuta dai comandi nella cronologia.
+     *
+     * @return Memoria stimata in byte
+     */
+    public long getByteUsati() {
+        return byteUsati;
     }
 
     /**
      * Svuota gli stack di undo e redo.
-     * Usato quando vengono eseguite operazioni che rendono obsoleti i comandi precedenti,
-     * come "Pulisci Videoteca".
+     * Usato quando vengono eseguite operazioni che rendono obsoleti i comandi precedenti.
      */
     public void clearStacks() {
+        svuotaStacks();
+        registra(CronologiaPersistente.SVUOTAMENTO);
+    }
+
+    /**
+     * Collega la cronologia al file indicato e la ripristina allo stato dell'ultimo salvataggio della videoteca,
+     * se l'impronta registrata corrisponde a quella del file della videoteca appena caricato.
+     * Vengono letti subito solo i comandi in cima agli stack, gli altri quando servono.
+     * Se il file non esiste o non contiene una cronologia valida per la videoteca caricata, gli stack e
+     * l'eventuale cronologia già collegata restano invariati e il file non viene creato né modificato:
+     * viene aperto in scrittura solo dopo che la cronologia è stata ripristinata.
+     *
+     * @param percorso               Percorso del file della cronologia
+     * @param controller             Controller a cui collegare i comandi letti dal file
+     * @param lunghezzaCatalogo      Lunghezza del file della videoteca caricato
+     * @param ultimaModificaCatalogo Data di ultima modifica del file della videoteca caricato
+     * @return true se la cronologia è stata ripristinata dal file, false altrimenti
+     * @throws IOException se il file non può essere letto; gli stack restano invariati
+     */
+    public boolean apriCronologia(String percorso, FilmController controller,
+                                  long lunghezzaCatalogo, long ultimaModificaCatalogo) throws IOException {
+        Deque<Voce> undoPrecedente = new ArrayDeque<>(undoStack);
+        Deque<Voce> redoPrecedente = new ArrayDeque<>(redoStack);
+        long bytePrecedenti = byteUsati;
+
+        if (!Files.isRegularFile(Path.of(percorso))) {
+            return false;
+        }
+        CronologiaPersistente nuovaCronologia = null;
+        try {
+            // Ricostruisce gli stack ripetendo le operazioni registrate, fotografandoli a ogni salvataggio
+            svuotaStacks();
+            Deque<Voce> undoSalvato = new ArrayDeque<>();
+            Deque<Voce> redoSalvato = new ArrayDeque<>();
+            long byteSalvati = 0;
+            CronologiaPersistente.Registrazione ultimoSalvataggio = null;
+            int registrazioniSalvate = 0;
+            int registrazioni = 0;
+
+            for (CronologiaPersistente.Registrazione registrazione : CronologiaPersistente.leggiRegistrazioni(percorso)) {
+                registrazioni++;
+                switch (registrazione.tipo) {
+                    case CronologiaPersistente.ESECUZIONE:
+                        inserisci(new Voce(registrazione.posizione, registrazione.dimensione));
+                        break;
+                    case CronologiaPersistente.ANNULLAMENTO:
+                        if (!undoStack.isEmpty()) {
+                            redoStack.push(undoStack.pop());
+                        }
+                        break;
+                    case CronologiaPersistente.RIPRISTINO:
+                        if (!redoStack.isEmpty()) {
+                            undoStack.push(redoStack.pop());
+                        }
+                        break;
+                    case CronologiaPersistente.SVUOTAMENTO:
+                        svuotaStacks();
+                        break;
+                    case CronologiaPersistente.SALVATAGGIO:
+                        undoSalvato = new ArrayDeque<>(undoStack);
+                        redoSalvato = new ArrayDeque<>(redoStack);
+                        byteSalvati = byteUsati;
+                        ultimoSalvataggio = registrazione;
+                        registrazioniSalvate = registrazioni;
+                }
+            }
+
+            svuotaStacks();
+            if (ultimoSalvataggio != null && ultimoSalvataggio.lunghezzaCatalogo == lunghezzaCatalogo
+                    && ultimoSalvataggio.ultimaModificaCatalogo == ultimaModificaCatalogo) {
+                // Le operazioni successive all'ultimo salvataggio non sono nel file della videoteca:
+                // solo ora il file viene aperto in scrittura e troncato dopo il salvataggio
+                nuovaCronologia = CronologiaPersistente.riprendi(percorso, ultimoSalvataggio.fine, registrazioniSalvate);
+                undoStack.addAll(undoSalvato);
+                redoStack.addAll(redoSalvato);
+                byteUsati = byteSalvati;
+            }
+        } finally {
+            if (nuovaCronologia == null) {
+                svuotaStacks();
+                undoStack.addAll(undoPrecedente);
+                redoStack.addAll(redoPrecedente);
+                byteUsati = bytePrecedenti;
+            }
+        }
+
+        if (nuovaCronologia == null) {
+            return false;
+        }
+
+        // La cronologia precedente viene abbandonata senza caricarne i comandi
+        if (cronologia != null) {
+            cronologia.close();
+        }
+        cronologia = nuovaCronologia;
+        controllerCronologia = controller;
+
+        // Solo i comandi in cima agli stack vengono letti subito (servono per le descrizioni)
+        comando(undoStack.peek(), true);
+        comando(redoStack.peek(), false);
+        return true;
+    }
+
+    /**
+     * Registra nella cronologia persistente il salvataggio della videoteca nel file con l'impronta indicata.
+     * Se la cronologia non è collegata al percorso indicato (ad esempio con "Salva con nome"),
+     * il file viene riscritto con i comandi attuali e la cronologia viene collegata ad esso;
+     * lo stesso avviene quando il file contiene troppi record non più utili.
+     *
+     * @param percorso               Percorso del file della cronologia
+     * @param lunghezzaCatalogo      Lunghezza del file della videoteca salvato
+     * @param ultimaModificaCatalogo Data di ultima modifica del file della videoteca salvato
+     * @throws IOException se il file non può essere scritto; la cronologia resta in memoria ma scollegata
+     */
+    public void registraSalvataggio(String percorso, long lunghezzaCatalogo, long ultimaModificaCatalogo)
+            throws IOException {
+        try {
+            boolean stessoFile = cronologia != null && cronologia.getPercorso().equals(percorso);
+            if (!stessoFile || cronologia.richiedeCompattazione(undoStack.size() + redoStack.size())) {
+                riscriviCronologia(stessoFile ? cronologia : new CronologiaPersistente(percorso));
+            }
+            cronologia.registraSalvataggio(lunghezzaCatalogo, ultimaModificaCatalogo);
+        } catch (IOException e) {
+            chiudiCronologia();
+            throw e;
+        }
+    }
+
+    /**
+     * Scollega la cronologia persistente, lasciando invariati gli stack in memoria.
+     * I comandi non ancora letti dal file vengono caricati prima di chiuderlo.
+     */
+    public void chiudiCronologia() {
+        if (cronologia == null) {
+            return;
+        }
+        try {
+            caricaTutti();
+        } catch (IOException e) {
+            svuotaStacks();
+        }
+        try {
+            cronologia.close();
+        } catch (IOException e) {
+            System.err.println("Errore durante la chiusura della cronologia: " + e.getMessage());
+        }
+        cronologia = null;
+        controllerCronologia = null;
+    }
+
+    /**
+     * Verifica se la cronologia è collegata a un file.
+     *
+     * @return true se ogni operazione viene registrata nella cronologia persistente
+     */
+    public boolean isCronologiaCollegata() {
+        return cronologia != null;
+    }
+
+    /**
+     * Inserisce un comando eseguito nello stack di undo, svuotando quello di redo e applicando i limiti.
+     */
+    private void inserisci(Voce voce) {
+        svuota(redoStack);
+        undoStack.push(voce);
+        byteUsati += voce.dimensione;
+        applicaLimiti();
+    }
+
+    /**
+     * Svuota entrambi gli stack senza registrare l'operazione.
+     */
+    private void svuotaStacks() {
         undoStack.clear();
         redoStack.clear();
+        byteUsati = 0;
+    }
+
+    /**
+     * Restituisce il comando di una voce, leggendolo dalla cronologia persistente se necessario.
+     * Se la lettura fallisce la cronologia viene scollegata e svuotata, e viene restituito null.
+     */
+    private Command comando(Voce voce, boolean eseguito) {
+        if (voce == null || voce.comando != null) {
+            return voce != null ? voce.comando : null;
+        }
+        try {
+            voce.comando = cronologia.leggiComando(voce.posizione, controllerCronologia, eseguito);
+            return voce.comando;
+        } catch (IOException e) {
+            // Senza il file non è possibile ricostruire i comandi: la cronologia riparte vuota
+            svuotaStacks();
+            scollegaCronologia(e);
+            return null;
+        }
+    }
+
+    /**
+     * Carica in memoria tutti i comandi ancora nel file della cronologia.
+     */
+    private void caricaTutti() throws IOException {
+        for (Voce voce : undoStack) {
+            if (voce.comando == null) {
+                voce.comando = cronologia.leggiComando(voce.posizione, controllerCronologia, true);
+            }
+        }
+        for (Voce voce : redoStack) {
+            if (voce.comando == null) {
+                voce.comando = cronologia.leggiComando(voce.posizione, controllerCronologia, false);
+            }
+        }
+    }
+
+    /**
+     * Riscrive la destinazione con i soli comandi presenti negli stack e vi collega la cronologia.
+     */
+    private void riscriviCronologia(CronologiaPersistente destinazione) throws IOException {
+        try {
+            if (cronologia != null) {
+                caricaTutti();
+            }
+            scriviComandi(destinazione);
+        } catch (IOException e) {
+            if (destinazione != cronologia) {
+                destinazione.close();
+            }
+            throw e;
+        }
+
+        if (cronologia != destinazione) {
+            FilmController controller = controllerCronologia;
+            chiudiCronologia();
+            controllerCronologia = controller;
+        }
+        cronologia = destinazione;
+    }
+
+    /**
+     * Scrive nella destinazione i comandi degli stack, nell'ordine in cui vanno ripetuti.
+     * Vengono scritti solo i comandi raggiungibili dallo stato corrente senza attraversare un comando
+     * che non può essere salvato su file (ad esempio un caricamento o una pulizia della videoteca).
+     */
+    private void scriviComandi(CronologiaPersistente destinazione) throws IOException {
+        List<Voce> annullabili = new ArrayList<>();
+        for (Voce voce : undoStack) {
+            if (!FormatoComandi.supporta(voce.comando)) {
+                break;
+            }
+            annullabili.add(0, voce);
+        }
+        List<Voce> ripristinabili = new ArrayList<>();
+        for (Voce voce : redoStack) {
+            if (!FormatoComandi.supporta(voce.comando)) {
+                break;
+            }
+            ripristinabili.add(voce);
+        }
+
+        List<Command> comandi = new ArrayList<>();
+        List<Long> dimensioni = new ArrayList<>();
+        for (Voce voce : annullabili) {
+            comandi.add(voce.comando);
+            dimensioni.add(voce.dimensione);
+        }
+        for (Voce voce : ripristinabili) {
+            comandi.add(voce.comando);
+            dimensioni.add(voce.dimensione);
+        }
+        destinazione.riscrivi(comandi, dimensioni, ripristinabili.size());
+    }
+
+    /**
+     * Registra un'operazione senza contenuto nella cronologia persistente, se collegata.
+     */
+    private void registra(byte operazione) {
+        if (cronologia == null) {
+            return;
+        }
+        try {
+            if (operazione == CronologiaPersistente.ANNULLAMENTO) {
+                cronologia.registraAnnullamento();
+            } else if (operazione == CronologiaPersistente.RIPRISTINO) {
+                cronologia.registraRipristino();
+            } else {
+                cronologia.registraSvuotamento();
+            }
+        } catch (IOException e) {
+            scollegaCronologia(e);
+        }
+    }
+
+    /**
+     * Scollega la cronologia persistente dopo un errore di scrittura o lettura.
+     */
+    private void scollegaCronologia(IOException causa) {
+        System.err.println("Cronologia non più salvata su file: " + causa.getMessage());
+        chiudiCronologia();
+    }
+
+    /**
+     * Svuota uno stack aggiornando la memoria usata.
+     */
+    private void svuota(Deque<Voce> stack) {
+        for (Voce voce : stack) {
+            byteUsati -= voce.dimensione;
+        }
+        stack.clear();
+    }
+
+    /**
+     * Scarta i comandi più vecchi dello stack di undo finché la cronologia rientra nei limiti
+     * di profondità e memoria. Viene chiamato solo dopo un nuovo comando, quando lo stack di redo è vuoto;
+     * l'ultimo comando eseguito resta sempre.
+     */
+    private void applicaLimiti() {
+        while (undoStack.size() > 1
+                && (undoStack.size() > profonditaMassima || byteUsati > budgetMassimoByte)) {
+            byteUsati -= undoStack.removeLast().dimensione;
+        }
     }
 
 }
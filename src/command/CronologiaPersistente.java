@@ -0,0 +1,299 @@
+package command;
+
+import controller.FilmController;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cronologia dei comandi salvata in un file binario affiancato al file della videoteca.
+ * Il file è un registro in sola aggiunta: ogni comando eseguito, annullato o ripristinato viene
+ * scritto subito come record compatto, senza riscrivere quelli precedenti.
+ * Un record di salvataggio memorizza l'impronta (lunghezza e data di modifica) del file della videoteca
+ * salvato in quel momento, così che alla riapertura la cronologia possa essere riportata allo stato
+ * corrispondente al contenuto del file.
+ */
+public class CronologiaPersistente implements Closeable {
+
+    /**
+     * Estensione aggiunta al percorso del file della videoteca per ottenere quello della cronologia.
+     */
+    public static final String ESTENSIONE = ".cronologia";
+
+    private static final int MAGIC = 0x56444843; // "VDHC"
+    private static final byte VERSIONE_FORMATO = 3;
+    static final long LUNGHEZZA_INTESTAZIONE = 5;
+
+    static final byte ESECUZIONE = 1;
+    static final byte ANNULLAMENTO = 2;
+    static final byte RIPRISTINO = 3;
+    static final byte SVUOTAMENTO = 4;
+    static final byte SALVATAGGIO = 5;
+
+    /**
+     * Record letto dal file. Per i comandi viene letta solo l'intestazione, non il contenuto.
+     */
+    static final class Registrazione {
+        final byte tipo;
+        final long posizione;              // inizio del record nel file
+        final long fine;                   // primo byte dopo il record
+        final long dimensione;             // dimensione stimata del comando (solo ESECUZIONE)
+        final long lunghezzaCatalogo;      // impronta del file della videoteca (solo SALVATAGGIO)
+        final long ultimaModificaCatalogo;
+
+        private Registrazione(byte tipo, long posizione, long fine, long dimensione,
+                              long lunghezzaCatalogo, long ultimaModificaCatalogo) {
+            this.tipo = tipo;
+            this.posizione = posizione;
+            this.fine = fine;
+            this.dimensione = dimensione;
+            this.lunghezzaCatalogo = lunghezzaCatalogo;
+            this.ultimaModificaCatalogo = ultimaModificaCatalogo;
+        }
+    }
+
+    private final String percorso;
+    private final RandomAccessFile file;
+    private int numeroRegistrazioni;
+
+    /**
+     * Apre in scrittura (o crea) il file della cronologia. Un file nuovo riceve l'intestazione; il contenuto
+     * di un file esistente non viene modificato finché la cronologia non lo riscrive con {@link #riscrivi}.
+     *
+     * @param percorso Percorso del file della cronologia
+     * @throws IOException se il file non può essere aperto
+     */
+    public CronologiaPersistente(String percorso) throws IOException {
+        this.percorso = percorso;
+        this.file = new RandomAccessFile(percorso, "rw");
+        if (file.length() == 0) {
+            svuota();
+        }
+    }
+
+    /**
+     * Apre in scrittura un file della cronologia già letto con {@link #leggiRegistrazioni(String)},
+     * scartando i record successivi a quelli ripristinati.
+     *
+     * @param percorso     Percorso del file della cronologia
+     * @param fine         Fine dell'ultimo record da conservare
+     * @param registrazioni Numero di record conservati
+     */
+    static CronologiaPersistente riprendi(String percorso, long fine, int registrazioni) throws IOException {
+        CronologiaPersistente cronologia = new CronologiaPersistente(percorso);
+        try {
+            if (!cronologia.intestazioneValida()) {
+                throw new IOException("Il file della cronologia è cambiato durante l'apertura: " + percorso);
+            }
+            if (cronologia.file.length() > fine) {
+                cronologia.tronca(fine);
+            }
+        } catch (IOException e) {
+            cronologia.close();
+            throw e;
+        }
+        cronologia.numeroRegistrazioni = registrazioni;
+        return cronologia;
+    }
+
+    /**
+     * Restituisce il percorso del file della cronologia.
+     */
+    public String getPercorso() {
+        return percorso;
+    }
+
+    /**
+     * Restituisce il percorso della cronologia associata a un file della videoteca.
+     *
+     * @param percorsoCatalogo Percorso del file della videoteca
+     * @return Percorso del file della cronologia
+     */
+    public static String percorsoPer(String percorsoCatalogo) {
+        return percorsoCatalogo + ESTENSIONE;
+    }
+
+    /**
+     * Legge le intestazioni di tutti i record di un file della cronologia, saltando il contenuto dei comandi.
+     * Il file viene solo letto: un record incompleto in fondo (scrittura interrotta) viene ignorato
+     * insieme a quanto segue, e un file senza intestazione valida non contiene registrazioni.
+     *
+     * @param percorso Percorso del file della cronologia
+     * @return Registrazioni in ordine, vuota se il file non è una cronologia
+     * @throws IOException se il file non può essere letto
+     */
+    static List<Registrazione> leggiRegistrazioni(String percorso) throws IOException {
+        List<Registrazione> registrazioni = new ArrayList<>();
+        long posizione = LUNGHEZZA_INTESTAZIONE;
+        long lunghezzaFile = new File(percorso).length();
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(percorso)))) {
+            if (lunghezzaFile < LUNGHEZZA_INTESTAZIONE || in.readInt() != MAGIC || in.readByte() != VERSIONE_FORMATO) {
+                return registrazioni;
+            }
+            while (posizione < lunghezzaFile) {
+                byte tipo = in.readByte();
+                long fine = posizione + 1;
+                long dimensione = 0;
+                long lunghezzaCatalogo = 0;
+                long ultimaModificaCatalogo = 0;
+
+                if (tipo == ESECUZIONE) {
+                    int lunghezza = in.readInt();
+                    dimensione = in.readLong();
+                    if (lunghezza < 0 || fine + 12 + lunghezza > lunghezzaFile) {
+                        break;
+                    }
+                    in.skipNBytes(lunghezza);
+                    fine += 12 + lunghezza;
+                } else if (tipo == SALVATAGGIO) {
+                    lunghezzaCatalogo = in.readLong();
+                    ultimaModificaCatalogo = in.readLong();
+                    fine += 16;
+                } else if (tipo != ANNULLAMENTO && tipo != RIPRISTINO && tipo != SVUOTAMENTO) {
+                    break;
+                }
+
+                registrazioni.add(new Registrazione(tipo, posizione, fine, dimensione,
+                        lunghezzaCatalogo, ultimaModificaCatalogo));
+                posizione = fine;
+            }
+        } catch (EOFException e) {
+            // Record incompleto: viene ignorato insieme a quanto segue
+        }
+        return registrazioni;
+    }
+
+    /**
+     * Legge e ricostruisce il comando memorizzato nel record che inizia alla posizione indicata.
+     *
+     * @param posizione  Inizio del record di esecuzione
+     * @param controller Controller a cui collegare il comando
+     * @param eseguito   true se il comando si trova nello stack di undo, false se in quello di redo
+     */
+    Command leggiComando(long posizione, FilmController controller, boolean eseguito) throws IOException {
+        file.seek(posizione);
+        if (file.readByte() != ESECUZIONE) {
+            throw new IOException("Record di comando non valido nella cronologia: " + percorso);
+        }
+        byte[] dati = new byte[file.readInt()];
+        file.readLong();
+        file.readFully(dati);
+        return FormatoComandi.deserializza(dati, controller, eseguito);
+    }
+
+    /**
+     * Registra l'esecuzione di un nuovo comando.
+     *
+     * @param comando    Comando eseguito
+     * @param dimensione Memoria stimata del comando, usata per ripristinare i limiti della cronologia
+     */
+    void registraEsecuzione(Command comando, long dimensione) throws IOException {
+        byte[] dati = FormatoComandi.serializza(comando);
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(13 + dati.length);
+        DataOutputStream out = new DataOutputStream(buffer);
+        out.writeByte(ESECUZIONE);
+        out.writeInt(dati.length);
+        out.writeLong(dimensione);
+        out.write(dati);
+        aggiungi(buffer.toByteArray());
+    }
+
+    void registraAnnullamento() throws IOException {
+        aggiungi(new byte[]{ANNULLAMENTO});
+    }
+
+    void registraRipristino() throws IOException {
+        aggiungi(new byte[]{RIPRISTINO});
+    }
+
+    void registraSvuotamento() throws IOException {
+        aggiungi(new byte[]{SVUOTAMENTO});
+    }
+
+    /**
+     * Registra il salvataggio del file della videoteca con la sua impronta.
+     */
+    void registraSalvataggio(long lunghezzaCatalogo, long ultimaModificaCatalogo) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(17);
+        DataOutputStream out = new DataOutputStream(buffer);
+        out.writeByte(SALVATAGGIO);
+        out.writeLong(lunghezzaCatalogo);
+        out.writeLong(ultimaModificaCatalogo);
+        aggiungi(buffer.toByteArray());
+    }
+
+    /**
+     * Riscrive da zero il file con i soli comandi ancora presenti nella cronologia.
+     *
+     * @param comandi           Comandi in ordine di esecuzione: lo stack di undo dal più vecchio,
+     *                          seguito dallo stack di redo dal prossimo da ripristinare
+     * @param dimensioni        Memoria stimata di ciascun comando
+     * @param numeroAnnullati   Numero di comandi finali da registrare come annullati (lo stack di redo)
+     */
+    void riscrivi(List<Command> comandi, List<Long> dimensioni, int numeroAnnullati) throws IOException {
+        svuota();
+        for (int i = 0; i < comandi.size(); i++) {
+            registraEsecuzione(comandi.get(i), dimensioni.get(i));
+        }
+        for (int i = 0; i < numeroAnnullati; i++) {
+            registraAnnullamento();
+        }
+    }
+
+    /**
+     * Verifica se il file contiene molti più record di quelli ancora utili e conviene riscriverlo.
+     *
+     * @param comandiVivi Numero di comandi attualmente nella cronologia
+     */
+    boolean richiedeCompattazione(int comandiVivi) {
+        return numeroRegistrazioni > 2 * comandiVivi + 64;
+    }
+
+    /**
+     * Tronca il file alla lunghezza indicata, scartando i record successivi.
+     */
+    void tronca(long lunghezza) throws IOException {
+        file.setLength(lunghezza);
+    }
+
+    /**
+     * Riporta il file alla sola intestazione.
+     */
+    void svuota() throws IOException {
+        file.setLength(0);
+        file.seek(0);
+        file.writeInt(MAGIC);
+        file.writeByte(VERSIONE_FORMATO);
+        numeroRegistrazioni = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+
+    private void aggiungi(byte[] record) throws IOException {
+        file.seek(file.length());
+        file.write(record);
+        numeroRegistrazioni++;
+    }
+
+    private boolean intestazioneValida() throws IOException {
+        if (file.length() < LUNGHEZZA_INTESTAZIONE) {
+            return false;
+        }
+        file.seek(0);
+        return file.readInt() == MAGIC && file.readByte() == VERSIONE_FORMATO;
+    }
+}
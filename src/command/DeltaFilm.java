@@ -0,0 +1,212 @@
+package command;
+
+import model.Film;
+import model.PoolStringhe;
+import model.StatoVisione;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Differenza tra due versioni dello stesso film.
+ * Conserva solo i campi effettivamente modificati, ciascuno con il valore precedente e quello nuovo,
+ * così che un comando di modifica non debba trattenere due copie complete del film.
+ */
+final class DeltaFilm {
+
+    private static final int TITOLO = 0;
+    private static final int REGISTA = 1;
+    private static final int ANNO_USCITA = 2;
+    private static final int GENERE = 3;
+    private static final int VALUTAZIONE = 4;
+    private static final int STATO_VISIONE = 5;
+    private static final int NUMERO_CAMPI = 6;
+
+    private final byte campiModificati; // bit i = campo i modificato
+    private final Object[] valori;      // per ogni campo modificato, in ordine: valore precedente, valore nuovo
+
+    private DeltaFilm(byte campiModificati, Object[] valori) {
+        this.campiModificati = campiModificati;
+        this.valori = valori;
+    }
+
+    /**
+     * Calcola la differenza tra un film e i nuovi valori dei suoi campi.
+     * Genere e regista vengono condivisi tramite il PoolStringhe.
+     */
+    static DeltaFilm tra(Film prima, String titolo, String regista, String annoUscita, String genere,
+                         int valutazione, StatoVisione statoVisione) {
+        Object[] vecchi = valoriDi(prima);
+        Object[] nuovi = {titolo, PoolStringhe.condividi(regista), annoUscita, PoolStringhe.condividi(genere),
+                valutazione, statoVisione};
+
+        int maschera = 0;
+        int modificati = 0;
+        for (int i = 0; i < NUMERO_CAMPI; i++) {
+            if (!vecchi[i].equals(nuovi[i])) {
+                maschera |= 1 << i;
+                modificati++;
+            }
+        }
+
+        Object[] valori = new Object[modificati * 2];
+        int j = 0;
+        for (int i = 0; i < NUMERO_CAMPI; i++) {
+            if ((maschera & (1 << i)) != 0) {
+                valori[j++] = i == REGISTA || i == GENERE ? PoolStringhe.condividi((String) vecchi[i]) : vecchi[i];
+                valori[j++] = nuovi[i];
+            }
+        }
+        return new DeltaFilm((byte) maschera, valori);
+    }
+
+    /**
+     * Verifica se la differenza non modifica alcun campo.
+     */
+    boolean isVuota() {
+        return campiModificati == 0;
+    }
+
+    /**
+     * Costruisce la versione modificata a partire dalla versione precedente del film.
+     */
+    Film applica(Film prima) {
+        return costruisci(prima, 1);
+    }
+
+    /**
+     * Ricostruisce la versione precedente a partire dalla versione modificata del film.
+     */
+    Film annulla(Film dopo) {
+        return costruisci(dopo, 0);
+    }
+
+    /**
+     * Restituisce il titolo della versione precedente o modificata, dato il film nell'altra versione
+     * o nella stessa versione richiesta.
+     *
+     * @param film          Film da cui leggere il titolo se non è stato modificato
+     * @param versioneNuova true per il titolo dopo la modifica, false per quello precedente
+     */
+    String getTitolo(Film film, boolean versioneNuova) {
+        if ((campiModificati & (1 << TITOLO)) == 0) {
+            return film.getTitolo();
+        }
+        return (String) valori[versioneNuova ? 1 : 0]; // Il titolo, se modificato, è sempre la prima coppia
+    }
+
+    /**
+     * Stima la memoria occupata dalla differenza. Generi e registi condivisi nel pool non vengono contati,
+     * così come i valori nuovi, che appartengono al film nella videoteca.
+     */
+    long getDimensioneStimata() {
+        long totale = StimaMemoria.OGGETTO + StimaMemoria.RIFERIMENTO * 2
+                + StimaMemoria.OGGETTO + StimaMemoria.RIFERIMENTO * valori.length;
+        int j = 0;
+        for (int i = 0; i < NUMERO_CAMPI; i++) {
+            if ((campiModificati & (1 << i)) != 0) {
+                if (i == TITOLO || i == ANNO_USCITA) {
+                    totale += StimaMemoria.stringa((String) valori[j * 2]);
+                }
+                j++;
+            }
+        }
+        return totale;
+    }
+
+    /**
+     * Scrive la differenza in formato binario: la maschera dei campi modificati seguita,
+     * per ogni campo modificato, dal valore precedente e da quello nuovo.
+     */
+    void scrivi(DataOutput out) throws IOException {
+        out.writeByte(campiModificati);
+        int j = 0;
+        for (int i = 0; i < NUMERO_CAMPI; i++) {
+            if ((campiModificati & (1 << i)) != 0) {
+                scriviValore(out, i, valori[j++]);
+                scriviValore(out, i, valori[j++]);
+            }
+        }
+    }
+
+    /**
+     * Legge una differenza scritta con scrivi.
+     */
+    static DeltaFilm leggi(DataInput in) throws IOException {
+        byte maschera = in.readByte();
+        Object[] valori = new Object[Integer.bitCount(maschera & 0xFF) * 2];
+        int j = 0;
+        for (int i = 0; i < NUMERO_CAMPI; i++) {
+            if ((maschera & (1 << i)) != 0) {
+                valori[j++] = leggiValore(in, i);
+                valori[j++] = leggiValore(in, i);
+            }
+        }
+        return new DeltaFilm(maschera, valori);
+    }
+
+    private static void scriviValore(DataOutput out, int campo, Object valore) throws IOException {
+        if (campo == VALUTAZIONE) {
+            out.writeByte((Integer) valore);
+        } else if (campo == STATO_VISIONE) {
+            out.writeByte(((StatoVisione) valore).ordinal());
+        } else {
+            out.writeUTF((String) valore);
+        }
+    }
+
+    private static Object leggiValore(DataInput in, int campo) throws IOException {
+        if (campo == VALUTAZIONE) {
+            return (int) in.readByte();
+        } else if (campo == STATO_VISIONE) {
+            return StatoVisione.values()[in.readByte()];
+        } else if (campo == REGISTA || campo == GENERE) {
+            return PoolStringhe.condividi(in.readUTF());
+        }
+        return in.readUTF();
+    }
+
+    /**
+     * Sostituisce nei valori del film quelli della versione indicata (0 = precedente, 1 = nuova).
+     */
+    private Film costruisci(Film base, int versione) {
+        Object[] campi = valoriDi(base);
+        int j = 0;
+        for (int i = 0; i < NUMERO_CAMPI; i++) {
+            if ((campiModificati & (1 << i)) != 0) {
+                campi[i] = valori[j * 2 + versione];
+                j++;
+            }
+        }
+        return new Film((String) campi[TITOLO], (String) campi[REGISTA], (String) campi[ANNO_USCITA],
+                (String) campi[GENERE], (Integer) campi[VALUTAZIONE], (StatoVisione) campi[STATO_VISIONE]);
+    }
+
+    /**
+     * Due differenze sono uguali se modificano gli stessi campi con gli stessi valori:
+     * una modifica multipla può così condividere un'unica istanza tra i films con gli stessi valori precedenti.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof DeltaFilm)) {
+            return false;
+        }
+        DeltaFilm altra = (DeltaFilm) o;
+        return campiModificati == altra.campiModificati && Arrays.equals(valori, altra.valori);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * campiModificati + Arrays.hashCode(valori);
+    }
+
+    private static Object[] valoriDi(Film film) {
+        return new Object[]{film.getTitolo(), film.getRegista(), film.getAnnoUscita(), film.getGenere(),
+                film.getValutazione(), film.getStatoVisione()};
+    }
+}
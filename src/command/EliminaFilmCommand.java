@@ -39,6 +39,18 @@ public class EliminaFilmCommand implements Command {
         controller.aggiungiFilmInterno(film);
     }
 
+    /**
+     * Stima la memoria trattenuta dal comando: il film eliminato.
+     */
+    @Override
+    public long getDimensioneStimata() {
+        return StimaMemoria.OGGETTO + StimaMemoria.RIFERIMENTO * 2 + StimaMemoria.film(film);
+    }
+
+    Film getFilm() {
+        return film;
+    }
+
     /**
      * Restituisce una descrizione del comando.
      *
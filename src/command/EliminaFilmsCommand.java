@@ -0,0 +1,86 @@
+package command;
+
+import controller.FilmController;
+import model.Film;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Comando per l'eliminazione di più films dalla videoteca in un'unica operazione.
+ * L'intera eliminazione viene annullata e ripristinata come un solo comando.
+ */
+public class EliminaFilmsCommand implements Command {
+
+    private final FilmController controller;
+    private final List<Film> films;
+    private List<Film> filmsEliminati; // Films effettivamente eliminati, da reinserire nell'undo
+
+    /**
+     * Costruttore che inizializza il comando con i films da eliminare.
+     *
+     * @param controller Controller della videoteca
+     * @param films      Films da eliminare
+     */
+    public EliminaFilmsCommand(FilmController controller, List<Film> films) {
+        this.controller = controller;
+        this.films = new ArrayList<>(films);
+        this.filmsEliminati = new ArrayList<>();
+    }
+
+    /**
+     * Costruttore usato per ricostruire il comando dalla cronologia persistente.
+     */
+    EliminaFilmsCommand(FilmController controller, List<Film> films, List<Film> filmsEliminati) {
+        this.controller = controller;
+        this.films = films;
+        this.filmsEliminati = filmsEliminati;
+    }
+
+    /**
+     * Esegue il comando eliminando i films dalla videoteca.
+     *
+     * @return true se almeno un film è stato eliminato, false altrimenti
+     */
+    @Override
+    public boolean execute() {
+        filmsEliminati = controller.eliminaFilmsInterno(films);
+        return !filmsEliminati.isEmpty();
+    }
+
+    /**
+     * Annulla il comando aggiungendo nuovamente tutti i films eliminati.
+     */
+    @Override
+    public void undo() {
+        controller.aggiungiFilmsInterno(filmsEliminati);
+    }
+
+    /**
+     * Stima la memoria trattenuta dal comando: i films da eliminare e la lista di quelli eliminati.
+     */
+    @Override
+    public long getDimensioneStimata() {
+        return StimaMemoria.OGGETTO + StimaMemoria.RIFERIMENTO * 3 + StimaMemoria.films(films)
+                + StimaMemoria.OGGETTO + StimaMemoria.RIFERIMENTO * filmsEliminati.size();
+    }
+
+    List<Film> getFilms() {
+        return films;
+    }
+
+    List<Film> getFilmsEliminati() {
+        return filmsEliminati;
+    }
+
+    /**
+     * Restituisce una descrizione del comando.
+     *
+     * @return Descrizione testuale del comando
+     */
+    @Override
+    public String getDescription() {
+        return "Eliminazione di " + films.size() + " films";
+    }
+
+}
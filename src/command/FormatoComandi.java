@@ -0,0 +1,218 @@
+package command;
+
+import controller.FilmController;
+import model.Film;
+import model.PoolStringhe;
+import model.StatoVisione;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Formato binario compatto dei comandi salvati nella cronologia persistente.
+ * Ogni comando viene scritto nella forma "eseguito"; in lettura viene riportato nello stato
+ * richiesto dalla sua posizione nella cronologia (stack di undo o di redo).
+ */
+final class FormatoComandi {
+
+    private static final byte AGGIUNGI_FILM = 1;
+    private static final byte ELIMINA_FILM = 2;
+    private static final byte MODIFICA_FILM = 3;
+    private static final byte AGGIUNGI_FILMS = 4;
+    private static final byte ELIMINA_FILMS = 5;
+    private static final byte MODIFICA_FILMS = 6;
+
+    private static final byte ASSENTE = -1; // valore opzionale non impostato
+
+    private FormatoComandi() {
+    }
+
+    /**
+     * Verifica se un comando può essere scritto nella cronologia persistente.
+     */
+    static boolean supporta(Command comando) {
+        return comando instanceof AggiungiFilmCommand || comando instanceof EliminaFilmCommand
+                || comando instanceof ModificaFilmCommand || comando instanceof AggiungiFilmsCommand
+                || comando instanceof EliminaFilmsCommand || comando instanceof ModificaFilmsCommand;
+    }
+
+    /**
+     * Converte un comando nella sua rappresentazione binaria.
+     *
+     * @throws IOException se il comando non è di un tipo supportato dalla cronologia persistente
+     */
+    static byte[] serializza(Command comando) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(128);
+        DataOutputStream out = new DataOutputStream(buffer);
+
+        if (comando instanceof AggiungiFilmCommand) {
+            out.writeByte(AGGIUNGI_FILM);
+            scriviFilm(out, ((AggiungiFilmCommand) comando).getFilm());
+        } else if (comando instanceof EliminaFilmCommand) {
+            out.writeByte(ELIMINA_FILM);
+            scriviFilm(out, ((EliminaFilmCommand) comando).getFilm());
+        } else if (comando instanceof ModificaFilmCommand) {
+            ModificaFilmCommand modifica = (ModificaFilmCommand) comando;
+            DeltaFilm delta = modifica.getDelta();
+            Film filmCorrente = modifica.getFilmCorrente();
+            out.writeByte(MODIFICA_FILM);
+            scriviFilm(out, modifica.isApplicato() ? filmCorrente : delta.applica(filmCorrente));
+            delta.scrivi(out);
+        } else if (comando instanceof AggiungiFilmsCommand) {
+            AggiungiFilmsCommand aggiunta = (AggiungiFilmsCommand) comando;
+            out.writeByte(AGGIUNGI_FILMS);
+            scriviFilms(out, aggiunta.getFilms());
+            scriviFilms(out, aggiunta.getFilmsAggiunti());
+        } else if (comando instanceof EliminaFilmsCommand) {
+            EliminaFilmsCommand eliminazione = (EliminaFilmsCommand) comando;
+            out.writeByte(ELIMINA_FILMS);
+            scriviFilms(out, eliminazione.getFilms());
+            scriviFilms(out, eliminazione.getFilmsEliminati());
+        } else if (comando instanceof ModificaFilmsCommand) {
+            ModificaFilmsCommand modifica = (ModificaFilmsCommand) comando;
+            if (modifica.getDelta() == null) {
+                throw new IOException("La modifica multipla non è ancora stata eseguita.");
+            }
+            out.writeByte(MODIFICA_FILMS);
+            out.writeInt(modifica.getNumeroFilms());
+            out.writeBoolean(modifica.getNuovoGenere() != null);
+            if (modifica.getNuovoGenere() != null) {
+                out.writeUTF(modifica.getNuovoGenere());
+            }
+            out.writeByte(modifica.getNuovaValutazione() != null ? modifica.getNuovaValutazione() : ASSENTE);
+            out.writeByte(modifica.getNuovoStatoVisione() != null ? modifica.getNuovoStatoVisione().ordinal() : ASSENTE);
+            // Le differenze distinte vengono scritte una sola volta; ogni film, nella versione modificata,
+            // è seguito dall'indice della sua differenza
+            Map<DeltaFilm, Integer> indici = new IdentityHashMap<>();
+            for (DeltaFilm delta : modifica.getDelta()) {
+                indici.putIfAbsent(delta, indici.size());
+            }
+            DeltaFilm[] distinte = new DeltaFilm[indici.size()];
+            indici.forEach((delta, indice) -> distinte[indice] = delta);
+            out.writeInt(distinte.length);
+            for (DeltaFilm delta : distinte) {
+                delta.scrivi(out);
+            }
+            List<Film> filmsCorrenti = modifica.getFilmsCorrenti();
+            out.writeInt(filmsCorrenti.size());
+            for (int i = 0; i < filmsCorrenti.size(); i++) {
+                DeltaFilm delta = modifica.getDelta().get(i);
+                scriviFilm(out, modifica.isApplicato() ? filmsCorrenti.get(i) : delta.applica(filmsCorrenti.get(i)));
+                out.writeInt(indici.get(delta));
+            }
+        } else {
+            throw new IOException("Comando non supportato dalla cronologia persistente: "
+                    + comando.getClass().getName());
+        }
+
+        out.flush();
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Ricostruisce un comando dalla sua rappresentazione binaria.
+     *
+     * @param dati       Dati scritti da serializza
+     * @param controller Controller a cui collegare il comando
+     * @param eseguito   true se il comando si trova nello stack di undo, false se in quello di redo
+     * @throws IOException se i dati non sono validi
+     */
+    static Command deserializza(byte[] dati, FilmController controller, boolean eseguito) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(dati));
+        try {
+            byte tipo = in.readByte();
+            switch (tipo) {
+                case AGGIUNGI_FILM:
+                    return new AggiungiFilmCommand(controller, leggiFilm(in));
+                case ELIMINA_FILM:
+                    return new EliminaFilmCommand(controller, leggiFilm(in));
+                case MODIFICA_FILM: {
+                    Film filmModificato = leggiFilm(in);
+                    DeltaFilm delta = DeltaFilm.leggi(in);
+                    Film filmCorrente = eseguito ? filmModificato : delta.annulla(filmModificato);
+                    return new ModificaFilmCommand(controller, filmCorrente, delta, eseguito);
+                }
+                case AGGIUNGI_FILMS:
+                    return new AggiungiFilmsCommand(controller, leggiFilms(in), leggiFilms(in));
+                case ELIMINA_FILMS:
+                    return new EliminaFilmsCommand(controller, leggiFilms(in), leggiFilms(in));
+                case MODIFICA_FILMS: {
+                    int numeroFilms = in.readInt();
+                    String genere = in.readBoolean() ? PoolStringhe.condividi(in.readUTF()) : null;
+                    byte valutazione = in.readByte();
+                    byte statoVisione = in.readByte();
+                    // Ogni differenza viene letta una sola volta e condivisa dai suoi films, come nel comando eseguito
+                    int numeroDistinte = leggiNumero(in);
+                    List<DeltaFilm> distinte = new ArrayList<>(Math.min(numeroDistinte, 1024));
+                    for (int i = 0; i < numeroDistinte; i++) {
+                        distinte.add(DeltaFilm.leggi(in));
+                    }
+                    int numero = leggiNumero(in);
+                    List<Film> filmsCorrenti = new ArrayList<>(Math.min(numero, 1024));
+                    List<DeltaFilm> differenze = new ArrayList<>(Math.min(numero, 1024));
+                    for (int i = 0; i < numero; i++) {
+                        Film filmModificato = leggiFilm(in);
+                        DeltaFilm delta = distinte.get(in.readInt());
+                        filmsCorrenti.add(eseguito ? filmModificato : delta.annulla(filmModificato));
+                        differenze.add(delta);
+                    }
+                    return new ModificaFilmsCommand(controller, numeroFilms, genere,
+                            valutazione != ASSENTE ? Integer.valueOf(valutazione) : null,
+                            statoVisione != ASSENTE ? StatoVisione.values()[statoVisione] : null,
+                            filmsCorrenti, differenze, eseguito);
+                }
+                default:
+                    throw new IOException("Tipo di comando non valido nella cronologia: " + tipo);
+            }
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IOException("Comando non valido nella cronologia: " + e.getMessage(), e);
+        }
+    }
+
+    private static void scriviFilm(DataOutput out, Film film) throws IOException {
+        out.writeUTF(film.getTitolo());
+        out.writeUTF(film.getRegista());
+        out.writeUTF(film.getAnnoUscita());
+        out.writeUTF(film.getGenere());
+        out.writeByte(film.getValutazione());
+        out.writeByte(film.getStatoVisione().ordinal());
+    }
+
+    private static Film leggiFilm(DataInput in) throws IOException {
+        return new Film(in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF(), in.readByte(),
+                StatoVisione.values()[in.readByte()]);
+    }
+
+    private static void scriviFilms(DataOutput out, List<Film> films) throws IOException {
+        out.writeInt(films.size());
+        for (Film film : films) {
+            scriviFilm(out, film);
+        }
+    }
+
+    private static List<Film> leggiFilms(DataInput in) throws IOException {
+        int numero = leggiNumero(in);
+        List<Film> films = new ArrayList<>(Math.min(numero, 1024));
+        for (int i = 0; i < numero; i++) {
+            films.add(leggiFilm(in));
+        }
+        return films;
+    }
+
+    private static int leggiNumero(DataInput in) throws IOException {
+        int numero = in.readInt();
+        if (numero < 0) {
+            throw new IOException("Numero di films non valido nella cronologia: " + numero);
+        }
+        return numero;
+    }
+}
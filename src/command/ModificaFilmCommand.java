@@ -7,18 +7,15 @@ import model.StatoVisione;
 /**
  * Comando per la modifica di un film esistente nella videoteca.
  * Implementa l'interfaccia Command per supportare le operazioni di undo/redo.
+ * Il comando conserva solo il film attualmente presente nella videoteca e la differenza
+ * con l'altra versione (DeltaFilm): l'altra versione viene ricostruita a ogni undo o redo.
  */
 public class ModificaFilmCommand implements Command {
 
     private final FilmController controller;
-    private final Film filmOriginale;
-    private final String nuovoTitolo;
-    private final String nuovoRegista;
-    private final String nuovoAnnoUscita;
-    private final String nuovoGenere;
-    private final int nuovaValutazione;
-    private final StatoVisione nuovoStatoVisione;
-    private Film filmModificato; // Riferimento al film modificato per l'operazione di undo
+    private final DeltaFilm delta;
+    private Film filmCorrente;  // Versione del film attualmente nella videoteca
+    private boolean applicato;  // true se filmCorrente è la versione modificata
 
     /**
      * Costruttore che inizializza il comando con i dati del film da modificare.
@@ -37,25 +34,37 @@ public class ModificaFilmCommand implements Command {
                                String nuovoAnnoUscita, String nuovoGenere,
                                int nuovaValutazione, StatoVisione nuovoStatoVisione) {
         this.controller = controller;
-        this.filmOriginale = filmOriginale;
-        this.nuovoTitolo = nuovoTitolo;
-        this.nuovoRegista = nuovoRegista;
-        this.nuovoAnnoUscita = nuovoAnnoUscita;
-        this.nuovoGenere = nuovoGenere;
-        this.nuovaValutazione = nuovaValutazione;
-        this.nuovoStatoVisione = nuovoStatoVisione;
+        this.filmCorrente = filmOriginale;
+        this.delta = DeltaFilm.tra(filmOriginale, nuovoTitolo, nuovoRegista, nuovoAnnoUscita, nuovoGenere,
+                nuovaValutazione, nuovoStatoVisione);
+    }
+
+    /**
+     * Costruttore usato per ricostruire il comando dalla cronologia persistente.
+     */
+    ModificaFilmCommand(FilmController controller, Film filmCorrente, DeltaFilm delta, boolean applicato) {
+        this.controller = controller;
+        this.filmCorrente = filmCorrente;
+        this.delta = delta;
+        this.applicato = applicato;
     }
 
     /**
      * Esegue il comando modificando il film nella videoteca.
-     * Crea una copia del film originale per supportare l'operazione di undo.
+     * La versione modificata viene costruita applicando la differenza al film corrente.
      */
     @Override
     public boolean execute() {
-        filmModificato = new Film(nuovoTitolo, nuovoRegista, nuovoAnnoUscita, nuovoGenere,
-                nuovaValutazione, nuovoStatoVisione);
-
-        return controller.modificaFilmInterno(filmOriginale, filmModificato);
+        if (applicato) {
+            return false;
+        }
+        Film filmModificato = delta.applica(filmCorrente);
+        if (!controller.modificaFilmInterno(filmCorrente, filmModificato)) {
+            return false;
+        }
+        filmCorrente = filmModificato;
+        applicato = true;
+        return true;
     }
 
     /**
@@ -63,11 +72,35 @@ public class ModificaFilmCommand implements Command {
      */
     @Override
     public void undo() {
-        if (filmModificato != null) {
-            controller.modificaFilmInterno(filmModificato, filmOriginale);
+        if (applicato) {
+            Film filmOriginale = delta.annulla(filmCorrente);
+            controller.modificaFilmInterno(filmCorrente, filmOriginale);
+            filmCorrente = filmOriginale;
+            applicato = false;
         }
     }
 
+    /**
+     * Stima la memoria trattenuta dal comando: solo la differenza, perché il film corrente
+     * è condiviso con la videoteca.
+     */
+    @Override
+    public long getDimensioneStimata() {
+        return StimaMemoria.OGGETTO + StimaMemoria.RIFERIMENTO * 4 + delta.getDimensioneStimata();
+    }
+
+    Film getFilmCorrente() {
+        return filmCorrente;
+    }
+
+    DeltaFilm getDelta() {
+        return delta;
+    }
+
+    boolean isApplicato() {
+        return applicato;
+    }
+
     /**
      * Restituisce una descrizione del comando.
      *
@@ -75,7 +108,7 @@ public class ModificaFilmCommand implements Command {
      */
     @Override
     public String getDescription() {
-        return "Modifica film: " + filmOriginale.getTitolo() + " -> " + nuovoTitolo;
+        return "Modifica film: " + delta.getTitolo(filmCorrente, false) + " -> " + delta.getTitolo(filmCorrente, true);
     }
 
 }
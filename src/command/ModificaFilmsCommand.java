@@ -0,0 +1,217 @@
+package command;
+
+import controller.FilmController;
+import model.Film;
+import model.PoolStringhe;
+import model.StatoVisione;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Comando per la modifica dello stesso campo su più films in un'unica operazione
+ * (es. "segna tutti i selezionati come visti").
+ * Può modificare genere, valutazione e stato di visione; i campi lasciati a null restano invariati.
+ * Come ModificaFilmCommand, dopo la prima esecuzione il comando conserva solo i films attualmente presenti
+ * nella videoteca e per ciascuno la differenza con l'altra versione (DeltaFilm); i films con gli stessi
+ * valori precedenti condividono la stessa differenza, quindi "valutazione 5" su molti films trattiene
+ * al più poche differenze distinte.
+ */
+public class ModificaFilmsCommand implements Command {
+
+    private final FilmController controller;
+    private final int numeroFilms; // films selezionati, per la descrizione
+    private final String nuovoGenere;
+    private final Integer nuovaValutazione;
+    private final StatoVisione nuovoStatoVisione;
+    private List<Film> daModificare;  // films selezionati, fino alla prima esecuzione
+    private List<Film> filmsCorrenti; // versioni attualmente nella videoteca dei films modificati
+    private List<DeltaFilm> delta;    // differenza di ciascun film, nello stesso ordine
+    private boolean applicato;        // true se filmsCorrenti sono le versioni modificate
+
+    /**
+     * Costruttore che inizializza il comando con i films e i nuovi valori.
+     *
+     * @param controller        Controller della videoteca
+     * @param films             Films da modificare
+     * @param nuovoGenere       Nuovo genere, o null per lasciarlo invariato
+     * @param nuovaValutazione  Nuova valutazione, o null per lasciarla invariata
+     * @param nuovoStatoVisione Nuovo stato visione, o null per lasciarlo invariato
+     */
+    public ModificaFilmsCommand(FilmController controller, List<Film> films, String nuovoGenere,
+                                Integer nuovaValutazione, StatoVisione nuovoStatoVisione) {
+        this.controller = controller;
+        this.numeroFilms = films.size();
+        this.nuovoGenere = PoolStringhe.condividi(nuovoGenere);
+        this.nuovaValutazione = nuovaValutazione;
+        this.nuovoStatoVisione = nuovoStatoVisione;
+        this.daModificare = new ArrayList<>(films);
+    }
+
+    /**
+     * Costruttore usato per ricostruire il comando dalla cronologia persistente.
+     */
+    ModificaFilmsCommand(FilmController controller, int numeroFilms, String nuovoGenere,
+                         Integer nuovaValutazione, StatoVisione nuovoStatoVisione,
+                         List<Film> filmsCorrenti, List<DeltaFilm> delta, boolean applicato) {
+        this.controller = controller;
+        this.numeroFilms = numeroFilms;
+        this.nuovoGenere = nuovoGenere;
+        this.nuovaValutazione = nuovaValutazione;
+        this.nuovoStatoVisione = nuovoStatoVisione;
+        this.filmsCorrenti = filmsCorrenti;
+        this.delta = delta;
+        this.applicato = applicato;
+    }
+
+    /**
+     * Esegue il comando sostituendo ogni film con la versione ottenuta applicando la sua differenza.
+     * I films che hanno già i valori richiesti non vengono toccati.
+     *
+     * @return true se almeno un film è stato modificato, false altrimenti
+     */
+    @Override
+    public boolean execute() {
+        if (applicato) {
+            return false;
+        }
+        if (delta == null) {
+            calcolaDifferenze();
+        }
+        if (filmsCorrenti.isEmpty()) {
+            return false;
+        }
+
+        List<Film> filmsModificati = new ArrayList<>(filmsCorrenti.size());
+        for (int i = 0; i < filmsCorrenti.size(); i++) {
+            filmsModificati.add(delta.get(i).applica(filmsCorrenti.get(i)));
+        }
+        if (controller.modificaFilmsInterno(filmsCorrenti, filmsModificati).isEmpty()) {
+            return false;
+        }
+        filmsCorrenti = filmsModificati;
+        applicato = true;
+        return true;
+    }
+
+    /**
+     * Calcola la differenza di ogni film selezionato con i nuovi valori, scartando i films che li hanno già.
+     * Le differenze uguali vengono condivise; i films selezionati non vengono più trattenuti.
+     */
+    private void calcolaDifferenze() {
+        filmsCorrenti = new ArrayList<>();
+        delta = new ArrayList<>();
+        Map<DeltaFilm, DeltaFilm> condivise = new HashMap<>();
+        for (Film film : daModificare) {
+            String genere = nuovoGenere != null ? nuovoGenere : film.getGenere();
+            int valutazione = nuovaValutazione != null ? nuovaValutazione : film.getValutazione();
+            StatoVisione statoVisione = nuovoStatoVisione != null ? nuovoStatoVisione : film.getStatoVisione();
+
+            DeltaFilm differenza = DeltaFilm.tra(film, film.getTitolo(), film.getRegista(), film.getAnnoUscita(),
+                    genere, valutazione, statoVisione);
+            if (!differenza.isVuota()) {
+                filmsCorrenti.add(film);
+                delta.add(condivise.computeIfAbsent(differenza, d -> d));
+            }
+        }
+        daModificare = null;
+    }
+
+    /**
+     * Annulla il comando ripristinando le versioni originali dei films, ricostruite dalle differenze.
+     */
+    @Override
+    public void undo() {
+        if (applicato) {
+            List<Film> filmsOriginali = new ArrayList<>(filmsCorrenti.size());
+            for (int i = 0; i < filmsCorrenti.size(); i++) {
+                filmsOriginali.add(delta.get(i).annulla(filmsCorrenti.get(i)));
+            }
+            controller.modificaFilmsInterno(filmsCorrenti, filmsOriginali);
+            filmsCorrenti = filmsOriginali;
+            applicato = false;
+        }
+    }
+
+    /**
+     * Stima la memoria trattenuta dal comando: i riferimenti ai films, condivisi con la videoteca,
+     * e le differenze distinte.
+     */
+    @Override
+    public long getDimensioneStimata() {
+        long totale = StimaMemoria.OGGETTO + StimaMemoria.RIFERIMENTO * 9;
+        if (daModificare != null) {
+            totale += StimaMemoria.OGGETTO + StimaMemoria.RIFERIMENTO * daModificare.size();
+        }
+        if (delta != null) {
+            totale += (StimaMemoria.OGGETTO + StimaMemoria.RIFERIMENTO * filmsCorrenti.size()) * 2;
+            Set<DeltaFilm> distinte = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (DeltaFilm differenza : delta) {
+                if (distinte.add(differenza)) {
+                    totale += differenza.getDimensioneStimata();
+                }
+            }
+        }
+        return totale;
+    }
+
+    int getNumeroFilms() {
+        return numeroFilms;
+    }
+
+    String getNuovoGenere() {
+        return nuovoGenere;
+    }
+
+    Integer getNuovaValutazione() {
+        return nuovaValutazione;
+    }
+
+    StatoVisione getNuovoStatoVisione() {
+        return nuovoStatoVisione;
+    }
+
+    /**
+     * Restituisce le versioni dei films modificati attualmente nella videoteca (null prima dell'esecuzione).
+     */
+    List<Film> getFilmsCorrenti() {
+        return filmsCorrenti;
+    }
+
+    /**
+     * Restituisce la differenza di ciascun film modificato (null prima dell'esecuzione).
+     */
+    List<DeltaFilm> getDelta() {
+        return delta;
+    }
+
+    boolean isApplicato() {
+        return applicato;
+    }
+
+    /**
+     * Restituisce una descrizione del comando.
+     *
+     * @return Descrizione testuale del comando
+     */
+    @Override
+    public String getDescription() {
+        List<String> campi = new ArrayList<>();
+        if (nuovoGenere != null) {
+            campi.add("genere " + nuovoGenere);
+        }
+        if (nuovaValutazione != null) {
+            campi.add("valutazione " + (nuovaValutazione == 0 ? "Da valutare" : nuovaValutazione));
+        }
+        if (nuovoStatoVisione != null) {
+            campi.add("stato " + nuovoStatoVisione.getDescrizione());
+        }
+        return "Modifica di " + numeroFilms + " films: " + String.join(", ", campi);
+    }
+
+}
@@ -0,0 +1,64 @@
+package command;
+
+import controller.CatalogoFilm;
+import controller.FilmController;
+
+/**
+ * Comando per la pulizia dell'intera videoteca.
+ * Implementa l'interfaccia Command per supportare le operazioni di undo/redo:
+ * il catalogo precedente è immutabile, quindi basta conservarne il riferimento per poterlo ripristinare.
+ */
+public class PulisciVideotecaCommand implements Command {
+
+    private final FilmController controller;
+    private CatalogoFilm catalogoPrecedente; // Catalogo da ripristinare nell'undo
+
+    /**
+     * Costruttore che inizializza il comando.
+     *
+     * @param controller Controller della videoteca
+     */
+    public PulisciVideotecaCommand(FilmController controller) {
+        this.controller = controller;
+    }
+
+    /**
+     * Esegue il comando rimuovendo tutti i films, dopo aver conservato il catalogo corrente.
+     */
+    @Override
+    public boolean execute() {
+        catalogoPrecedente = controller.getCatalogoInterno();
+        return controller.pulisciVideotecaInterno();
+    }
+
+    /**
+     * Annulla il comando ripristinando il catalogo precedente.
+     */
+    @Override
+    public void undo() {
+        if (catalogoPrecedente != null) {
+            controller.ripristinaCatalogoInterno(catalogoPrecedente);
+        }
+    }
+
+    /**
+     * Stima la memoria trattenuta dal comando: il catalogo rimosso, che dopo la pulizia
+     * resta raggiungibile solo dalla cronologia.
+     */
+    @Override
+    public long getDimensioneStimata() {
+        return StimaMemoria.OGGETTO + StimaMemoria.RIFERIMENTO * 2 + StimaMemoria.catalogo(catalogoPrecedente);
+    }
+
+    /**
+     * Restituisce una descrizione del comando.
+     *
+     * @return Descrizione testuale del comando
+     */
+    @Override
+    public String getDescription() {
+        int numeroFilms = catalogoPrecedente != null ? catalogoPrecedente.dimensione() : 0;
+        return "Pulizia videoteca (" + numeroFilms + " films)";
+    }
+
+}
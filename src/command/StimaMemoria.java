@@ -0,0 +1,58 @@
+package command;
+
+import controller.CatalogoFilm;
+import model.Film;
+
+import java.util.List;
+
+/**
+ * Utility per stimare la memoria trattenuta dai comandi nella cronologia undo/redo.
+ * Le stime sono approssimate (JVM a 64 bit) e servono solo a rispettare il budget del CommandManager.
+ */
+final class StimaMemoria {
+
+    static final long OGGETTO = 16;    // intestazione di un oggetto
+    static final long RIFERIMENTO = 8; // riferimento o campo primitivo
+    static final long FILM_IN_CATALOGO = 352; // film medio con le sue stringhe e le voci nel catalogo
+
+    private StimaMemoria() {
+    }
+
+    /**
+     * Stima la memoria occupata da una stringa (oggetto String più array di caratteri).
+     */
+    static long stringa(String s) {
+        return s == null ? 0 : OGGETTO + RIFERIMENTO * 2 + OGGETTO + s.length();
+    }
+
+    /**
+     * Stima la memoria occupata da un film, comprese le sue stringhe.
+     */
+    static long film(Film film) {
+        if (film == null) {
+            return 0;
+        }
+        // Tre riferimenti e, insieme, anno e valutazione/stato; l'anno non ha una stringa propria
+        return OGGETTO + RIFERIMENTO * 4
+                + stringa(film.getTitolo()) + stringa(film.getRegista()) + stringa(film.getGenere());
+    }
+
+    /**
+     * Stima la memoria occupata da una lista di films, compresi i films stessi.
+     */
+    static long films(List<Film> films) {
+        long totale = OGGETTO + RIFERIMENTO * films.size();
+        for (Film film : films) {
+            totale += film(film);
+        }
+        return totale;
+    }
+
+    /**
+     * Stima la memoria occupata da un catalogo usando la dimensione media di un film,
+     * così da non dover visitare l'intero catalogo.
+     */
+    static long catalogo(CatalogoFilm catalogo) {
+        return catalogo == null ? 0 : OGGETTO + RIFERIMENTO * 3 + FILM_IN_CATALOGO * catalogo.dimensione();
+    }
+}
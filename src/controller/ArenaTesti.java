@@ -0,0 +1,187 @@
+package controller;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Sequenza di testi codificati in UTF-8 e memorizzati uno dopo l'altro in un unico ByteBuffer,
+ * con un array delle posizioni iniziali. Il buffer può stare nell'heap oppure fuori (buffer diretto):
+ * in questo caso i testi non sono oggetti e il garbage collector non li deve né copiare né visitare,
+ * e la memoria viene restituita quando l'arena stessa non è più raggiungibile.
+ * <p>
+ * I testi vengono decodificati solo quando servono, ad esempio per mostrarli; la ricerca di una sottostringa
+ * senza distinzione tra maiuscole e minuscole lavora direttamente sui byte.
+ * La dimensione complessiva è limitata a 2 GB, il massimo di un ByteBuffer.
+ */
+final class ArenaTesti {
+
+    private final ByteBuffer dati;
+    private final int[] inizi; // indice -> posizione del testo in dati; l'ultimo elemento è la fine dei dati
+    private int numero;
+
+    /**
+     * Crea un'arena vuota, dimensionata per i testi che verranno aggiunti.
+     *
+     * @param numero    Numero di testi
+     * @param byteTotali Somma delle lunghezze in UTF-8 dei testi, calcolata con {@link #lunghezzaUtf8(String)}
+     * @param fuoriHeap true per allocare i dati fuori dall'heap
+     * @throws IllegalArgumentException se i testi superano la capacità di un ByteBuffer
+     */
+    ArenaTesti(int numero, long byteTotali, boolean fuoriHeap) {
+        if (byteTotali > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Testi troppo grandi per un'arena: " + byteTotali + " byte.");
+        }
+        this.dati = fuoriHeap ? ByteBuffer.allocateDirect((int) byteTotali) : ByteBuffer.allocate((int) byteTotali);
+        this.inizi = new int[numero + 1];
+    }
+
+    /**
+     * Aggiunge un testo in fondo all'arena.
+     *
+     * @param testo Testo da aggiungere
+     * @return Indice del testo
+     */
+    int aggiungi(String testo) {
+        int posizione = inizi[numero];
+        for (int i = 0; i < testo.length(); i++) {
+            char c = testo.charAt(i);
+            if (c < 0x80) {
+                dati.put(posizione++, (byte) c);
+            } else if (c < 0x800) {
+                dati.put(posizione++, (byte) (0xC0 | c >> 6));
+                dati.put(posizione++, (byte) (0x80 | c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < testo.length()
+                    && Character.isLowSurrogate(testo.charAt(i + 1))) {
+                int codice = Character.toCodePoint(c, testo.charAt(++i));
+                dati.put(posizione++, (byte) (0xF0 | codice >> 18));
+                dati.put(posizione++, (byte) (0x80 | codice >> 12 & 0x3F));
+                dati.put(posizione++, (byte) (0x80 | codice >> 6 & 0x3F));
+                dati.put(posizione++, (byte) (0x80 | codice & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                dati.put(posizione++, (byte) '?'); // surrogato isolato, sostituito come fa String.getBytes
+            } else {
+                dati.put(posizione++, (byte) (0xE0 | c >> 12));
+                dati.put(posizione++, (byte) (0x80 | c >> 6 & 0x3F));
+                dati.put(posizione++, (byte) (0x80 | c & 0x3F));
+            }
+        }
+        inizi[++numero] = posizione;
+        return numero - 1;
+    }
+
+    /**
+     * Restituisce il numero di testi dell'arena.
+     */
+    int dimensione() {
+        return numero;
+    }
+
+    /**
+     * Decodifica un testo.
+     *
+     * @param indice Indice del testo
+     * @return Testo come stringa
+     */
+    String testo(int indice) {
+        byte[] copia = new byte[inizi[indice + 1] - inizi[indice]];
+        dati.get(inizi[indice], copia);
+        return new String(copia, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Verifica se un testo contiene quello cercato, senza distinguere maiuscole e minuscole,
+     * con la stessa conversione carattere per carattere di {@link Minuscole}. Il confronto avviene sui byte: i caratteri ASCII sono confrontati direttamente, gli altri vengono
+     * decodificati uno alla volta, senza creare la stringa del testo.
+     *
+     * @param indice  Indice del testo
+     * @param cercato Testo cercato, preparato con {@link Minuscole#codici(String)}
+     * @return true se il testo contiene quello cercato
+     */
+    boolean contiene(int indice, int[] cercato) {
+        if (cercato.length == 0) {
+            return true;
+        }
+        int primo = cercato[0];
+        // Ogni carattere occupa almeno un byte: oltre questa posizione il testo cercato non può iniziare
+        int ultimo = inizi[indice + 1] - cercato.length;
+        for (int inizio = inizi[indice]; inizio <= ultimo; inizio++) {
+            byte b = dati.get(inizio);
+            // I byte ASCII vengono scartati subito se diversi dal primo carattere; i byte di continuazione
+            // (10xxxxxx) non iniziano mai un carattere
+            boolean candidato = b >= 0 ? minuscolaAscii(b) == primo : (b & 0xC0) != 0x80;
+            if (candidato && corrisponde(inizio, inizi[indice + 1], cercato)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean corrisponde(int posizione, int fine, int[] cercato) {
+        for (int atteso : cercato) {
+            if (posizione >= fine) {
+                return false;
+            }
+            byte primo = dati.get(posizione);
+            int codice;
+            if (primo >= 0) {
+                codice = minuscolaAscii(primo);
+                posizione++;
+            } else {
+                codice = Character.toLowerCase(decodifica(posizione, primo));
+                posizione += lunghezzaSequenza(primo);
+            }
+            if (codice != atteso) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Decodifica il carattere che inizia alla posizione indicata con un byte non ASCII.
+     */
+    private int decodifica(int posizione, byte primo) {
+        int lunghezza = lunghezzaSequenza(primo);
+        int codice = primo & (0xFF >> (lunghezza + 1));
+        for (int i = 1; i < lunghezza; i++) {
+            codice = codice << 6 | dati.get(posizione + i) & 0x3F;
+        }
+        return codice;
+    }
+
+    private static int minuscolaAscii(byte b) {
+        return b >= 'A' && b <= 'Z' ? b + ('a' - 'A') : b;
+    }
+
+    private static int lunghezzaSequenza(byte primo) {
+        if (primo >= 0) {
+            return 1;
+        }
+        if ((primo & 0xE0) == 0xC0) {
+            return 2;
+        }
+        return (primo & 0xF0) == 0xE0 ? 3 : 4;
+    }
+
+    /**
+     * Lunghezza in byte della codifica UTF-8 di un testo, come scritta da {@link #aggiungi(String)}.
+     */
+    static int lunghezzaUtf8(String testo) {
+        int lunghezza = 0;
+        for (int i = 0; i < testo.length(); i++) {
+            char c = testo.charAt(i);
+            if (c < 0x80) {
+                lunghezza++;
+            } else if (c < 0x800) {
+                lunghezza += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < testo.length()
+                    && Character.isLowSurrogate(testo.charAt(i + 1))) {
+                lunghezza += 4;
+                i++;
+            } else {
+                lunghezza += Character.isSurrogate(c) ? 1 : 3;
+            }
+        }
+        return lunghezza;
+    }
+}
@@ -0,0 +1,18 @@
+package controller;
+
+/**
+ * Interfaccia Observer per ricevere le notifiche di modifica della videoteca.
+ * Gli ascoltatori vengono registrati sul GestoreVideoteca.
+ */
+public interface AscoltatoreVideoteca {
+
+    /**
+     * Chiamato dopo ogni modifica della collezione di films, fuori dal monitor del gestore e nell'ordine
+     * delle modifiche. Il thread non è necessariamente quello che ha eseguito la modifica: se un altro thread
+     * sta già consegnando eventi, è quello a consegnare anche i nuovi, eventualmente dopo che la modifica
+     * è terminata. Un'eccezione lanciata dall'ascoltatore viene registrata e non interrompe la consegna.
+     *
+     * @param evento Evento che descrive la modifica
+     */
+    void videotecaModificata(EventoVideoteca evento);
+}
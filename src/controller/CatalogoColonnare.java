@@ -0,0 +1,340 @@
+package controller;
+
+import model.Film;
+import model.StatoVisione;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.function.Predicate;
+
+/**
+ * Rappresentazione a colonne, di sola lettura, di un elenco di films: invece di un oggetto Film per titolo,
+ * ogni attributo è conservato in un array primitivo indicizzato per riga.
+ * <ul>
+ *     <li>registi e generi sono codificati come indici (int) in un dizionario dei valori distinti;</li>
+ *     <li>anni, valutazioni e stati di visione occupano un short e due byte per film;</li>
+ *     <li>titoli e registi distinti sono codificati in UTF-8 in un'{@link ArenaTesti}, un unico buffer
+ *     con la posizione iniziale di ciascun testo, che su richiesta può essere allocato fuori dall'heap.</li>
+ * </ul>
+ * Ricerca e filtri scorrono questi array senza creare oggetti: i criteri su registi e generi vengono
+ * valutati una sola volta per valore del dizionario, non per film. I films vengono ricostruiti solo quando
+ * servono, attraverso le viste restituite da {@link #getFilms()} e {@link #vista(int[])}; le istanze
+ * ricostruite sono uguali (equals) a quelle originali ma non sono le stesse.
+ * <p>
+ * Nei cataloghi molto grandi i testi sono la parte più consistente della memoria: con i testi fuori
+ * dall'heap ({@link #di(Collection, boolean)}) l'heap contiene solo array di numeri e il garbage collector
+ * non deve più copiare né visitare milioni di stringhe durante e dopo il caricamento.
+ */
+public final class CatalogoColonnare {
+
+    private static final StatoVisione[] STATI = StatoVisione.values();
+    private static final String TUTTI = "Tutti";
+
+    private final int dimensione;
+    private final ArenaTesti titoli;    // riga -> titolo
+    private final ArenaTesti dizionarioRegisti;
+    private final int[] registi;        // riga -> indice in dizionarioRegisti
+    private final String[] dizionarioGeneri;
+    private final int[] generi;         // riga -> indice in dizionarioGeneri
+    private final short[] anni;
+    private final byte[] valutazioni;
+    private final byte[] stati;         // riga -> ordinale dello stato di visione
+
+    private CatalogoColonnare(Collection<Film> films, boolean fuoriHeap) {
+        dimensione = films.size();
+        registi = new int[dimensione];
+        generi = new int[dimensione];
+        anni = new short[dimensione];
+        valutazioni = new byte[dimensione];
+        stati = new byte[dimensione];
+
+        // Primo passaggio: codici dei dizionari e spazio occupato dai testi
+        Map<String, Integer> codiciRegisti = new HashMap<>();
+        Map<String, Integer> codiciGeneri = new HashMap<>();
+        long byteTitoli = 0;
+        long byteRegisti = 0;
+        int riga = 0;
+        for (Film film : films) {
+            byteTitoli += ArenaTesti.lunghezzaUtf8(film.getTitolo());
+            Integer codice = codiciRegisti.get(film.getRegista());
+            if (codice == null) {
+                codice = codiciRegisti.size();
+                codiciRegisti.put(film.getRegista(), codice);
+                byteRegisti += ArenaTesti.lunghezzaUtf8(film.getRegista());
+            }
+            registi[riga] = codice;
+            generi[riga] = codiciGeneri.computeIfAbsent(film.getGenere(), g -> codiciGeneri.size());
+            anni[riga] = (short) film.getAnno();
+            valutazioni[riga] = (byte) film.getValutazione();
+            stati[riga] = (byte) film.getStatoVisione().ordinal();
+            riga++;
+        }
+
+        // Secondo passaggio: i testi, nello stesso ordine delle righe e dei codici
+        titoli = new ArenaTesti(dimensione, byteTitoli, fuoriHeap);
+        for (Film film : films) {
+            titoli.aggiungi(film.getTitolo());
+        }
+        dizionarioRegisti = new ArenaTesti(codiciRegisti.size(), byteRegisti, fuoriHeap);
+        for (String regista : dizionario(codiciRegisti)) {
+            dizionarioRegisti.aggiungi(regista);
+        }
+        dizionarioGeneri = dizionario(codiciGeneri);
+    }
+
+    /**
+     * Crea la rappresentazione a colonne dei films indicati, nell'ordine dato.
+     * Dopo la conversione i films originali possono essere liberati.
+     *
+     * @param films Films validi da convertire
+     * @return Nuovo catalogo a colonne
+     */
+    public static CatalogoColonnare di(Collection<Film> films) {
+        return new CatalogoColonnare(films, false);
+    }
+
+    /**
+     * Crea la rappresentazione a colonne dei films indicati, scegliendo dove memorizzare titoli e registi.
+     *
+     * @param films     Films validi da convertire
+     * @param fuoriHeap true per memorizzare titoli e registi fuori dall'heap
+     * @return Nuovo catalogo a colonne
+     * @throws IllegalArgumentException se titoli o registi superano complessivamente 2 GB in UTF-8
+     */
+    public static CatalogoColonnare di(Collection<Film> films, boolean fuoriHeap) {
+        return new CatalogoColonnare(films, fuoriHeap);
+    }
+
+    /**
+     * Restituisce il numero di films del catalogo.
+     */
+    public int dimensione() {
+        return dimensione;
+    }
+
+    /**
+     * Ricostruisce il film di una riga.
+     *
+     * @param riga Indice della riga, tra 0 e dimensione() - 1
+     * @return Nuovo film con i valori della riga
+     */
+    public Film film(int riga) {
+        return Film.daDatiVerificati(titolo(riga), dizionarioRegisti.testo(registi[riga]), anni[riga],
+                dizionarioGeneri[generi[riga]], valutazioni[riga], STATI[stati[riga]]);
+    }
+
+    /**
+     * Restituisce il titolo di una riga, decodificandolo.
+     */
+    public String titolo(int riga) {
+        return titoli.testo(riga);
+    }
+
+    /**
+     * Vista immutabile di tutti i films del catalogo, ricostruiti a ogni accesso.
+     */
+    public List<Film> getFilms() {
+        return new Vista(null, dimensione);
+    }
+
+    /**
+     * Vista immutabile dei films delle righe indicate, nell'ordine dato, ricostruiti a ogni accesso.
+     *
+     * @param righe Indici delle righe, ad esempio restituiti da {@link #seleziona(CriteriRicerca)}
+     * @return Vista dei films
+     */
+    public List<Film> vista(int[] righe) {
+        return new Vista(righe, righe.length);
+    }
+
+    /**
+     * Applica ricerca e filtri dei criteri, con le stesse regole di {@link FilmController#elaboraFilms},
+     * senza ordinare il risultato.
+     *
+     * @param criteri Criteri di ricerca e filtro
+     * @return Indici delle righe selezionate, in ordine crescente
+     */
+    public int[] seleziona(CriteriRicerca criteri) {
+        String testoCerca = criteri.getTestoCerca();
+        boolean cerca = testoCerca != null && !testoCerca.trim().isEmpty();
+        int[] titoloCercato = null;
+        boolean[] registiAmmessi = null;
+        if (cerca && "Titolo".equals(criteri.getTipoCerca())) {
+            titoloCercato = Minuscole.codici(testoCerca);
+        } else if (cerca && "Regista".equals(criteri.getTipoCerca())) {
+            registiAmmessi = registiCheContengono(testoCerca);
+        }
+
+        // Registi e generi: il criterio viene valutato sul dizionario, per ogni film resta un accesso all'array
+        String registaSelezionato = criteri.getRegista();
+        if (isFiltro(registaSelezionato)) {
+            boolean[] filtro = registiCheContengono(registaSelezionato);
+            registiAmmessi = registiAmmessi == null ? filtro : intersezione(registiAmmessi, filtro);
+        }
+        String genereSelezionato = criteri.getGenere();
+        boolean[] generiAmmessi = isFiltro(genereSelezionato)
+                ? ammessi(dizionarioGeneri, genere -> genere.equalsIgnoreCase(genereSelezionato))
+                : null;
+
+        int anno = isFiltro(criteri.getAnnoUscita()) ? Film.leggiAnno(criteri.getAnnoUscita()) : Integer.MIN_VALUE;
+        int stato = -1;
+        if (isFiltro(criteri.getStatoVisione())) {
+            try {
+                stato = StatoVisione.fromString(criteri.getStatoVisione()).ordinal();
+            } catch (IllegalArgumentException e) {
+                // Ignora filtro non valido
+                System.err.println("Filtro non valido: " + criteri.getStatoVisione());
+            }
+        }
+        int valutazione = criteri.getValutazione();
+
+        int[] righe = new int[dimensione];
+        int selezionate = 0;
+        for (int riga = 0; riga < dimensione; riga++) {
+            if ((registiAmmessi == null || registiAmmessi[registi[riga]])
+                    && (generiAmmessi == null || generiAmmessi[generi[riga]])
+                    && (anno == Integer.MIN_VALUE || anni[riga] == anno)
+                    && (stato < 0 || stati[riga] == stato)
+                    && (valutazione < 0 || valutazioni[riga] == valutazione)
+                    && (titoloCercato == null || titoli.contiene(riga, titoloCercato))) {
+                righe[selezionate++] = riga;
+            }
+        }
+        return Arrays.copyOf(righe, selezionate);
+    }
+
+    /**
+     * Generi distinti del catalogo, in ordine alfabetico.
+     */
+    public List<String> getGeneriUnici() {
+        return ordinati(dizionarioGeneri);
+    }
+
+    /**
+     * Registi distinti del catalogo, in ordine alfabetico.
+     */
+    public List<String> getRegistiUnici() {
+        String[] registiUnici = new String[dizionarioRegisti.dimensione()];
+        for (int i = 0; i < registiUnici.length; i++) {
+            registiUnici[i] = dizionarioRegisti.testo(i);
+        }
+        return ordinati(registiUnici);
+    }
+
+    /**
+     * Anni di uscita distinti del catalogo, in ordine crescente.
+     */
+    public List<String> getAnnoUscitaUnici() {
+        boolean[] presenti = new boolean[10_000];
+        for (int riga = 0; riga < dimensione; riga++) {
+            if (anni[riga] >= 0) {
+                presenti[anni[riga]] = true;
+            }
+        }
+        String[] risultato = new String[dimensione];
+        int distinti = 0;
+        for (int anno = 0; anno < presenti.length; anno++) {
+            if (presenti[anno]) {
+                risultato[distinti++] = Film.testoAnno(anno);
+            }
+        }
+        return List.of(Arrays.copyOf(risultato, distinti));
+    }
+
+    /**
+     * Cerca per titolo, come {@link GestoreVideoteca#cercaPerTitolo(Collection, String)}, confrontando
+     * i byte dei titoli senza decodificarli.
+     *
+     * @param titolo Titolo da cercare (match parziale, case-insensitive)
+     * @return Indici delle righe trovate, in ordine crescente
+     */
+    public int[] cercaPerTitolo(String titolo) {
+        return seleziona(new CriteriRicerca(titolo, "Titolo", TUTTI, TUTTI, TUTTI, TUTTI, -1, null));
+    }
+
+    /**
+     * Cerca per regista, come {@link GestoreVideoteca#cercaPerRegista(Collection, String)}: il testo
+     * viene cercato nei byte di ciascun regista distinto, poi le righe vengono selezionate per codice.
+     *
+     * @param regista Regista da cercare (match parziale, case-insensitive)
+     * @return Indici delle righe trovate, in ordine crescente
+     */
+    public int[] cercaPerRegista(String regista) {
+        return seleziona(new CriteriRicerca(regista, "Regista", TUTTI, TUTTI, TUTTI, TUTTI, -1, null));
+    }
+
+    /**
+     * Valuta sul dizionario quali registi contengono il testo indicato.
+     */
+    private boolean[] registiCheContengono(String testo) {
+        int[] cercato = Minuscole.codici(testo);
+        boolean[] ammessi = new boolean[dizionarioRegisti.dimensione()];
+        for (int i = 0; i < ammessi.length; i++) {
+            ammessi[i] = dizionarioRegisti.contiene(i, cercato);
+        }
+        return ammessi;
+    }
+
+    private static boolean isFiltro(String valore) {
+        return valore != null && !valore.equals(TUTTI);
+    }
+
+    private static boolean[] ammessi(String[] dizionario, Predicate<String> criterio) {
+        boolean[] ammessi = new boolean[dizionario.length];
+        for (int i = 0; i < dizionario.length; i++) {
+            ammessi[i] = criterio.test(dizionario[i]);
+        }
+        return ammessi;
+    }
+
+    private static boolean[] intersezione(boolean[] primi, boolean[] secondi) {
+        for (int i = 0; i < primi.length; i++) {
+            primi[i] &= secondi[i];
+        }
+        return primi;
+    }
+
+    private static String[] dizionario(Map<String, Integer> codici) {
+        String[] valori = new String[codici.size()];
+        codici.forEach((valore, codice) -> valori[codice] = valore);
+        return valori;
+    }
+
+    private static List<String> ordinati(String[] dizionario) {
+        String[] copia = dizionario.clone();
+        Arrays.sort(copia);
+        return List.of(copia);
+    }
+
+    /**
+     * Vista dei films di un insieme di righe (o di tutte, se righe è null).
+     */
+    private final class Vista extends AbstractList<Film> implements RandomAccess {
+
+        private final int[] righe;
+        private final int dimensione;
+
+        private Vista(int[] righe, int dimensione) {
+            this.righe = righe;
+            this.dimensione = dimensione;
+        }
+
+        @Override
+        public Film get(int indice) {
+            if (indice < 0 || indice >= dimensione) {
+                throw new IndexOutOfBoundsException("Indice: " + indice + ", dimensione: " + dimensione);
+            }
+            return film(righe != null ? righe[indice] : indice);
+        }
+
+        @Override
+        public int size() {
+            return dimensione;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package controller;
+
+import model.Film;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Versione immutabile della collezione di films della videoteca.
+ * Ogni modifica restituisce un nuovo catalogo che condivide con il precedente tutta la struttura
+ * non modificata (un vettore a trie per l'ordine di inserimento e una mappa HAMT per la ricerca per chiave),
+ * quindi conservare una versione precedente, ad esempio per annullare una pulizia o un caricamento, costa O(1).
+ * Essendo immutabile, un catalogo può essere letto da più thread senza sincronizzazione e senza copie.
+ */
+public final class CatalogoFilm {
+
+    /**
+     * Catalogo senza films.
+     */
+    public static final CatalogoFilm VUOTO =
+            new CatalogoFilm(VettorePersistente.vuoto(), MappaPersistente.vuota(), 0);
+
+    private static final int MINIMO_COMPATTAZIONE = 32;
+
+    private final VettorePersistente<Film> films;        // posizione -> film, in ordine di inserimento
+    private final MappaPersistente<Film, Integer> posizioni; // film (titolo + regista + anno) -> posizione
+    private final int liberate; // posizioni rimaste vuote dopo un'eliminazione
+
+    private CatalogoFilm(VettorePersistente<Film> films, MappaPersistente<Film, Integer> posizioni, int liberate) {
+        this.films = films;
+        this.posizioni = posizioni;
+        this.liberate = liberate;
+    }
+
+    /**
+     * Crea un catalogo con i films indicati, nell'ordine dato.
+     * I films nulli o duplicati vengono ignorati.
+     *
+     * @param films Films da inserire
+     * @return Nuovo catalogo
+     */
+    public static CatalogoFilm di(Collection<Film> films) {
+        CatalogoFilm catalogo = VUOTO;
+        for (Film film : films) {
+            catalogo = catalogo.aggiungi(film);
+        }
+        return catalogo;
+    }
+
+    /**
+     * Restituisce il numero di films nel catalogo.
+     */
+    public int dimensione() {
+        return posizioni.dimensione();
+    }
+
+    public boolean isVuoto() {
+        return dimensione() == 0;
+    }
+
+    /**
+     * Verifica se il catalogo contiene un film con la stessa chiave (titolo, regista, anno di uscita).
+     */
+    public boolean contiene(Film film) {
+        return film != null && posizioni.contiene(film);
+    }
+
+    /**
+     * Restituisce l'istanza memorizzata nel catalogo con la stessa chiave del film indicato.
+     *
+     * @param film Film da cercare
+     * @return Film memorizzato, o null se non presente
+     */
+    public Film trova(Film film) {
+        if (film == null) {
+            return null;
+        }
+        Integer posizione = posizioni.get(film);
+        return posizione != null ? films.get(posizione) : null;
+    }
+
+    /**
+     * Restituisce l'indice del film nella lista restituita da {@link #getFilms()}, in O(log32 n).
+     *
+     * @param film Film da cercare (conta la chiave)
+     * @return Indice del film, o -1 se non presente
+     */
+    public int indiceDi(Film film) {
+        Integer posizione = film != null ? posizioni.get(film) : null;
+        return posizione != null ? films.indicePresente(posizione) : -1;
+    }
+
+    /**
+     * Restituisce un catalogo con il film aggiunto in fondo.
+     *
+     * @param film Film da aggiungere
+     * @return Nuovo catalogo, o lo stesso se il film è nullo o già presente
+     */
+    public CatalogoFilm aggiungi(Film film) {
+        if (film == null || posizioni.contiene(film)) {
+            return this;
+        }
+        return new CatalogoFilm(films.aggiungi(film), posizioni.put(film, films.getPosizioni()), liberate);
+    }
+
+    /**
+     * Restituisce un catalogo in cui il nuovo film prende il posto del vecchio, mantenendone la posizione.
+     * La chiave del nuovo film non deve appartenere a un altro film del catalogo.
+     *
+     * @param vecchioFilm Film da sostituire
+     * @param nuovoFilm   Film da inserire al suo posto
+     * @return Nuovo catalogo, o lo stesso se il vecchio film non è presente
+     */
+    public CatalogoFilm sostituisci(Film vecchioFilm, Film nuovoFilm) {
+        Integer posizione = posizioni.get(vecchioFilm);
+        if (posizione == null) {
+            return this;
+        }
+        // La chiave va rimossa e reinserita, così la mappa non trattiene il vecchio film
+        return new CatalogoFilm(films.imposta(posizione, nuovoFilm),
+                posizioni.rimuovi(vecchioFilm).put(nuovoFilm, posizione), liberate);
+    }
+
+    /**
+     * Restituisce un catalogo senza il film indicato.
+     * Quando più di metà delle posizioni è vuota, il catalogo viene compattato.
+     *
+     * @param film Film da rimuovere
+     * @return Nuovo catalogo, o lo stesso se il film non è presente
+     */
+    public CatalogoFilm rimuovi(Film film) {
+        Integer posizione = film != null ? posizioni.get(film) : null;
+        if (posizione == null) {
+            return this;
+        }
+        CatalogoFilm catalogo = new CatalogoFilm(films.imposta(posizione, null), posizioni.rimuovi(film), liberate + 1);
+        if (catalogo.liberate >= MINIMO_COMPATTAZIONE && catalogo.liberate > catalogo.films.getPosizioni() / 2) {
+            return di(catalogo.getFilms());
+        }
+        return catalogo;
+    }
+
+    /**
+     * Restituisce una vista immutabile dei films in ordine di inserimento, creata in O(1) senza copiarli.
+     * L'accesso per indice costa O(log32 n); l'iterazione visita ogni foglia del trie una sola volta.
+     */
+    public List<Film> getFilms() {
+        return new AbstractList<Film>() {
+            @Override
+            public Film get(int indice) {
+                return films.getPresente(indice);
+            }
+
+            @Override
+            public int size() {
+                return films.getPresenti();
+            }
+
+            @Override
+            public Iterator<Film> iterator() {
+                return films.iterator();
+            }
+        };
+    }
+
+    /**
+     * Esegue un'azione su ogni film, in ordine di inserimento.
+     *
+     * @param azione Azione da eseguire
+     */
+    public void perOgni(Consumer<? super Film> azione) {
+        films.perOgni(azione);
+    }
+}
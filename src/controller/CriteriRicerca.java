@@ -0,0 +1,108 @@
+package controller;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Criteri di ricerca, filtro e ordinamento selezionati nella vista.
+ * Viene letto dalla vista nel thread di eventi Swing, così che la ricerca vera e propria
+ * possa essere eseguita anche in un thread in background senza accedere ai componenti grafici.
+ */
+public class CriteriRicerca {
+
+    private final String testoCerca;
+    private final String tipoCerca;
+    private final String genere;
+    private final String regista;
+    private final String annoUscita;
+    private final String statoVisione;
+    private final int valutazione;
+    private final String ordinamento;
+
+    /**
+     * Costruttore completo.
+     *
+     * @param testoCerca   Testo di ricerca
+     * @param tipoCerca    Tipo di ricerca (titolo, regista)
+     * @param genere       Genere selezionato o "Tutti"
+     * @param regista      Regista selezionato o "Tutti"
+     * @param annoUscita   Anno di uscita selezionato o "Tutti"
+     * @param statoVisione Stato di visione selezionato o "Tutti"
+     * @param valutazione  Valutazione selezionata o -1 se nessun filtro
+     * @param ordinamento  Ordinamento selezionato
+     */
+    public CriteriRicerca(String testoCerca, String tipoCerca, String genere, String regista,
+                          String annoUscita, String statoVisione, int valutazione, String ordinamento) {
+        this.testoCerca = testoCerca;
+        this.tipoCerca = tipoCerca;
+        this.genere = genere;
+        this.regista = regista;
+        this.annoUscita = annoUscita;
+        this.statoVisione = statoVisione;
+        this.valutazione = valutazione;
+        this.ordinamento = ordinamento;
+    }
+
+    /**
+     * Costruisce i criteri dalle opzioni testuali dei front end non grafici (parametri di una richiesta HTTP,
+     * opzioni della riga di comando): cerca, tipo, genere, regista, anno, stato, valutazione e ordina.
+     * I filtri assenti valgono "Tutti" e il tipo di ricerca predefinito è il titolo.
+     *
+     * @param opzioni Opzioni per nome
+     * @return Criteri corrispondenti
+     * @throws IllegalArgumentException se la valutazione non è un numero
+     */
+    public static CriteriRicerca daOpzioni(Map<String, String> opzioni) {
+        String tipo = opzioni.getOrDefault("tipo", "titolo");
+        if (!tipo.isEmpty()) {
+            tipo = Character.toUpperCase(tipo.charAt(0)) + tipo.substring(1).toLowerCase(Locale.ROOT);
+        }
+
+        int valutazione = -1;
+        String valutazioneRichiesta = opzioni.get("valutazione");
+        if (valutazioneRichiesta != null) {
+            try {
+                valutazione = Integer.parseInt(valutazioneRichiesta);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Valutazione non valida: " + valutazioneRichiesta);
+            }
+        }
+
+        return new CriteriRicerca(opzioni.get("cerca"), tipo,
+                opzioni.getOrDefault("genere", "Tutti"), opzioni.getOrDefault("regista", "Tutti"),
+                opzioni.getOrDefault("anno", "Tutti"), opzioni.getOrDefault("stato", "Tutti"),
+                valutazione, opzioni.get("ordina"));
+    }
+
+    public String getTestoCerca() {
+        return testoCerca;
+    }
+
+    public String getTipoCerca() {
+        return tipoCerca;
+    }
+
+    public String getGenere() {
+        return genere;
+    }
+
+    public String getRegista() {
+        return regista;
+    }
+
+    public String getAnnoUscita() {
+        return annoUscita;
+    }
+
+    public String getStatoVisione() {
+        return statoVisione;
+    }
+
+    public int getValutazione() {
+        return valutazione;
+    }
+
+    public String getOrdinamento() {
+        return ordinamento;
+    }
+}
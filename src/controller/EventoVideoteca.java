@@ -0,0 +1,74 @@
+package controller;
+
+import model.Film;
+
+/**
+ * Evento che descrive una modifica della collezione di films del GestoreVideoteca.
+ * Permette agli ascoltatori di aggiornarsi in modo puntuale invece di ricaricare l'intera videoteca.
+ */
+public class EventoVideoteca {
+
+    /**
+     * Tipo di modifica avvenuta nella videoteca.
+     */
+    public enum Tipo {
+        INSERIMENTO,
+        MODIFICA,
+        ELIMINAZIONE,
+        RICARICAMENTO // La collezione è stata svuotata o sostituita interamente
+    }
+
+    private final Tipo tipo;
+    private final Film film;
+    private final Film filmPrecedente;
+    private final int indice;
+
+    /**
+     * Costruttore dell'evento senza indice.
+     *
+     * @param tipo           Tipo di modifica
+     * @param film           Film inserito, eliminato o nuova versione del film modificato (null per RICARICAMENTO)
+     * @param filmPrecedente Versione precedente del film modificato (null se il tipo non è MODIFICA)
+     */
+    public EventoVideoteca(Tipo tipo, Film film, Film filmPrecedente) {
+        this(tipo, film, filmPrecedente, -1);
+    }
+
+    /**
+     * Costruttore dell'evento.
+     *
+     * @param tipo           Tipo di modifica
+     * @param film           Film inserito, eliminato o nuova versione del film modificato (null per RICARICAMENTO)
+     * @param filmPrecedente Versione precedente del film modificato (null se il tipo non è MODIFICA)
+     * @param indice         Indice del film nell'elenco della videoteca: dopo l'inserimento, al momento
+     *                       della modifica o prima dell'eliminazione (-1 se non noto)
+     */
+    public EventoVideoteca(Tipo tipo, Film film, Film filmPrecedente, int indice) {
+        this.tipo = tipo;
+        this.film = film;
+        this.filmPrecedente = filmPrecedente;
+        this.indice = indice;
+    }
+
+    public Tipo getTipo() {
+        return tipo;
+    }
+
+    public Film getFilm() {
+        return film;
+    }
+
+    public Film getFilmPrecedente() {
+        return filmPrecedente;
+    }
+
+    /**
+     * Restituisce l'indice del film nell'elenco della videoteca, considerando gli eventi precedenti
+     * già applicati e quelli successivi non ancora avvenuti.
+     *
+     * @return Indice del film, o -1 se non noto
+     */
+    public int getIndice() {
+        return indice;
+    }
+}
@@ -1,15 +1,21 @@
 package controller;
 
 import command.*;
+import metriche.Istogramma;
+import metriche.RegistroMetriche;
 import model.Film;
 import model.StatoVisione;
 import model.Status;
 import strategy.*;
 import view.VideotecaView;
 
+import javax.swing.SwingWorker;
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.prefs.Preferences;
 import java.util.stream.Collectors;
 
 /**
@@ -18,19 +24,53 @@ import java.util.stream.Collectors;
  */
 public class FilmController {
 
+    // Oltre questo numero di modifiche in un blocco conviene ricostruire la tabella invece di aggiornarla riga per riga
+    private static final int MAX_MODIFICHE_PUNTUALI = 100;
+
+    // Preferenze utente con l'ultima videoteca usata, ricaricata all'avvio
+    private static final String PREF_ULTIMA_VIDEOTECA = "ultimaVideoteca";
+    private static final String PREF_ULTIMO_FORMATO = "ultimoFormato";
+
+    // Durate delle fasi di elaborazione e di aggiornamento della tabella
+    private static final Istogramma TEMPO_RICERCA = RegistroMetriche.getInstance().istogramma("elaborazione.ricerca");
+    private static final Istogramma TEMPO_FILTRI = RegistroMetriche.getInstance().istogramma("elaborazione.filtri");
+    private static final Istogramma TEMPO_ORDINAMENTO = RegistroMetriche.getInstance().istogramma("elaborazione.ordinamento");
+    private static final Istogramma TEMPO_RIEMPIMENTO = RegistroMetriche.getInstance().istogramma("tabella.riempimento");
+    private static final Istogramma TEMPO_FACCETTE = RegistroMetriche.getInstance().istogramma("tabella.faccette");
+    private static final Istogramma TEMPO_TABELLA = RegistroMetriche.getInstance().istogramma("tabella.aggiornamento");
+
     private final GestoreVideoteca gestoreVideoteca;
     private final VideotecaView view;
     private final CommandManager commandManager;
+    private final RicercaIncrementale ricercaIncrementale;
 
     /**
-     * Costruttore che inizializza il controller con il gestore videoteca e la vista.
+     * Costruttore che inizializza il controller con la videoteca predefinita e la vista.
      *
      * @param view Vista da associare al controller
      */
     public FilmController(VideotecaView view) {
-        this.gestoreVideoteca = GestoreVideoteca.getInstance();
+        this(view, GestoreVideoteca.getInstance());
+    }
+
+    /**
+     * Costruttore che inizializza il controller su una videoteca specifica, ad esempio una ottenuta
+     * dal RegistroVideoteche.
+     *
+     * @param view             Vista da associare al controller
+     * @param gestoreVideoteca Videoteca gestita dal controller
+     */
+    public FilmController(VideotecaView view, GestoreVideoteca gestoreVideoteca) {
+        this.gestoreVideoteca = gestoreVideoteca;
         this.view = view;
         this.commandManager = new CommandManager();
+        this.ricercaIncrementale = new RicercaIncrementale(this);
+
+        // Le modifiche della videoteca aggiornano la vista una sola volta per blocco di eventi;
+        // senza una vista (es. nei test) non c'è nulla da aggiornare
+        if (view != null) {
+            gestoreVideoteca.aggiungiAscoltatore(new NotificheCoalescenti(this::applicaModifiche));
+        }
     }
 
     /**
@@ -58,16 +98,13 @@ public class FilmController {
     /**
      * Metodo interno per aggiungere un film senza creare un comando.
      * Questo metodo è chiamato dai comandi AggiungiFilmCommand e EliminaFilmCommand (undo).
+     * La vista viene aggiornata dalla notifica di modifica emessa dal GestoreVideoteca.
      *
      * @param film Film da aggiungere
      * @return true se l'operazione è andata a buon fine, false altrimenti
      */
     public boolean aggiungiFilmInterno(Film film) {
-        boolean result = gestoreVideoteca.aggiungiFilm(film);
-        if (result) {
-            aggiornaTabella();
-        }
-        return result;
+        return gestoreVideoteca.aggiungiFilm(film);
     }
 
     /**
@@ -100,17 +137,14 @@ public class FilmController {
     /**
      * Metodo interno per modificare un film senza creare un comando.
      * Questo metodo è chiamato dal comando ModificaFilmCommand.
+     * La vista viene aggiornata dalla notifica di modifica emessa dal GestoreVideoteca.
      *
      * @param vecchioFilm Film da modificare
      * @param nuovoFilm   Film con i nuovi dati
      * @return true se l'operazione è andata a buon fine, false altrimenti
      */
     public boolean modificaFilmInterno(Film vecchioFilm, Film nuovoFilm) {
-        boolean result = gestoreVideoteca.modificaFilm(vecchioFilm, nuovoFilm);
-        if (result) {
-            aggiornaTabella();
-        }
-        return result;
+        return gestoreVideoteca.modificaFilm(vecchioFilm, nuovoFilm);
     }
 
     /**
@@ -134,18 +168,131 @@ public class FilmController {
     /**
      * Metodo interno per eliminare un film senza creare un comando.
      * Questo metodo è chiamato dal comando EliminaFilmCommand.
+     * La vista viene aggiornata dalla notifica di modifica emessa dal GestoreVideoteca.
      *
      * @param film Film da eliminare
      * @return true se l'operazione è andata a buon fine, false altrimenti
      */
     public boolean eliminaFilmInterno(Film film) {
-        boolean result = gestoreVideoteca.eliminaFilm(film);
-        if (result) {
-            aggiornaTabella();
+        return gestoreVideoteca.eliminaFilm(film);
+    }
+
+    /**
+     * Aggiunge più films alla videoteca con un unico comando, annullabile in un solo passo.
+     *
+     * @param films Films da aggiungere
+     * @return true se almeno un film è stato aggiunto, false altrimenti
+     */
+    public boolean aggiungiFilms(List<Film> films) {
+        return eseguiComandoMultiplo(films, new AggiungiFilmsCommand(this, films));
+    }
+
+    /**
+     * Modifica genere, valutazione e/o stato di visione di più films con un unico comando,
+     * annullabile in un solo passo. I valori null lasciano invariato il campo corrispondente.
+     *
+     * @param films        Films da modificare
+     * @param genere       Nuovo genere o null
+     * @param valutazione  Nuova valutazione o null
+     * @param statoVisione Nuovo stato visione o null
+     * @return true se almeno un film è stato modificato, false altrimenti
+     */
+    public boolean modificaFilms(List<Film> films, String genere, Integer valutazione, StatoVisione statoVisione) {
+        return eseguiComandoMultiplo(films, new ModificaFilmsCommand(this, films, genere, valutazione, statoVisione));
+    }
+
+    /**
+     * Elimina più films dalla videoteca con un unico comando, annullabile in un solo passo.
+     *
+     * @param films Films da eliminare
+     * @return true se almeno un film è stato eliminato, false altrimenti
+     */
+    public boolean eliminaFilms(List<Film> films) {
+        return eseguiComandoMultiplo(films, new EliminaFilmsCommand(this, films));
+    }
+
+    /**
+     * Esegue un comando che opera su più films e aggiorna i pulsanti undo/redo.
+     */
+    private boolean eseguiComandoMultiplo(List<Film> films, Command comando) {
+        if (films == null || films.isEmpty()) {
+            return false;
         }
+
+        boolean result = commandManager.executeCommand(comando);
+        if (result)
+            aggiornaStatoPulsanti();
         return result;
     }
 
+    /**
+     * Metodo interno per aggiungere più films senza creare un comando.
+     * Questo metodo è chiamato dai comandi AggiungiFilmsCommand e EliminaFilmsCommand (undo).
+     *
+     * @param films Films da aggiungere
+     * @return Lista dei films effettivamente aggiunti
+     */
+    public List<Film> aggiungiFilmsInterno(List<Film> films) {
+        return gestoreVideoteca.aggiungiFilms(films);
+    }
+
+    /**
+     * Metodo interno per modificare più films senza creare un comando.
+     * Questo metodo è chiamato dal comando ModificaFilmsCommand.
+     *
+     * @param vecchiFilms Films da modificare
+     * @param nuoviFilms  Nuove versioni dei films, nello stesso ordine
+     * @return Lista dei films effettivamente sostituiti
+     */
+    public List<Film> modificaFilmsInterno(List<Film> vecchiFilms, List<Film> nuoviFilms) {
+        return gestoreVideoteca.modificaFilms(vecchiFilms, nuoviFilms);
+    }
+
+    /**
+     * Metodo interno per eliminare più films senza creare un comando.
+     * Questo metodo è chiamato dai comandi EliminaFilmsCommand e AggiungiFilmsCommand (undo).
+     *
+     * @param films Films da eliminare
+     * @return Lista dei films effettivamente eliminati
+     */
+    public List<Film> eliminaFilmsInterno(List<Film> films) {
+        return gestoreVideoteca.eliminaFilms(films);
+    }
+
+    /**
+     * Metodo interno per ottenere il catalogo corrente senza copiarlo.
+     * Questo metodo è chiamato dai comandi PulisciVideotecaCommand e CaricaVideotecaCommand.
+     *
+     * @return Catalogo corrente
+     */
+    public CatalogoFilm getCatalogoInterno() {
+        return gestoreVideoteca.getCatalogo();
+    }
+
+    /**
+     * Metodo interno per sostituire l'intera videoteca con un catalogo senza creare un comando.
+     * Questo metodo è chiamato dai comandi PulisciVideotecaCommand e CaricaVideotecaCommand.
+     *
+     * @param catalogo Catalogo da rendere corrente
+     */
+    public void ripristinaCatalogoInterno(CatalogoFilm catalogo) {
+        gestoreVideoteca.ripristinaCatalogo(catalogo);
+    }
+
+    /**
+     * Metodo interno per pulire la videoteca senza creare un comando.
+     * Questo metodo è chiamato dal comando PulisciVideotecaCommand.
+     *
+     * @return true se la videoteca conteneva films, false se era già vuota
+     */
+    public boolean pulisciVideotecaInterno() {
+        if (gestoreVideoteca.getCatalogo().isVuoto()) {
+            return false;
+        }
+        gestoreVideoteca.pulisciVideoteca();
+        return true;
+    }
+
     /**
      * Esegue l'operazione di undo (annulla l'ultima operazione).
      *
@@ -208,6 +355,9 @@ public class FilmController {
      * Aggiorna lo stato dei pulsanti undo/redo nella vista.
      */
     private void aggiornaStatoPulsanti() {
+        if (view == null) {
+            return; // Modalità senza interfaccia grafica
+        }
         view.aggiornaStatoPulsantiUndoRedo(canUndo(), canRedo(),
                 getUndoDescription(), getRedoDescription());
     }
@@ -216,60 +366,118 @@ public class FilmController {
      * Carica la lista completa dei films e aggiorna la vista.
      */
     public void caricaFilms() {
+        ricercaIncrementale.annulla();
         List<Film> films = gestoreVideoteca.getFilms();
         view.aggiornaTabella(films);
-        view.aggiornaComboBoxGeneri(gestoreVideoteca.getGeneriUnici());
-        view.aggiornaComboBoxRegisti(gestoreVideoteca.getRegistiUnici());
-        view.aggiornaComboBoxAnnoUscita(gestoreVideoteca.getAnnoUscitaUnici());
+        aggiornaComboBoxFiltri();
         // Inizializza lo stato dei pulsanti undo/redo
         aggiornaStatoPulsanti();
     }
 
     /**
-     * Cerca films in base ai criteri di ricerca specificati.
+     * Legge dalla vista i criteri di ricerca, filtro e ordinamento correnti.
+     * Deve essere chiamato dal thread di eventi Swing.
      *
-     * @param testoCerca Testo di ricerca
-     * @param tipoCerca  Tipo di ricerca (titolo, regista)
+     * @return Criteri selezionati nella vista
      */
-    private List<Film> cercaFilms(String testoCerca, String tipoCerca) {
-        List<Film> risultato;
-
-        if (testoCerca == null || testoCerca.trim().isEmpty()) {
-            risultato = gestoreVideoteca.getFilms();
-        } else {
-            switch (tipoCerca) {
-                case "Titolo":
-                    risultato = gestoreVideoteca.cercaPerTitolo(testoCerca);
-                    break;
-                case "Regista":
-                    risultato = gestoreVideoteca.cercaPerRegista(testoCerca);
-                    break;
-                default:
-                    risultato = gestoreVideoteca.getFilms();
-            }
-        }
+    private CriteriRicerca leggiCriteri() {
+        return new CriteriRicerca(view.getCampoCerca(), view.getCampoTipoCerca(),
+                view.getGenereSelezionato(), view.getRegistaSelezionato(), view.getAnnoUscitaSelezionato(),
+                view.getStatoVisioneSelezionato(), view.getValutazioneSelezionata(),
+                view.getOrdinamentoSelezionato());
+    }
 
-        // Applica i filtri selezionati
-        risultato = applicaFiltri(risultato);
+    /**
+     * Applica ricerca, filtri e ordinamento alla versione corrente della videoteca, senza accedere alla vista.
+     * Usato quando l'applicazione è eseguita senza interfaccia grafica; può essere chiamato da qualsiasi thread
+     * perché lavora su un catalogo immutabile.
+     *
+     * @param criteri Criteri di ricerca, filtro e ordinamento
+     * @return Lista filtrata e ordinata di films
+     */
+    public List<Film> filtraVideoteca(CriteriRicerca criteri) {
+        return elaboraFilms(gestoreVideoteca.getFilms(), criteri);
+    }
 
-        // Applica l'ordinamento selezionato
-        risultato = applicaOrdinamento(risultato);
+    /**
+     * Applica ricerca, filtri e ordinamento a una lista di films qualsiasi, ad esempio letta da un file
+     * senza caricarla nella videoteca. La lista ricevuta non viene modificata.
+     *
+     * @param films   Films da elaborare
+     * @param criteri Criteri di ricerca, filtro e ordinamento
+     * @return Lista filtrata e ordinata di films
+     */
+    public List<Film> elaboraFilms(List<Film> films, CriteriRicerca criteri) {
+        long inizio = System.nanoTime();
+        List<Film> risultato = cercaFilms(films, criteri);
+        long fineRicerca = System.nanoTime();
+        TEMPO_RICERCA.registra(fineRicerca - inizio);
+
+        risultato = applicaFiltri(risultato, criteri);
+        long fineFiltri = System.nanoTime();
+        TEMPO_FILTRI.registra(fineFiltri - fineRicerca);
+
+        risultato = applicaOrdinamento(risultato, criteri);
+        TEMPO_ORDINAMENTO.registraDa(fineFiltri);
+        return risultato;
+    }
 
+    /**
+     * Applica ricerca, filtri e ordinamento a un catalogo a colonne: ricerca e filtri scorrono gli array
+     * del catalogo e solo i films selezionati vengono ricostruiti, per essere ordinati e restituiti.
+     *
+     * @param catalogo Catalogo da elaborare
+     * @param criteri  Criteri di ricerca, filtro e ordinamento
+     * @return Lista filtrata e ordinata di films
+     */
+    public List<Film> elaboraFilms(CatalogoColonnare catalogo, CriteriRicerca criteri) {
+        long inizio = System.nanoTime();
+        List<Film> risultato = catalogo.vista(catalogo.seleziona(criteri));
+        long fineFiltri = System.nanoTime();
+        TEMPO_FILTRI.registra(fineFiltri - inizio);
+
+        risultato = applicaOrdinamento(risultato, criteri);
+        TEMPO_ORDINAMENTO.registraDa(fineFiltri);
         return risultato;
     }
 
     /**
-     * Applica i filtri selezionati nella vista a una lista di films.
+     * Cerca films in base ai criteri di ricerca specificati.
+     *
+     * @param films   Films tra cui cercare
+     * @param criteri Criteri contenenti testo e tipo di ricerca (titolo, regista)
+     * @return Lista di films che corrispondono alla ricerca
+     */
+    List<Film> cercaFilms(List<Film> films, CriteriRicerca criteri) {
+        String testoCerca = criteri.getTestoCerca();
+        if (testoCerca == null || testoCerca.trim().isEmpty() || criteri.getTipoCerca() == null) {
+            return films;
+        }
+
+        switch (criteri.getTipoCerca()) {
+            case "Titolo":
+                return gestoreVideoteca.cercaPerTitolo(films, testoCerca);
+            case "Regista":
+                return gestoreVideoteca.cercaPerRegista(films, testoCerca);
+            default:
+                return films;
+        }
+    }
+
+    /**
+     * Applica i filtri selezionati a una lista di films.
      * Supporta l'applicazione di filtri multipli in combinazione.
      *
      * @param filmsOriginali Lista di films da filtrare
+     * @param criteri        Criteri di filtro selezionati nella vista
      * @return Lista filtrata di films
      */
-    private List<Film> applicaFiltri(List<Film> filmsOriginali) {
-        List<Film> films = new ArrayList<>(filmsOriginali); // Clona la lista per non modificare l'originale
+    List<Film> applicaFiltri(List<Film> filmsOriginali, CriteriRicerca criteri) {
+        // Ogni filtro produce una nuova lista: quella ricevuta, anche se immutabile, non viene modificata
+        List<Film> films = filmsOriginali;
 
         // Filtro per genere
-        String genereSelezionato = view.getGenereSelezionato();
+        String genereSelezionato = criteri.getGenere();
         if (genereSelezionato != null && !genereSelezionato.equals("Tutti")) {
             films = films.stream()
                     .filter(film -> film.getGenere().equalsIgnoreCase(genereSelezionato))
@@ -277,23 +485,25 @@ public class FilmController {
         }
 
         // Filtro per regista
-        String registaSelezionato = view.getRegistaSelezionato();
+        String registaSelezionato = criteri.getRegista();
         if (registaSelezionato != null && !registaSelezionato.equals("Tutti")) {
+            String registaMinuscolo = Minuscole.di(registaSelezionato);
             films = films.stream()
-                    .filter(film -> film.getRegista().toLowerCase().contains(registaSelezionato.toLowerCase()))
+                    .filter(film -> Minuscole.di(film.getRegista()).contains(registaMinuscolo))
                     .collect(Collectors.toList());
         }
 
         //Filtro per anno di uscita
-        String annoUscitaSelezionato = view.getAnnoUscitaSelezionato();
+        String annoUscitaSelezionato = criteri.getAnnoUscita();
         if (annoUscitaSelezionato != null && !annoUscitaSelezionato.equals("Tutti")) {
+            int anno = Film.leggiAnno(annoUscitaSelezionato);
             films = films.stream()
-                    .filter(film -> film.getAnnoUscita().equals(annoUscitaSelezionato))
+                    .filter(film -> film.getAnno() == anno)
                     .collect(Collectors.toList());
         }
 
         // Filtro per stato di visione
-        String statoVisioneSelezionato = view.getStatoVisioneSelezionato();
+        String statoVisioneSelezionato = criteri.getStatoVisione();
         if (statoVisioneSelezionato != null && !statoVisioneSelezionato.equals("Tutti")) {
             try {
                 StatoVisione stato = StatoVisione.fromString(statoVisioneSelezionato);
@@ -307,7 +517,7 @@ public class FilmController {
         }
 
         // Filtro per valutazione
-        int valutazioneSelezionata = view.getValutazioneSelezionata();
+        int valutazioneSelezionata = criteri.getValutazione();
         if (valutazioneSelezionata >= 0) {
             films = films.stream()
                     .filter(film -> film.getValutazione() == valutazioneSelezionata)
@@ -318,13 +528,14 @@ public class FilmController {
     }
 
     /**
-     * Applica l'ordinamento selezionato nella vista a una lista di films.
+     * Applica l'ordinamento selezionato a una lista di films.
      *
-     * @param films Lista di films da ordinare
+     * @param films   Lista di films da ordinare
+     * @param criteri Criteri contenenti l'ordinamento selezionato nella vista
      * @return Lista ordinata di films
      */
-    private List<Film> applicaOrdinamento(List<Film> films) {
-        String ordinamentoSelezionato = view.getOrdinamentoSelezionato();
+    List<Film> applicaOrdinamento(List<Film> films, CriteriRicerca criteri) {
+        String ordinamentoSelezionato = criteri.getOrdinamento();
         if (ordinamentoSelezionato != null) {
             OrdinatoreFilmStrategy strategy = null;
 
@@ -370,28 +581,112 @@ public class FilmController {
      * Aggiorna la tabella nella vista con la lista filtrata e ordinata.
      */
     public void aggiornaTabella() {
-        // Ottiene la lista dei films
-        List<Film> films = gestoreVideoteca.getFilms();
-
-        films = cercaFilms(view.getCampoCerca(), view.getCampoTipoCerca());
+        // Un aggiornamento sincrono rende obsoleta qualsiasi ricerca incrementale ancora in corso
+        ricercaIncrementale.annulla();
+        long inizio = System.nanoTime();
 
-        // Applica i filtri
-        films = applicaFiltri(films);
+        CriteriRicerca criteri = leggiCriteri();
 
-        // Applica l'ordinamento
-        films = applicaOrdinamento(films);
+        // Applica ricerca, filtri e ordinamento
+        List<Film> films = filtraVideoteca(criteri);
 
         // Aggiorna la tabella nella vista
+        long inizioRiempimento = System.nanoTime();
         view.aggiornaTabella(films);
+        long fineRiempimento = System.nanoTime();
+        TEMPO_RIEMPIMENTO.registra(fineRiempimento - inizioRiempimento);
+
+        // Aggiorna le combo box di filtro; se un valore selezionato non esiste più
+        // il filtro torna a "Tutti" e la tabella va ricalcolata
+        boolean selezioneCambiata = aggiornaComboBoxFiltri();
+        TEMPO_FACCETTE.registraDa(fineRiempimento);
+        TEMPO_TABELLA.registraDa(inizio);
+        if (selezioneCambiata) {
+            aggiornaTabella();
+        }
+    }
+
+    /**
+     * Aggiorna le combo box di filtro con i valori presenti nella videoteca.
+     *
+     * @return true se almeno una selezione è cambiata perché il valore selezionato non è più disponibile
+     */
+    private boolean aggiornaComboBoxFiltri() {
+        boolean selezioneCambiata = view.aggiornaComboBoxGeneri(gestoreVideoteca.getGeneriUnici());
+        selezioneCambiata |= view.aggiornaComboBoxRegisti(gestoreVideoteca.getRegistiUnici());
+        selezioneCambiata |= view.aggiornaComboBoxAnnoUscita(gestoreVideoteca.getAnnoUscitaUnici());
+        return selezioneCambiata;
+    }
+
+    /**
+     * Applica alla vista un blocco di modifiche della videoteca ricevute dal GestoreVideoteca.
+     * Se la tabella mostra l'intera videoteca nell'ordine predefinito, le righe vengono aggiornate
+     * singolarmente nella riga indicata da ciascun evento; altrimenti (ricerca, filtri o ordinamento attivi,
+     * ricaricamenti, blocchi molto grandi o una riga che non visualizza il film dell'evento)
+     * la tabella viene ricostruita una sola volta per l'intero blocco.
+     *
+     * @param eventi Modifiche avvenute dall'ultimo aggiornamento
+     */
+    private void applicaModifiche(List<EventoVideoteca> eventi) {
+        boolean puntuale = eventi.size() <= MAX_MODIFICHE_PUNTUALI && mostraVideotecaCompleta(leggiCriteri());
+        for (int i = 0; puntuale && i < eventi.size(); i++) {
+            EventoVideoteca evento = eventi.get(i);
+            switch (evento.getTipo()) {
+                case INSERIMENTO:
+                    puntuale = view.aggiungiFilmInTabella(evento.getIndice(), evento.getFilm());
+                    break;
+                case MODIFICA:
+                    puntuale = view.sostituisciFilmInTabella(evento.getIndice(), evento.getFilmPrecedente(), evento.getFilm());
+                    break;
+                case ELIMINAZIONE:
+                    puntuale = view.rimuoviFilmDallaTabella(evento.getIndice(), evento.getFilm());
+                    break;
+                default:
+                    puntuale = false;
+                    break;
+            }
+        }
+
+        if (!puntuale) {
+            aggiornaTabella();
+        } else if (aggiornaComboBoxFiltri()) {
+            aggiornaTabella();
+        }
+    }
+
+    /**
+     * Verifica se con i criteri indicati la tabella mostra tutti i films nell'ordine della videoteca.
+     *
+     * @param criteri Criteri selezionati nella vista
+     * @return true se non sono attivi ricerca, filtri o ordinamento
+     */
+    private boolean mostraVideotecaCompleta(CriteriRicerca criteri) {
+        return (criteri.getTestoCerca() == null || criteri.getTestoCerca().trim().isEmpty())
+                && isTutti(criteri.getGenere())
+                && isTutti(criteri.getRegista())
+                && isTutti(criteri.getAnnoUscita())
+                && isTutti(criteri.getStatoVisione())
+                && criteri.getValutazione() < 0
+                && (criteri.getOrdinamento() == null || "Predefinito".equals(criteri.getOrdinamento()));
+    }
+
+    private boolean isTutti(String valoreFiltro) {
+        return valoreFiltro == null || "Tutti".equals(valoreFiltro);
+    }
 
-        // Aggiorna le combo box di filtro
-        view.aggiornaComboBoxGeneri(gestoreVideoteca.getGeneriUnici());
-        view.aggiornaComboBoxRegisti(gestoreVideoteca.getRegistiUnici());
-        view.aggiornaComboBoxAnnoUscita(gestoreVideoteca.getAnnoUscitaUnici());
+    /**
+     * Aggiorna la tabella mentre l'utente digita nel campo di ricerca.
+     * Ricerca, filtri e ordinamento vengono eseguiti in background; le combo box dei filtri
+     * non vengono ricostruite perché la collezione non cambia.
+     */
+    public void cercaMentreDigiti() {
+        ricercaIncrementale.cerca(gestoreVideoteca.getFilms(), gestoreVideoteca.getVersione(),
+                leggiCriteri(), view::aggiornaTabella);
     }
 
     /**
      * Salva la videoteca nel formato specificato.
+     * Salva anche la cronologia undo/redo in un file affiancato, ripristinata al successivo caricamento.
      *
      * @param percorsoFile Percorso del file
      * @param formato      Formato del file (JSON o CSV)
@@ -403,6 +698,16 @@ public class FilmController {
             } else if ("CSV".equalsIgnoreCase(formato)) {
                 gestoreVideoteca.salvaFilmsInCsv(percorsoFile);
             }
+
+            // La cronologia undo/redo viene conservata accanto al file salvato
+            File catalogo = new File(percorsoFile);
+            try {
+                commandManager.registraSalvataggio(CronologiaPersistente.percorsoPer(percorsoFile),
+                        catalogo.length(), catalogo.lastModified());
+            } catch (IOException e) {
+                System.err.println("Impossibile salvare la cronologia: " + e.getMessage());
+            }
+            ricordaUltimaVideoteca(percorsoFile, formato);
             return new Status(true, "Videoteca salvata con successo in " + formato + " nel file: " + percorsoFile);
         } catch (IOException e) {
             return new Status(false, "Errore durante il salvataggio della videoteca: " + e.getMessage());
@@ -411,44 +716,119 @@ public class FilmController {
 
     /**
      * Carica la videoteca dal formato specificato.
+     * Se accanto al file è salvata una cronologia undo/redo che corrisponde ancora al suo contenuto,
+     * viene ripristinata quella; altrimenti il caricamento diventa un comando che può essere annullato.
      *
      * @param percorsoFile Percorso del file
      * @param formato      Formato del file (JSON o CSV)
      * @return Status con esito e messaggio
      */
     public Status caricaVideoteca(String percorsoFile, String formato) {
+        if (!"JSON".equalsIgnoreCase(formato) && !"CSV".equalsIgnoreCase(formato)) {
+            //IN TEORIA QUI NON DOVREBBE MAI ARRIVARCI
+            System.err.println("Formato non supportato: " + formato);
+            return new Status(false, "Formato non supportato: " + formato);
+        }
         try {
-            if ("JSON".equalsIgnoreCase(formato)) {
-                gestoreVideoteca.caricaFilmsDaJson(percorsoFile);
-            } else if ("CSV".equalsIgnoreCase(formato)) {
-                gestoreVideoteca.caricaFilmsDaCsv(percorsoFile);
-            } else {
-                //IN TEORIA QUI NON DOVREBBE MAI ARRIVARCI
-                System.err.println("Formato non supportato: " + formato);
-                return new Status(false, "Formato non supportato: " + formato);
-            }
-
-            aggiornaTabella();
-
-            // Quando si carica una nuova videoteca, si svuotano gli stack undo/redo
-            commandManager.clearStacks();
-            aggiornaStatoPulsanti();
+            installaCatalogo(leggiCatalogo(percorsoFile, formato), percorsoFile, formato);
             return new Status(true, "Videoteca caricata con successo dal file: " + percorsoFile);
         } catch (IOException e) {
             return new Status(false, "Errore durante il caricamento della videoteca: " + e.getMessage());
         }
     }
 
+    /**
+     * Legge un catalogo da file senza renderlo corrente; non accede alla vista né alla cronologia,
+     * quindi può essere eseguito in un thread in background.
+     */
+    private CatalogoFilm leggiCatalogo(String percorsoFile, String formato) throws IOException {
+        return "CSV".equalsIgnoreCase(formato)
+                ? gestoreVideoteca.caricaCatalogoDaCsv(percorsoFile)
+                : gestoreVideoteca.caricaCatalogoDaJson(percorsoFile);
+    }
+
+    /**
+     * Rende corrente un catalogo letto da file.
+     * Se il file ha una propria cronologia undo/redo, si riparte da quella; altrimenti il caricamento
+     * diventa un comando che può essere annullato.
+     */
+    private void installaCatalogo(CatalogoFilm catalogoCaricato, String percorsoFile, String formato) {
+        File catalogo = new File(percorsoFile);
+        boolean cronologiaRipristinata = false;
+        try {
+            cronologiaRipristinata = commandManager.apriCronologia(CronologiaPersistente.percorsoPer(percorsoFile),
+                    this, catalogo.length(), catalogo.lastModified());
+        } catch (IOException e) {
+            System.err.println("Impossibile leggere la cronologia: " + e.getMessage());
+        }
+
+        if (cronologiaRipristinata) {
+            gestoreVideoteca.ripristinaCatalogo(catalogoCaricato);
+        } else {
+            commandManager.executeCommand(new CaricaVideotecaCommand(this, catalogoCaricato, percorsoFile));
+        }
+        ricordaUltimaVideoteca(percorsoFile, formato);
+        aggiornaStatoPulsanti();
+    }
+
+    /**
+     * Carica in background l'ultima videoteca salvata o caricata dall'interfaccia grafica, se il file esiste ancora.
+     * La lettura del file avviene fuori dal thread di eventi Swing, così che la finestra sia subito utilizzabile;
+     * il catalogo letto viene reso corrente solo se nel frattempo l'utente non ha già modificato la videoteca.
+     * Deve essere chiamato dal thread di eventi Swing.
+     */
+    public void caricaUltimaVideoteca() {
+        long versioneIniziale = gestoreVideoteca.getVersione();
+        new SwingWorker<CatalogoFilm, Void>() {
+            private String percorsoFile;
+            private String formato;
+
+            @Override
+            protected CatalogoFilm doInBackground() throws IOException {
+                Preferences preferenze = Preferences.userNodeForPackage(FilmController.class);
+                percorsoFile = preferenze.get(PREF_ULTIMA_VIDEOTECA, null);
+                formato = preferenze.get(PREF_ULTIMO_FORMATO, "JSON");
+                if (percorsoFile == null || !new File(percorsoFile).isFile()) {
+                    return null;
+                }
+                return leggiCatalogo(percorsoFile, formato);
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    CatalogoFilm catalogo = get();
+                    if (catalogo != null && gestoreVideoteca.getVersione() == versioneIniziale) {
+                        installaCatalogo(catalogo, percorsoFile, formato);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    System.err.println("Impossibile caricare l'ultima videoteca: " + e.getCause().getMessage());
+                }
+            }
+        }.execute();
+    }
+
+    /**
+     * Ricorda il file della videoteca per ricaricarlo al prossimo avvio dell'interfaccia grafica.
+     * Senza una vista (es. nei test o a riga di comando) non viene ricordato nulla.
+     */
+    private void ricordaUltimaVideoteca(String percorsoFile, String formato) {
+        if (view == null) {
+            return;
+        }
+        Preferences preferenze = Preferences.userNodeForPackage(FilmController.class);
+        preferenze.put(PREF_ULTIMA_VIDEOTECA, new File(percorsoFile).getAbsolutePath());
+        preferenze.put(PREF_ULTIMO_FORMATO, formato.toUpperCase());
+    }
+
     /**
      * Pulisce la videoteca, rimuovendo tutti i films presenti.
-     * Svuota anche gli stack di undo e redo.
+     * L'operazione può essere annullata: il comando conserva il catalogo precedente senza copiarlo.
      */
     public void pulisciVideoteca() {
-        gestoreVideoteca.pulisciVideoteca();
-        aggiornaTabella();
-
-        // Svuota gli stack undo/redo quando si pulisce la videoteca
-        commandManager.clearStacks();
+        commandManager.executeCommand(new PulisciVideotecaCommand(this));
         aggiornaStatoPulsanti();
     }
 
@@ -1,5 +1,7 @@
 package controller;
 
+import metriche.EventoOrdinamento;
+import metriche.EventoRicerca;
 import model.Film;
 import strategy.OrdinatoreFilmStrategy;
 import strategy.dao.CsvFilmDAO;
@@ -8,12 +10,26 @@ import strategy.dao.JsonFilmDAO;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 /**
- * Implementazione del pattern Singleton per la gestione centralizzata dei films.
- * Gestisce la collezione di films e le operazioni di ricerca, filtro e ordinamento.
+ * Gestore di una videoteca: la collezione di films e le operazioni di ricerca, filtro e ordinamento.
+ * L'istanza predefinita è un Singleton; altre videoteche indipendenti, ad esempio una per utente,
+ * si ottengono dal RegistroVideoteche.
+ * La collezione è un CatalogoFilm immutabile: ogni modifica ne produce una nuova versione,
+ * così che una versione precedente possa essere conservata e ripristinata senza copiarla.
+ * <p>
+ * Il gestore può essere usato da più thread: le modifiche sono serializzate dal monitor del gestore
+ * e ciascuna pubblica il nuovo catalogo con un'unica scrittura volatile, mentre le letture non prendono
+ * alcun lock e vedono sempre una versione completa, prima o dopo ogni modifica.
+ * Gli eventi vengono accodati sotto il monitor, nell'ordine delle modifiche, e consegnati agli ascoltatori
+ * dopo averlo rilasciato: un ascoltatore lento non blocca le altre modifiche.
  */
 public class GestoreVideoteca {
 
@@ -21,18 +37,30 @@ public class GestoreVideoteca {
     private static GestoreVideoteca instance;
 
     // Attributi del gestore
-    private List<Film> films;
-    private final FilmDAO jsonDAO;
-    private final FilmDAO csvDAO;
+    private volatile CatalogoFilm catalogo; // versione corrente della collezione, pubblicata ai lettori
+    private volatile long versione; // incrementata a ogni modifica della collezione
+    private final List<AscoltatoreVideoteca> ascoltatori;
+    private final Queue<EventoVideoteca> eventiDaConsegnare; // accodati sotto il monitor, in ordine
+    private final AtomicBoolean consegnaInCorso;
 
     /**
-     * Costruttore privato per il pattern Singleton.
-     * Inizializza le liste e gli oggetti DAO.
+     * DAO senza stato condivisi da tutte le videoteche, creati solo al primo salvataggio o caricamento
+     * così che l'avvio dell'applicazione non debba caricarne le classi.
      */
-    private GestoreVideoteca() {
-        this.films = new ArrayList<>();
-        this.jsonDAO = new JsonFilmDAO();
-        this.csvDAO = new CsvFilmDAO();
+    private static final class DAO {
+        static final FilmDAO JSON = new JsonFilmDAO();
+        static final FilmDAO CSV = new CsvFilmDAO();
+    }
+
+    /**
+     * Costruttore usato dal Singleton e dal RegistroVideoteche.
+     * Inizializza la collezione vuota e gli ascoltatori.
+     */
+    GestoreVideoteca() {
+        this.catalogo = CatalogoFilm.VUOTO;
+        this.ascoltatori = new CopyOnWriteArrayList<>();
+        this.eventiDaConsegnare = new ConcurrentLinkedQueue<>();
+        this.consegnaInCorso = new AtomicBoolean();
     }
 
     /**
@@ -49,14 +77,35 @@ public class GestoreVideoteca {
 
     /**
      * Aggiunge un film alla collezione.
+     * Il film mantiene la sua posizione anche dopo le modifiche.
      *
      * @param film Film da aggiungere
      * @return true se l'operazione è andata a buon fine, false altrimenti
      */
     public boolean aggiungiFilm(Film film) {
+        boolean aggiunto;
+        synchronized (this) {
+            aggiunto = inserisciFilm(film);
+            if (aggiunto) {
+                accoda(new EventoVideoteca(EventoVideoteca.Tipo.INSERIMENTO, film, null, catalogo.dimensione() - 1));
+            }
+        }
+        consegnaEventi();
+        return aggiunto;
+    }
+
+    /**
+     * Inserisce un film nella collezione senza notificare gli ascoltatori.
+     *
+     * @param film Film da inserire
+     * @return true se il film è stato inserito, false se nullo o già presente
+     */
+    private boolean inserisciFilm(Film film) {
         // Verifica che il film non sia già presente
-        if (film != null && !films.contains(film)) {
-            return films.add(film);
+        if (film != null && !catalogo.contiene(film)) {
+            catalogo = catalogo.aggiungi(film);
+            versione++;
+            return true;
         }
         return false;
     }
@@ -69,9 +118,25 @@ public class GestoreVideoteca {
      * @return true se l'operazione è andata a buon fine, false altrimenti
      */
     public boolean modificaFilm(Film vecchioFilm, Film nuovoFilm) {
-        if (films.contains(nuovoFilm)) {
-            //recupero il film già presente
-            Film filmPresente = films.get(films.indexOf(nuovoFilm));
+        boolean modificato;
+        synchronized (this) {
+            modificato = sostituisciFilm(vecchioFilm, nuovoFilm);
+        }
+        consegnaEventi();
+        return modificato;
+    }
+
+    /**
+     * Sostituisce un film nella collezione e accoda l'evento, sotto il monitor del gestore.
+     *
+     * @param vecchioFilm Film da modificare
+     * @param nuovoFilm   Film con i nuovi dati
+     * @return true se il film è stato sostituito, false se non presente
+     */
+    private boolean sostituisciFilm(Film vecchioFilm, Film nuovoFilm) {
+        //recupero il film già presente
+        Film filmPresente = catalogo.trova(nuovoFilm);
+        if (filmPresente != null) {
             if (!filmPresente.equals(vecchioFilm)) {
                 throw new IllegalArgumentException("1 - Stai cercando di modificare un film in un altro già esistente.");
             }
@@ -82,9 +147,13 @@ public class GestoreVideoteca {
                 throw new IllegalArgumentException("2 - Non sono stati apportati cambiamenti al film.");
             }
         }
-        int index = films.indexOf(vecchioFilm);
-        if (index != -1) {
-            films.set(index, nuovoFilm);
+        // Il nuovo film prende il posto del vecchio mantenendone la posizione
+        Film filmSostituito = catalogo.trova(vecchioFilm);
+        if (filmSostituito != null) {
+            catalogo = catalogo.sostituisci(vecchioFilm, nuovoFilm);
+            versione++;
+            accoda(new EventoVideoteca(EventoVideoteca.Tipo.MODIFICA, nuovoFilm, filmSostituito,
+                    catalogo.indiceDi(nuovoFilm)));
             return true;
         }
         return false;
@@ -97,16 +166,174 @@ public class GestoreVideoteca {
      * @return true se l'operazione è andata a buon fine, false altrimenti
      */
     public boolean eliminaFilm(Film film) {
-        return films.remove(film);
+        synchronized (this) {
+            Film filmEliminato = catalogo.trova(film);
+            if (filmEliminato == null) {
+                return false;
+            }
+            int indice = catalogo.indiceDi(film);
+            catalogo = catalogo.rimuovi(film);
+            versione++;
+            accoda(new EventoVideoteca(EventoVideoteca.Tipo.ELIMINAZIONE, filmEliminato, null, indice));
+        }
+        consegnaEventi();
+        return true;
+    }
+
+    /**
+     * Aggiunge più films alla collezione in un'unica passata.
+     * I films nulli o già presenti vengono ignorati.
+     *
+     * @param daAggiungere Films da aggiungere
+     * @return Lista dei films effettivamente aggiunti
+     */
+    public List<Film> aggiungiFilms(List<Film> daAggiungere) {
+        List<Film> aggiunti = new ArrayList<>();
+        synchronized (this) {
+            CatalogoFilm nuovoCatalogo = catalogo;
+            int primoIndice = nuovoCatalogo.dimensione();
+            for (Film film : daAggiungere) {
+                if (film != null && !nuovoCatalogo.contiene(film)) {
+                    nuovoCatalogo = nuovoCatalogo.aggiungi(film);
+                    aggiunti.add(film);
+                }
+            }
+
+            // I lettori vedono tutti i films aggiunti o nessuno
+            if (!aggiunti.isEmpty()) {
+                catalogo = nuovoCatalogo;
+                versione++;
+            }
+            for (int i = 0; i < aggiunti.size(); i++) {
+                accoda(new EventoVideoteca(EventoVideoteca.Tipo.INSERIMENTO, aggiunti.get(i), null, primoIndice + i));
+            }
+        }
+        consegnaEventi();
+        return aggiunti;
+    }
+
+    /**
+     * Modifica più films in un'unica passata, sostituendo ciascun film con la sua nuova versione.
+     * Una modifica multipla può cambiare solo genere, valutazione e stato di visione: se anche una sola coppia
+     * cambia titolo, regista o anno di uscita non viene modificato nessun film.
+     *
+     * @param vecchiFilms Films da modificare
+     * @param nuoviFilms  Nuove versioni dei films, nello stesso ordine
+     * @return Lista dei films sostituiti (i vecchi films effettivamente presenti nella collezione)
+     * @throws IllegalArgumentException se le liste hanno dimensioni diverse o una coppia cambia film
+     */
+    public List<Film> modificaFilms(List<Film> vecchiFilms, List<Film> nuoviFilms) {
+        if (vecchiFilms.size() != nuoviFilms.size()) {
+            throw new IllegalArgumentException("Il numero di films da modificare non corrisponde al numero di nuovi films.");
+        }
+        for (int i = 0; i < vecchiFilms.size(); i++) {
+            if (!vecchiFilms.get(i).equals(nuoviFilms.get(i))) {
+                throw new IllegalArgumentException("La modifica multipla non può cambiare titolo, regista o anno di uscita.");
+            }
+        }
+
+        List<Film> sostituiti = new ArrayList<>();
+        synchronized (this) {
+            List<EventoVideoteca> eventi = new ArrayList<>();
+            CatalogoFilm nuovoCatalogo = catalogo;
+            for (int i = 0; i < vecchiFilms.size(); i++) {
+                Film nuovoFilm = nuoviFilms.get(i);
+                Film filmSostituito = nuovoCatalogo.trova(vecchiFilms.get(i));
+                if (filmSostituito != null) {
+                    nuovoCatalogo = nuovoCatalogo.sostituisci(filmSostituito, nuovoFilm);
+                    sostituiti.add(filmSostituito);
+                    eventi.add(new EventoVideoteca(EventoVideoteca.Tipo.MODIFICA, nuovoFilm, filmSostituito,
+                            nuovoCatalogo.indiceDi(nuovoFilm)));
+                }
+            }
+
+            if (!sostituiti.isEmpty()) {
+                catalogo = nuovoCatalogo;
+                versione++;
+            }
+            eventi.forEach(this::accoda);
+        }
+        consegnaEventi();
+        return sostituiti;
+    }
+
+    /**
+     * Elimina più films dalla collezione in un'unica passata.
+     *
+     * @param daEliminare Films da eliminare
+     * @return Lista dei films effettivamente eliminati (le istanze presenti nella collezione)
+     */
+    public List<Film> eliminaFilms(List<Film> daEliminare) {
+        List<Film> eliminati = new ArrayList<>();
+        synchronized (this) {
+            List<EventoVideoteca> eventi = new ArrayList<>();
+            CatalogoFilm nuovoCatalogo = catalogo;
+            for (Film film : daEliminare) {
+                Film filmEliminato = nuovoCatalogo.trova(film);
+                if (filmEliminato != null) {
+                    // Ogni indice tiene conto delle eliminazioni precedenti dello stesso blocco
+                    int indice = nuovoCatalogo.indiceDi(film);
+                    nuovoCatalogo = nuovoCatalogo.rimuovi(film);
+                    eliminati.add(filmEliminato);
+                    eventi.add(new EventoVideoteca(EventoVideoteca.Tipo.ELIMINAZIONE, filmEliminato, null, indice));
+                }
+            }
+
+            if (!eliminati.isEmpty()) {
+                catalogo = nuovoCatalogo;
+                versione++;
+            }
+            eventi.forEach(this::accoda);
+        }
+        consegnaEventi();
+        return eliminati;
     }
 
     /**
      * Ottiene la lista completa dei films.
+     * La lista è una vista immutabile del catalogo corrente, ottenuta in O(1) senza copie:
+     * le modifiche successive della videoteca producono un nuovo catalogo e non la alterano,
+     * quindi può essere letta anche da altri thread.
      *
-     * @return Lista dei films
+     * @return Lista immutabile dei films
      */
     public List<Film> getFilms() {
-        return new ArrayList<>(films); // Restituisce una copia per evitare modifiche esterne
+        return catalogo.getFilms();
+    }
+
+    /**
+     * Ottiene la versione corrente del catalogo, senza copiarla.
+     * Il catalogo è immutabile: le modifiche successive della videoteca non lo alterano.
+     *
+     * @return Catalogo corrente
+     */
+    public CatalogoFilm getCatalogo() {
+        return catalogo;
+    }
+
+    /**
+     * Sostituisce l'intera collezione con un catalogo, ad esempio una versione precedente conservata
+     * per annullare una pulizia o un caricamento.
+     *
+     * @param nuovoCatalogo Catalogo da rendere corrente
+     */
+    public void ripristinaCatalogo(CatalogoFilm nuovoCatalogo) {
+        synchronized (this) {
+            catalogo = nuovoCatalogo;
+            versione++;
+            accoda(new EventoVideoteca(EventoVideoteca.Tipo.RICARICAMENTO, null, null));
+        }
+        consegnaEventi();
+    }
+
+    /**
+     * Ottiene la versione corrente della collezione.
+     * La versione cambia a ogni aggiunta, modifica, eliminazione, caricamento o pulizia.
+     *
+     * @return Versione della collezione
+     */
+    public long getVersione() {
+        return versione;
     }
 
     /**
@@ -119,11 +346,30 @@ public class GestoreVideoteca {
         if (titolo == null || titolo.trim().isEmpty()) {
             return getFilms();
         }
+        return cercaPerTitolo(getFilms(), titolo);
+    }
+
+    /**
+     * Cerca per titolo tra i films indicati anziché nell'intera collezione.
+     * Non accede allo stato del gestore, quindi può essere usato anche fuori dal thread di eventi Swing.
+     *
+     * @param filmsDaCercare Films tra cui cercare
+     * @param titolo         Titolo da cercare (match parziale, case-insensitive)
+     * @return Lista di films che corrispondono alla ricerca
+     */
+    public List<Film> cercaPerTitolo(Collection<Film> filmsDaCercare, String titolo) {
+        if (titolo == null || titolo.trim().isEmpty()) {
+            return new ArrayList<>(filmsDaCercare);
+        }
 
-        String titoloLower = titolo.toLowerCase();
-        return films.stream()
-                .filter(film -> film.getTitolo().toLowerCase().contains(titoloLower))
+        EventoRicerca evento = new EventoRicerca();
+        evento.begin();
+        String titoloLower = Minuscole.di(titolo);
+        List<Film> risultato = filmsDaCercare.stream()
+                .filter(film -> Minuscole.di(film.getTitolo()).contains(titoloLower))
                 .collect(Collectors.toList());
+        evento.registra("titolo", titolo, filmsDaCercare.size(), risultato.size());
+        return risultato;
     }
 
     /**
@@ -136,11 +382,30 @@ public class GestoreVideoteca {
         if (regista == null || regista.trim().isEmpty()) {
             return getFilms();
         }
+        return cercaPerRegista(getFilms(), regista);
+    }
 
-        String registaLower = regista.toLowerCase();
-        return films.stream()
-                .filter(film -> film.getRegista().toLowerCase().contains(registaLower))
+    /**
+     * Cerca per regista tra i films indicati anziché nell'intera collezione.
+     * Non accede allo stato del gestore, quindi può essere usato anche fuori dal thread di eventi Swing.
+     *
+     * @param filmsDaCercare Films tra cui cercare
+     * @param regista        Regista da cercare (match parziale, case-insensitive)
+     * @return Lista di films che corrispondono alla ricerca
+     */
+    public List<Film> cercaPerRegista(Collection<Film> filmsDaCercare, String regista) {
+        if (regista == null || regista.trim().isEmpty()) {
+            return new ArrayList<>(filmsDaCercare);
+        }
+
+        EventoRicerca evento = new EventoRicerca();
+        evento.begin();
+        String registaLower = Minuscole.di(regista);
+        List<Film> risultato = filmsDaCercare.stream()
+                .filter(film -> Minuscole.di(film.getRegista()).contains(registaLower))
                 .collect(Collectors.toList());
+        evento.registra("regista", regista, filmsDaCercare.size(), risultato.size());
+        return risultato;
     }
 
     /**
@@ -155,8 +420,11 @@ public class GestoreVideoteca {
             return filmsDaOrdinare;
         }
 
+        EventoOrdinamento evento = new EventoOrdinamento();
+        evento.begin();
         List<Film> result = new ArrayList<>(filmsDaOrdinare);
         strategy.ordina(result);
+        evento.registra(strategy, result.size());
         return result;
     }
 
@@ -167,7 +435,18 @@ public class GestoreVideoteca {
      * @throws IOException In caso di errori durante la lettura del file
      */
     public void caricaFilmsDaJson(String percorsoFile) throws IOException {
-        films = jsonDAO.caricaFilms(percorsoFile);
+        ripristinaCatalogo(caricaCatalogoDaJson(percorsoFile));
+    }
+
+    /**
+     * Legge un catalogo da un file JSON senza sostituire la collezione corrente.
+     *
+     * @param percorsoFile Percorso del file JSON
+     * @return Catalogo con i films letti
+     * @throws IOException In caso di errori durante la lettura del file
+     */
+    public CatalogoFilm caricaCatalogoDaJson(String percorsoFile) throws IOException {
+        return CatalogoFilm.di(DAO.JSON.caricaFilms(percorsoFile));
     }
 
     /**
@@ -177,7 +456,7 @@ public class GestoreVideoteca {
      * @throws IOException In caso di errori durante la scrittura del file
      */
     public void salvaFilmsInJson(String percorsoFile) throws IOException {
-        jsonDAO.salvaFilms(films, percorsoFile);
+        DAO.JSON.salvaFilms(getFilms(), percorsoFile);
     }
 
     /**
@@ -187,7 +466,18 @@ public class GestoreVideoteca {
      * @throws IOException In caso di errori durante la lettura del file
      */
     public void caricaFilmsDaCsv(String percorsoFile) throws IOException {
-        films = csvDAO.caricaFilms(percorsoFile);
+        ripristinaCatalogo(caricaCatalogoDaCsv(percorsoFile));
+    }
+
+    /**
+     * Legge un catalogo da un file CSV senza sostituire la collezione corrente.
+     *
+     * @param percorsoFile Percorso del file CSV
+     * @return Catalogo con i films letti
+     * @throws IOException In caso di errori durante la lettura del file
+     */
+    public CatalogoFilm caricaCatalogoDaCsv(String percorsoFile) throws IOException {
+        return CatalogoFilm.di(DAO.CSV.caricaFilms(percorsoFile));
     }
 
     /**
@@ -197,7 +487,7 @@ public class GestoreVideoteca {
      * @throws IOException In caso di errori durante la scrittura del file
      */
     public void salvaFilmsInCsv(String percorsoFile) throws IOException {
-        csvDAO.salvaFilms(films, percorsoFile);
+        DAO.CSV.salvaFilms(getFilms(), percorsoFile);
     }
 
     /**
@@ -206,7 +496,7 @@ public class GestoreVideoteca {
      * @return Lista di generi unici
      */
     public List<String> getGeneriUnici() {
-        return films.stream()
+        return getFilms().stream()
                 .map(Film::getGenere)
                 .distinct()
                 .sorted()
@@ -219,7 +509,7 @@ public class GestoreVideoteca {
      * @return Lista di registi unici
      */
     public List<String> getRegistiUnici() {
-        return films.stream()
+        return getFilms().stream()
                 .map(Film::getRegista)
                 .distinct()
                 .sorted()
@@ -232,18 +522,74 @@ public class GestoreVideoteca {
      * @return Lista di anni di uscita unici
      */
     public List<String> getAnnoUscitaUnici() {
-        return films.stream()
-                .map(Film::getAnnoUscita)
+        return getFilms().stream()
+                .mapToInt(Film::getAnno)
                 .distinct()
                 .sorted()
+                .mapToObj(Film::testoAnno)
                 .collect(Collectors.toList());
     }
 
     /**
      * Pulisce completamente la videoteca rimuovendo tutti i films.
-     * Questa operazione non può essere annullata.
+     * Il catalogo precedente, ottenuto con getCatalogo, può essere ripristinato con ripristinaCatalogo.
      */
     public void pulisciVideoteca() {
-        films.clear();
+        ripristinaCatalogo(CatalogoFilm.VUOTO);
+    }
+
+    /**
+     * Registra un ascoltatore che verrà notificato a ogni modifica della collezione.
+     *
+     * @param ascoltatore Ascoltatore da registrare
+     */
+    public void aggiungiAscoltatore(AscoltatoreVideoteca ascoltatore) {
+        ascoltatori.add(ascoltatore);
+    }
+
+    /**
+     * Rimuove un ascoltatore registrato in precedenza.
+     *
+     * @param ascoltatore Ascoltatore da rimuovere
+     */
+    public void rimuoviAscoltatore(AscoltatoreVideoteca ascoltatore) {
+        ascoltatori.remove(ascoltatore);
+    }
+
+    /**
+     * Accoda un evento da consegnare agli ascoltatori. Va chiamato sotto il monitor del gestore,
+     * così che gli eventi restino nell'ordine delle modifiche.
+     *
+     * @param evento Evento da consegnare
+     */
+    private void accoda(EventoVideoteca evento) {
+        eventiDaConsegnare.add(evento);
+    }
+
+    /**
+     * Consegna agli ascoltatori gli eventi accodati, fuori dal monitor del gestore.
+     * Un solo thread alla volta consegna, in ordine: se un altro thread sta già consegnando,
+     * sarà lui a consegnare anche gli eventi appena accodati. Le eccezioni degli ascoltatori vengono registrate
+     * e non arrivano al chiamante, la cui modifica è già avvenuta.
+     */
+    private void consegnaEventi() {
+        while (!eventiDaConsegnare.isEmpty() && consegnaInCorso.compareAndSet(false, true)) {
+            try {
+                EventoVideoteca evento;
+                while ((evento = eventiDaConsegnare.poll()) != null) {
+                    for (AscoltatoreVideoteca ascoltatore : ascoltatori) {
+                        try {
+                            ascoltatore.videotecaModificata(evento);
+                        } catch (RuntimeException e) {
+                            // La modifica è già pubblicata: l'errore di un ascoltatore non deve annullarla
+                            // né fermare la consegna agli altri ascoltatori e degli eventi successivi
+                            System.err.println("Errore di un ascoltatore della videoteca: " + e);
+                        }
+                    }
+                }
+            } finally {
+                consegnaInCorso.set(false);
+            }
+        }
     }
 }
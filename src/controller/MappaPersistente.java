@@ -0,0 +1,258 @@
+package controller;
+
+/**
+ * Mappa immutabile basata su un hash array mapped trie (HAMT).
+ * Ogni nodo usa una bitmap a 32 bit per indicare quali dei 5 bit successivi dell'hash sono presenti,
+ * così che un inserimento o una rimozione copi solo i nodi lungo il percorso (O(log32 n))
+ * e la nuova versione condivida tutto il resto con la precedente.
+ *
+ * @param <K> Tipo delle chiavi
+ * @param <V> Tipo dei valori
+ */
+final class MappaPersistente<K, V> {
+
+    private static final int BIT = 5;
+    private static final int MASCHERA = (1 << BIT) - 1;
+
+    private static final MappaPersistente<?, ?> VUOTA = new MappaPersistente<>(null, 0);
+
+    /**
+     * Nodo interno: per ogni bit impostato contiene una coppia (chiave, valore)
+     * oppure (null, sottonodo).
+     */
+    private static final class NodoBitmap {
+        final int bitmap;
+        final Object[] voci;
+
+        NodoBitmap(int bitmap, Object[] voci) {
+            this.bitmap = bitmap;
+            this.voci = voci;
+        }
+    }
+
+    /**
+     * Nodo per chiavi diverse con lo stesso hash: coppie (chiave, valore) in sequenza.
+     */
+    private static final class NodoCollisione {
+        final int hash;
+        final Object[] voci;
+
+        NodoCollisione(int hash, Object[] voci) {
+            this.hash = hash;
+            this.voci = voci;
+        }
+    }
+
+    private final Object radice; // NodoBitmap, NodoCollisione o null
+    private final int dimensione;
+
+    private MappaPersistente(Object radice, int dimensione) {
+        this.radice = radice;
+        this.dimensione = dimensione;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <K, V> MappaPersistente<K, V> vuota() {
+        return (MappaPersistente<K, V>) VUOTA;
+    }
+
+    int dimensione() {
+        return dimensione;
+    }
+
+    /**
+     * Restituisce il valore associato alla chiave, o null se la chiave non è presente.
+     */
+    @SuppressWarnings("unchecked")
+    V get(K chiave) {
+        int hash = hash(chiave);
+        Object nodo = radice;
+        int spostamento = 0;
+        while (nodo != null) {
+            if (nodo instanceof NodoCollisione) {
+                NodoCollisione collisione = (NodoCollisione) nodo;
+                int indice = indiceCollisione(collisione, chiave);
+                return indice >= 0 ? (V) collisione.voci[indice + 1] : null;
+            }
+            NodoBitmap bitmap = (NodoBitmap) nodo;
+            int bit = 1 << ((hash >>> spostamento) & MASCHERA);
+            if ((bitmap.bitmap & bit) == 0) {
+                return null;
+            }
+            int indice = 2 * Integer.bitCount(bitmap.bitmap & (bit - 1));
+            Object k = bitmap.voci[indice];
+            if (k == null) {
+                nodo = bitmap.voci[indice + 1];
+                spostamento += BIT;
+            } else {
+                return chiave.equals(k) ? (V) bitmap.voci[indice + 1] : null;
+            }
+        }
+        return null;
+    }
+
+    boolean contiene(K chiave) {
+        return get(chiave) != null;
+    }
+
+    /**
+     * Restituisce una nuova mappa con la chiave associata al valore (non null).
+     * Se la chiave è già presente, vengono sostituiti sia la chiave sia il valore.
+     */
+    MappaPersistente<K, V> put(K chiave, V valore) {
+        boolean[] aggiunta = new boolean[1];
+        Object nuovaRadice = inserisci(radice != null ? radice : new NodoBitmap(0, new Object[0]),
+                0, hash(chiave), chiave, valore, aggiunta);
+        return new MappaPersistente<>(nuovaRadice, aggiunta[0] ? dimensione + 1 : dimensione);
+    }
+
+    /**
+     * Restituisce una nuova mappa senza la chiave indicata (la stessa mappa se la chiave non è presente).
+     */
+    MappaPersistente<K, V> rimuovi(K chiave) {
+        if (radice == null) {
+            return this;
+        }
+        Object nuovaRadice = elimina(radice, 0, hash(chiave), chiave);
+        if (nuovaRadice == radice) {
+            return this;
+        }
+        return new MappaPersistente<>(nuovaRadice, dimensione - 1);
+    }
+
+    private static int hash(Object chiave) {
+        int h = chiave.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static Object inserisci(Object nodo, int spostamento, int hash, Object chiave, Object valore,
+                                    boolean[] aggiunta) {
+        if (nodo instanceof NodoCollisione) {
+            NodoCollisione collisione = (NodoCollisione) nodo;
+            if (collisione.hash == hash) {
+                int indice = indiceCollisione(collisione, chiave);
+                Object[] voci;
+                if (indice >= 0) {
+                    voci = collisione.voci.clone();
+                } else {
+                    indice = collisione.voci.length;
+                    voci = new Object[indice + 2];
+                    System.arraycopy(collisione.voci, 0, voci, 0, indice);
+                    aggiunta[0] = true;
+                }
+                voci[indice] = chiave;
+                voci[indice + 1] = valore;
+                return new NodoCollisione(hash, voci);
+            }
+            // Hash diverso: la collisione scende di un livello sotto un nodo bitmap
+            NodoBitmap contenitore = new NodoBitmap(1 << ((collisione.hash >>> spostamento) & MASCHERA),
+                    new Object[]{null, collisione});
+            return inserisci(contenitore, spostamento, hash, chiave, valore, aggiunta);
+        }
+
+        NodoBitmap bitmap = (NodoBitmap) nodo;
+        int bit = 1 << ((hash >>> spostamento) & MASCHERA);
+        int indice = 2 * Integer.bitCount(bitmap.bitmap & (bit - 1));
+
+        if ((bitmap.bitmap & bit) == 0) {
+            Object[] voci = new Object[bitmap.voci.length + 2];
+            System.arraycopy(bitmap.voci, 0, voci, 0, indice);
+            voci[indice] = chiave;
+            voci[indice + 1] = valore;
+            System.arraycopy(bitmap.voci, indice, voci, indice + 2, bitmap.voci.length - indice);
+            aggiunta[0] = true;
+            return new NodoBitmap(bitmap.bitmap | bit, voci);
+        }
+
+        Object k = bitmap.voci[indice];
+        Object v = bitmap.voci[indice + 1];
+        Object[] voci = bitmap.voci.clone();
+        if (k == null) {
+            voci[indice + 1] = inserisci(v, spostamento + BIT, hash, chiave, valore, aggiunta);
+        } else if (chiave.equals(k)) {
+            voci[indice] = chiave;
+            voci[indice + 1] = valore;
+        } else {
+            voci[indice] = null;
+            voci[indice + 1] = creaNodo(spostamento + BIT, k, v, hash, chiave, valore);
+            aggiunta[0] = true;
+        }
+        return new NodoBitmap(bitmap.bitmap, voci);
+    }
+
+    /**
+     * Crea il nodo che contiene due chiavi finite nella stessa posizione di un nodo bitmap.
+     */
+    private static Object creaNodo(int spostamento, Object chiave1, Object valore1,
+                                   int hash2, Object chiave2, Object valore2) {
+        int hash1 = hash(chiave1);
+        if (hash1 == hash2) {
+            return new NodoCollisione(hash1, new Object[]{chiave1, valore1, chiave2, valore2});
+        }
+        boolean[] ignorata = new boolean[1];
+        Object nodo = inserisci(new NodoBitmap(0, new Object[0]), spostamento, hash1, chiave1, valore1, ignorata);
+        return inserisci(nodo, spostamento, hash2, chiave2, valore2, ignorata);
+    }
+
+    /**
+     * Rimuove la chiave dal sottoalbero. Restituisce lo stesso nodo se la chiave non è presente,
+     * null se il nodo resta vuoto.
+     */
+    private static Object elimina(Object nodo, int spostamento, int hash, Object chiave) {
+        if (nodo instanceof NodoCollisione) {
+            NodoCollisione collisione = (NodoCollisione) nodo;
+            int indice = collisione.hash == hash ? indiceCollisione(collisione, chiave) : -1;
+            if (indice < 0) {
+                return nodo;
+            }
+            if (collisione.voci.length == 2) {
+                return null;
+            }
+            return new NodoCollisione(hash, senzaCoppia(collisione.voci, indice));
+        }
+
+        NodoBitmap bitmap = (NodoBitmap) nodo;
+        int bit = 1 << ((hash >>> spostamento) & MASCHERA);
+        if ((bitmap.bitmap & bit) == 0) {
+            return nodo;
+        }
+        int indice = 2 * Integer.bitCount(bitmap.bitmap & (bit - 1));
+        Object k = bitmap.voci[indice];
+        Object v = bitmap.voci[indice + 1];
+
+        if (k == null) {
+            Object sottonodo = elimina(v, spostamento + BIT, hash, chiave);
+            if (sottonodo == v) {
+                return nodo;
+            }
+            if (sottonodo != null) {
+                Object[] voci = bitmap.voci.clone();
+                voci[indice + 1] = sottonodo;
+                return new NodoBitmap(bitmap.bitmap, voci);
+            }
+        } else if (!chiave.equals(k)) {
+            return nodo;
+        }
+
+        if (bitmap.bitmap == bit) {
+            return null;
+        }
+        return new NodoBitmap(bitmap.bitmap ^ bit, senzaCoppia(bitmap.voci, indice));
+    }
+
+    private static int indiceCollisione(NodoCollisione collisione, Object chiave) {
+        for (int i = 0; i < collisione.voci.length; i += 2) {
+            if (chiave.equals(collisione.voci[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static Object[] senzaCoppia(Object[] voci, int indice) {
+        Object[] copia = new Object[voci.length - 2];
+        System.arraycopy(voci, 0, copia, 0, indice);
+        System.arraycopy(voci, indice + 2, copia, indice, voci.length - indice - 2);
+        return copia;
+    }
+}
@@ -0,0 +1,50 @@
+package controller;
+
+/**
+ * Conversione in minuscolo usata dalle ricerche senza distinzione tra maiuscole e minuscole.
+ * Ogni carattere viene convertito da solo con {@link Character#toLowerCase(int)}: il risultato non dipende
+ * dalla lingua predefinita (a differenza di {@link String#toLowerCase()}, che ad esempio in turco converte
+ * "I" in "ı") ed è lo stesso confronto eseguito sui byte UTF-8 da {@link ArenaTesti}, così che la ricerca
+ * sugli oggetti e quella sul catalogo a colonne trovino gli stessi films.
+ */
+final class Minuscole {
+
+    private Minuscole() {
+    }
+
+    /**
+     * Converte un testo in minuscolo carattere per carattere.
+     *
+     * @param testo Testo da convertire
+     * @return Testo in minuscolo; lo stesso oggetto se non contiene maiuscole
+     */
+    static String di(String testo) {
+        for (int i = 0; i < testo.length(); i++) {
+            char c = testo.charAt(i);
+            if (c >= 0x80 || (c >= 'A' && c <= 'Z')) {
+                return converti(testo, i);
+            }
+        }
+        return testo; // Testo ASCII già in minuscolo: nessuna copia
+    }
+
+    private static String converti(String testo, int inizio) {
+        StringBuilder risultato = new StringBuilder(testo.length()).append(testo, 0, inizio);
+        for (int i = inizio; i < testo.length(); ) {
+            int codice = testo.codePointAt(i);
+            risultato.appendCodePoint(Character.toLowerCase(codice));
+            i += Character.charCount(codice);
+        }
+        return risultato.toString();
+    }
+
+    /**
+     * Restituisce i caratteri di un testo convertiti in minuscolo, come codici Unicode.
+     *
+     * @param testo Testo da convertire
+     * @return Codici dei caratteri in minuscolo
+     */
+    static int[] codici(String testo) {
+        return testo.codePoints().map(Character::toLowerCase).toArray();
+    }
+}
@@ -0,0 +1,61 @@
+package controller;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Ascoltatore che raccoglie le modifiche della videoteca e le consegna a blocchi nel thread di eventi Swing.
+ * Tutti gli eventi arrivati nello stesso intervallo (circa un frame) vengono consegnati insieme,
+ * così che una serie di operazioni (es. una catena di redo) produca un solo aggiornamento della vista.
+ */
+public class NotificheCoalescenti implements AscoltatoreVideoteca {
+
+    private static final int INTERVALLO_FRAME_MS = 16;
+
+    private final Consumer<List<EventoVideoteca>> destinatario;
+    private final List<EventoVideoteca> eventiInAttesa; // protetta da this
+    private final Timer timer;
+
+    /**
+     * Costruttore che inizializza il dispatcher.
+     *
+     * @param destinatario Azione che riceve, nel thread di eventi Swing, gli eventi raccolti
+     */
+    public NotificheCoalescenti(Consumer<List<EventoVideoteca>> destinatario) {
+        this.destinatario = destinatario;
+        this.eventiInAttesa = new ArrayList<>();
+        this.timer = new Timer(INTERVALLO_FRAME_MS, e -> consegna());
+        this.timer.setRepeats(false);
+    }
+
+    @Override
+    public void videotecaModificata(EventoVideoteca evento) {
+        boolean primoEvento;
+        synchronized (this) {
+            primoEvento = eventiInAttesa.isEmpty();
+            eventiInAttesa.add(evento);
+        }
+
+        // Il timer parte solo con il primo evento del blocco: gli eventi successivi vengono accodati
+        if (primoEvento) {
+            timer.start();
+        }
+    }
+
+    /**
+     * Consegna tutti gli eventi raccolti fino a questo momento.
+     */
+    private void consegna() {
+        List<EventoVideoteca> eventi;
+        synchronized (this) {
+            eventi = new ArrayList<>(eventiInAttesa);
+            eventiInAttesa.clear();
+        }
+
+        if (!eventi.isEmpty()) {
+            destinatario.accept(eventi);
+        }
+    }
+}
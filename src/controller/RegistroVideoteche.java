@@ -0,0 +1,110 @@
+package controller;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registro delle videoteche gestite nello stesso processo, ciascuna identificata da un nome (es. l'utente).
+ * Ogni videoteca è un GestoreVideoteca indipendente, con la propria collezione, versione e ascoltatori;
+ * le stringhe ripetute dei films caricati (registi, generi) sono invece condivise tra tutte
+ * tramite il PoolStringhe, così che migliaia di videoteche simili non ne moltiplichino le copie.
+ * La videoteca predefinita coincide con GestoreVideoteca.getInstance().
+ */
+public final class RegistroVideoteche {
+
+    /**
+     * Identificativo della videoteca predefinita, la stessa restituita da GestoreVideoteca.getInstance().
+     */
+    public static final String PREDEFINITA = "predefinita";
+
+    // Singleton instance
+    private static RegistroVideoteche instance;
+
+    private final ConcurrentHashMap<String, GestoreVideoteca> videoteche;
+
+    /**
+     * Crea un registro vuoto, separato da quello condiviso.
+     * Utile ad esempio per eseguire test in parallelo senza interferenze.
+     */
+    public RegistroVideoteche() {
+        this.videoteche = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Ottiene il registro condiviso dall'intera applicazione.
+     *
+     * @return L'istanza singleton del RegistroVideoteche
+     */
+    public static synchronized RegistroVideoteche getInstance() {
+        if (instance == null) {
+            instance = new RegistroVideoteche();
+        }
+        return instance;
+    }
+
+    /**
+     * Ottiene la videoteca con l'identificativo indicato, creandola vuota se non esiste ancora.
+     * Può essere chiamato da più thread: per ogni identificativo viene creata una sola videoteca.
+     *
+     * @param identificativo Nome della videoteca
+     * @return Videoteca associata all'identificativo
+     * @throws IllegalArgumentException se l'identificativo è nullo o vuoto
+     */
+    public GestoreVideoteca ottieni(String identificativo) {
+        verificaIdentificativo(identificativo);
+        return videoteche.computeIfAbsent(identificativo, id ->
+                PREDEFINITA.equals(id) ? GestoreVideoteca.getInstance() : new GestoreVideoteca());
+    }
+
+    /**
+     * Verifica se esiste già una videoteca con l'identificativo indicato.
+     *
+     * @param identificativo Nome della videoteca
+     * @return true se la videoteca è registrata, false altrimenti
+     */
+    public boolean contiene(String identificativo) {
+        return identificativo != null && videoteche.containsKey(identificativo);
+    }
+
+    /**
+     * Rimuove una videoteca dal registro, così che la sua collezione possa essere liberata.
+     * Una successiva chiamata a ottieni con lo stesso identificativo crea una videoteca vuota.
+     *
+     * @param identificativo Nome della videoteca
+     * @return Videoteca rimossa, o null se non era registrata
+     * @throws IllegalArgumentException se si tenta di rimuovere la videoteca predefinita
+     */
+    public GestoreVideoteca rimuovi(String identificativo) {
+        verificaIdentificativo(identificativo);
+        if (PREDEFINITA.equals(identificativo)) {
+            throw new IllegalArgumentException("La videoteca predefinita non può essere rimossa.");
+        }
+        return videoteche.remove(identificativo);
+    }
+
+    /**
+     * Ottiene gli identificativi delle videoteche registrate, in ordine alfabetico.
+     *
+     * @return Insieme immutabile degli identificativi
+     */
+    public Set<String> getIdentificativi() {
+        return Collections.unmodifiableSet(new TreeSet<>(videoteche.keySet()));
+    }
+
+    /**
+     * Ottiene il numero di videoteche registrate.
+     *
+     * @return Numero di videoteche
+     */
+    public int dimensione() {
+        return videoteche.size();
+    }
+
+    private static void verificaIdentificativo(String identificativo) {
+        if (identificativo == null || identificativo.trim().isEmpty()) {
+            throw new IllegalArgumentException("L'identificativo della videoteca non può essere vuoto.");
+        }
+    }
+}
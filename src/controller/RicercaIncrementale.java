@@ -0,0 +1,126 @@
+package controller;
+
+import model.Film;
+
+import javax.swing.*;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Esegue le ricerche "mentre si digita" in un thread in background, lasciando libero il thread di eventi Swing.
+ * Ogni nuova ricerca annulla quella precedente ancora in corso; se il nuovo testo estende quello
+ * dell'ultima ricerca completata sulla stessa versione della videoteca, la ricerca viene eseguita
+ * solo sui risultati già trovati invece che sull'intera collezione.
+ */
+public class RicercaIncrementale {
+
+    private final FilmController controller;
+    private ExecutorService executor; // creato alla prima ricerca, per non avviare thread all'apertura
+    private final AtomicLong generazione; // identifica l'ultima ricerca richiesta
+    private Future<?> ricercaInCorso;
+
+    // Ultima ricerca completata (usata solo dal thread di ricerca)
+    private String ultimoTipoCerca;
+    private String ultimoTestoCerca;
+    private long ultimaVersione;
+    private List<Film> ultimiRisultati;
+
+    /**
+     * Costruttore che inizializza il gestore delle ricerche.
+     * Il thread di ricerca viene creato solo alla prima ricerca.
+     *
+     * @param controller Controller che applica ricerca, filtri e ordinamento
+     */
+    public RicercaIncrementale(FilmController controller) {
+        this.controller = controller;
+        this.generazione = new AtomicLong();
+    }
+
+    /**
+     * Avvia una ricerca in background, annullando quella eventualmente ancora in corso.
+     * Deve essere chiamato dal thread di eventi Swing; il risultato viene pubblicato nello stesso thread
+     * solo se nel frattempo non è stata richiesta un'altra ricerca.
+     *
+     * @param catalogo Copia dei films della videoteca su cui cercare
+     * @param versione Versione della videoteca a cui si riferisce la copia
+     * @param criteri  Criteri di ricerca, filtro e ordinamento
+     * @param pubblica Azione che riceve la lista filtrata e ordinata
+     */
+    public void cerca(List<Film> catalogo, long versione, CriteriRicerca criteri, Consumer<List<Film>> pubblica) {
+        long id = generazione.incrementAndGet();
+        if (ricercaInCorso != null) {
+            ricercaInCorso.cancel(true);
+        }
+        if (executor == null) {
+            executor = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "ricerca-videoteca");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        ricercaInCorso = executor.submit(() -> {
+            List<Film> trovati = cercaRestringendo(catalogo, versione, criteri);
+            if (isSuperata(id)) {
+                return;
+            }
+
+            List<Film> risultato = controller.applicaOrdinamento(controller.applicaFiltri(trovati, criteri), criteri);
+            if (isSuperata(id)) {
+                return;
+            }
+
+            SwingUtilities.invokeLater(() -> {
+                if (id == generazione.get()) {
+                    pubblica.accept(risultato);
+                }
+            });
+        });
+    }
+
+    /**
+     * Annulla la ricerca in corso e impedisce la pubblicazione di risultati già calcolati.
+     * Usato quando la tabella viene aggiornata in modo sincrono.
+     */
+    public void annulla() {
+        generazione.incrementAndGet();
+        if (ricercaInCorso != null) {
+            ricercaInCorso.cancel(true);
+            ricercaInCorso = null;
+        }
+    }
+
+    /**
+     * Esegue la ricerca testuale, limitandola ai risultati precedenti quando il nuovo testo li restringe.
+     */
+    private List<Film> cercaRestringendo(List<Film> catalogo, long versione, CriteriRicerca criteri) {
+        String testo = criteri.getTestoCerca() == null ? "" : Minuscole.di(criteri.getTestoCerca());
+
+        // Ogni titolo che contiene il nuovo testo contiene anche quello precedente
+        List<Film> base = catalogo;
+        if (ultimiRisultati != null && ultimaVersione == versione
+                && criteri.getTipoCerca() != null && criteri.getTipoCerca().equals(ultimoTipoCerca)
+                && testo.contains(ultimoTestoCerca)) {
+            base = ultimiRisultati;
+        }
+
+        List<Film> trovati = controller.cercaFilms(base, criteri);
+
+        ultimoTipoCerca = criteri.getTipoCerca();
+        ultimoTestoCerca = testo;
+        ultimaVersione = versione;
+        ultimiRisultati = trovati;
+        return trovati;
+    }
+
+    /**
+     * Verifica se la ricerca è stata annullata o sostituita da una più recente.
+     */
+    private boolean isSuperata(long id) {
+        return Thread.currentThread().isInterrupted() || id != generazione.get();
+    }
+}
@@ -0,0 +1,264 @@
+package controller;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+/**
+ * Vettore immutabile a trie con 32 figli per nodo, indicizzato per posizione.
+ * Ogni modifica copia solo il percorso dalla radice alla foglia interessata (O(log32 n))
+ * e condivide il resto della struttura con la versione precedente.
+ * Le posizioni possono contenere null, usato per indicare una posizione liberata: ogni nodo conta
+ * gli elementi presenti nel suo sottoalbero, così che l'i-esimo elemento presente si trovi
+ * scendendo un solo percorso anche quando il vettore ha posizioni libere.
+ *
+ * @param <E> Tipo degli elementi
+ */
+final class VettorePersistente<E> implements Iterable<E> {
+
+    private static final int BIT = 5;
+    private static final int LARGHEZZA = 1 << BIT;
+    private static final int MASCHERA = LARGHEZZA - 1;
+
+    /**
+     * Nodo del trie: nelle foglie i figli sono gli elementi, negli altri nodi i sottonodi.
+     */
+    private static final class Nodo {
+        final Object[] figli;
+        final int presenti; // elementi non null nel sottoalbero
+
+        Nodo(Object[] figli, int presenti) {
+            this.figli = figli;
+            this.presenti = presenti;
+        }
+    }
+
+    private static final VettorePersistente<?> VUOTO =
+            new VettorePersistente<>(new Nodo(new Object[LARGHEZZA], 0), 0, 0);
+
+    private final Nodo radice;
+    private final int spostamento; // bit da scorrere per l'indice nella radice (0 se la radice è una foglia)
+    private final int posizioni;   // numero di posizioni occupate o liberate
+
+    private VettorePersistente(Nodo radice, int spostamento, int posizioni) {
+        this.radice = radice;
+        this.spostamento = spostamento;
+        this.posizioni = posizioni;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <E> VettorePersistente<E> vuoto() {
+        return (VettorePersistente<E>) VUOTO;
+    }
+
+    /**
+     * Restituisce il numero di posizioni del vettore, comprese quelle liberate.
+     */
+    int getPosizioni() {
+        return posizioni;
+    }
+
+    /**
+     * Restituisce il numero di elementi presenti (posizioni non liberate).
+     */
+    int getPresenti() {
+        return radice.presenti;
+    }
+
+    /**
+     * Restituisce l'elemento nella posizione indicata (null se la posizione è stata liberata).
+     */
+    @SuppressWarnings("unchecked")
+    E get(int posizione) {
+        if (posizione < 0 || posizione >= posizioni) {
+            throw new IndexOutOfBoundsException("Posizione " + posizione + " su " + posizioni);
+        }
+        return (E) foglia(posizione)[posizione & MASCHERA];
+    }
+
+    /**
+     * Restituisce l'elemento presente di indice indicato, saltando le posizioni liberate.
+     *
+     * @param indice Indice tra gli elementi presenti, da 0 a getPresenti() - 1
+     */
+    @SuppressWarnings("unchecked")
+    E getPresente(int indice) {
+        if (indice < 0 || indice >= radice.presenti) {
+            throw new IndexOutOfBoundsException("Indice " + indice + " su " + radice.presenti);
+        }
+        if (radice.presenti == posizioni) {
+            return get(indice); // Nessuna posizione libera: l'indice coincide con la posizione
+        }
+
+        Nodo nodo = radice;
+        for (int s = spostamento; s > 0; s -= BIT) {
+            for (Object figlio : nodo.figli) {
+                Nodo sottonodo = (Nodo) figlio;
+                if (sottonodo == null) {
+                    continue;
+                }
+                if (indice < sottonodo.presenti) {
+                    nodo = sottonodo;
+                    break;
+                }
+                indice -= sottonodo.presenti;
+            }
+        }
+        for (Object elemento : nodo.figli) {
+            if (elemento != null && indice-- == 0) {
+                return (E) elemento;
+            }
+        }
+        throw new IllegalStateException("Conteggio degli elementi non coerente");
+    }
+
+    /**
+     * Restituisce l'indice tra gli elementi presenti dell'elemento nella posizione indicata,
+     * cioè il numero di elementi presenti nelle posizioni precedenti.
+     *
+     * @param posizione Posizione di un elemento presente
+     */
+    int indicePresente(int posizione) {
+        if (posizione < 0 || posizione >= posizioni) {
+            throw new IndexOutOfBoundsException("Posizione " + posizione + " su " + posizioni);
+        }
+        if (radice.presenti == posizioni) {
+            return posizione; // Nessuna posizione libera: l'indice coincide con la posizione
+        }
+
+        int indice = 0;
+        Nodo nodo = radice;
+        for (int s = spostamento; s > 0; s -= BIT) {
+            int figlio = (posizione >>> s) & MASCHERA;
+            for (int i = 0; i < figlio; i++) {
+                Nodo precedente = (Nodo) nodo.figli[i];
+                if (precedente != null) {
+                    indice += precedente.presenti;
+                }
+            }
+            nodo = (Nodo) nodo.figli[figlio];
+        }
+        for (int i = 0; i < (posizione & MASCHERA); i++) {
+            if (nodo.figli[i] != null) {
+                indice++;
+            }
+        }
+        return indice;
+    }
+
+    /**
+     * Restituisce un nuovo vettore con l'elemento aggiunto in fondo.
+     */
+    VettorePersistente<E> aggiungi(E elemento) {
+        if (posizioni == 1 << (spostamento + BIT)) {
+            // La radice è piena: il trie cresce di un livello
+            Object[] figli = new Object[LARGHEZZA];
+            figli[0] = radice;
+            Nodo nuovaRadice = new Nodo(figli, radice.presenti);
+            return new VettorePersistente<>(imposta(nuovaRadice, spostamento + BIT, posizioni, elemento),
+                    spostamento + BIT, posizioni + 1);
+        }
+        return new VettorePersistente<>(imposta(radice, spostamento, posizioni, elemento), spostamento, posizioni + 1);
+    }
+
+    /**
+     * Restituisce un nuovo vettore con l'elemento indicato nella posizione indicata.
+     */
+    VettorePersistente<E> imposta(int posizione, E elemento) {
+        if (posizione < 0 || posizione >= posizioni) {
+            throw new IndexOutOfBoundsException("Posizione " + posizione + " su " + posizioni);
+        }
+        return new VettorePersistente<>(imposta(radice, spostamento, posizione, elemento), spostamento, posizioni);
+    }
+
+    /**
+     * Visita in ordine di posizione tutti gli elementi presenti.
+     */
+    void perOgni(Consumer<? super E> azione) {
+        visita(radice, spostamento, azione);
+    }
+
+    /**
+     * Restituisce un iteratore sugli elementi presenti, in ordine di posizione.
+     * Ogni foglia viene raggiunta una sola volta.
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+            private int posizione;
+            private Object[] elementi;
+            private Object prossimo = avanza();
+
+            private Object avanza() {
+                while (posizione < posizioni) {
+                    if (elementi == null || (posizione & MASCHERA) == 0) {
+                        elementi = foglia(posizione);
+                    }
+                    Object elemento = elementi[posizione++ & MASCHERA];
+                    if (elemento != null) {
+                        return elemento;
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return prossimo != null;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public E next() {
+                if (prossimo == null) {
+                    throw new NoSuchElementException();
+                }
+                Object elemento = prossimo;
+                prossimo = avanza();
+                return (E) elemento;
+            }
+        };
+    }
+
+    private Object[] foglia(int posizione) {
+        Nodo nodo = radice;
+        for (int s = spostamento; s > 0; s -= BIT) {
+            nodo = (Nodo) nodo.figli[(posizione >>> s) & MASCHERA];
+        }
+        return nodo.figli;
+    }
+
+    private static Nodo imposta(Nodo nodo, int spostamento, int posizione, Object elemento) {
+        Object[] figli = nodo != null ? nodo.figli.clone() : new Object[LARGHEZZA];
+        int presenti = nodo != null ? nodo.presenti : 0;
+        int indice = (posizione >>> spostamento) & MASCHERA;
+
+        if (spostamento == 0) {
+            presenti += (elemento != null ? 1 : 0) - (figli[indice] != null ? 1 : 0);
+            figli[indice] = elemento;
+        } else {
+            Nodo vecchio = (Nodo) figli[indice];
+            Nodo nuovo = imposta(vecchio, spostamento - BIT, posizione, elemento);
+            presenti += nuovo.presenti - (vecchio != null ? vecchio.presenti : 0);
+            figli[indice] = nuovo;
+        }
+        return new Nodo(figli, presenti);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> void visita(Nodo nodo, int spostamento, Consumer<? super E> azione) {
+        if (nodo.presenti == 0) {
+            return;
+        }
+        for (Object figlio : nodo.figli) {
+            if (figlio == null) {
+                continue;
+            }
+            if (spostamento == 0) {
+                azione.accept((E) figlio);
+            } else {
+                visita((Nodo) figlio, spostamento - BIT, azione);
+            }
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package generatore;
+
+import model.Film;
+import model.StatoVisione;
+import strategy.dao.FilmDAO;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.SplittableRandom;
+
+/**
+ * Generatore deterministico di cataloghi sintetici per benchmark e test di carico.
+ * <p>
+ * Registi e generi seguono una distribuzione di Zipf, come nelle collezioni reali in cui pochi registi
+ * e generi ricorrono in gran parte dei films. I titoli contengono di tanto in tanto virgole, virgolette,
+ * lettere accentate e a capo, per mettere alla prova i formati di salvataggio; ogni combinazione di
+ * valutazione e stato di visione compare a rotazione.
+ * <p>
+ * Ogni film dipende solo dal seme e dalla sua posizione: il catalogo non viene mai tenuto in memoria
+ * e può essere scritto direttamente con qualsiasi FilmDAO, qualunque sia la sua dimensione.
+ */
+public class GeneratoreCatalogo {
+
+    /**
+     * Numero predefinito di registi distinti.
+     */
+    public static final int REGISTI_PREDEFINITI = 1000;
+
+    /**
+     * Esponente predefinito della distribuzione di Zipf: la frequenza del k-esimo valore è proporzionale a 1/k.
+     */
+    public static final double ESPONENTE_PREDEFINITO = 1.0;
+
+    // Generi in ordine di popolarità: il primo è il più frequente
+    private static final String[] GENERI = {"dramma", "commedia", "thriller", "azione", "fantascienza",
+            "horror", "animazione", "avventura", "romantico", "documentario", "noir", "fantasy",
+            "biografico", "guerra", "western", "musical", "poliziesco", "storico"};
+
+    private static final String[] NOMI = {"Federico", "Michelangelo", "Sofia", "François", "Pedro", "Agnès",
+            "Akira", "Zoë", "Krzysztof", "Ingmar", "Chloé", "Nuri Bilge", "Lina", "Wong", "Jean-Luc",
+            "Céline", "Bong", "Andréi", "Alice", "Paolo"};
+    private static final String[] COGNOMI = {"Rossi", "Almodóvar", "O'Brien", "Kieślowski", "Müller",
+            "Truffaut", "Kurosawa", "Wertmüller", "Ceylan", "Bergman", "Sciamma", "Varda", "Tarkovskij",
+            "Rohrwacher", "Sorrentino", "Godard", "Kar-wai", "Joon-ho", "D'Amico", "Nolan", "Fellini",
+            "Coppola", "Antonioni", "Garrone", "Herzog"};
+    private static final String[] PAROLE = {"notte", "ombra", "ritorno", "città", "segreto", "ultimo",
+            "viaggio", "amore", "guerra", "silenzio", "fuoco", "mare", "tempo", "sogno", "strada", "perché",
+            "verità", "età", "caffè", "libertà", "specchio", "vento", "estate", "inverno", "memoria"};
+
+    private static final int ANNO_MINIMO = 1920;
+    private static final int ANNI = 2024 - ANNO_MINIMO + 1;
+    private static final int COMBINAZIONI = 6 * StatoVisione.values().length;
+
+    private final long seme;
+    private final DistribuzioneZipf registi;
+    private final DistribuzioneZipf generi;
+
+    /**
+     * Crea un generatore con il numero predefinito di registi e l'esponente di Zipf predefinito.
+     *
+     * @param seme Seme: a parità di seme vengono generati sempre gli stessi films
+     */
+    public GeneratoreCatalogo(long seme) {
+        this(seme, REGISTI_PREDEFINITI, ESPONENTE_PREDEFINITO);
+    }
+
+    /**
+     * Crea un generatore.
+     *
+     * @param seme          Seme: a parità di parametri vengono generati sempre gli stessi films
+     * @param numeroRegisti Numero di registi distinti
+     * @param esponenteZipf Esponente della distribuzione di Zipf per registi e generi (0 = uniforme)
+     * @throws IllegalArgumentException se il numero di registi non è positivo o l'esponente è negativo
+     */
+    public GeneratoreCatalogo(long seme, int numeroRegisti, double esponenteZipf) {
+        if (numeroRegisti <= 0) {
+            throw new IllegalArgumentException("Il numero di registi deve essere positivo.");
+        }
+        if (esponenteZipf < 0 || Double.isNaN(esponenteZipf)) {
+            throw new IllegalArgumentException("L'esponente di Zipf non può essere negativo.");
+        }
+        this.seme = seme;
+        this.registi = new DistribuzioneZipf(numeroRegisti, esponenteZipf);
+        this.generi = new DistribuzioneZipf(GENERI.length, esponenteZipf);
+    }
+
+    /**
+     * Genera il film nella posizione indicata. Lo stesso indice produce sempre lo stesso film
+     * e indici diversi producono films distinti.
+     *
+     * @param indice Posizione del film nel catalogo
+     * @return Film valido
+     */
+    public Film genera(int indice) {
+        // Un generatore per film, derivato da seme e indice, rende ogni film indipendente dagli altri
+        SplittableRandom random = new SplittableRandom(seme ^ (indice * 0x9E3779B97F4A7C15L));
+
+        String titolo = generaTitolo(random, indice);
+        String regista = nomeRegista(registi.campiona(random.nextDouble()));
+        String genere = GENERI[generi.campiona(random.nextDouble())];
+
+        // Il massimo di due estrazioni favorisce gli anni più recenti
+        int anno = ANNO_MINIMO + Math.max(random.nextInt(ANNI), random.nextInt(ANNI));
+
+        // Le combinazioni di valutazione e stato si alternano, così che compaiano tutte anche in cataloghi piccoli
+        int combinazione = indice % COMBINAZIONI;
+        int valutazione = combinazione % 6;
+        StatoVisione statoVisione = StatoVisione.values()[combinazione / 6];
+
+        // Tutti i valori sono generati già validi: la validazione del costruttore sarebbe solo un costo
+        return Film.daDatiVerificati(titolo, regista, anno, genere, valutazione, statoVisione);
+    }
+
+    /**
+     * Restituisce il catalogo come lista non modificabile i cui films vengono generati alla lettura:
+     * la lista non occupa memoria oltre al generatore e può essere passata a qualsiasi FilmDAO.
+     *
+     * @param dimensione Numero di films
+     * @return Lista di films generati su richiesta
+     * @throws IllegalArgumentException se la dimensione è negativa
+     */
+    public List<Film> films(int dimensione) {
+        if (dimensione < 0) {
+            throw new IllegalArgumentException("La dimensione del catalogo non può essere negativa.");
+        }
+        return new CatalogoGenerato(dimensione);
+    }
+
+    /**
+     * Scrive un catalogo nel formato del DAO indicato, un film alla volta.
+     *
+     * @param dao        DAO che determina il formato
+     * @param dimensione Numero di films
+     * @param writer     Destinazione; non viene chiusa
+     * @throws IOException In caso di errori durante la scrittura
+     */
+    public void scrivi(FilmDAO dao, int dimensione, Writer writer) throws IOException {
+        dao.scriviFilms(films(dimensione), writer);
+    }
+
+    /**
+     * Salva un catalogo su file nel formato del DAO indicato, un film alla volta.
+     *
+     * @param dao          DAO che determina il formato
+     * @param dimensione   Numero di films
+     * @param percorsoFile Percorso del file da creare
+     * @throws IOException In caso di errori durante la scrittura
+     */
+    public void salva(FilmDAO dao, int dimensione, String percorsoFile) throws IOException {
+        dao.salvaFilms(films(dimensione), percorsoFile);
+    }
+
+    /**
+     * Compone un titolo di due o tre parole; il numero progressivo finale lo rende unico nel catalogo.
+     */
+    private static String generaTitolo(SplittableRandom random, int indice) {
+        String prima = maiuscola(PAROLE[random.nextInt(PAROLE.length)]);
+        String seconda = PAROLE[random.nextInt(PAROLE.length)];
+        StringBuilder titolo = new StringBuilder();
+
+        int variante = random.nextInt(20);
+        switch (variante) {
+            case 0: // virgola
+                titolo.append(prima).append(", ").append(seconda);
+                break;
+            case 1: // virgolette
+                titolo.append(prima).append(" \"").append(seconda).append('"');
+                break;
+            case 2: // a capo
+                titolo.append(prima).append('\n').append(maiuscola(seconda));
+                break;
+            case 3: // apostrofo e sottotitolo
+                titolo.append("L'").append(seconda).append(": ").append(prima);
+                break;
+            default:
+                titolo.append(prima).append(' ').append(seconda);
+                if (variante % 3 == 0) {
+                    titolo.append(' ').append(PAROLE[random.nextInt(PAROLE.length)]);
+                }
+        }
+        return titolo.append(' ').append(indice + 1).toString();
+    }
+
+    /**
+     * Nome del regista di rango indicato; oltre le combinazioni di nome e cognome viene aggiunto un numero.
+     */
+    private static String nomeRegista(int rango) {
+        int combinazioni = NOMI.length * COGNOMI.length;
+        String nome = NOMI[rango % NOMI.length] + " " + COGNOMI[(rango / NOMI.length) % COGNOMI.length];
+        return rango < combinazioni ? nome : nome + " " + (rango / combinazioni + 1);
+    }
+
+    private static String maiuscola(String parola) {
+        return Character.toUpperCase(parola.charAt(0)) + parola.substring(1);
+    }
+
+    /**
+     * Distribuzione di Zipf su n valori: il valore di rango k ha peso 1/(k+1)^esponente.
+     * L'estrazione è una ricerca binaria sulle probabilità cumulate.
+     */
+    private static final class DistribuzioneZipf {
+        private final double[] cumulate;
+
+        DistribuzioneZipf(int n, double esponente) {
+            cumulate = new double[n];
+            double somma = 0;
+            for (int k = 0; k < n; k++) {
+                somma += 1.0 / Math.pow(k + 1, esponente);
+                cumulate[k] = somma;
+            }
+            for (int k = 0; k < n; k++) {
+                cumulate[k] /= somma;
+            }
+        }
+
+        int campiona(double u) {
+            int basso = 0;
+            int alto = cumulate.length - 1;
+            while (basso < alto) {
+                int medio = (basso + alto) >>> 1;
+                if (cumulate[medio] <= u) {
+                    basso = medio + 1;
+                } else {
+                    alto = medio;
+                }
+            }
+            return basso;
+        }
+    }
+
+    /**
+     * Vista del catalogo come lista ad accesso casuale: ogni lettura genera il film richiesto.
+     */
+    private final class CatalogoGenerato extends AbstractList<Film> implements RandomAccess {
+        private final int dimensione;
+
+        CatalogoGenerato(int dimensione) {
+            this.dimensione = dimensione;
+        }
+
+        @Override
+        public Film get(int indice) {
+            if (indice < 0 || indice >= dimensione) {
+                throw new IndexOutOfBoundsException("Indice " + indice + " fuori dal catalogo di " + dimensione + " films");
+            }
+            return genera(indice);
+        }
+
+        @Override
+        public int size() {
+            return dimensione;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package metriche;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contatore senza lock, adatto a essere incrementato da più thread nei percorsi critici
+ * (ad esempio il numero di films letti o scritti dai DAO).
+ */
+public final class Contatore implements ContatoreMBean {
+
+    private final String nome;
+    private final LongAdder valore = new LongAdder();
+
+    Contatore(String nome) {
+        this.nome = nome;
+    }
+
+    /**
+     * Aggiunge una quantità al contatore.
+     *
+     * @param quantita Quantità da aggiungere
+     */
+    public void aggiungi(long quantita) {
+        valore.add(quantita);
+    }
+
+    public void incrementa() {
+        valore.increment();
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    @Override
+    public long getValore() {
+        return valore.sum();
+    }
+
+    @Override
+    public void azzera() {
+        valore.reset();
+    }
+}
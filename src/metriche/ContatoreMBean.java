@@ -0,0 +1,11 @@
+package metriche;
+
+/**
+ * Interfaccia JMX di un contatore.
+ */
+public interface ContatoreMBean {
+
+    long getValore();
+
+    void azzera();
+}
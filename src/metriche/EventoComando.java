@@ -0,0 +1,49 @@
+package metriche;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import java.util.function.Supplier;
+
+/**
+ * Evento JFR per l'esecuzione, l'annullamento o il ripristino di un comando.
+ */
+@Name("videoteca.Comando")
+@Label("Comando")
+@Category({"Videoteca", "Comandi"})
+@Description("Esecuzione, annullamento o ripristino di un comando")
+public class EventoComando extends jdk.jfr.Event {
+
+    @Label("Operazione")
+    String operazione;
+
+    @Label("Comando")
+    String comando;
+
+    @Label("Descrizione")
+    String descrizione;
+
+    @Label("Riuscito")
+    boolean riuscito;
+
+    /**
+     * Chiude l'evento e lo registra, se Flight Recorder lo richiede.
+     *
+     * @param operazione  "esecuzione", "annullamento" o "ripristino"
+     * @param comando     Comando eseguito
+     * @param descrizione Descrizione del comando, calcolata solo se l'evento viene registrato
+     * @param riuscito    Esito dell'operazione
+     */
+    public void registra(String operazione, Object comando, Supplier<String> descrizione, boolean riuscito) {
+        end();
+        if (shouldCommit()) {
+            this.operazione = operazione;
+            this.comando = comando.getClass().getSimpleName();
+            this.descrizione = descrizione.get();
+            this.riuscito = riuscito;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package metriche;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import java.io.File;
+
+/**
+ * Evento JFR per il caricamento o il salvataggio di una videoteca su file.
+ * Permette di confrontare in una registrazione di Flight Recorder la durata dell'I/O con le pause del GC
+ * e con i blocchi dell'interfaccia.
+ */
+@Name("videoteca.DAO")
+@Label("Caricamento/salvataggio videoteca")
+@Category({"Videoteca", "DAO"})
+@Description("Lettura o scrittura di un file di films")
+public class EventoDAO extends jdk.jfr.Event {
+
+    @Label("Operazione")
+    String operazione;
+
+    @Label("Formato")
+    String formato;
+
+    @Label("File")
+    String file;
+
+    @Label("Dimensione del file")
+    @DataAmount
+    long dimensione;
+
+    @Label("Films")
+    int films;
+
+    @Label("Riuscito")
+    boolean riuscito;
+
+    /**
+     * Chiude l'evento e lo registra, se Flight Recorder lo richiede. I campi vengono valorizzati
+     * solo in quel caso, quindi a registrazione spenta il costo è quello di due letture dell'orologio.
+     *
+     * @param operazione "lettura" o "scrittura"
+     * @param formato    Formato del file
+     * @param percorso   Percorso del file
+     * @param films      Films letti o scritti
+     * @param riuscito   false se l'operazione è terminata con un errore
+     */
+    public void registra(String operazione, String formato, String percorso, int films, boolean riuscito) {
+        end();
+        if (shouldCommit()) {
+            this.operazione = operazione;
+            this.formato = formato;
+            this.file = percorso;
+            this.dimensione = new File(percorso).length();
+            this.films = films;
+            this.riuscito = riuscito;
+            commit();
+        }
+    }
+}
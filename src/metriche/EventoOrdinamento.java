@@ -0,0 +1,37 @@
+package metriche;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento JFR per l'esecuzione di una strategia di ordinamento.
+ */
+@Name("videoteca.Ordinamento")
+@Label("Ordinamento")
+@Category({"Videoteca", "Ricerca"})
+@Description("Ordinamento di una lista di films con una strategia")
+public class EventoOrdinamento extends jdk.jfr.Event {
+
+    @Label("Strategia")
+    String strategia;
+
+    @Label("Films")
+    int films;
+
+    /**
+     * Chiude l'evento e lo registra, se Flight Recorder lo richiede.
+     *
+     * @param strategia Strategia usata
+     * @param films     Films ordinati
+     */
+    public void registra(Object strategia, int films) {
+        end();
+        if (shouldCommit()) {
+            this.strategia = strategia.getClass().getSimpleName();
+            this.films = films;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package metriche;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento JFR per una ricerca testuale nella videoteca.
+ */
+@Name("videoteca.Ricerca")
+@Label("Ricerca")
+@Category({"Videoteca", "Ricerca"})
+@Description("Ricerca per titolo o regista")
+public class EventoRicerca extends jdk.jfr.Event {
+
+    @Label("Criterio")
+    String criterio;
+
+    @Label("Films esaminati")
+    int esaminati;
+
+    @Label("Risultati")
+    int risultati;
+
+    /**
+     * Chiude l'evento e lo registra, se Flight Recorder lo richiede.
+     *
+     * @param campo     Campo cercato ("titolo" o "regista")
+     * @param testo     Testo cercato
+     * @param esaminati Films tra cui si è cercato
+     * @param risultati Films trovati
+     */
+    public void registra(String campo, String testo, int esaminati, int risultati) {
+        end();
+        if (shouldCommit()) {
+            this.criterio = campo + " contiene \"" + testo + "\"";
+            this.esaminati = esaminati;
+            this.risultati = risultati;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package metriche;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Istogramma delle durate in nanosecondi, con intervalli a scala logaritmica come negli istogrammi HDR:
+ * ogni potenza di due è divisa in {@value #SOTTOINTERVALLI} intervalli uguali, quindi l'errore relativo
+ * dei percentili resta sotto il 7% su tutto l'intervallo di valori, da pochi nanosecondi a ore.
+ * <p>
+ * La registrazione non usa lock: incrementa un contatore atomico dell'intervallo e aggiorna somma e massimo,
+ * quindi può essere chiamata da più thread senza rallentare il codice misurato.
+ */
+public final class Istogramma implements IstogrammaMBean {
+
+    private static final int BIT_SOTTOINTERVALLI = 4;
+    private static final int SOTTOINTERVALLI = 1 << BIT_SOTTOINTERVALLI;
+    private static final int INTERVALLI = (64 - BIT_SOTTOINTERVALLI + 1) * SOTTOINTERVALLI;
+
+    private final String nome;
+    private final AtomicLongArray conteggi = new AtomicLongArray(INTERVALLI);
+    private final LongAdder conteggio = new LongAdder();
+    private final LongAdder somma = new LongAdder();
+    private final AtomicLong massimo = new AtomicLong();
+
+    Istogramma(String nome) {
+        this.nome = nome;
+    }
+
+    /**
+     * Registra una durata.
+     *
+     * @param nanosecondi Durata in nanosecondi; i valori negativi vengono considerati nulli
+     */
+    public void registra(long nanosecondi) {
+        long valore = Math.max(0, nanosecondi);
+        conteggi.incrementAndGet(indice(valore));
+        conteggio.increment();
+        somma.add(valore);
+
+        long attuale = massimo.get();
+        while (valore > attuale && !massimo.compareAndSet(attuale, valore)) {
+            attuale = massimo.get();
+        }
+    }
+
+    /**
+     * Registra il tempo trascorso da un istante ottenuto con {@link System#nanoTime()}.
+     *
+     * @param inizio Istante iniziale
+     */
+    public void registraDa(long inizio) {
+        registra(System.nanoTime() - inizio);
+    }
+
+    /**
+     * Restituisce il valore sotto il quale cade la percentuale indicata delle durate registrate,
+     * approssimato per eccesso al limite superiore del suo intervallo.
+     *
+     * @param percentile Percentile tra 0 e 100
+     * @return Durata in nanosecondi, 0 se l'istogramma è vuoto
+     * @throws IllegalArgumentException se il percentile non è tra 0 e 100
+     */
+    public long percentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Il percentile deve essere compreso tra 0 e 100.");
+        }
+        long totale = 0;
+        long[] copia = new long[INTERVALLI];
+        for (int i = 0; i < INTERVALLI; i++) {
+            copia[i] = conteggi.get(i);
+            totale += copia[i];
+        }
+        if (totale == 0) {
+            return 0;
+        }
+
+        long soglia = Math.max(1, (long) Math.ceil(totale * percentile / 100));
+        long cumulato = 0;
+        for (int i = 0; i < INTERVALLI; i++) {
+            cumulato += copia[i];
+            if (cumulato >= soglia) {
+                return Math.min(limiteSuperiore(i), massimo.get());
+            }
+        }
+        return massimo.get();
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    @Override
+    public long getConteggio() {
+        return conteggio.sum();
+    }
+
+    /**
+     * @return Somma delle durate registrate in nanosecondi
+     */
+    public long getSomma() {
+        return somma.sum();
+    }
+
+    @Override
+    public double getMediaMs() {
+        long n = conteggio.sum();
+        return n == 0 ? 0 : somma.sum() / (double) n / 1e6;
+    }
+
+    @Override
+    public double getP50Ms() {
+        return percentile(50) / 1e6;
+    }
+
+    @Override
+    public double getP90Ms() {
+        return percentile(90) / 1e6;
+    }
+
+    @Override
+    public double getP99Ms() {
+        return percentile(99) / 1e6;
+    }
+
+    @Override
+    public double getMassimoMs() {
+        return massimo.get() / 1e6;
+    }
+
+    @Override
+    public double getTotaleMs() {
+        return somma.sum() / 1e6;
+    }
+
+    /**
+     * Azzera l'istogramma. Le registrazioni concorrenti all'azzeramento possono essere conservate o perse.
+     */
+    @Override
+    public void azzera() {
+        for (int i = 0; i < INTERVALLI; i++) {
+            conteggi.set(i, 0);
+        }
+        conteggio.reset();
+        somma.reset();
+        massimo.set(0);
+    }
+
+    /**
+     * Intervallo di un valore: i valori sotto {@value #SOTTOINTERVALLI} hanno un intervallo ciascuno,
+     * gli altri sono divisi per potenza di due e, al suo interno, per i bit successivi al più significativo.
+     */
+    static int indice(long valore) {
+        if (valore < SOTTOINTERVALLI) {
+            return (int) valore;
+        }
+        int esponente = 63 - Long.numberOfLeadingZeros(valore);
+        int sottointervallo = (int) (valore >>> (esponente - BIT_SOTTOINTERVALLI)) & (SOTTOINTERVALLI - 1);
+        return (esponente - BIT_SOTTOINTERVALLI + 1) * SOTTOINTERVALLI + sottointervallo;
+    }
+
+    /**
+     * Valore massimo contenuto in un intervallo.
+     */
+    static long limiteSuperiore(int indice) {
+        if (indice < SOTTOINTERVALLI) {
+            return indice;
+        }
+        int esponente = indice / SOTTOINTERVALLI + BIT_SOTTOINTERVALLI - 1;
+        long sottointervallo = indice % SOTTOINTERVALLI;
+        long inizio = (1L << esponente) + (sottointervallo << (esponente - BIT_SOTTOINTERVALLI));
+        long ampiezza = 1L << (esponente - BIT_SOTTOINTERVALLI);
+        return inizio + ampiezza - 1 < 0 ? Long.MAX_VALUE : inizio + ampiezza - 1;
+    }
+}
@@ -0,0 +1,23 @@
+package metriche;
+
+/**
+ * Interfaccia JMX di un istogramma delle durate: i valori sono esposti in millisecondi.
+ */
+public interface IstogrammaMBean {
+
+    long getConteggio();
+
+    double getMediaMs();
+
+    double getP50Ms();
+
+    double getP90Ms();
+
+    double getP99Ms();
+
+    double getMassimoMs();
+
+    double getTotaleMs();
+
+    void azzera();
+}
@@ -0,0 +1,129 @@
+package metriche;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registro condiviso delle metriche dei percorsi critici: aggiornamento della tabella, DAO e comandi.
+ * Le classi strumentate ottengono qui i propri istogrammi e contatori una sola volta, in campi statici,
+ * e li aggiornano senza lock.
+ * <p>
+ * Le metriche sono consultabili con {@link #getRapporto()} oppure tramite JMX (ad esempio da JConsole)
+ * dopo aver chiamato {@link #registraMBean()}: il registro è pubblicato come {@code videoteca:type=Metriche}
+ * e ogni metrica come {@code videoteca:type=Istogramma,name=...} o {@code videoteca:type=Contatore,name=...}.
+ */
+public final class RegistroMetriche implements RegistroMetricheMBean {
+
+    private static final String DOMINIO = "videoteca";
+    private static final RegistroMetriche INSTANCE = new RegistroMetriche();
+
+    private final ConcurrentHashMap<String, Istogramma> istogrammi = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Contatore> contatori = new ConcurrentHashMap<>();
+    private volatile MBeanServer serverJmx;
+
+    private RegistroMetriche() {
+    }
+
+    public static RegistroMetriche getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Restituisce l'istogramma con il nome indicato, creandolo se non esiste.
+     *
+     * @param nome Nome della metrica, ad esempio "tabella.ordinamento"
+     * @return Istogramma condiviso
+     */
+    public Istogramma istogramma(String nome) {
+        return istogrammi.computeIfAbsent(nome, n -> pubblica(new Istogramma(n), "Istogramma", n));
+    }
+
+    /**
+     * Restituisce il contatore con il nome indicato, creandolo se non esiste.
+     *
+     * @param nome Nome della metrica, ad esempio "dao.csv.lettura.films"
+     * @return Contatore condiviso
+     */
+    public Contatore contatore(String nome) {
+        return contatori.computeIfAbsent(nome, n -> pubblica(new Contatore(n), "Contatore", n));
+    }
+
+    /**
+     * Pubblica il registro e tutte le metriche, presenti e future, sul server JMX della piattaforma.
+     * Le chiamate successive alla prima non hanno effetto.
+     */
+    public synchronized void registraMBean() {
+        if (serverJmx != null) {
+            return;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        registra(server, this, DOMINIO + ":type=Metriche");
+        serverJmx = server;
+        istogrammi.forEach((nome, istogramma) -> pubblica(istogramma, "Istogramma", nome));
+        contatori.forEach((nome, contatore) -> pubblica(contatore, "Contatore", nome));
+    }
+
+    /**
+     * Rapporto testuale di tutte le metriche, in ordine di nome. Per i contatori di elementi
+     * elaborati da un'operazione misurata (ad esempio "dao.csv.lettura.films" per "dao.csv.lettura")
+     * viene indicato anche il throughput.
+     */
+    @Override
+    public String getRapporto() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "%-36s %10s %10s %10s %10s %10s %10s%n",
+                "Durate (ms)", "conteggio", "media", "p50", "p90", "p99", "massimo"));
+        for (Istogramma istogramma : new TreeMap<>(istogrammi).values()) {
+            sb.append(String.format(Locale.ROOT, "%-36s %10d %10.3f %10.3f %10.3f %10.3f %10.3f%n",
+                    istogramma.getNome(), istogramma.getConteggio(), istogramma.getMediaMs(),
+                    istogramma.getP50Ms(), istogramma.getP90Ms(), istogramma.getP99Ms(), istogramma.getMassimoMs()));
+        }
+
+        sb.append(String.format(Locale.ROOT, "%n%-36s %10s %14s%n", "Contatori", "valore", "al secondo"));
+        for (Map.Entry<String, Contatore> voce : new TreeMap<>(contatori).entrySet()) {
+            String nome = voce.getKey();
+            long valore = voce.getValue().getValore();
+            Istogramma operazione = istogrammi.get(nome.substring(0, Math.max(0, nome.lastIndexOf('.'))));
+            String throughput = operazione != null && operazione.getSomma() > 0
+                    ? String.format(Locale.ROOT, "%14.0f", valore / (operazione.getSomma() / 1e9))
+                    : String.format("%14s", "-");
+            sb.append(String.format(Locale.ROOT, "%-36s %10d %s%n", nome, valore, throughput));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Azzera tutte le metriche, ad esempio prima di misurare un singolo scenario.
+     */
+    @Override
+    public void azzera() {
+        istogrammi.values().forEach(Istogramma::azzera);
+        contatori.values().forEach(Contatore::azzera);
+    }
+
+    private <T> T pubblica(T metrica, String tipo, String nome) {
+        MBeanServer server = serverJmx;
+        if (server != null) {
+            registra(server, metrica, DOMINIO + ":type=" + tipo + ",name=" + ObjectName.quote(nome));
+        }
+        return metrica;
+    }
+
+    private static void registra(MBeanServer server, Object mbean, String nome) {
+        try {
+            ObjectName nomeJmx = new ObjectName(nome);
+            if (!server.isRegistered(nomeJmx)) {
+                server.registerMBean(mbean, nomeJmx);
+            }
+        } catch (JMException e) {
+            // Le metriche restano disponibili nel rapporto testuale
+            System.err.println("Impossibile pubblicare la metrica " + nome + " su JMX: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package metriche;
+
+/**
+ * Interfaccia JMX del registro delle metriche: rapporto testuale e azzeramento di tutte le metriche.
+ */
+public interface RegistroMetricheMBean {
+
+    String getRapporto();
+
+    void azzera();
+}
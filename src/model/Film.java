@@ -9,10 +9,22 @@ import java.util.Objects;
 public class Film {
     private String titolo;
     private String regista;
-    private String annoUscita;
+    private short anno; // anno di uscita, ANNO_ASSENTE nel film vuoto
     private String genere;
-    private int valutazione; // 0 = da valutare, 1..5 = stelle
-    private StatoVisione statoVisione;
+    private byte valutazioneStato; // valutazione (0 = da valutare, 1..5 = stelle) e stato di visione
+
+    /**
+     * Valore di {@link #getAnno()} per un film vuoto, il cui anno di uscita non è ancora stato impostato.
+     */
+    public static final int ANNO_ASSENTE = -1;
+
+    // Nel byte valutazioneStato i 3 bit bassi contengono la valutazione, i successivi l'ordinale dello stato
+    private static final int BIT_VALUTAZIONE = 3;
+    private static final int MASCHERA_VALUTAZIONE = (1 << BIT_VALUTAZIONE) - 1;
+    private static final StatoVisione[] STATI = StatoVisione.values();
+
+    // Forme testuali degli anni, create alla prima richiesta e poi condivise da tutti i films
+    private static final String[] TESTI_ANNI = new String[10_000];
 
     /**
      * Costruttore completo.
@@ -26,16 +38,47 @@ public class Film {
      */
     public Film(String titolo, String regista, String annoUscita, String genere,
                 int valutazione, StatoVisione statoVisione) {
-        this.titolo = titolo;
-        this.regista = regista;
-        this.annoUscita = annoUscita;
-        this.genere = genere;
-        this.valutazione = valutazione;
-        this.statoVisione = statoVisione;
-
-        if (!FilmValidator.isValid(this)) {
+        // L'anno viene letto una sola volta: lo stesso valore serve alla validazione e al campo
+        int anno = leggiAnno(annoUscita);
+        if (!FilmValidator.isValid(titolo, regista, anno, genere, valutazione, statoVisione)) {
             throw new IllegalArgumentException("I dati del film non sono validi.");
         }
+        imposta(titolo, regista, anno, genere, valutazione, statoVisione);
+    }
+
+    private Film(String titolo, String regista, int anno, String genere,
+                 int valutazione, StatoVisione statoVisione) {
+        imposta(titolo, regista, anno, genere, valutazione, statoVisione);
+    }
+
+    /**
+     * Crea un film da dati già verificati, senza ripeterne la validazione: pensato per i caricamenti
+     * di molti films i cui valori provengono da una fonte che li ha già controllati (ad esempio il
+     * generatore di cataloghi). Con dati non verificati va usato il costruttore pubblico.
+     *
+     * @param titolo       Titolo del film, non vuoto
+     * @param regista      Regista del film, non vuoto
+     * @param anno         Anno di uscita tra 0 e 9999
+     * @param genere       Genere del film, non vuoto
+     * @param valutazione  Valutazione (0..5)
+     * @param statoVisione Stato di visione, non nullo
+     * @return Nuovo film
+     */
+    public static Film daDatiVerificati(String titolo, String regista, int anno, String genere,
+                                        int valutazione, StatoVisione statoVisione) {
+        assert FilmValidator.isValid(titolo, regista, anno, genere, valutazione, statoVisione)
+                : "Dati del film non validi: " + titolo;
+        return new Film(titolo, regista, anno, genere, valutazione, statoVisione);
+    }
+
+    private void imposta(String titolo, String regista, int anno, String genere,
+                         int valutazione, StatoVisione statoVisione) {
+        // Registi e generi si ripetono in molti films: ne viene conservata una sola istanza
+        this.titolo = titolo;
+        this.regista = PoolStringhe.condividi(regista);
+        this.anno = (short) anno;
+        this.genere = PoolStringhe.condividi(genere);
+        this.valutazioneStato = comprimi(valutazione, statoVisione);
     }
 
     /**
@@ -44,10 +87,9 @@ public class Film {
     public Film() {
         this.titolo = "";
         this.regista = "";
-        this.annoUscita = "";
+        this.anno = ANNO_ASSENTE;
         this.genere = "";
-        this.valutazione = 0; // Da valutare come default
-        this.statoVisione = StatoVisione.DA_VEDERE;
+        this.valutazioneStato = comprimi(0, StatoVisione.DA_VEDERE); // Da valutare come default
     }
 
     public String getTitolo() {
@@ -65,16 +107,25 @@ public class Film {
 
     public void setRegista(String regista) {
         FilmValidator.validateRegista(regista);
-        this.regista = regista;
+        this.regista = PoolStringhe.condividi(regista);
     }
 
     public String getAnnoUscita() {
-        return annoUscita;
+        return testoAnno(anno);
+    }
+
+    /**
+     * Restituisce l'anno di uscita come numero, per confronti e ordinamenti senza passare dalla stringa.
+     *
+     * @return Anno di uscita, o ANNO_ASSENTE per un film vuoto
+     */
+    public int getAnno() {
+        return anno;
     }
 
     public void setAnnoUscita(String annoUscita) {
         FilmValidator.validateAnnoUscita(annoUscita);
-        this.annoUscita = annoUscita;
+        this.anno = (short) leggiAnno(annoUscita);
     }
 
     public String getGenere() {
@@ -83,25 +134,25 @@ public class Film {
 
     public void setGenere(String genere) {
         FilmValidator.validateGenere(genere);
-        this.genere = genere;
+        this.genere = PoolStringhe.condividi(genere);
     }
 
     public int getValutazione() {
-        return valutazione;
+        return valutazioneStato & MASCHERA_VALUTAZIONE;
     }
 
     public void setValutazione(int valutazione) {
         FilmValidator.validateValutazione(valutazione);
-        this.valutazione = valutazione;
+        this.valutazioneStato = comprimi(valutazione, getStatoVisione());
     }
 
     public StatoVisione getStatoVisione() {
-        return statoVisione;
+        return STATI[valutazioneStato >>> BIT_VALUTAZIONE];
     }
 
     public void setStatoVisione(StatoVisione statoVisione) {
         FilmValidator.validateStatoVisione(statoVisione);
-        this.statoVisione = statoVisione;
+        this.valutazioneStato = comprimi(getValutazione(), statoVisione);
     }
 
 
@@ -111,6 +162,7 @@ public class Film {
      * @return "Da valutare" se 0, altrimenti il numero di stelle (1..5) come stringa
      */
     public String getValutazioneAsString() {
+        int valutazione = getValutazione();
         return (valutazione == 0) ? "Da valutare" : String.valueOf(valutazione);
     }
 
@@ -118,7 +170,7 @@ public class Film {
      * Restituisce lo stato di visione come stringa (delegato all'enum).
      */
     public String getStatoVisioneAsString() {
-        return statoVisione.getDescrizione();
+        return getStatoVisione().getDescrizione();
     }
 
     /**
@@ -136,12 +188,56 @@ public class Film {
         // Identifichiamo un film tramite combinazione: titolo + regista + annoUscita
         return Objects.equals(titolo.toLowerCase(), film.titolo.toLowerCase())
                 && Objects.equals(regista.toLowerCase(), film.regista.toLowerCase())
-                && Objects.equals(annoUscita, film.annoUscita);
+                && anno == film.anno;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(titolo.toLowerCase(), regista.toLowerCase(), annoUscita);
+        return Objects.hash(titolo.toLowerCase(), regista.toLowerCase(), anno);
+    }
+
+    /**
+     * Converte un anno nel formato AAAA nel valore numerico.
+     *
+     * @param annoUscita Anno di uscita come stringa
+     * @return Anno di uscita, o ANNO_ASSENTE se la stringa non è composta da esattamente quattro cifre
+     */
+    public static int leggiAnno(String annoUscita) {
+        if (annoUscita == null || annoUscita.length() != 4) {
+            return ANNO_ASSENTE;
+        }
+        int anno = 0;
+        for (int i = 0; i < 4; i++) {
+            char c = annoUscita.charAt(i);
+            if (c < '0' || c > '9') {
+                return ANNO_ASSENTE;
+            }
+            anno = anno * 10 + (c - '0');
+        }
+        return anno;
+    }
+
+    /**
+     * Restituisce la forma testuale di un anno, sempre di quattro cifre (es. "0999"), condivisa tra tutti i films.
+     *
+     * @param anno Anno di uscita
+     * @return Anno nel formato AAAA, o stringa vuota per ANNO_ASSENTE
+     */
+    public static String testoAnno(int anno) {
+        if (anno < 0) {
+            return "";
+        }
+        String testo = TESTI_ANNI[anno];
+        if (testo == null) {
+            // Una creazione concorrente produce al più una stringa uguale in più
+            testo = String.format("%04d", anno);
+            TESTI_ANNI[anno] = testo;
+        }
+        return testo;
+    }
+
+    private static byte comprimi(int valutazione, StatoVisione statoVisione) {
+        return (byte) (statoVisione.ordinal() << BIT_VALUTAZIONE | valutazione);
     }
 
     @Override
@@ -149,16 +245,17 @@ public class Film {
         return "Film{" +
                 "titolo='" + titolo + '\'' +
                 ", regista='" + regista + '\'' +
-                ", annoUscita='" + annoUscita + '\'' +
+                ", annoUscita='" + getAnnoUscita() + '\'' +
                 ", genere='" + genere + '\'' +
-                ", valutazione=" + valutazione +
-                ", statoVisione=" + statoVisione +
+                ", valutazione=" + getValutazione() +
+                ", statoVisione=" + getStatoVisione() +
                 '}';
     }
 }
 
 /**
  * Utility di validazione per la classe Film.
+ * I controlli esaminano i caratteri direttamente, senza espressioni regolari né stringhe intermedie.
  */
 final class FilmValidator {
 
@@ -166,56 +263,59 @@ final class FilmValidator {
     }
 
     static void validateTitolo(String titolo) {
-        if (titolo == null || titolo.trim().isEmpty()) {
+        if (!isValidTitolo(titolo)) {
             throw new IllegalArgumentException("Il titolo non può essere vuoto.");
         }
     }
 
     static void validateRegista(String regista) {
-        if (regista == null || regista.trim().isEmpty()) {
+        if (!isValidRegista(regista)) {
             throw new IllegalArgumentException("Il regista non può essere vuoto.");
         }
     }
 
     static void validateAnnoUscita(String annoUscita) {
-        if (annoUscita == null || annoUscita.trim().isEmpty() || !annoUscita.matches("^[0-9]{4}$")) {
+        if (!isValidAnnoUscita(annoUscita)) {
             throw new IllegalArgumentException("L'anno di uscita deve essere nel formato AAAA e non può essere vuoto.");
         }
     }
 
     static void validateGenere(String genere) {
-        if (genere == null || genere.trim().isEmpty()) {
+        if (!isValidGenere(genere)) {
             throw new IllegalArgumentException("Il genere non può essere vuoto.");
         }
     }
 
     static void validateValutazione(int valutazione) {
-        if (valutazione < 0 || valutazione > 5) {
+        if (!isValidValutazione(valutazione)) {
             throw new IllegalArgumentException("La valutazione deve essere compresa tra 0 e 5.");
         }
     }
 
     static void validateStatoVisione(StatoVisione statoVisione) {
-        if (statoVisione == null) {
+        if (!isValidStatoVisione(statoVisione)) {
             throw new IllegalArgumentException("Lo stato di visione non può essere nullo.");
         }
     }
 
     static boolean isValidTitolo(String titolo) {
-        return titolo != null && !titolo.trim().isEmpty();
+        return nonVuoto(titolo);
     }
 
     static boolean isValidRegista(String regista) {
-        return regista != null && !regista.trim().isEmpty();
+        return nonVuoto(regista);
     }
 
     static boolean isValidAnnoUscita(String annoUscita) {
-        return annoUscita != null && !annoUscita.trim().isEmpty()
-                && annoUscita.matches("^[0-9]{4}$");
+        return isValidAnno(Film.leggiAnno(annoUscita));
+    }
+
+    static boolean isValidAnno(int anno) {
+        return anno >= 0 && anno <= 9999;
     }
 
     static boolean isValidGenere(String genere) {
-        return genere != null && !genere.trim().isEmpty();
+        return nonVuoto(genere);
     }
 
     static boolean isValidValutazione(int valutazione) {
@@ -226,17 +326,42 @@ final class FilmValidator {
         return statoVisione != null;
     }
 
+    /**
+     * Verifica la validità dei dati di un film, con l'anno già convertito da {@link Film#leggiAnno(String)}.
+     */
+    static boolean isValid(String titolo, String regista, int anno, String genere,
+                           int valutazione, StatoVisione statoVisione) {
+        return isValidTitolo(titolo)
+                && isValidRegista(regista)
+                && isValidAnno(anno)
+                && isValidGenere(genere)
+                && isValidValutazione(valutazione)
+                && isValidStatoVisione(statoVisione);
+    }
+
     /**
      * Verifica velidità di un Film.
      *
      * @return boolean
      */
     static boolean isValid(Film f) {
-        return isValidTitolo(f.getTitolo())
-                && isValidRegista(f.getRegista())
-                && isValidAnnoUscita(f.getAnnoUscita())
-                && isValidGenere(f.getGenere())
-                && isValidValutazione(f.getValutazione())
-                && isValidStatoVisione(f.getStatoVisione());
+        return isValid(f.getTitolo(), f.getRegista(), f.getAnno(), f.getGenere(),
+                f.getValutazione(), f.getStatoVisione());
+    }
+
+    /**
+     * Equivale a {@code testo != null && !testo.trim().isEmpty()}, senza creare la stringa ridotta:
+     * come trim, considera spazi tutti i caratteri fino a ' ' compreso.
+     */
+    private static boolean nonVuoto(String testo) {
+        if (testo == null) {
+            return false;
+        }
+        for (int i = 0, n = testo.length(); i < n; i++) {
+            if (testo.charAt(i) > ' ') {
+                return true;
+            }
+        }
+        return false;
     }
 }
@@ -0,0 +1,69 @@
+package model;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Pool condiviso per i valori testuali molto ripetuti, come generi e registi.
+ * Restituisce la stessa istanza per stringhe uguali, così che un valore ripetuto in migliaia
+ * di films (o di comandi nella cronologia undo/redo) occupi memoria una sola volta,
+ * anche quando i films appartengono a videoteche diverse.
+ * <p>
+ * Il pool ha dimensione fissa e non usa lock: è una tabella di {@value #CAPACITA} posizioni in cui ogni
+ * stringa può occupare una di due posizioni determinate dal suo hash. Quando entrambe sono occupate da altri
+ * valori, una delle due viene sostituita; i valori frequenti restano quindi nel pool, quelli rari ne escono
+ * senza che la memoria occupata cresca con il numero di valori distinti visti nel tempo.
+ * La condivisione è quindi un'ottimizzazione, non una garanzia: il confronto tra valori va comunque
+ * fatto con equals, che per istanze condivise si riduce al confronto dei riferimenti.
+ */
+public final class PoolStringhe {
+
+    /**
+     * Numero di posizioni della tabella (potenza di due).
+     */
+    public static final int CAPACITA = 1 << 16;
+
+    private static final AtomicReferenceArray<String> TABELLA = new AtomicReferenceArray<>(CAPACITA);
+
+    private PoolStringhe() {
+    }
+
+    /**
+     * Restituisce l'istanza condivisa di una stringa, registrandola se non è ancora presente nel pool.
+     *
+     * @param valore Stringa da condividere
+     * @return Istanza condivisa uguale a valore (o valore stesso se appena registrato), null se valore è null
+     */
+    public static String condividi(String valore) {
+        if (valore == null) {
+            return null;
+        }
+        int hash = valore.hashCode();
+        int primo = (hash ^ (hash >>> 16)) & (CAPACITA - 2); // coppia di posizioni adiacenti
+        int secondo = primo + 1;
+
+        String presente = TABELLA.get(primo);
+        if (valore.equals(presente)) {
+            return presente;
+        }
+        String alternativo = TABELLA.get(secondo);
+        if (valore.equals(alternativo)) {
+            return alternativo;
+        }
+
+        // Registra il valore in una posizione libera o, se entrambe sono occupate, al posto della prima:
+        // il valore spostato resta raggiungibile nella seconda, così da alternare le sostituzioni
+        if (presente == null && TABELLA.compareAndSet(primo, null, valore)) {
+            return valore;
+        }
+        if (alternativo == null && TABELLA.compareAndSet(secondo, null, valore)) {
+            return valore;
+        }
+        String concorrente = TABELLA.get(primo);
+        if (valore.equals(concorrente)) {
+            return concorrente; // registrato nel frattempo da un altro thread
+        }
+        TABELLA.set(secondo, concorrente);
+        TABELLA.set(primo, valore);
+        return valore;
+    }
+}
@@ -0,0 +1,346 @@
+package server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import controller.CatalogoFilm;
+import controller.CriteriRicerca;
+import controller.FilmController;
+import controller.GestoreVideoteca;
+import metriche.RegistroMetriche;
+import model.Film;
+import model.Status;
+import strategy.dao.JsonFilmDAO;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Server HTTP che espone una videoteca ad altri servizi, senza interfaccia grafica.
+ * Usa il server HTTP incluso nel JDK e un pool di thread per gestire le richieste in parallelo.
+ * <p>
+ * Risorse disponibili:
+ * <ul>
+ *     <li>{@code GET /films} - ricerca, filtri e ordinamento tramite i parametri {@code cerca}, {@code tipo}
+ *     (titolo o regista), {@code genere}, {@code regista}, {@code anno}, {@code stato}, {@code valutazione}
+ *     e {@code ordina} (es. "Titolo (A-Z)"), con gli stessi significati della vista</li>
+ *     <li>{@code POST /films} - aggiunge i films contenuti nel corpo, nello stesso formato dei file JSON</li>
+ *     <li>{@code PUT /films?titolo=&regista=&anno=} - sostituisce il film indicato con quello contenuto nel corpo</li>
+ *     <li>{@code DELETE /films?titolo=&regista=&anno=} - elimina il film indicato</li>
+ *     <li>{@code POST /undo} e {@code POST /redo} - annullano o ripristinano l'ultima operazione</li>
+ *     <li>{@code GET /metriche} - rapporto testuale delle metriche di elaborazione, DAO e comandi</li>
+ * </ul>
+ * Le modifiche passano dal FilmController e quindi dai comandi, così che possano essere annullate come
+ * quelle eseguite dalla vista; sono eseguite una alla volta perché la cronologia undo/redo non è condivisibile
+ * tra thread. Le ricerche invece leggono il catalogo immutabile corrente senza alcun lock.
+ */
+public class ServerVideoteca {
+
+    private static final String JSON = "application/json; charset=utf-8";
+    private static final String TESTO = "text/plain; charset=utf-8";
+
+    private final FilmController controller;
+    private final GestoreVideoteca gestoreVideoteca;
+    private final JsonFilmDAO jsonDAO;
+    private final Object lockComandi; // serializza le operazioni che passano dalla cronologia undo/redo
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * Crea un server per la videoteca indicata, senza avviarlo.
+     *
+     * @param gestoreVideoteca Videoteca da esporre
+     * @param porta            Porta su cui ascoltare (0 per una porta libera qualsiasi)
+     * @param numeroThread     Numero di richieste gestite in parallelo
+     * @throws IOException se la porta non può essere aperta
+     */
+    public ServerVideoteca(GestoreVideoteca gestoreVideoteca, int porta, int numeroThread) throws IOException {
+        if (numeroThread <= 0) {
+            throw new IllegalArgumentException("Il numero di thread deve essere positivo.");
+        }
+        this.gestoreVideoteca = gestoreVideoteca;
+        this.controller = new FilmController(null, gestoreVideoteca);
+        this.jsonDAO = new JsonFilmDAO();
+        this.lockComandi = new Object();
+
+        AtomicInteger contatore = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(numeroThread,
+                r -> new Thread(r, "server-videoteca-" + contatore.incrementAndGet()));
+        this.server = HttpServer.create(new InetSocketAddress(porta), 0);
+        this.server.setExecutor(executor);
+        this.server.createContext("/films", this::gestisciFilms);
+        this.server.createContext("/undo", scambio -> gestisciCronologia(scambio, true));
+        this.server.createContext("/redo", scambio -> gestisciCronologia(scambio, false));
+        this.server.createContext("/metriche", this::gestisciMetriche);
+    }
+
+    /**
+     * Avvia il server in background.
+     */
+    public void avvia() {
+        server.start();
+    }
+
+    /**
+     * Ferma il server, attendendo al massimo il tempo indicato che le richieste in corso terminino.
+     *
+     * @param secondiAttesa Secondi di attesa per le richieste in corso
+     */
+    public void ferma(int secondiAttesa) {
+        server.stop(secondiAttesa);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(secondiAttesa, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Carica la videoteca da un file, ad esempio prima di avviare il server.
+     * Il caricamento passa dal controller del server, così che la cronologia undo/redo del file sia
+     * quella usata dalle richieste successive.
+     *
+     * @param percorsoFile Percorso del file
+     * @param formato      Formato del file (JSON o CSV)
+     * @return Status con esito e messaggio
+     */
+    public Status caricaVideoteca(String percorsoFile, String formato) {
+        synchronized (lockComandi) {
+            return controller.caricaVideoteca(percorsoFile, formato);
+        }
+    }
+
+    /**
+     * Ottiene la porta su cui il server è in ascolto.
+     *
+     * @return Porta del server
+     */
+    public int getPorta() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Gestisce le richieste sulla risorsa /films.
+     */
+    private void gestisciFilms(HttpExchange scambio) throws IOException {
+        try {
+            Map<String, String> parametri = leggiParametri(scambio);
+            switch (scambio.getRequestMethod()) {
+                case "GET":
+                    inviaFilms(scambio, 200, controller.filtraVideoteca(CriteriRicerca.daOpzioni(parametri)));
+                    break;
+                case "POST":
+                    aggiungi(scambio);
+                    break;
+                case "PUT":
+                    modifica(scambio, parametri);
+                    break;
+                case "DELETE":
+                    elimina(scambio, parametri);
+                    break;
+                default:
+                    inviaTesto(scambio, 405, "Metodo non supportato: " + scambio.getRequestMethod());
+                    break;
+            }
+        } catch (IllegalArgumentException e) {
+            inviaTesto(scambio, 400, e.getMessage());
+        } finally {
+            scambio.close();
+        }
+    }
+
+    /**
+     * Aggiunge i films contenuti nel corpo della richiesta con un unico comando.
+     */
+    private void aggiungi(HttpExchange scambio) throws IOException {
+        List<Film> films = leggiCorpo(scambio);
+        List<Film> aggiunti = null;
+        synchronized (lockComandi) {
+            CatalogoFilm prima = gestoreVideoteca.getCatalogo();
+            if (controller.aggiungiFilms(films)) {
+                // I films effettivamente aggiunti sono quelli che non erano nella versione precedente
+                aggiunti = films.stream().filter(film -> !prima.contiene(film)).collect(Collectors.toList());
+            }
+        }
+        // La risposta viene scritta dopo aver rilasciato il lock, per non bloccare gli altri comandi
+        if (aggiunti == null) {
+            inviaTesto(scambio, 409, "Nessun film aggiunto: i films sono già presenti.");
+        } else {
+            inviaFilms(scambio, 201, aggiunti);
+        }
+    }
+
+    /**
+     * Sostituisce il film indicato nei parametri con quello contenuto nel corpo della richiesta.
+     */
+    private void modifica(HttpExchange scambio, Map<String, String> parametri) throws IOException {
+        Film chiave = leggiChiave(parametri);
+        List<Film> corpo = leggiCorpo(scambio);
+        if (corpo.size() != 1) {
+            throw new IllegalArgumentException("Il corpo deve contenere esattamente un film.");
+        }
+        Film nuovo = corpo.get(0);
+
+        Film presente;
+        Film modificato = null;
+        synchronized (lockComandi) {
+            presente = gestoreVideoteca.getCatalogo().trova(chiave);
+            if (presente != null && controller.modificaFilm(presente, nuovo.getTitolo(), nuovo.getRegista(),
+                    nuovo.getAnnoUscita(), nuovo.getGenere(), nuovo.getValutazione(), nuovo.getStatoVisione())) {
+                // Restituisce il film come memorizzato nella videoteca, non quello del corpo della richiesta
+                modificato = gestoreVideoteca.getCatalogo().trova(nuovo);
+            }
+        }
+        if (presente == null) {
+            inviaTesto(scambio, 404, "Film non trovato.");
+        } else if (modificato == null) {
+            inviaTesto(scambio, 409, "Il film non è stato modificato.");
+        } else {
+            inviaFilms(scambio, 200, List.of(modificato));
+        }
+    }
+
+    /**
+     * Elimina il film indicato nei parametri.
+     */
+    private void elimina(HttpExchange scambio, Map<String, String> parametri) throws IOException {
+        Film chiave = leggiChiave(parametri);
+        Film presente;
+        synchronized (lockComandi) {
+            presente = gestoreVideoteca.getCatalogo().trova(chiave);
+            if (presente != null) {
+                controller.eliminaFilm(presente);
+            }
+        }
+        if (presente == null) {
+            inviaTesto(scambio, 404, "Film non trovato.");
+        } else {
+            scambio.sendResponseHeaders(204, -1);
+        }
+    }
+
+    /**
+     * Gestisce le richieste di undo e redo.
+     */
+    private void gestisciCronologia(HttpExchange scambio, boolean annulla) throws IOException {
+        try {
+            if (!"POST".equals(scambio.getRequestMethod())) {
+                inviaTesto(scambio, 405, "Metodo non supportato: " + scambio.getRequestMethod());
+                return;
+            }
+            String descrizione;
+            boolean eseguito;
+            synchronized (lockComandi) {
+                descrizione = annulla ? controller.getUndoDescription() : controller.getRedoDescription();
+                eseguito = annulla ? controller.undo() : controller.redo();
+            }
+            if (!eseguito) {
+                inviaTesto(scambio, 409, annulla ? "Nessuna operazione da annullare." : "Nessuna operazione da ripristinare.");
+            } else {
+                inviaTesto(scambio, 200, descrizione);
+            }
+        } finally {
+            scambio.close();
+        }
+    }
+
+    /**
+     * Restituisce il rapporto delle metriche.
+     */
+    private void gestisciMetriche(HttpExchange scambio) throws IOException {
+        try {
+            if (!"GET".equals(scambio.getRequestMethod())) {
+                inviaTesto(scambio, 405, "Metodo non supportato: " + scambio.getRequestMethod());
+                return;
+            }
+            inviaTesto(scambio, 200, RegistroMetriche.getInstance().getRapporto());
+        } finally {
+            scambio.close();
+        }
+    }
+
+    /**
+     * Costruisce un film con titolo, regista e anno indicati nei parametri, usato per cercarlo nella videoteca.
+     */
+    private static Film leggiChiave(Map<String, String> parametri) {
+        Film chiave = new Film();
+        chiave.setTitolo(parametri.get("titolo"));
+        chiave.setRegista(parametri.get("regista"));
+        chiave.setAnnoUscita(parametri.get("anno"));
+        return chiave;
+    }
+
+    /**
+     * Legge i films contenuti nel corpo della richiesta; un corpo non valido è un errore del client.
+     */
+    /**
+     * Legge i films dal corpo della richiesta, che deve essere un array JSON con almeno un film.
+     *
+     * @throws IllegalArgumentException se il corpo è vuoto, non è un array o contiene films non validi
+     */
+    private List<Film> leggiCorpo(HttpExchange scambio) {
+        try {
+            String corpo = new String(scambio.getRequestBody().readAllBytes(), StandardCharsets.UTF_8).trim();
+            // Il DAO restituisce una lista vuota per un documento che non è un array: qui è un errore del client
+            if (!corpo.startsWith("[") || !corpo.endsWith("]")) {
+                throw new IllegalArgumentException("Il corpo deve essere un array JSON di films.");
+            }
+            List<Film> films = jsonDAO.leggiFilms(new StringReader(corpo));
+            if (films.isEmpty()) {
+                throw new IllegalArgumentException("Il corpo non contiene alcun film.");
+            }
+            return films;
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e.getMessage());
+        }
+    }
+
+    private static Map<String, String> leggiParametri(HttpExchange scambio) {
+        Map<String, String> parametri = new HashMap<>();
+        String query = scambio.getRequestURI().getRawQuery();
+        if (query == null || query.isEmpty()) {
+            return parametri;
+        }
+        for (String coppia : query.split("&")) {
+            int uguale = coppia.indexOf('=');
+            String nome = uguale == -1 ? coppia : coppia.substring(0, uguale);
+            String valore = uguale == -1 ? "" : coppia.substring(uguale + 1);
+            parametri.put(URLDecoder.decode(nome, StandardCharsets.UTF_8), URLDecoder.decode(valore, StandardCharsets.UTF_8));
+        }
+        return parametri;
+    }
+
+    /**
+     * Invia i films in formato JSON, scrivendoli direttamente nella risposta senza costruire prima il documento.
+     */
+    private void inviaFilms(HttpExchange scambio, int codice, List<Film> films) throws IOException {
+        scambio.getResponseHeaders().set("Content-Type", JSON);
+        scambio.sendResponseHeaders(codice, 0); // Lunghezza sconosciuta: risposta a blocchi
+        Writer writer = new BufferedWriter(new OutputStreamWriter(scambio.getResponseBody(), StandardCharsets.UTF_8));
+        jsonDAO.scriviFilms(films, writer);
+    }
+
+    private static void inviaTesto(HttpExchange scambio, int codice, String messaggio) throws IOException {
+        byte[] corpo = (messaggio == null ? "" : messaggio).getBytes(StandardCharsets.UTF_8);
+        scambio.getResponseHeaders().set("Content-Type", TESTO);
+        scambio.sendResponseHeaders(codice, corpo.length);
+        try (OutputStream out = scambio.getResponseBody()) {
+            out.write(corpo);
+        }
+    }
+}
@@ -18,9 +18,6 @@ public class OrdinaAnnoUscitaCrescenteStrategy implements OrdinatoreFilmStrategy
      */
     @Override
     public void ordina(List<Film> films) {
-        films.sort(Comparator.comparing(
-                Film::getAnnoUscita,
-                Comparator.nullsLast(Comparator.naturalOrder()) // "0000".."9999"
-        ));
+        films.sort(Comparator.comparingInt(Film::getAnno)); // confronto tra anni numerici, senza passare dalle stringhe
     }
 }
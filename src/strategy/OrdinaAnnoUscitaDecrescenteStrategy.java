@@ -18,9 +18,6 @@ public class OrdinaAnnoUscitaDecrescenteStrategy implements OrdinatoreFilmStrate
      */
     @Override
     public void ordina(List<Film> films) {
-        films.sort(Comparator.comparing(
-                Film::getAnnoUscita,
-                Comparator.nullsLast(Comparator.reverseOrder())
-        ));
+        films.sort(Comparator.comparingInt(Film::getAnno).reversed()); // confronto tra anni numerici, senza passare dalle stringhe
     }
 }
@@ -1,17 +1,29 @@
 package strategy.dao;
 
+import metriche.Contatore;
+import metriche.EventoDAO;
+import metriche.Istogramma;
+import metriche.RegistroMetriche;
 import model.Film;
 import model.StatoVisione;
 
 import java.io.*;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Implementazione dell'interfaccia FilmDAO per la gestione dei films in formato CSV.
  */
 public class CsvFilmDAO implements FilmDAO {
 
+    // Durate di lettura e scrittura e numero di films elaborati, da cui il rapporto delle metriche ricava il throughput
+    private static final Istogramma TEMPO_LETTURA = RegistroMetriche.getInstance().istogramma("dao.csv.lettura");
+    private static final Contatore FILMS_LETTI = RegistroMetriche.getInstance().contatore("dao.csv.lettura.films");
+    private static final Istogramma TEMPO_SCRITTURA = RegistroMetriche.getInstance().istogramma("dao.csv.scrittura");
+    private static final Contatore FILMS_SCRITTI = RegistroMetriche.getInstance().contatore("dao.csv.scrittura.films");
+
     // Costanti
     private static final String SEPARATOR = ",";
     private static final String QUOTE = "\"";
@@ -27,30 +39,53 @@ public class CsvFilmDAO implements FilmDAO {
      */
     @Override
     public void salvaFilms(List<Film> films, String percorsoFile) throws IOException {
+        EventoDAO evento = new EventoDAO();
+        evento.begin();
+        boolean riuscito = false;
         try (BufferedWriter writer = new BufferedWriter(new FileWriter(percorsoFile))) {
-            // Scrive l'intestazione
-            writer.write(HEADER);
-            writer.newLine();
+            scriviFilms(films, writer);
+            riuscito = true;
+        } finally {
+            evento.registra("scrittura", "CSV", percorsoFile, films.size(), riuscito);
+        }
+    }
 
-            // Scrive i dati di ogni film
-            for (Film film : films) {
-                StringBuilder sb = new StringBuilder();
+    /**
+     * Scrive una lista di films in formato CSV su un writer qualsiasi, una riga per film; il writer non viene chiuso.
+     *
+     * @param films  Lista di films da scrivere
+     * @param writer Destinazione dei dati CSV
+     * @throws IOException In caso di errori durante la scrittura
+     */
+    @Override
+    public void scriviFilms(List<Film> films, Writer writer) throws IOException {
+        long inizio = System.nanoTime();
+        // Scrive l'intestazione
+        writer.write(HEADER);
+        writer.write(System.lineSeparator());
 
-                // Aggiunge i campi con escape se necessario
-                sb.append(escapeCsv(film.getTitolo())).append(SEPARATOR);
-                sb.append(escapeCsv(film.getRegista())).append(SEPARATOR);
-                sb.append(escapeCsv(film.getAnnoUscita())).append(SEPARATOR);
-                sb.append(escapeCsv(film.getGenere())).append(SEPARATOR);
+        // Scrive i dati di ogni film
+        StringBuilder sb = new StringBuilder();
+        for (Film film : films) {
+            sb.setLength(0);
 
-                // Salva la valutazione (0 = "da valutare" o numero)
-                sb.append(escapeCsv(film.getValutazioneAsString())).append(SEPARATOR);
+            // Aggiunge i campi con escape se necessario
+            sb.append(escapeCsv(film.getTitolo())).append(SEPARATOR);
+            sb.append(escapeCsv(film.getRegista())).append(SEPARATOR);
+            sb.append(escapeCsv(film.getAnnoUscita())).append(SEPARATOR);
+            sb.append(escapeCsv(film.getGenere())).append(SEPARATOR);
 
-                sb.append(film.getStatoVisione().name());
+            // Salva la valutazione (0 = "da valutare" o numero)
+            sb.append(escapeCsv(film.getValutazioneAsString())).append(SEPARATOR);
 
-                writer.write(sb.toString());
-                writer.newLine();
-            }
+            sb.append(film.getStatoVisione().name());
+            sb.append(System.lineSeparator());
+
+            writer.write(sb.toString());
         }
+        writer.flush();
+        TEMPO_SCRITTURA.registraDa(inizio);
+        FILMS_SCRITTI.aggiungi(films.size());
     }
 
     /**
@@ -63,7 +98,6 @@ public class CsvFilmDAO implements FilmDAO {
      */
     @Override
     public List<Film> caricaFilms(String percorsoFile) throws IOException {
-        List<Film> films = new ArrayList<>();
         File file = new File(percorsoFile);
 
         // Verifica che il file abbia solo una estensione e che sia .csv
@@ -80,39 +114,61 @@ public class CsvFilmDAO implements FilmDAO {
             throw new IOException("File non trovato:\n" + percorsoFile);
         }
 
+        EventoDAO evento = new EventoDAO();
+        evento.begin();
+        List<Film> films = null;
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            films = leggiFilms(reader);
+            return films;
+        } finally {
+            evento.registra("lettura", "CSV", percorsoFile, films == null ? 0 : films.size(), films != null);
+        }
+    }
+
+    /**
+     * Legge una lista di films in formato CSV da un reader qualsiasi; la prima riga è l'intestazione.
+     * Se anche un solo film non è valido, l'intera operazione fallisce. Il reader non viene chiuso.
+     *
+     * @param reader Sorgente dei dati CSV
+     * @return Lista di films letti
+     * @throws IOException In caso di errori durante la lettura o se ci sono films non validi
+     */
+    @Override
+    public List<Film> leggiFilms(Reader reader) throws IOException {
+        long inizio = System.nanoTime();
+        List<Film> films = new ArrayList<>();
+        Set<Film> presenti = new HashSet<>(); // evita una ricerca lineare nella lista per ogni film
         List<String> errori = new ArrayList<>();
         int numeroRiga = 1; // Inizia da 1 per l'intestazione
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            // Salta l'intestazione
-            String line = reader.readLine();
-            numeroRiga++;
+        LettoreRecord records = new LettoreRecord(reader);
+
+        // Salta l'intestazione
+        String line = records.prossimo();
+        numeroRiga++;
 
-            // Legge le righe di dati
-            while ((line = reader.readLine()) != null) {
-                if (!line.trim().isEmpty()) {
-                    Film film = parseFilmFromCsv(line);
-                    if (film == null) {
-                        // Film con formato CSV non valido
-                        errori.add("Riga " + numeroRiga + ": formato CSV non valido");
-                    } else if (!film.isValid()) {
-                        // Film con dati incompleti o invalidi
-                        errori.add("Riga " + numeroRiga + " (" +
+        // Legge i record di dati; un campo tra virgolette può contenere a capo, conservati così come sono
+        while ((line = records.prossimo()) != null) {
+            int rigaIniziale = numeroRiga;
+            numeroRiga += records.getRighe() - 1;
+
+            if (!line.trim().isEmpty()) {
+                Film film = parseFilmFromCsv(line);
+                if (film == null) {
+                    // Film con formato CSV non valido o con dati rifiutati dal costruttore di Film
+                    errori.add("Riga " + rigaIniziale + ": formato CSV non valido");
+                } else {
+                    // Film già validato dal costruttore, verifica duplicati
+                    if (!presenti.add(film)) {
+                        errori.add("Riga " + rigaIniziale + " (" +
                                 (film.getTitolo().isEmpty() ? "titolo mancante" : film.getTitolo()) +
-                                "): dati incompleti o non validi");
+                                "): film già presente");
                     } else {
-                        // Film valido, verifica duplicati
-                        if (films.contains(film)) {
-                            errori.add("Riga " + numeroRiga + " (" +
-                                    (film.getTitolo().isEmpty() ? "titolo mancante" : film.getTitolo()) +
-                                    "): film già presente");
-                        } else {
-                            films.add(film);
-                        }
+                        films.add(film);
                     }
                 }
-                numeroRiga++;
             }
+            numeroRiga++;
         }
 
         // Se ci sono errori, interrompi il caricamento e segnala
@@ -122,9 +178,101 @@ public class CsvFilmDAO implements FilmDAO {
             throw new IOException(messaggioErrore);
         }
 
+        TEMPO_LETTURA.registraDa(inizio);
+        FILMS_LETTI.aggiungi(films.size());
         return films;
     }
 
+    /**
+     * Lettore dei record CSV a blocchi di caratteri. Un record termina con un a capo (\n, \r\n o \r)
+     * fuori dalle virgolette; gli a capo all'interno di un campo tra virgolette restano nel record
+     * esattamente come nel file. Ogni carattere viene esaminato una sola volta.
+     */
+    private static final class LettoreRecord {
+
+        private final Reader reader;
+        private final char[] buffer = new char[8192];
+        private final StringBuilder record = new StringBuilder();
+        private int posizione;
+        private int limite;
+        private boolean saltaLf; // l'ultimo record è terminato con \r: un \n successivo fa parte dello stesso a capo
+        private int righe;       // righe del file occupate dall'ultimo record letto
+
+        LettoreRecord(Reader reader) {
+            this.reader = reader;
+        }
+
+        /**
+         * Legge il record successivo, senza il suo a capo finale.
+         *
+         * @return Record letto, o null alla fine del reader
+         */
+        String prossimo() throws IOException {
+            record.setLength(0);
+            righe = 1;
+            if (!riempi()) {
+                return null;
+            }
+            if (saltaLf) {
+                saltaLf = false;
+                if (buffer[posizione] == '\n') {
+                    posizione++;
+                    if (!riempi()) {
+                        return null;
+                    }
+                }
+            }
+
+            boolean virgolette = false;
+            char precedente = 0;
+            do {
+                int inizio = posizione;
+                while (posizione < limite) {
+                    char c = buffer[posizione];
+                    if (c == '"') {
+                        virgolette = !virgolette;
+                    } else if (c == '\n' || c == '\r') {
+                        if (!virgolette) {
+                            record.append(buffer, inizio, posizione - inizio);
+                            posizione++;
+                            saltaLf = c == '\r';
+                            return record.toString();
+                        }
+                        if (c == '\r' || precedente != '\r') {
+                            righe++; // \r\n conta come un solo a capo
+                        }
+                    }
+                    precedente = c;
+                    posizione++;
+                }
+                record.append(buffer, inizio, posizione - inizio);
+            } while (riempi());
+            return record.toString(); // ultimo record senza a capo finale
+        }
+
+        /**
+         * Restituisce il numero di righe del file occupate dall'ultimo record letto.
+         */
+        int getRighe() {
+            return righe;
+        }
+
+        /**
+         * Garantisce che il buffer contenga almeno un carattere da leggere.
+         *
+         * @return false alla fine del reader
+         */
+        private boolean riempi() throws IOException {
+            if (posizione < limite) {
+                return true;
+            }
+            int letti = reader.read(buffer, 0, buffer.length);
+            posizione = 0;
+            limite = Math.max(letti, 0);
+            return letti > 0;
+        }
+    }
+
     /**
      * Converte una riga CSV in un oggetto Film.
      * Include validazione degli input durante il parsing.
@@ -211,6 +359,7 @@ public class CsvFilmDAO implements FilmDAO {
 
         Film film;
         try {
+            // Registi e generi vengono condivisi dal costruttore tramite il PoolStringhe
             film = new Film(titolo, regista, annoUscita, genere, valutazione, statoVisione);
         } catch (IllegalArgumentException e) {
             System.err.println("CSV film non valido: " + csvLine);
@@ -2,8 +2,10 @@ package strategy.dao;
 
 import model.Film;
 
-import java.util.List;
 import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.List;
 
 /**
  * Interfaccia DAO (Data Access Object) per la gestione della persistenza dei films.
@@ -28,4 +30,22 @@ public interface FilmDAO {
      * @throws IOException In caso di errori durante la lettura del file
      */
     List<Film> caricaFilms(String percorsoFile) throws IOException;
+
+    /**
+     * Scrive una lista di films su un writer qualsiasi (es. lo standard output), senza chiuderlo.
+     *
+     * @param films  Lista di films da scrivere
+     * @param writer Destinazione dei dati
+     * @throws IOException In caso di errori durante la scrittura
+     */
+    void scriviFilms(List<Film> films, Writer writer) throws IOException;
+
+    /**
+     * Legge una lista di films da un reader qualsiasi (es. lo standard input), senza chiuderlo.
+     *
+     * @param reader Sorgente dei dati
+     * @return Lista di films letti
+     * @throws IOException In caso di errori durante la lettura o se ci sono films non validi
+     */
+    List<Film> leggiFilms(Reader reader) throws IOException;
 }
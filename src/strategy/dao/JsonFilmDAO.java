@@ -1,11 +1,17 @@
 package strategy.dao;
 
+import metriche.Contatore;
+import metriche.EventoDAO;
+import metriche.Istogramma;
+import metriche.RegistroMetriche;
 import model.Film;
 import model.StatoVisione;
 
 import java.io.*;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Implementazione dell'interfaccia FilmDAO per la gestione dei films in formato JSON.
@@ -13,6 +19,12 @@ import java.util.List;
  */
 public class JsonFilmDAO implements FilmDAO {
 
+    // Metriche del formato JSON
+    private static final Istogramma TEMPO_LETTURA = RegistroMetriche.getInstance().istogramma("dao.json.lettura");
+    private static final Contatore FILMS_LETTI = RegistroMetriche.getInstance().contatore("dao.json.lettura.films");
+    private static final Istogramma TEMPO_SCRITTURA = RegistroMetriche.getInstance().istogramma("dao.json.scrittura");
+    private static final Contatore FILMS_SCRITTI = RegistroMetriche.getInstance().contatore("dao.json.scrittura.films");
+
     /**
      * Salva una lista di films in formato JSON.
      *
@@ -22,32 +34,56 @@ public class JsonFilmDAO implements FilmDAO {
      */
     @Override
     public void salvaFilms(List<Film> films, String percorsoFile) throws IOException {
+        EventoDAO evento = new EventoDAO();
+        evento.begin();
+        boolean riuscito = false;
         try (BufferedWriter writer = new BufferedWriter(new FileWriter(percorsoFile))) {
-            writer.write("[\n");
-
-            for (int i = 0; i < films.size(); i++) {
-                Film film = films.get(i);
-                writer.write("  {\n");
-                writer.write("    \"titolo\": \"" + escapeJson(film.getTitolo()) + "\",\n");
-                writer.write("    \"regista\": \"" + escapeJson(film.getRegista()) + "\",\n");
-                writer.write("    \"annoUscita\": \"" + escapeJson(film.getAnnoUscita()) + "\",\n");
-                writer.write("    \"genere\": \"" + escapeJson(film.getGenere()) + "\",\n");
-
-                // Valutazione come numero, per retro-compatibilità
-                writer.write("    \"valutazione\": " + film.getValutazione() + ",\n");
-
-                writer.write("    \"statoVisione\": \"" + film.getStatoVisione().name() + "\"\n");
-                writer.write("  }");
+            scriviFilms(films, writer);
+            riuscito = true;
+        } finally {
+            evento.registra("scrittura", "JSON", percorsoFile, films.size(), riuscito);
+        }
+    }
 
-                // Aggiungi virgola se non è l'ultimo elemento
-                if (i < films.size() - 1) {
-                    writer.write(",");
-                }
-                writer.write("\n");
+    /**
+     * Scrive una lista di films in formato JSON su un writer qualsiasi, ad esempio la risposta di una richiesta HTTP.
+     * I films vengono scritti uno alla volta senza costruire prima l'intero documento in memoria;
+     * il writer non viene chiuso.
+     *
+     * @param films  Lista di films da scrivere
+     * @param writer Destinazione del documento JSON
+     * @throws IOException In caso di errori durante la scrittura
+     */
+    @Override
+    public void scriviFilms(List<Film> films, Writer writer) throws IOException {
+        long inizio = System.nanoTime();
+        writer.write("[\n");
+
+        for (int i = 0; i < films.size(); i++) {
+            Film film = films.get(i);
+            writer.write("  {\n");
+            writer.write("    \"titolo\": \"" + escapeJson(film.getTitolo()) + "\",\n");
+            writer.write("    \"regista\": \"" + escapeJson(film.getRegista()) + "\",\n");
+            writer.write("    \"annoUscita\": \"" + escapeJson(film.getAnnoUscita()) + "\",\n");
+            writer.write("    \"genere\": \"" + escapeJson(film.getGenere()) + "\",\n");
+
+            // Valutazione come numero, per retro-compatibilità
+            writer.write("    \"valutazione\": " + film.getValutazione() + ",\n");
+
+            writer.write("    \"statoVisione\": \"" + film.getStatoVisione().name() + "\"\n");
+            writer.write("  }");
+
+            // Aggiungi virgola se non è l'ultimo elemento
+            if (i < films.size() - 1) {
+                writer.write(",");
             }
-
-            writer.write("]");
+            writer.write("\n");
         }
+
+        writer.write("]");
+        writer.flush();
+        TEMPO_SCRITTURA.registraDa(inizio);
+        FILMS_SCRITTI.aggiungi(films.size());
     }
 
     /**
@@ -60,7 +96,6 @@ public class JsonFilmDAO implements FilmDAO {
      */
     @Override
     public List<Film> caricaFilms(String percorsoFile) throws IOException {
-        List<Film> films = new ArrayList<>();
         File file = new File(percorsoFile);
 
         // Verifica che il file abbia solo una estensione e che sia .json
@@ -78,56 +113,76 @@ public class JsonFilmDAO implements FilmDAO {
             throw new IOException("File non trovato:\n" + percorsoFile);
         }
 
+        EventoDAO evento = new EventoDAO();
+        evento.begin();
+        List<Film> films = null;
         try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            StringBuilder jsonContent = new StringBuilder();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                jsonContent.append(line).append("\n");
-            }
+            films = leggiFilms(reader);
+            return films;
+        } finally {
+            evento.registra("lettura", "JSON", percorsoFile, films == null ? 0 : films.size(), films != null);
+        }
+    }
+
+    /**
+     * Legge una lista di films in formato JSON da un reader qualsiasi, ad esempio il corpo di una richiesta HTTP.
+     * Se anche un solo film non è valido, l'intera operazione fallisce. Il reader non viene chiuso.
+     *
+     * @param reader Sorgente del documento JSON
+     * @return Lista di films letti
+     * @throws IOException In caso di errori durante la lettura o se ci sono films non validi
+     */
+    @Override
+    public List<Film> leggiFilms(Reader reader) throws IOException {
+        long inizio = System.nanoTime();
+        List<Film> films = new ArrayList<>();
+        Set<Film> presenti = new HashSet<>(); // evita una ricerca lineare nella lista per ogni film
+        BufferedReader righe = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        StringBuilder jsonContent = new StringBuilder();
+        String line;
+        while ((line = righe.readLine()) != null) {
+            jsonContent.append(line).append("\n");
+        }
 
-            // Parsing manuale del JSON
-            String content = jsonContent.toString().trim();
-            if (content.startsWith("[") && content.endsWith("]")) {
-                content = content.substring(1, content.length() - 1).trim();
-
-                // Suddivide gli oggetti JSON
-                List<String> jsonObjects = splitJsonObjects(content);
-
-                List<String> errori = new ArrayList<>();
-                int indice = 0;
-
-                for (String jsonObject : jsonObjects) {
-                    indice++;
-                    Film film = parseJsonFilm(jsonObject);
-                    if (film == null) {
-                        // Film non valido
-                        errori.add("Film #" + indice + ": formato JSON non valido");
-                    } else if (!film.isValid()) {
-                        // Film con dati incompleti o invalidi
+        // Parsing manuale del JSON
+        String content = jsonContent.toString().trim();
+        if (content.startsWith("[") && content.endsWith("]")) {
+            content = content.substring(1, content.length() - 1).trim();
+
+            // Suddivide gli oggetti JSON
+            List<String> jsonObjects = splitJsonObjects(content);
+
+            List<String> errori = new ArrayList<>();
+            int indice = 0;
+
+            for (String jsonObject : jsonObjects) {
+                indice++;
+                Film film = parseJsonFilm(jsonObject);
+                if (film == null) {
+                    // Film non valido o con dati rifiutati dal costruttore di Film
+                    errori.add("Film #" + indice + ": formato JSON non valido");
+                } else {
+                    // Film già validato dal costruttore, verifica duplicati
+                    if (!presenti.add(film)) {
                         errori.add("Film #" + indice + " (" +
                                 (film.getTitolo().isEmpty() ? "titolo mancante" : film.getTitolo()) +
-                                "): dati incompleti o non validi");
+                                "): film già presente");
                     } else {
-                        // Film valido, verifica duplicati
-                        if (films.contains(film)) {
-                            errori.add("Film #" + indice + " (" +
-                                    (film.getTitolo().isEmpty() ? "titolo mancante" : film.getTitolo()) +
-                                    "): film già presente");
-                        } else {
-                            films.add(film);
-                        }
+                        films.add(film);
                     }
                 }
+            }
 
-                // Se ci sono errori, interrompi il caricamento e segnala
-                if (!errori.isEmpty()) {
-                    String messaggioErrore = "Impossibile caricare il file. Sono stati trovati films non validi:" +
-                            "\n" + String.join("\n", errori);
-                    throw new IOException(messaggioErrore);
-                }
+            // Se ci sono errori, interrompi il caricamento e segnala
+            if (!errori.isEmpty()) {
+                String messaggioErrore = "Impossibile caricare il file. Sono stati trovati films non validi:" +
+                        "\n" + String.join("\n", errori);
+                throw new IOException(messaggioErrore);
             }
         }
 
+        TEMPO_LETTURA.registraDa(inizio);
+        FILMS_LETTI.aggiungi(films.size());
         return films;
     }
 
@@ -141,10 +196,22 @@ public class JsonFilmDAO implements FilmDAO {
     private List<String> splitJsonObjects(String jsonContent) {
         List<String> objects = new ArrayList<>();
         int nesting = 0;
+        boolean inString = false; // le parentesi dentro una stringa non delimitano oggetti
+        boolean escape = false;
         StringBuilder currentObject = new StringBuilder();
 
         for (char c : jsonContent.toCharArray()) {
-            if (c == '{') {
+            if (escape) {
+                escape = false;
+            } else if (inString) {
+                if (c == '\\') {
+                    escape = true;
+                } else if (c == '"') {
+                    inString = false;
+                }
+            } else if (c == '"') {
+                inString = true;
+            } else if (c == '{') {
                 nesting++;
             } else if (c == '}') {
                 nesting--;
@@ -192,16 +259,16 @@ public class JsonFilmDAO implements FilmDAO {
         StatoVisione statoVisione = StatoVisione.DA_VEDERE; // Default a "da vedere"
 
         // Suddivide le coppie chiave-valore
-        String[] pairs = jsonObject.split(",");
+        List<String> pairs = splitJsonPairs(jsonObject);
         for (String pair : pairs) {
             String[] keyValue = pair.split(":", 2);
             if (keyValue.length == 2) {
                 String key = keyValue[0].trim().replace("\"", "");
                 String value = keyValue[1].trim();
 
-                // Rimuove virgolette per stringhe
-                if (value.startsWith("\"") && value.endsWith("\"")) {
-                    value = value.substring(1, value.length() - 1);
+                // Rimuove virgolette e sequenze di escape per stringhe
+                if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+                    value = unescapeJson(value.substring(1, value.length() - 1));
                 }
 
                 switch (key) {
@@ -252,6 +319,7 @@ public class JsonFilmDAO implements FilmDAO {
 
         Film film;
         try {
+            // Registi e generi vengono condivisi dal costruttore tramite il PoolStringhe
             film = new Film(titolo, regista, annoUscita, genere, valutazione, statoVisione);
         } catch (IllegalArgumentException e) {
             System.err.println("JSON film non valido: " + jsonObject);
@@ -262,6 +330,85 @@ public class JsonFilmDAO implements FilmDAO {
         return film;
     }
 
+    /**
+     * Suddivide il contenuto di un oggetto JSON nelle sue coppie chiave-valore,
+     * ignorando le virgole che fanno parte di una stringa (es. un titolo).
+     *
+     * @param jsonObject Contenuto dell'oggetto JSON senza parentesi graffe
+     * @return Lista delle coppie chiave-valore
+     */
+    private List<String> splitJsonPairs(String jsonObject) {
+        List<String> pairs = new ArrayList<>();
+        boolean inString = false;
+        boolean escape = false;
+        int inizio = 0;
+
+        for (int i = 0; i < jsonObject.length(); i++) {
+            char c = jsonObject.charAt(i);
+            if (escape) {
+                escape = false;
+            } else if (inString) {
+                if (c == '\\') {
+                    escape = true;
+                } else if (c == '"') {
+                    inString = false;
+                }
+            } else if (c == '"') {
+                inString = true;
+            } else if (c == ',') {
+                pairs.add(jsonObject.substring(inizio, i));
+                inizio = i + 1;
+            }
+        }
+        pairs.add(jsonObject.substring(inizio));
+        return pairs;
+    }
+
+    /**
+     * Converte le sequenze di escape di una stringa JSON nei caratteri corrispondenti.
+     *
+     * @param text Testo tra virgolette, senza le virgolette
+     * @return Testo con i caratteri speciali ripristinati
+     */
+    private String unescapeJson(String text) {
+        if (text.indexOf('\\') == -1) {
+            return text;
+        }
+
+        StringBuilder sb = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c != '\\' || i + 1 == text.length()) {
+                sb.append(c);
+                continue;
+            }
+            char next = text.charAt(++i);
+            switch (next) {
+                case 'n':
+                    sb.append('\n');
+                    break;
+                case 'r':
+                    sb.append('\r');
+                    break;
+                case 't':
+                    sb.append('\t');
+                    break;
+                case 'u':
+                    try {
+                        sb.append((char) Integer.parseInt(text.substring(i + 1, i + 5), 16));
+                        i += 4;
+                    } catch (IndexOutOfBoundsException | NumberFormatException e) {
+                        sb.append('\\').append(next); // Sequenza incompleta: mantenuta così com'è
+                    }
+                    break;
+                default:
+                    sb.append(next); // \" \\ e \/
+                    break;
+            }
+        }
+        return sb.toString();
+    }
+
     /**
      * Aggiunge escape characters per caratteri speciali nel JSON.
      *
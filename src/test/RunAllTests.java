@@ -1,14 +1,32 @@
 package test;
 
+import test.batch.ElaborazioneBatchTest;
 import test.command.AggiungiFilmCommandTest;
 import test.command.CommandManagerTest;
+import test.command.CronologiaPersistenteTest;
 import test.command.EliminaFilmCommandTest;
+import test.command.EliminaFilmsCommandTest;
 import test.command.ModificaFilmCommandTest;
+import test.command.ModificaFilmsCommandTest;
+import test.command.PulisciVideotecaCommandTest;
+import test.controller.CatalogoColonnareTest;
+import test.controller.CatalogoFilmTest;
+import test.controller.GestoreVideotecaConcorrenzaTest;
 import test.controller.GestoreVideotecaTest;
+import test.controller.NotificheCoalescentiTest;
+import test.controller.RegistroVideotecheTest;
+import test.controller.RicercaIncrementaleTest;
 import test.dao.FilmDAOTest;
+import test.generatore.GeneratoreCatalogoTest;
+import test.metriche.EventiJfrTest;
+import test.metriche.IstogrammaTest;
+import test.metriche.RegistroMetricheTest;
 import test.model.FilmTest;
+import test.model.PoolStringheTest;
 import test.model.StatoVisioneTest;
+import test.server.ServerVideotecaTest;
 import test.strategy.OrdinatoreFilmStrategyTest;
+import test.view.SorveglianzaEDTTest;
 
 import java.lang.reflect.Method;
 import java.util.ArrayList;
@@ -32,13 +50,31 @@ public class RunAllTests {
 
         runTestsForClass(FilmTest.class);
         runTestsForClass(StatoVisioneTest.class);
+        runTestsForClass(PoolStringheTest.class);
         runTestsForClass(GestoreVideotecaTest.class);
+        runTestsForClass(CatalogoFilmTest.class);
+        runTestsForClass(GestoreVideotecaConcorrenzaTest.class);
+        runTestsForClass(RegistroVideotecheTest.class);
+        runTestsForClass(ServerVideotecaTest.class);
+        runTestsForClass(ElaborazioneBatchTest.class);
+        runTestsForClass(RicercaIncrementaleTest.class);
+        runTestsForClass(CatalogoColonnareTest.class);
+        runTestsForClass(NotificheCoalescentiTest.class);
         runTestsForClass(CommandManagerTest.class);
+        runTestsForClass(CronologiaPersistenteTest.class);
         runTestsForClass(AggiungiFilmCommandTest.class);
         runTestsForClass(ModificaFilmCommandTest.class);
         runTestsForClass(EliminaFilmCommandTest.class);
+        runTestsForClass(EliminaFilmsCommandTest.class);
+        runTestsForClass(ModificaFilmsCommandTest.class);
+        runTestsForClass(PulisciVideotecaCommandTest.class);
         runTestsForClass(OrdinatoreFilmStrategyTest.class);
         runTestsForClass(FilmDAOTest.class);
+        runTestsForClass(GeneratoreCatalogoTest.class);
+        runTestsForClass(IstogrammaTest.class);
+        runTestsForClass(RegistroMetricheTest.class);
+        runTestsForClass(EventiJfrTest.class);
+        runTestsForClass(SorveglianzaEDTTest.class);
 
         long endTime = System.currentTimeMillis();
 
@@ -0,0 +1,101 @@
+package test.batch;
+
+import batch.ElaborazioneBatch;
+import model.Film;
+import model.StatoVisione;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import strategy.dao.CsvFilmDAO;
+import strategy.dao.JsonFilmDAO;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitari per la classe ElaborazioneBatch.
+ * Verifica conversione tra formati, filtri e ordinamento eseguiti a riga di comando.
+ */
+public class ElaborazioneBatchTest {
+
+    private static final String CSV = "temp_test/batch_test.csv";
+    private static final String JSON = "temp_test/batch_test.json";
+
+    private ByteArrayOutputStream output;
+    private ByteArrayOutputStream errori;
+    private List<Film> films;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        new File("temp_test").mkdir();
+        output = new ByteArrayOutputStream();
+        errori = new ByteArrayOutputStream();
+
+        films = List.of(
+                new Film("Il Padrino", "Francis Ford Coppola", "1972", "dramma", 5, StatoVisione.VISTO),
+                new Film("Interstellar", "Christopher Nolan", "2014", "fantascienza", 3, StatoVisione.DA_VEDERE),
+                new Film("Inception, il sogno", "Christopher Nolan", "2010", "fantascienza", 4, StatoVisione.VISTO));
+        new CsvFilmDAO().salvaFilms(films, CSV);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        new File(CSV).delete();
+        new File(JSON).delete();
+        new File("temp_test").delete();
+    }
+
+    private int esegui(byte[] input, String... args) {
+        ElaborazioneBatch batch = new ElaborazioneBatch(new ByteArrayInputStream(input), output,
+                new PrintStream(errori, true, StandardCharsets.UTF_8));
+        return batch.esegui(args);
+    }
+
+    @Test
+    public void testConversioneCsvInJson() throws IOException {
+        assertEquals(ElaborazioneBatch.ESITO_OK, esegui(new byte[0], CSV, "--output", JSON));
+        assertEquals(films, new JsonFilmDAO().caricaFilms(JSON));
+    }
+
+    @Test
+    public void testFiltroEOrdinamentoSuStandardOutput() throws IOException {
+        int esito = esegui(new byte[0], CSV, "--genere", "fantascienza", "--stato", "Visto",
+                "--ordina", "Titolo (A-Z)");
+        assertEquals(ElaborazioneBatch.ESITO_OK, esito);
+
+        List<Film> risultato = new JsonFilmDAO().leggiFilms(new StringReader(output.toString(StandardCharsets.UTF_8)));
+        assertEquals(1, risultato.size());
+        assertEquals("Inception, il sogno", risultato.get(0).getTitolo());
+    }
+
+    @Test
+    public void testStandardInputCsv() throws IOException {
+        byte[] csv = Files.readAllBytes(new File(CSV).toPath());
+        int esito = esegui(csv, "-", "--formato-input", "csv", "--formato", "csv",
+                "--cerca", "nolan", "--tipo", "regista", "--ordina", "Anno di Uscita (DESC)", "--testi", "fuori-heap");
+        assertEquals(ElaborazioneBatch.ESITO_OK, esito);
+
+        List<Film> risultato = new CsvFilmDAO().leggiFilms(new StringReader(output.toString(StandardCharsets.UTF_8)));
+        assertEquals(2, risultato.size());
+        assertEquals("Interstellar", risultato.get(0).getTitolo());
+    }
+
+    @Test
+    public void testErrori() {
+        assertEquals(ElaborazioneBatch.ESITO_USO_NON_VALIDO, esegui(new byte[0]));
+        assertEquals(ElaborazioneBatch.ESITO_USO_NON_VALIDO, esegui(new byte[0], CSV, "--sconosciuta", "x"));
+        assertEquals(ElaborazioneBatch.ESITO_USO_NON_VALIDO, esegui(new byte[0], CSV, "--formato", "xml"));
+        assertEquals(ElaborazioneBatch.ESITO_USO_NON_VALIDO, esegui(new byte[0], CSV, "--testi", "disco"));
+        assertEquals(ElaborazioneBatch.ESITO_ERRORE_IO, esegui(new byte[0], "temp_test/inesistente.csv"));
+        assertFalse(errori.toString(StandardCharsets.UTF_8).isEmpty());
+    }
+}
@@ -201,4 +201,71 @@ public class CommandManagerTest {
         assertNull(commandManager.getUndoDescription());
         assertNull(commandManager.getRedoDescription());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testProfonditaMassima() {
+        CommandManager manager = new CommandManager(3, CommandManager.BUDGET_PREDEFINITO_BYTE);
+        for (int i = 1; i <= 5; i++) {
+            manager.executeCommand(new TestCommand("Comando " + i));
+        }
+
+        // Restano solo gli ultimi tre comandi
+        assertEquals("Comando 5", manager.getUndoDescription());
+        assertTrue(manager.undo());
+        assertTrue(manager.undo());
+        assertTrue(manager.undo());
+        assertEquals("Comando 3", manager.getRedoDescription());
+        assertFalse(manager.canUndo());
+        assertNull(manager.getUndoDescription());
+        assertFalse(manager.undo());
+    }
+
+    @Test
+    public void testBudgetMemoria() {
+        // Ogni comando dichiara 100 byte, il budget ne consente due
+        CommandManager manager = new CommandManager(CommandManager.PROFONDITA_PREDEFINITA, 250);
+        for (int i = 1; i <= 4; i++) {
+            manager.executeCommand(new TestCommand("Comando " + i) {
+                @Override
+                public long getDimensioneStimata() {
+                    return 100;
+                }
+            });
+        }
+        assertEquals(200, manager.getByteUsati());
+
+        // Undo e redo spostano i comandi senza cambiare la memoria usata
+        assertTrue(manager.undo());
+        assertEquals(200, manager.getByteUsati());
+        assertTrue(manager.undo());
+        assertFalse(manager.canUndo());
+        assertEquals("Comando 3", manager.getRedoDescription());
+
+        // Un nuovo comando scarta la cronologia di redo
+        manager.executeCommand(command1);
+        assertEquals(command1.getDimensioneStimata(), manager.getByteUsati());
+    }
+
+    @Test
+    public void testComandoOltreIlBudgetRestaAnnullabile() {
+        CommandManager manager = new CommandManager(10, 50);
+        manager.executeCommand(command1);
+        manager.executeCommand(new TestCommand("Comando grande") {
+            @Override
+            public long getDimensioneStimata() {
+                return 1000;
+            }
+        });
+
+        // Il comando più vecchio viene scartato, l'ultimo resta annullabile
+        assertEquals("Comando grande", manager.getUndoDescription());
+        assertTrue(manager.undo());
+        assertFalse(manager.canUndo());
+    }
+
+    @Test
+    public void testLimitiNonValidi() {
+        assertThrows(IllegalArgumentException.class, () -> new CommandManager(0, 100));
+        assertThrows(IllegalArgumentException.class, () -> new CommandManager(10, 0));
+    }
+}
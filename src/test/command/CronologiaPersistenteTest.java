@@ -0,0 +1,262 @@
+package test.command;
+
+import command.AggiungiFilmCommand;
+import command.CommandManager;
+import command.CronologiaPersistente;
+import command.ModificaFilmCommand;
+import command.ModificaFilmsCommand;
+import controller.FilmController;
+import model.Film;
+import model.StatoVisione;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitari per la cronologia undo/redo salvata su file.
+ * Verifica il ripristino degli stack allo stato dell'ultimo salvataggio della videoteca.
+ */
+public class CronologiaPersistenteTest {
+
+    private static final String PERCORSO = "temp_test/videoteca.json" + CronologiaPersistente.ESTENSIONE;
+
+    private TestFilmController controller;
+    private Film film;
+
+    /**
+     * Controller che registra le ultime operazioni richieste dai comandi.
+     */
+    private static class TestFilmController extends FilmController {
+        private Film filmAggiunto;
+        private Film vecchioFilm;
+        private Film nuovoFilm;
+        private List<Film> nuoviFilms;
+
+        public TestFilmController() {
+            super(null); // Il parametro view non è usato nei test
+        }
+
+        @Override
+        public boolean aggiungiFilmInterno(Film film) {
+            filmAggiunto = film;
+            return true;
+        }
+
+        @Override
+        public boolean eliminaFilmInterno(Film film) {
+            return true;
+        }
+
+        @Override
+        public boolean modificaFilmInterno(Film vecchioFilm, Film nuovoFilm) {
+            this.vecchioFilm = vecchioFilm;
+            this.nuovoFilm = nuovoFilm;
+            return true;
+        }
+
+        @Override
+        public List<Film> modificaFilmsInterno(List<Film> vecchiFilms, List<Film> nuoviFilms) {
+            this.nuoviFilms = nuoviFilms;
+            return vecchiFilms;
+        }
+    }
+
+    @BeforeEach
+    public void setUp() {
+        new File("temp_test").mkdir();
+        controller = new TestFilmController();
+        film = new Film("Il Padrino", "Francis Ford Coppola", "1972", "dramma", 3, StatoVisione.VISTO);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        new File(PERCORSO).delete();
+        new File("temp_test").delete();
+    }
+
+    /**
+     * Esegue un'aggiunta e una modifica annullata, poi registra il salvataggio della videoteca.
+     */
+    private CommandManager preparaCronologiaSalvata() throws IOException {
+        CommandManager commandManager = new CommandManager();
+        commandManager.executeCommand(new AggiungiFilmCommand(controller, "Interstellar", "Christopher Nolan",
+                "2014", "fantascienza", 4, StatoVisione.DA_VEDERE));
+        commandManager.executeCommand(new ModificaFilmCommand(controller, film, "Il Padrino", "Francis Ford Coppola",
+                "1972", "dramma", 5, StatoVisione.VISTO));
+        commandManager.undo();
+        commandManager.registraSalvataggio(PERCORSO, 100, 200);
+        return commandManager;
+    }
+
+    @Test
+    public void testRipristinoDopoSalvataggio() throws IOException {
+        CommandManager prima = preparaCronologiaSalvata();
+        String descrizioneUndo = prima.getUndoDescription();
+        String descrizioneRedo = prima.getRedoDescription();
+        prima.chiudiCronologia();
+
+        CommandManager dopo = new CommandManager();
+        assertTrue(dopo.apriCronologia(PERCORSO, controller, 100, 200));
+        assertTrue(dopo.isCronologiaCollegata());
+        assertEquals(descrizioneUndo, dopo.getUndoDescription());
+        assertEquals(descrizioneRedo, dopo.getRedoDescription());
+
+        // Il redo ripete la modifica sul film della videoteca
+        assertTrue(dopo.redo());
+        assertEquals(film, controller.vecchioFilm);
+        assertEquals(5, controller.nuovoFilm.getValutazione());
+
+        // Dopo il redo si annullano la modifica e poi l'aggiunta, letta dal file solo ora
+        assertTrue(dopo.undo());
+        assertEquals(3, controller.nuovoFilm.getValutazione());
+        assertTrue(dopo.undo());
+        assertFalse(dopo.canUndo());
+        dopo.chiudiCronologia();
+    }
+
+    @Test
+    public void testOperazioniNonSalvateScartate() throws IOException {
+        CommandManager prima = preparaCronologiaSalvata();
+        prima.redo();
+        prima.executeCommand(new AggiungiFilmCommand(controller, "Dune", "Denis Villeneuve",
+                "2021", "fantascienza", 0, StatoVisione.DA_VEDERE));
+        prima.chiudiCronologia();
+
+        // Le operazioni successive al salvataggio non corrispondono al file della videoteca
+        CommandManager dopo = new CommandManager();
+        dopo.apriCronologia(PERCORSO, controller, 100, 200);
+        assertTrue(dopo.canRedo());
+        assertTrue(dopo.getUndoDescription().contains("Interstellar"));
+        dopo.chiudiCronologia();
+    }
+
+    @Test
+    public void testImprontaDiversa() throws IOException {
+        preparaCronologiaSalvata().chiudiCronologia();
+
+        // Il file della videoteca è cambiato dopo il salvataggio: la cronologia non è più valida
+        CommandManager dopo = new CommandManager();
+        assertFalse(dopo.apriCronologia(PERCORSO, controller, 101, 200));
+        assertFalse(dopo.isCronologiaCollegata());
+        assertFalse(dopo.canUndo());
+        assertFalse(dopo.canRedo());
+
+        // I nuovi comandi continuano a essere registrati
+        dopo.executeCommand(new AggiungiFilmCommand(controller, "Dune", "Denis Villeneuve",
+                "2021", "fantascienza", 0, StatoVisione.DA_VEDERE));
+        dopo.registraSalvataggio(PERCORSO, 300, 400);
+        dopo.chiudiCronologia();
+
+        CommandManager riaperto = new CommandManager();
+        riaperto.apriCronologia(PERCORSO, controller, 300, 400);
+        assertTrue(riaperto.getUndoDescription().contains("Dune"));
+        riaperto.chiudiCronologia();
+    }
+
+    @Test
+    public void testRecordIncompletoIgnorato() throws IOException {
+        preparaCronologiaSalvata().chiudiCronologia();
+
+        // Simula una scrittura interrotta in fondo al file
+        try (FileOutputStream out = new FileOutputStream(PERCORSO, true)) {
+            out.write(new byte[]{1, 0, 0});
+        }
+
+        CommandManager dopo = new CommandManager();
+        dopo.apriCronologia(PERCORSO, controller, 100, 200);
+        assertTrue(dopo.canUndo());
+        assertTrue(dopo.canRedo());
+        dopo.chiudiCronologia();
+    }
+
+    @Test
+    public void testSalvataggioInAltroFile() throws IOException {
+        CommandManager commandManager = new CommandManager();
+        commandManager.executeCommand(new AggiungiFilmCommand(controller, "Interstellar", "Christopher Nolan",
+                "2014", "fantascienza", 4, StatoVisione.DA_VEDERE));
+        assertFalse(commandManager.isCronologiaCollegata());
+
+        // Il primo salvataggio scrive nel file anche i comandi eseguiti in precedenza
+        commandManager.registraSalvataggio(PERCORSO, 100, 200);
+        assertTrue(commandManager.isCronologiaCollegata());
+        commandManager.chiudiCronologia();
+
+        CommandManager dopo = new CommandManager();
+        dopo.apriCronologia(PERCORSO, controller, 100, 200);
+        assertTrue(dopo.undo());
+        assertTrue(dopo.redo());
+        assertEquals("Interstellar", controller.filmAggiunto.getTitolo());
+        dopo.chiudiCronologia();
+    }
+
+    @Test
+    public void testAperturaSenzaCronologiaNonCreaFile() throws IOException {
+        CommandManager commandManager = new CommandManager();
+        assertFalse(commandManager.apriCronologia(PERCORSO, controller, 100, 200));
+        assertFalse(new File(PERCORSO).exists());
+    }
+
+    @Test
+    public void testFileEstraneoNonModificato() throws IOException {
+        // Un file con un'intestazione diversa va solo letto, mai svuotato durante l'apertura
+        byte[] contenuto = "non è una cronologia".getBytes(StandardCharsets.UTF_8);
+        Files.write(Path.of(PERCORSO), contenuto);
+        CommandManager commandManager = new CommandManager();
+        assertFalse(commandManager.apriCronologia(PERCORSO, controller, 100, 200));
+        assertFalse(commandManager.isCronologiaCollegata());
+        assertEquals(Arrays.toString(contenuto), Arrays.toString(Files.readAllBytes(Path.of(PERCORSO))));
+    }
+
+    @Test
+    public void testImprontaDiversaNonTroncaIlFile() throws IOException {
+        preparaCronologiaSalvata().chiudiCronologia();
+        long lunghezza = new File(PERCORSO).length();
+        assertFalse(new CommandManager().apriCronologia(PERCORSO, controller, 101, 200));
+        assertEquals(lunghezza, new File(PERCORSO).length());
+    }
+
+    @Test
+    public void testModificaMultiplaScrittaUnaVolta() throws IOException {
+        List<Film> films = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            films.add(new Film("Film " + i, "Regista", "2000", "dramma", i % 2, StatoVisione.DA_VEDERE));
+        }
+        CommandManager prima = new CommandManager();
+        prima.registraSalvataggio(PERCORSO, 100, 200);
+        long vuota = new File(PERCORSO).length();
+        assertTrue(prima.executeCommand(new ModificaFilmsCommand(controller, films, null, 5, null)));
+        prima.registraSalvataggio(PERCORSO, 100, 200);
+        long byteUsati = prima.getByteUsati();
+        prima.chiudiCronologia();
+
+        // Ogni film è scritto una volta sola, seguito dall'indice di una delle due differenze condivise
+        long perFilm = (new File(PERCORSO).length() - vuota) / films.size();
+        assertTrue(perFilm < 40, "Byte per film: " + perFilm);
+
+        CommandManager dopo = new CommandManager();
+        assertTrue(dopo.apriCronologia(PERCORSO, controller, 100, 200));
+        assertEquals(byteUsati, dopo.getByteUsati());
+        assertTrue(dopo.undo());
+        assertEquals(films.size(), controller.nuoviFilms.size());
+        for (int i = 0; i < films.size(); i++) {
+            assertEquals(films.get(i), controller.nuoviFilms.get(i));
+            assertEquals(i % 2, controller.nuoviFilms.get(i).getValutazione());
+        }
+        assertTrue(dopo.redo());
+        assertEquals(5, controller.nuoviFilms.get(0).getValutazione());
+        dopo.chiudiCronologia();
+    }
+
+}
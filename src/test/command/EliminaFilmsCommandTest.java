@@ -0,0 +1,88 @@
+package test.command;
+
+import command.AggiungiFilmsCommand;
+import command.EliminaFilmsCommand;
+import controller.FilmController;
+import controller.GestoreVideoteca;
+import model.Film;
+import model.StatoVisione;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitari per i comandi multipli AggiungiFilmsCommand ed EliminaFilmsCommand.
+ * Verifica che l'intera operazione venga eseguita e annullata in un solo passo sulla videoteca.
+ */
+public class EliminaFilmsCommandTest {
+
+    private GestoreVideoteca gestore;
+    private FilmController controller;
+    private List<Film> films;
+
+    @BeforeEach
+    public void setUp() {
+        gestore = GestoreVideoteca.getInstance();
+        gestore.pulisciVideoteca();
+        controller = new FilmController(null); // Il parametro view non è usato dai metodi interni
+
+        films = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            films.add(new Film("Film " + i, "Regista " + (i % 5), String.valueOf(1950 + i), "dramma", i % 6,
+                    StatoVisione.DA_VEDERE));
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        gestore.pulisciVideoteca();
+    }
+
+    @Test
+    public void testAggiuntaMultiplaEUndo() {
+        gestore.aggiungiFilm(films.get(0)); // Già presente: deve essere ignorato
+
+        AggiungiFilmsCommand command = new AggiungiFilmsCommand(controller, films);
+        assertTrue(command.execute());
+        assertEquals(50, gestore.getFilms().size());
+
+        // L'undo rimuove solo i films aggiunti dal comando
+        command.undo();
+        assertEquals(1, gestore.getFilms().size());
+        assertTrue(gestore.getFilms().contains(films.get(0)));
+
+        assertTrue(command.getDescription().contains("50"));
+    }
+
+    @Test
+    public void testEliminazioneMultiplaEUndo() {
+        gestore.aggiungiFilms(films);
+
+        List<Film> daEliminare = films.subList(10, 40);
+        EliminaFilmsCommand command = new EliminaFilmsCommand(controller, daEliminare);
+        assertTrue(command.execute());
+        assertEquals(20, gestore.getFilms().size());
+        for (Film film : daEliminare) {
+            assertFalse(gestore.getFilms().contains(film));
+        }
+
+        command.undo();
+        assertEquals(50, gestore.getFilms().size());
+        assertTrue(gestore.getFilms().containsAll(films));
+
+        // Redo: il comando può essere rieseguito
+        assertTrue(command.execute());
+        assertEquals(20, gestore.getFilms().size());
+    }
+
+    @Test
+    public void testEliminazioneFilmsAssenti() {
+        EliminaFilmsCommand command = new EliminaFilmsCommand(controller, films);
+        assertFalse(command.execute());
+    }
+}
@@ -147,4 +147,36 @@ public class ModificaFilmCommandTest {
         assertTrue(description.contains("Titolo Modificato"));
         assertTrue(description.contains("Modifica film"));
     }
+
+    @Test
+    public void testModificaSoloValutazione() {
+        ModificaFilmCommand soloValutazione = new ModificaFilmCommand(controller, filmOriginale,
+                "Titolo Originale", "Regista Originale", "1234", "Genere Originale", 5, StatoVisione.VISTO);
+
+        soloValutazione.execute();
+        Film filmModificato = controller.getNuovoFilm();
+        assertEquals(5, filmModificato.getValutazione());
+        // I campi non modificati sono condivisi con il film originale
+        assertSame(filmOriginale.getTitolo(), filmModificato.getTitolo());
+        assertSame(filmOriginale.getRegista(), filmModificato.getRegista());
+
+        // La differenza occupa meno memoria del comando che modifica tutti i campi
+        command.execute();
+        assertTrue(soloValutazione.getDimensioneStimata() < command.getDimensioneStimata());
+    }
+
+    @Test
+    public void testRedoDopoUndo() {
+        command.execute();
+        Film primaEsecuzione = controller.getNuovoFilm();
+        command.undo();
+        Film ripristinato = controller.getNuovoFilm();
+
+        // Il redo parte dalla versione ripristinata e ricostruisce la versione modificata
+        assertTrue(command.execute());
+        assertSame(ripristinato, controller.getVecchioFilm());
+        assertEquals(primaEsecuzione, controller.getNuovoFilm());
+        assertEquals(5, controller.getNuovoFilm().getValutazione());
+        assertEquals("Modifica film: Titolo Originale -> Titolo Modificato", command.getDescription());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,122 @@
+package test.command;
+
+import command.ModificaFilmsCommand;
+import controller.FilmController;
+import controller.GestoreVideoteca;
+import model.Film;
+import model.StatoVisione;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitari per la classe ModificaFilmsCommand.
+ * Verifica la modifica multipla di un campo e il suo annullamento in un solo passo.
+ */
+public class ModificaFilmsCommandTest {
+
+    private GestoreVideoteca gestore;
+    private FilmController controller;
+    private Film film1, film2, film3;
+
+    @BeforeEach
+    public void setUp() {
+        gestore = GestoreVideoteca.getInstance();
+        gestore.pulisciVideoteca();
+        controller = new FilmController(null); // Il parametro view non è usato dai metodi interni
+
+        film1 = new Film("Il Padrino", "Francis Ford Coppola", "1972", "dramma", 5, StatoVisione.DA_VEDERE);
+        film2 = new Film("Interstellar", "Christopher Nolan", "2014", "fantascienza", 3, StatoVisione.IN_VISIONE);
+        film3 = new Film("Nuovo Cinema Paradiso", "Giuseppe Tornatore", "1988", "dramma", 1, StatoVisione.VISTO);
+        gestore.aggiungiFilms(List.of(film1, film2, film3));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        gestore.pulisciVideoteca();
+    }
+
+    @Test
+    public void testSegnaTuttiComeVisti() {
+        ModificaFilmsCommand command = new ModificaFilmsCommand(controller, List.of(film1, film2, film3),
+                null, null, StatoVisione.VISTO);
+        assertTrue(command.execute());
+
+        List<Film> films = gestore.getFilms();
+        assertEquals(3, films.size());
+        for (Film film : films) {
+            assertEquals(StatoVisione.VISTO, film.getStatoVisione());
+        }
+        // Gli altri campi restano invariati e i films mantengono la loro posizione
+        assertEquals("Il Padrino", films.get(0).getTitolo());
+        assertEquals(5, films.get(0).getValutazione());
+        assertEquals("fantascienza", films.get(1).getGenere());
+        // Il film già visto non viene sostituito
+        assertSame(film3, films.get(2));
+
+        command.undo();
+        films = gestore.getFilms();
+        // Le versioni originali vengono ricostruite dalle differenze
+        assertStessiValori(film1, films.get(0));
+        assertStessiValori(film2, films.get(1));
+        assertSame(film3, films.get(2));
+        assertTrue(command.getDescription().contains("Visto"));
+
+        // Il redo riapplica le differenze alle versioni ripristinate
+        assertTrue(command.execute());
+        for (Film film : gestore.getFilms()) {
+            assertEquals(StatoVisione.VISTO, film.getStatoVisione());
+        }
+    }
+
+    @Test
+    public void testDifferenzeCondivise() {
+        // Molti films con gli stessi valori precedenti: la memoria non cresce con un film completo per riga
+        List<Film> molti = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            molti.add(new Film("Film " + i, "Regista", "2000", "dramma", i % 2, StatoVisione.DA_VEDERE));
+        }
+        gestore.aggiungiFilms(molti);
+        ModificaFilmsCommand command = new ModificaFilmsCommand(controller, molti, null, 5, null);
+        assertTrue(command.execute());
+        assertEquals(5, gestore.getCatalogo().trova(molti.get(999)).getValutazione());
+        // Due sole differenze distinte (0 -> 5 e 1 -> 5) e due riferimenti per film
+        assertTrue(command.getDimensioneStimata() < 20 * molti.size(), "Stima: " + command.getDimensioneStimata());
+
+        command.undo();
+        assertEquals(1, gestore.getCatalogo().trova(molti.get(999)).getValutazione());
+    }
+
+    private static void assertStessiValori(Film atteso, Film film) {
+        assertEquals(atteso, film);
+        assertEquals(atteso.getGenere(), film.getGenere());
+        assertEquals(atteso.getValutazione(), film.getValutazione());
+        assertEquals(atteso.getStatoVisione(), film.getStatoVisione());
+    }
+
+    @Test
+    public void testModificaGenereEValutazione() {
+        ModificaFilmsCommand command = new ModificaFilmsCommand(controller, List.of(film1, film3),
+                "classico", 4, null);
+        assertTrue(command.execute());
+
+        List<Film> films = gestore.getFilms();
+        assertEquals("classico", films.get(0).getGenere());
+        assertEquals(4, films.get(0).getValutazione());
+        assertEquals(StatoVisione.DA_VEDERE, films.get(0).getStatoVisione());
+        assertEquals("fantascienza", films.get(1).getGenere());
+        assertEquals("classico", films.get(2).getGenere());
+    }
+
+    @Test
+    public void testNessunaModifica() {
+        ModificaFilmsCommand command = new ModificaFilmsCommand(controller, List.of(film3),
+                null, null, StatoVisione.VISTO);
+        assertFalse(command.execute());
+    }
+}
@@ -0,0 +1,90 @@
+package test.command;
+
+import command.CaricaVideotecaCommand;
+import command.PulisciVideotecaCommand;
+import controller.CatalogoFilm;
+import controller.FilmController;
+import controller.GestoreVideoteca;
+import model.Film;
+import model.StatoVisione;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitari per i comandi PulisciVideotecaCommand e CaricaVideotecaCommand.
+ * Verifica che pulizia e caricamento possano essere annullati ripristinando il catalogo precedente.
+ */
+public class PulisciVideotecaCommandTest {
+
+    private GestoreVideoteca gestore;
+    private FilmController controller;
+    private List<Film> films;
+
+    @BeforeEach
+    public void setUp() {
+        gestore = GestoreVideoteca.getInstance();
+        gestore.pulisciVideoteca();
+        controller = new FilmController(null); // Il parametro view non è usato dai metodi interni
+
+        films = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            films.add(new Film("Film " + i, "Regista " + (i % 7), String.valueOf(1950 + i % 60), "dramma", i % 6,
+                    StatoVisione.VISTO));
+        }
+        gestore.aggiungiFilms(films);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        gestore.pulisciVideoteca();
+    }
+
+    @Test
+    public void testPuliziaEUndo() {
+        CatalogoFilm prima = gestore.getCatalogo();
+
+        PulisciVideotecaCommand command = new PulisciVideotecaCommand(controller);
+        assertTrue(command.execute());
+        assertTrue(gestore.getFilms().isEmpty());
+        assertTrue(command.getDescription().contains("100"));
+
+        // L'undo ripristina lo stesso catalogo, con le stesse istanze dei films
+        command.undo();
+        assertSame(prima, gestore.getCatalogo());
+        assertSame(films.get(0), gestore.getFilms().get(0));
+
+        assertTrue(command.execute());
+        assertTrue(gestore.getFilms().isEmpty());
+    }
+
+    @Test
+    public void testPuliziaVideotecaVuota() {
+        gestore.pulisciVideoteca();
+        assertFalse(new PulisciVideotecaCommand(controller).execute());
+    }
+
+    @Test
+    public void testCaricamentoEUndo() {
+        List<Film> caricati = films.subList(0, 10);
+        CaricaVideotecaCommand command = new CaricaVideotecaCommand(controller, CatalogoFilm.di(caricati),
+                "videoteca.json");
+
+        assertTrue(command.execute());
+        assertEquals(caricati, gestore.getFilms());
+
+        // Le modifiche successive al caricamento non alterano il catalogo conservato dal comando
+        gestore.eliminaFilm(caricati.get(0));
+        command.undo();
+        assertEquals(films, gestore.getFilms());
+
+        assertTrue(command.execute());
+        assertEquals(caricati, gestore.getFilms());
+        assertTrue(command.getDescription().contains("videoteca.json"));
+    }
+}
@@ -0,0 +1,161 @@
+package test.controller;
+
+import controller.CatalogoColonnare;
+import controller.CriteriRicerca;
+import controller.FilmController;
+import controller.GestoreVideoteca;
+import controller.RegistroVideoteche;
+import generatore.GeneratoreCatalogo;
+import model.Film;
+import model.StatoVisione;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitari per la classe CatalogoColonnare.
+ * Verifica che la rappresentazione a colonne restituisca gli stessi films e gli stessi risultati
+ * di ricerca, filtri e ordinamento dell'elenco di films da cui è costruita.
+ */
+public class CatalogoColonnareTest {
+
+    private List<Film> films;
+    private CatalogoColonnare catalogo;
+    private FilmController controller;
+    private GestoreVideoteca gestore;
+
+    private static void assertRighe(int[] attese, int[] trovate) {
+        assertEquals(Arrays.toString(attese), Arrays.toString(trovate));
+    }
+
+    @BeforeEach
+    public void setUp() {
+        films = List.copyOf(new GeneratoreCatalogo(7).films(2000));
+        catalogo = CatalogoColonnare.di(films);
+        gestore = new RegistroVideoteche().ottieni("colonnare");
+        gestore.aggiungiFilms(films);
+        controller = new FilmController(null, gestore);
+    }
+
+    @Test
+    public void testFilmsRicostruiti() {
+        assertEquals(films.size(), catalogo.dimensione());
+        List<Film> vista = catalogo.getFilms();
+        for (int i = 0; i < films.size(); i++) {
+            Film originale = films.get(i);
+            Film ricostruito = vista.get(i);
+            assertEquals(originale, ricostruito);
+            assertEquals(originale.getTitolo(), ricostruito.getTitolo());
+            assertEquals(originale.getGenere(), ricostruito.getGenere());
+            assertEquals(originale.getValutazione(), ricostruito.getValutazione());
+            assertEquals(originale.getStatoVisione(), ricostruito.getStatoVisione());
+        }
+        assertThrows(UnsupportedOperationException.class, () -> vista.add(films.get(0)));
+    }
+
+    @Test
+    public void testStessiRisultatiDelController() {
+        String regista = films.get(0).getRegista();
+        CriteriRicerca[] criteri = {
+                new CriteriRicerca("", "Titolo", "Tutti", "Tutti", "Tutti", "Tutti", -1, null),
+                new CriteriRicerca("", "Titolo", "FANTASCIENZA", "Tutti", "Tutti", "Visto", 4, null),
+                new CriteriRicerca("notte", "Titolo", "Tutti", regista, "Tutti", "Tutti", -1, "Anno di Uscita (DESC)"),
+                new CriteriRicerca("É", "Titolo", "Tutti", "Tutti", "Tutti", "Tutti", -1, "Titolo (A-Z)"),
+                new CriteriRicerca(regista.substring(0, 3), "Regista", "Tutti", "Tutti",
+                        films.get(1).getAnnoUscita(), "Tutti", -1, "Valutazione (5-1)"),
+                new CriteriRicerca("", "Titolo", "Tutti", "Tutti", "Tutti", "stato inesistente", 0, null)
+        };
+        for (CriteriRicerca criterio : criteri) {
+            assertEquals(controller.elaboraFilms(films, criterio), controller.elaboraFilms(catalogo, criterio));
+        }
+    }
+
+    @Test
+    public void testValoriUnici() {
+        assertEquals(gestore.getGeneriUnici(), catalogo.getGeneriUnici());
+        assertEquals(gestore.getRegistiUnici(), catalogo.getRegistiUnici());
+        assertEquals(gestore.getAnnoUscitaUnici(), catalogo.getAnnoUscitaUnici());
+    }
+
+    @Test
+    public void testCatalogoVuotoEAnnoConZeri() {
+        CatalogoColonnare vuoto = CatalogoColonnare.di(List.of());
+        assertEquals(0, vuoto.seleziona(new CriteriRicerca("x", "Titolo", "Tutti", "Tutti", "Tutti", "Tutti", -1, null)).length);
+        assertTrue(vuoto.getAnnoUscitaUnici().isEmpty());
+
+        CatalogoColonnare antico = CatalogoColonnare.di(List.of(
+                new Film("Antico", "Anonimo", "0999", "storico", 0, StatoVisione.DA_VEDERE)));
+        assertEquals("0999", antico.film(0).getAnnoUscita());
+        assertEquals(List.of("0999"), antico.getAnnoUscitaUnici());
+    }
+
+    @Test
+    public void testTestiFuoriHeap() {
+        CatalogoColonnare fuoriHeap = CatalogoColonnare.di(films, true);
+        assertEquals(films, fuoriHeap.getFilms());
+        String regista = films.get(3).getRegista();
+        assertRighe(catalogo.cercaPerTitolo("notte"), fuoriHeap.cercaPerTitolo("notte"));
+        assertRighe(catalogo.cercaPerRegista(regista.substring(2, 6)), fuoriHeap.cercaPerRegista(regista.substring(2, 6)));
+        assertEquals(catalogo.getRegistiUnici(), fuoriHeap.getRegistiUnici());
+    }
+
+    @Test
+    public void testRicercaSuiByteUtf8() {
+        // Lettere accentate (due byte), simboli (tre byte) e caratteri fuori dal piano di base (quattro byte)
+        List<Film> speciali = List.of(
+                new Film("Perché È così", "Jean-Luc Godàrd", "1965", "dramma", 3, StatoVisione.VISTO),
+                new Film("Prezzo 10€ \uD83C\uDFAC ciak", "Ōshima Nagisa", "1976", "dramma", 0, StatoVisione.DA_VEDERE),
+                new Film("ASCII", "Żuławski", "1981", "horror", 4, StatoVisione.IN_VISIONE));
+        for (boolean fuoriHeap : new boolean[]{false, true}) {
+            CatalogoColonnare colonne = CatalogoColonnare.di(speciali, fuoriHeap);
+            assertEquals(speciali, colonne.getFilms());
+            assertEquals("Prezzo 10€ \uD83C\uDFAC ciak", colonne.titolo(1));
+
+            assertRighe(new int[]{0}, colonne.cercaPerTitolo("è COS"));
+            assertRighe(new int[]{1}, colonne.cercaPerTitolo("€ \uD83C\uDFAC C"));
+            assertRighe(new int[]{0, 1, 2}, colonne.cercaPerTitolo(" ")); // testo vuoto: nessuna ricerca
+            assertRighe(new int[]{}, colonne.cercaPerTitolo("asciii"));
+            assertRighe(new int[]{1}, colonne.cercaPerRegista("ōSHIMA"));
+            assertRighe(new int[]{2}, colonne.cercaPerRegista("żuŁ"));
+        }
+    }
+
+    @Test
+    public void testMaiuscoleNonAsciiIndipendentiDallaLingua() {
+        // In turco String.toLowerCase() converte "I" in "ı": la ricerca non deve dipendere dalla lingua predefinita
+        List<Film> speciali = List.of(
+                new Film("İstanbul Hatırası", "Fatih Akın", "2005", "documentario", 4, StatoVisione.VISTO),
+                new Film("IRAN", "Ärger Östlund", "2010", "dramma", 0, StatoVisione.DA_VEDERE),
+                new Film("ΣΟΦΙΑ", "Bi Gan", "2018", "dramma", 3, StatoVisione.IN_VISIONE));
+        CatalogoColonnare colonne = CatalogoColonnare.di(speciali);
+        CriteriRicerca[] criteri = {
+                new CriteriRicerca("iran", "Titolo", "Tutti", "Tutti", "Tutti", "Tutti", -1, null),
+                new CriteriRicerca("istanbul", "Titolo", "Tutti", "Tutti", "Tutti", "Tutti", -1, null),
+                new CriteriRicerca("σοφια", "Titolo", "Tutti", "Tutti", "Tutti", "Tutti", -1, null),
+                new CriteriRicerca("äRGER", "Regista", "Tutti", "Tutti", "Tutti", "Tutti", -1, null),
+                new CriteriRicerca("", "Titolo", "Tutti", "ärger ÖSTLUND", "Tutti", "Tutti", -1, null)
+        };
+        int[][] attesi = {{1}, {0}, {2}, {1}, {1}};
+
+        Locale predefinita = Locale.getDefault();
+        try {
+            for (Locale lingua : new Locale[]{Locale.ITALY, new Locale("tr", "TR")}) {
+                Locale.setDefault(lingua);
+                for (int i = 0; i < criteri.length; i++) {
+                    List<Film> trovati = controller.elaboraFilms(speciali, criteri[i]);
+                    assertEquals(trovati, controller.elaboraFilms(colonne, criteri[i]));
+                    assertEquals(attesi[i].length, trovati.size());
+                    assertSame(speciali.get(attesi[i][0]), trovati.get(0));
+                }
+            }
+        } finally {
+            Locale.setDefault(predefinita);
+        }
+    }
+
+}
@@ -0,0 +1,149 @@
+package test.controller;
+
+import controller.CatalogoFilm;
+import model.Film;
+import model.StatoVisione;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitari per la classe CatalogoFilm.
+ * Verifica che ogni modifica produca una nuova versione lasciando invariate le precedenti.
+ */
+public class CatalogoFilmTest {
+
+    private static Film film(String titolo, int valutazione) {
+        return new Film(titolo, "Regista", "2000", "dramma", valutazione, StatoVisione.DA_VEDERE);
+    }
+
+    @Test
+    public void testVersioniPrecedentiInvariate() {
+        Film padrino = film("Il Padrino", 5);
+        CatalogoFilm v1 = CatalogoFilm.VUOTO.aggiungi(padrino);
+        CatalogoFilm v2 = v1.aggiungi(film("Interstellar", 3));
+        CatalogoFilm v3 = v2.sostituisci(padrino, film("Il Padrino", 4));
+        CatalogoFilm v4 = v3.rimuovi(padrino);
+
+        assertEquals(1, v1.dimensione());
+        assertEquals(2, v2.dimensione());
+        assertSame(padrino, v2.trova(padrino));
+        assertEquals(4, v3.trova(padrino).getValutazione());
+        assertEquals("Il Padrino", v3.getFilms().get(0).getTitolo()); // La modifica mantiene la posizione
+        assertFalse(v4.contiene(padrino));
+        assertEquals(1, v4.dimensione());
+        assertTrue(CatalogoFilm.VUOTO.isVuoto());
+    }
+
+    @Test
+    public void testDuplicatiIgnorati() {
+        CatalogoFilm catalogo = CatalogoFilm.VUOTO.aggiungi(film("Dune", 1));
+        assertSame(catalogo, catalogo.aggiungi(film("DUNE", 2))); // Stessa chiave: titolo case-insensitive
+        assertSame(catalogo, catalogo.aggiungi(null));
+        assertSame(catalogo, catalogo.rimuovi(film("Alien", 1)));
+    }
+
+    @Test
+    public void testChiaviConStessoHash() {
+        // "0_" e "1@" hanno lo stesso hashCode: i films finiscono in un nodo di collisione
+        Film primo = film("0_", 1);
+        Film secondo = film("1@", 2);
+        assertEquals(primo.hashCode(), secondo.hashCode());
+
+        CatalogoFilm catalogo = CatalogoFilm.VUOTO.aggiungi(primo).aggiungi(secondo);
+        assertSame(primo, catalogo.trova(primo));
+        assertSame(secondo, catalogo.trova(secondo));
+
+        CatalogoFilm senzaPrimo = catalogo.rimuovi(primo);
+        assertFalse(senzaPrimo.contiene(primo));
+        assertSame(secondo, senzaPrimo.trova(secondo));
+        assertTrue(catalogo.contiene(primo));
+    }
+
+    @Test
+    public void testOperazioniCasualiComeLinkedHashMap() {
+        Random random = new Random(42);
+        Map<Film, Film> atteso = new LinkedHashMap<>();
+        CatalogoFilm catalogo = CatalogoFilm.VUOTO;
+        List<CatalogoFilm> versioni = new ArrayList<>();
+        List<List<Film>> contenuti = new ArrayList<>();
+
+        for (int i = 0; i < 5000; i++) {
+            Film film = film("Film " + random.nextInt(800), random.nextInt(6));
+            int operazione = random.nextInt(3);
+            if (operazione == 0) {
+                atteso.putIfAbsent(film, film);
+                catalogo = catalogo.aggiungi(film);
+            } else if (operazione == 1) {
+                atteso.remove(film);
+                catalogo = catalogo.rimuovi(film);
+            } else if (atteso.containsKey(film)) {
+                atteso.replace(film, film);
+                catalogo = catalogo.sostituisci(film, film);
+            }
+
+            if (i % 500 == 0) {
+                versioni.add(catalogo);
+                contenuti.add(new ArrayList<>(atteso.values()));
+            }
+            assertEquals(atteso.size(), catalogo.dimensione());
+        }
+
+        assertEquals(new ArrayList<>(atteso.values()), catalogo.getFilms());
+        for (int i = 0; i < versioni.size(); i++) {
+            assertEquals(contenuti.get(i), versioni.get(i).getFilms());
+        }
+    }
+
+    @Test
+    public void testVistaSenzaCopia() {
+        CatalogoFilm catalogo = CatalogoFilm.VUOTO;
+        for (int i = 0; i < 2000; i++) {
+            catalogo = catalogo.aggiungi(film("Film " + i, i % 6));
+        }
+        // Elimina un film su tre: restano posizioni libere, ma l'accesso per indice salta quelle vuote
+        for (int i = 0; i < 2000; i += 3) {
+            catalogo = catalogo.rimuovi(film("Film " + i, 0));
+        }
+
+        List<Film> vista = catalogo.getFilms();
+        assertEquals(1333, vista.size());
+        assertEquals("Film 1", vista.get(0).getTitolo());
+        assertEquals("Film 1999", vista.get(vista.size() - 1).getTitolo());
+        int indice = 0;
+        for (Film film : vista) {
+            assertSame(film, vista.get(indice++));
+        }
+
+        // La vista è immutabile e non cambia con le versioni successive del catalogo
+        assertThrows(UnsupportedOperationException.class, () -> vista.add(film("Dune", 1)));
+        catalogo.rimuovi(vista.get(0));
+        assertEquals(1333, vista.size());
+    }
+
+    @Test
+    public void testIndiceDiConPosizioniLibere() {
+        CatalogoFilm catalogo = CatalogoFilm.VUOTO;
+        for (int i = 0; i < 2000; i++) {
+            catalogo = catalogo.aggiungi(film("Film " + i, i % 6));
+        }
+        assertEquals(1500, catalogo.indiceDi(film("Film 1500", 0)));
+        for (int i = 0; i < 2000; i += 3) {
+            catalogo = catalogo.rimuovi(film("Film " + i, 0));
+        }
+
+        List<Film> vista = catalogo.getFilms();
+        for (int i = 0; i < vista.size(); i++) {
+            assertEquals(i, catalogo.indiceDi(vista.get(i)));
+        }
+        assertEquals(-1, catalogo.indiceDi(film("Film 0", 0)));
+        assertEquals(-1, catalogo.indiceDi(null));
+    }
+
+}
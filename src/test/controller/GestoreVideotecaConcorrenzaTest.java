@@ -0,0 +1,211 @@
+package test.controller;
+
+import controller.CatalogoFilm;
+import controller.GestoreVideoteca;
+import model.Film;
+import model.StatoVisione;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test di stress per l'uso concorrente di GestoreVideoteca.
+ * Più thread aggiungono, modificano ed eliminano films mentre altri leggono il catalogo:
+ * ogni operazione deve avere effetto una sola volta e ogni lettura deve vedere una versione completa.
+ */
+public class GestoreVideotecaConcorrenzaTest {
+
+    private static final int SCRITTORI = 8;
+    private static final int FILMS_PER_SCRITTORE = 200;
+
+    private GestoreVideoteca gestore;
+    private AtomicReference<Throwable> errore;
+
+    @BeforeEach
+    public void setUp() {
+        gestore = GestoreVideoteca.getInstance();
+        gestore.pulisciVideoteca();
+        errore = new AtomicReference<>();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        gestore.pulisciVideoteca();
+    }
+
+    private static Film film(String titolo, int valutazione) {
+        return new Film(titolo, "Regista", "2000", "dramma", valutazione, StatoVisione.DA_VEDERE);
+    }
+
+    /**
+     * Avvia i compiti indicati in thread separati, facendoli partire insieme, e attende che terminino.
+     */
+    private void eseguiInsieme(List<Runnable> compiti) throws InterruptedException {
+        CountDownLatch partenza = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (Runnable compito : compiti) {
+            Thread thread = new Thread(() -> {
+                try {
+                    partenza.await();
+                    compito.run();
+                } catch (Throwable t) {
+                    errore.compareAndSet(null, t);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        partenza.countDown();
+        for (Thread thread : threads) {
+            thread.join(60_000);
+            assertFalse(thread.isAlive(), "Thread ancora in esecuzione");
+        }
+        if (errore.get() != null) {
+            fail("Errore in un thread concorrente: " + errore.get());
+        }
+    }
+
+    /**
+     * Verifica che un catalogo letto sia coerente: la dimensione corrisponde ai films visitati e nessun film è ripetuto.
+     */
+    private static void verificaCoerente(CatalogoFilm catalogo) {
+        Set<Film> visti = new HashSet<>();
+        for (Film film : catalogo.getFilms()) {
+            assertTrue(visti.add(film), "Film ripetuto nel catalogo: " + film.getTitolo());
+            assertSame(film, catalogo.trova(film));
+        }
+        assertEquals(catalogo.dimensione(), visti.size());
+    }
+
+    @Test
+    public void testAggiunteConteseUnaSolaVolta() throws InterruptedException {
+        AtomicInteger riuscite = new AtomicInteger();
+        List<Runnable> compiti = new ArrayList<>();
+        for (int t = 0; t < SCRITTORI; t++) {
+            compiti.add(() -> {
+                for (int i = 0; i < FILMS_PER_SCRITTORE; i++) {
+                    // Tutti i thread cercano di aggiungere gli stessi films
+                    if (gestore.aggiungiFilm(film("Conteso " + i, 1))) {
+                        riuscite.incrementAndGet();
+                    }
+                }
+            });
+        }
+
+        eseguiInsieme(compiti);
+
+        assertEquals(FILMS_PER_SCRITTORE, riuscite.get());
+        assertEquals(FILMS_PER_SCRITTORE, gestore.getFilms().size());
+        verificaCoerente(gestore.getCatalogo());
+    }
+
+    @Test
+    public void testAggiuntaModificaEliminazioneConcorrenti() throws InterruptedException {
+        long versioneIniziale = gestore.getVersione();
+        AtomicBoolean scrittoriAttivi = new AtomicBoolean(true);
+        AtomicInteger scrittoriRimasti = new AtomicInteger(SCRITTORI);
+        List<Runnable> compiti = new ArrayList<>();
+
+        for (int t = 0; t < SCRITTORI; t++) {
+            String prefisso = "Scrittore " + t + " - ";
+            compiti.add(() -> {
+                List<Film> aggiunti = new ArrayList<>();
+                for (int i = 0; i < FILMS_PER_SCRITTORE; i++) {
+                    Film film = film(prefisso + i, 1);
+                    assertTrue(gestore.aggiungiFilm(film));
+                    aggiunti.add(film);
+                }
+                for (int i = 0; i < FILMS_PER_SCRITTORE; i++) {
+                    Film vecchio = aggiunti.get(i);
+                    Film nuovo = film(vecchio.getTitolo(), 4);
+                    assertTrue(gestore.modificaFilm(vecchio, nuovo));
+                    aggiunti.set(i, nuovo);
+                }
+                for (int i = 0; i < FILMS_PER_SCRITTORE; i += 2) {
+                    assertTrue(gestore.eliminaFilm(aggiunti.get(i)));
+                    assertFalse(gestore.eliminaFilm(aggiunti.get(i)));
+                }
+                if (scrittoriRimasti.decrementAndGet() == 0) {
+                    scrittoriAttivi.set(false);
+                }
+            });
+        }
+        for (int r = 0; r < 2; r++) {
+            compiti.add(() -> {
+                long ultimaVersione = gestore.getVersione();
+                while (scrittoriAttivi.get()) {
+                    CatalogoFilm catalogo = gestore.getCatalogo();
+                    verificaCoerente(catalogo);
+                    long versione = gestore.getVersione();
+                    assertTrue(versione >= ultimaVersione, "La versione non può diminuire");
+                    ultimaVersione = versione;
+                }
+            });
+        }
+
+        eseguiInsieme(compiti);
+
+        List<Film> films = gestore.getFilms();
+        assertEquals(SCRITTORI * FILMS_PER_SCRITTORE / 2, films.size());
+        for (Film film : films) {
+            assertEquals(4, film.getValutazione());
+        }
+        verificaCoerente(gestore.getCatalogo());
+        // Una versione per ogni aggiunta, modifica ed eliminazione riuscita
+        assertEquals(versioneIniziale + SCRITTORI * (FILMS_PER_SCRITTORE * 2L + FILMS_PER_SCRITTORE / 2),
+                gestore.getVersione());
+    }
+
+    @Test
+    public void testOperazioniMultipleAtomiche() throws InterruptedException {
+        AtomicBoolean scrittoriAttivi = new AtomicBoolean(true);
+        AtomicInteger scrittoriRimasti = new AtomicInteger(4);
+        List<Runnable> compiti = new ArrayList<>();
+
+        for (int t = 0; t < 4; t++) {
+            String prefisso = "Lotto " + t + " - ";
+            compiti.add(() -> {
+                for (int giro = 0; giro < 200; giro++) {
+                    List<Film> lotto = new ArrayList<>();
+                    List<Film> modificati = new ArrayList<>();
+                    for (int i = 0; i < 10; i++) {
+                        lotto.add(film(prefisso + i, 1));
+                        modificati.add(film(prefisso + i, 2));
+                    }
+                    assertEquals(10, gestore.aggiungiFilms(lotto).size());
+                    assertEquals(10, gestore.modificaFilms(lotto, modificati).size());
+                    assertEquals(10, gestore.eliminaFilms(modificati).size());
+                }
+                if (scrittoriRimasti.decrementAndGet() == 0) {
+                    scrittoriAttivi.set(false);
+                }
+            });
+        }
+        compiti.add(() -> {
+            while (scrittoriAttivi.get()) {
+                CatalogoFilm catalogo = gestore.getCatalogo();
+                // Un lotto è visibile per intero o per niente, mai a metà modifica
+                assertEquals(0, catalogo.dimensione() % 10);
+                int[] valutazioni = new int[3];
+                catalogo.getFilms().forEach(film -> valutazioni[film.getValutazione()]++);
+                assertEquals(0, valutazioni[1] % 10);
+                assertEquals(0, valutazioni[2] % 10);
+            }
+        });
+
+        eseguiInsieme(compiti);
+
+        assertTrue(gestore.getFilms().isEmpty());
+    }
+}
@@ -1,5 +1,7 @@
 package test.controller;
 
+import controller.AscoltatoreVideoteca;
+import controller.EventoVideoteca;
 import controller.GestoreVideoteca;
 import model.Film;
 import model.StatoVisione;
@@ -96,6 +98,26 @@ public class GestoreVideotecaTest {
         assertEquals(StatoVisione.IN_VISIONE, filmAggiornato.getStatoVisione());
     }
 
+    @Test
+    public void testModificaFilmMantienePosizione() {
+        // Modifica il primo film cambiandone anche il titolo
+        Film filmModificato = new Film("Il Padrino - Parte I", film1.getRegista(), film1.getAnnoUscita(),
+                film1.getGenere(), 4, StatoVisione.VISTO);
+        assertTrue(gestore.modificaFilm(film1, filmModificato));
+
+        // Il film modificato deve occupare la stessa posizione dell'originale
+        List<Film> films = gestore.getFilms();
+        assertEquals(3, films.size());
+        assertSame(filmModificato, films.get(0));
+        assertSame(film2, films.get(1));
+        assertSame(film3, films.get(2));
+
+        // Il vecchio film non è più presente, quindi non può essere eliminato
+        assertFalse(gestore.eliminaFilm(film1));
+        assertTrue(gestore.eliminaFilm(filmModificato));
+        assertEquals(2, gestore.getFilms().size());
+    }
+
     @Test
     public void testModificaFilmInesistente() {
         // Crea un nuovo gestore e pulisci la videoteca
@@ -152,10 +174,11 @@ public class GestoreVideotecaTest {
         assertTrue(films.contains(film2));
         assertTrue(films.contains(film3));
 
-        // Verifica che la lista restituita sia una copia (modificare la lista non deve modificare il gestore)
-        films.remove(0);
-        assertEquals(2, films.size());
-        assertEquals(3, gestore.getFilms().size()); // Il gestore ha ancora 3 films
+        // Verifica che la lista restituita sia immutabile e non segua le modifiche successive del gestore
+        assertThrows(UnsupportedOperationException.class, () -> films.remove(0));
+        gestore.eliminaFilm(film1);
+        assertEquals(3, films.size());
+        assertEquals(2, gestore.getFilms().size());
     }
 
     @Test
@@ -321,4 +344,124 @@ public class GestoreVideotecaTest {
         // Verifica che la videoteca sia vuota dopo aver pulito
         assertTrue(gestore.getFilms().isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testNotificheModifiche() {
+        List<EventoVideoteca> eventi = new ArrayList<>();
+        AscoltatoreVideoteca ascoltatore = eventi::add;
+        gestore.aggiungiAscoltatore(ascoltatore);
+        try {
+            Film film4 = new Film("Altro film", "Altro regista", "1234", "commedia", 2, StatoVisione.DA_VEDERE);
+            Film film4Modificato = new Film("Altro film", "Altro regista", "1234", "commedia", 4, StatoVisione.VISTO);
+
+            gestore.aggiungiFilm(film4);
+            gestore.aggiungiFilm(film4); // Duplicato: nessuna notifica
+            gestore.modificaFilm(film4, film4Modificato);
+            gestore.eliminaFilm(film4Modificato);
+            gestore.pulisciVideoteca();
+
+            assertEquals(4, eventi.size());
+            assertEquals(EventoVideoteca.Tipo.INSERIMENTO, eventi.get(0).getTipo());
+            assertSame(film4, eventi.get(0).getFilm());
+            assertEquals(EventoVideoteca.Tipo.MODIFICA, eventi.get(1).getTipo());
+            assertSame(film4Modificato, eventi.get(1).getFilm());
+            assertSame(film4, eventi.get(1).getFilmPrecedente());
+            assertEquals(EventoVideoteca.Tipo.ELIMINAZIONE, eventi.get(2).getTipo());
+            assertSame(film4Modificato, eventi.get(2).getFilm());
+            assertEquals(EventoVideoteca.Tipo.RICARICAMENTO, eventi.get(3).getTipo());
+        } finally {
+            gestore.rimuoviAscoltatore(ascoltatore);
+        }
+    }
+
+    @Test
+    public void testIndiciEventiRiproduconoLaVideoteca() {
+        // Una copia aggiornata solo con gli indici degli eventi deve restare uguale alla videoteca
+        List<Film> copia = new ArrayList<>(gestore.getFilms());
+        AscoltatoreVideoteca ascoltatore = evento -> {
+            switch (evento.getTipo()) {
+                case INSERIMENTO:
+                    assertEquals(copia.size(), evento.getIndice());
+                    copia.add(evento.getFilm());
+                    break;
+                case MODIFICA:
+                    assertSame(evento.getFilmPrecedente(), copia.set(evento.getIndice(), evento.getFilm()));
+                    break;
+                case ELIMINAZIONE:
+                    assertSame(evento.getFilm(), copia.remove(evento.getIndice()));
+                    break;
+                default:
+                    fail("Evento inatteso: " + evento.getTipo());
+            }
+        };
+        gestore.aggiungiAscoltatore(ascoltatore);
+        try {
+            Film film4 = new Film("Altro film", "Altro regista", "1234", "commedia", 2, StatoVisione.DA_VEDERE);
+            Film film5 = new Film("Ultimo film", "Altro regista", "1235", "commedia", 2, StatoVisione.DA_VEDERE);
+            gestore.aggiungiFilms(List.of(film4, film5));
+            gestore.eliminaFilms(List.of(film1, film3));
+            gestore.modificaFilm(film5, new Film("Ultimo film", "Altro regista", "1235", "commedia", 5, StatoVisione.VISTO));
+            gestore.eliminaFilm(film2);
+            assertEquals(gestore.getFilms(), copia);
+            assertEquals(2, copia.size());
+        } finally {
+            gestore.rimuoviAscoltatore(ascoltatore);
+        }
+    }
+
+    @Test
+    public void testAscoltatoreFuoriDalMonitor() throws InterruptedException {
+        // Un ascoltatore che attende una modifica fatta da un altro thread non deve bloccare il gestore
+        List<EventoVideoteca> eventi = new ArrayList<>();
+        Film film4 = new Film("Altro film", "Altro regista", "1234", "commedia", 2, StatoVisione.DA_VEDERE);
+        Thread[] altro = new Thread[1];
+        AscoltatoreVideoteca ascoltatore = evento -> {
+            eventi.add(evento);
+            if (altro[0] == null) {
+                altro[0] = new Thread(() -> gestore.aggiungiFilm(film4));
+                altro[0].start();
+                try {
+                    altro[0].join(5000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        gestore.aggiungiAscoltatore(ascoltatore);
+        try {
+            gestore.eliminaFilm(film1);
+            assertFalse(altro[0].isAlive());
+            assertTrue(gestore.getFilms().contains(film4));
+            // L'evento dell'altro thread è consegnato dopo il primo, nell'ordine delle modifiche
+            assertEquals(2, eventi.size());
+            assertEquals(EventoVideoteca.Tipo.ELIMINAZIONE, eventi.get(0).getTipo());
+            assertSame(film4, eventi.get(1).getFilm());
+        } finally {
+            gestore.rimuoviAscoltatore(ascoltatore);
+        }
+    }
+
+    @Test
+    public void testEccezioneAscoltatoreNonInterrompeLaConsegna() {
+        List<EventoVideoteca> eventi = new ArrayList<>();
+        AscoltatoreVideoteca difettoso = evento -> {
+            throw new IllegalStateException("ascoltatore difettoso");
+        };
+        AscoltatoreVideoteca ascoltatore = eventi::add;
+        gestore.aggiungiAscoltatore(difettoso);
+        gestore.aggiungiAscoltatore(ascoltatore);
+        try {
+            Film film4 = new Film("Altro film", "Altro regista", "1234", "commedia", 2, StatoVisione.DA_VEDERE);
+            Film film5 = new Film("Ultimo film", "Altro regista", "1235", "commedia", 2, StatoVisione.DA_VEDERE);
+            // L'errore non arriva al chiamante e tutti gli eventi raggiungono gli altri ascoltatori
+            assertEquals(2, gestore.aggiungiFilms(List.of(film4, film5)).size());
+            assertEquals(2, eventi.size());
+            assertTrue(gestore.eliminaFilm(film4));
+            assertEquals(3, eventi.size());
+        } finally {
+            gestore.rimuoviAscoltatore(difettoso);
+            gestore.rimuoviAscoltatore(ascoltatore);
+        }
+    }
+
+}
@@ -0,0 +1,42 @@
+package test.controller;
+
+import controller.EventoVideoteca;
+import controller.NotificheCoalescenti;
+import model.Film;
+import model.StatoVisione;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.*;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitari per la classe NotificheCoalescenti.
+ * Verifica che una raffica di modifiche venga consegnata in un unico blocco nel thread di eventi Swing.
+ */
+public class NotificheCoalescentiTest {
+
+    @Test
+    public void testEventiConsegnatiInUnBlocco() throws Exception {
+        CompletableFuture<List<EventoVideoteca>> consegnati = new CompletableFuture<>();
+        CompletableFuture<Boolean> inThreadSwing = new CompletableFuture<>();
+        NotificheCoalescenti notifiche = new NotificheCoalescenti(eventi -> {
+            inThreadSwing.complete(SwingUtilities.isEventDispatchThread());
+            consegnati.complete(eventi);
+        });
+
+        Film film = new Film("Il Padrino", "Francis Ford Coppola", "1972", "dramma", 5, StatoVisione.VISTO);
+        notifiche.videotecaModificata(new EventoVideoteca(EventoVideoteca.Tipo.INSERIMENTO, film, null));
+        notifiche.videotecaModificata(new EventoVideoteca(EventoVideoteca.Tipo.ELIMINAZIONE, film, null));
+        notifiche.videotecaModificata(new EventoVideoteca(EventoVideoteca.Tipo.INSERIMENTO, film, null));
+
+        List<EventoVideoteca> eventi = consegnati.get(5, TimeUnit.SECONDS);
+        assertEquals(3, eventi.size());
+        assertEquals(EventoVideoteca.Tipo.INSERIMENTO, eventi.get(0).getTipo());
+        assertEquals(EventoVideoteca.Tipo.ELIMINAZIONE, eventi.get(1).getTipo());
+        assertTrue(inThreadSwing.get(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,100 @@
+package test.controller;
+
+import controller.GestoreVideoteca;
+import controller.RegistroVideoteche;
+import model.Film;
+import model.StatoVisione;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import strategy.dao.CsvFilmDAO;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitari per la classe RegistroVideoteche.
+ * Verifica che le videoteche registrate siano indipendenti tra loro e dalla videoteca predefinita.
+ */
+public class RegistroVideotecheTest {
+
+    private static final String PERCORSO = "temp_test/registro_test.csv";
+
+    private RegistroVideoteche registro;
+
+    @BeforeEach
+    public void setUp() {
+        registro = new RegistroVideoteche();
+        GestoreVideoteca.getInstance().pulisciVideoteca();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        GestoreVideoteca.getInstance().pulisciVideoteca();
+        new File(PERCORSO).delete();
+        new File("temp_test").delete();
+    }
+
+    private static Film film(String titolo) {
+        return new Film(titolo, "Christopher Nolan", "2014", "fantascienza", 3, StatoVisione.DA_VEDERE);
+    }
+
+    @Test
+    public void testVideotecheIndipendenti() {
+        GestoreVideoteca anna = registro.ottieni("anna");
+        GestoreVideoteca marco = registro.ottieni("marco");
+        assertNotSame(anna, marco);
+        assertSame(anna, registro.ottieni("anna"));
+
+        assertTrue(anna.aggiungiFilm(film("Interstellar")));
+        assertTrue(marco.aggiungiFilm(film("Interstellar"))); // Stesso film, videoteche diverse
+        assertTrue(marco.aggiungiFilm(film("Tenet")));
+
+        assertEquals(1, anna.getFilms().size());
+        assertEquals(2, marco.getFilms().size());
+        assertTrue(GestoreVideoteca.getInstance().getFilms().isEmpty());
+        assertEquals(Set.of("anna", "marco"), registro.getIdentificativi());
+    }
+
+    @Test
+    public void testVideotecaPredefinita() {
+        assertSame(GestoreVideoteca.getInstance(), registro.ottieni(RegistroVideoteche.PREDEFINITA));
+        assertThrows(IllegalArgumentException.class, () -> registro.rimuovi(RegistroVideoteche.PREDEFINITA));
+        assertThrows(IllegalArgumentException.class, () -> registro.ottieni(" "));
+        assertThrows(IllegalArgumentException.class, () -> registro.ottieni(null));
+    }
+
+    @Test
+    public void testRimozione() {
+        GestoreVideoteca anna = registro.ottieni("anna");
+        anna.aggiungiFilm(film("Interstellar"));
+
+        assertSame(anna, registro.rimuovi("anna"));
+        assertFalse(registro.contiene("anna"));
+        assertNull(registro.rimuovi("anna"));
+        assertEquals(0, registro.dimensione());
+        assertTrue(registro.ottieni("anna").getFilms().isEmpty()); // Ricreata vuota
+    }
+
+    @Test
+    public void testStringheCondiviseTraVideoteche() throws IOException {
+        new File("temp_test").mkdir();
+        new CsvFilmDAO().salvaFilms(List.of(film("Interstellar"), film("Tenet")), PERCORSO);
+
+        GestoreVideoteca anna = registro.ottieni("anna");
+        GestoreVideoteca marco = registro.ottieni("marco");
+        anna.caricaFilmsDaCsv(PERCORSO);
+        marco.caricaFilmsDaCsv(PERCORSO);
+
+        Film filmAnna = anna.getFilms().get(0);
+        Film filmMarco = marco.getFilms().get(0);
+        assertNotSame(filmAnna, filmMarco);
+        assertSame(filmAnna.getRegista(), filmMarco.getRegista());
+        assertSame(filmAnna.getGenere(), filmMarco.getGenere());
+        assertSame(filmAnna.getRegista(), anna.getFilms().get(1).getRegista());
+    }
+}
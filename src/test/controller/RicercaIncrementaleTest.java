@@ -0,0 +1,86 @@
+package test.controller;
+
+import controller.CriteriRicerca;
+import controller.FilmController;
+import controller.RicercaIncrementale;
+import model.Film;
+import model.StatoVisione;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitari per la classe RicercaIncrementale.
+ * Verifica che le ricerche in background restituiscano gli stessi risultati di una ricerca completa,
+ * anche quando vengono ristrette ai risultati della ricerca precedente.
+ */
+public class RicercaIncrementaleTest {
+
+    private RicercaIncrementale ricerca;
+    private List<Film> catalogo;
+    private Film film1, film2, film3;
+
+    @BeforeEach
+    public void setUp() {
+        ricerca = new RicercaIncrementale(new FilmController(null));
+
+        film1 = new Film("Il Padrino", "Francis Ford Coppola", "1972", "dramma", 5, StatoVisione.VISTO);
+        film2 = new Film("Il Padrino - Parte II", "Francis Ford Coppola", "1974", "dramma", 4, StatoVisione.DA_VEDERE);
+        film3 = new Film("Interstellar", "Christopher Nolan", "2014", "fantascienza", 3, StatoVisione.DA_VEDERE);
+
+        catalogo = new ArrayList<>();
+        catalogo.add(film1);
+        catalogo.add(film2);
+        catalogo.add(film3);
+    }
+
+    /**
+     * Esegue una ricerca per titolo senza filtri e attende il risultato pubblicato.
+     */
+    private List<Film> cercaTitolo(List<Film> films, long versione, String testo) throws Exception {
+        CompletableFuture<List<Film>> risultato = new CompletableFuture<>();
+        CriteriRicerca criteri = new CriteriRicerca(testo, "Titolo", "Tutti", "Tutti", "Tutti", "Tutti", -1, "Predefinito");
+        ricerca.cerca(films, versione, criteri, risultato::complete);
+        return risultato.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testRicercaRistretta() throws Exception {
+        List<Film> risultato = cercaTitolo(catalogo, 1, "il");
+        assertEquals(2, risultato.size());
+
+        // Il nuovo testo estende il precedente: il risultato deve coincidere con una ricerca completa
+        risultato = cercaTitolo(catalogo, 1, "il padrino - ");
+        assertEquals(1, risultato.size());
+        assertSame(film2, risultato.get(0));
+
+        // Un testo più corto non restringe e cerca di nuovo nell'intero catalogo
+        risultato = cercaTitolo(catalogo, 1, "in");
+        assertEquals(3, risultato.size());
+    }
+
+    @Test
+    public void testNuovaVersioneIgnoraRisultatiPrecedenti() throws Exception {
+        List<Film> risultato = cercaTitolo(catalogo, 1, "inter");
+        assertEquals(1, risultato.size());
+
+        // La videoteca è cambiata: il film aggiunto deve essere trovato anche se il testo estende il precedente
+        Film film4 = new Film("Interstellar 2", "Christopher Nolan", "2030", "fantascienza", 0, StatoVisione.DA_VEDERE);
+        catalogo.add(film4);
+        risultato = cercaTitolo(catalogo, 2, "interstellar");
+        assertEquals(2, risultato.size());
+        assertTrue(risultato.contains(film4));
+    }
+
+    @Test
+    public void testTestoVuotoRestituisceTutto() throws Exception {
+        List<Film> risultato = cercaTitolo(catalogo, 1, "");
+        assertEquals(3, risultato.size());
+    }
+}
@@ -11,6 +11,7 @@ import strategy.dao.JsonFilmDAO;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -56,6 +57,63 @@ public class FilmDAOTest {
         new File("temp_test").delete();
     }
 
+    @Test
+    public void testJsonCaratteriSpeciali() throws IOException {
+        // Virgole, virgolette, parentesi e a capo non devono spezzare i campi
+        List<Film> filmsSpeciali = new ArrayList<>();
+        filmsSpeciali.add(new Film("Inception, il sogno", "Christopher Nolan", "2010", "fantascienza", 4, StatoVisione.VISTO));
+        filmsSpeciali.add(new Film("Il \"Padrino\" {parte 2}", "Francis Ford Coppola", "1974", "dramma: gangster", 5, StatoVisione.VISTO));
+        filmsSpeciali.add(new Film("Amelie\\Montmartre", "Jean-Pierre Jeunet", "2001", "commedia\nromantica", 3, StatoVisione.DA_VEDERE));
+
+        jsonDAO.salvaFilms(filmsSpeciali, jsonFilePath);
+        List<Film> filmsCaricati = jsonDAO.caricaFilms(jsonFilePath);
+
+        assertEquals(filmsSpeciali.size(), filmsCaricati.size());
+        for (int i = 0; i < filmsSpeciali.size(); i++) {
+            assertEquals(filmsSpeciali.get(i).getTitolo(), filmsCaricati.get(i).getTitolo());
+            assertEquals(filmsSpeciali.get(i).getGenere(), filmsCaricati.get(i).getGenere());
+        }
+    }
+
+    @Test
+    public void testCsvCampoSuPiuRighe() throws IOException {
+        // Un a capo tra virgolette non deve spezzare il record
+        List<Film> filmsSpeciali = new ArrayList<>();
+        filmsSpeciali.add(new Film("Prima parte\nSeconda parte", "Regista, con \"virgolette\"", "1999", "dramma", 2, StatoVisione.VISTO));
+        filmsSpeciali.add(new Film("Inception", "Christopher Nolan", "2010", "fantascienza", 4, StatoVisione.VISTO));
+
+        csvDAO.salvaFilms(filmsSpeciali, csvFilePath);
+        List<Film> filmsCaricati = csvDAO.caricaFilms(csvFilePath);
+
+        assertEquals(filmsSpeciali, filmsCaricati);
+        assertEquals("Prima parte\nSeconda parte", filmsCaricati.get(0).getTitolo());
+    }
+
+    @Test
+    public void testCsvACapoConservati() throws IOException {
+        // Gli a capo dentro un campo restano quelli originali, anche \r\n e \r
+        List<Film> filmsSpeciali = new ArrayList<>();
+        filmsSpeciali.add(new Film("x\r\ny", "Regista", "1999", "dramma", 2, StatoVisione.VISTO));
+        filmsSpeciali.add(new Film("Solo\rritorno", "Regista", "2000", "lungo\n\ngenere", 1, StatoVisione.VISTO));
+        filmsSpeciali.add(new Film("Inception", "Christopher Nolan", "2010", "fantascienza", 4, StatoVisione.VISTO));
+
+        csvDAO.salvaFilms(filmsSpeciali, csvFilePath);
+        List<Film> filmsCaricati = csvDAO.caricaFilms(csvFilePath);
+
+        assertEquals(filmsSpeciali, filmsCaricati);
+        assertEquals("x\r\ny", filmsCaricati.get(0).getTitolo());
+        assertEquals("Solo\rritorno", filmsCaricati.get(1).getTitolo());
+        assertEquals("lungo\n\ngenere", filmsCaricati.get(1).getGenere());
+
+        // Record terminati da \r\n e numeri di riga contati sulle righe del file
+        String csv = "Titolo,Regista,Anno,Genere,Valutazione,Stato\r\n"
+                + "\"Due\r\nrighe\",Regista,1999,dramma,2,Visto\r\n"
+                + "Film 1,Regista,1234,dramma,5,Visto\r\n"
+                + "Film 1,Regista,1234,dramma,5,Visto";
+        IOException exception = assertThrows(IOException.class, () -> csvDAO.leggiFilms(new StringReader(csv)));
+        assertTrue(exception.getMessage().contains("Riga 5 (Film 1): film già presente"), exception.getMessage());
+    }
+
     @Test
     public void testJsonSalvaCaricaFilms() throws IOException {
         // Salva i films in formato JSON
@@ -0,0 +1,98 @@
+package test.generatore;
+
+import generatore.GeneratoreCatalogo;
+import model.Film;
+import model.StatoVisione;
+import org.junit.jupiter.api.Test;
+import strategy.dao.CsvFilmDAO;
+import strategy.dao.FilmDAO;
+import strategy.dao.JsonFilmDAO;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitari per la classe GeneratoreCatalogo.
+ * Verifica determinismo, varietà dei dati generati e lettura dei cataloghi con entrambi i DAO.
+ */
+public class GeneratoreCatalogoTest {
+
+    @Test
+    public void testDeterminismo() {
+        List<Film> primo = new GeneratoreCatalogo(7).films(500);
+        List<Film> secondo = new GeneratoreCatalogo(7).films(500);
+        List<Film> altroSeme = new GeneratoreCatalogo(8).films(500);
+
+        assertEquals(new ArrayList<>(primo), new ArrayList<>(secondo));
+        assertNotEquals(new ArrayList<>(primo), new ArrayList<>(altroSeme));
+        assertEquals(primo.get(321).getGenere(), new GeneratoreCatalogo(7).genera(321).getGenere());
+    }
+
+    @Test
+    public void testFilmsDistintiEVari() {
+        List<Film> films = new GeneratoreCatalogo(42).films(2000);
+        assertEquals(2000, new HashSet<>(films).size());
+
+        Set<String> combinazioni = new HashSet<>();
+        boolean virgola = false, virgolette = false, aCapo = false, accento = false;
+        for (Film film : films) {
+            assertTrue(film.isValid());
+            combinazioni.add(film.getValutazione() + "/" + film.getStatoVisione());
+            virgola |= film.getTitolo().contains(",");
+            virgolette |= film.getTitolo().contains("\"");
+            aCapo |= film.getTitolo().contains("\n");
+            accento |= film.getTitolo().contains("à") || film.getRegista().contains("ó");
+        }
+        assertEquals(6 * StatoVisione.values().length, combinazioni.size());
+        assertTrue(virgola && virgolette && aCapo && accento);
+    }
+
+    @Test
+    public void testDistribuzioneZipf() {
+        Map<String, Integer> conteggi = new HashMap<>();
+        for (Film film : new GeneratoreCatalogo(1, 100, 1.0).films(10000)) {
+            conteggi.merge(film.getRegista(), 1, Integer::sum);
+        }
+        // Con esponente 1 il regista più frequente compare circa 1/H(100) ≈ 19% delle volte
+        int massimo = conteggi.values().stream().mapToInt(Integer::intValue).max().orElse(0);
+        assertTrue(massimo > 1500, "Regista più frequente: " + massimo);
+        assertTrue(conteggi.size() <= 100);
+    }
+
+    @Test
+    public void testLetturaConEntrambiIDAO() throws IOException {
+        GeneratoreCatalogo generatore = new GeneratoreCatalogo(3);
+        for (FilmDAO dao : List.of(new CsvFilmDAO(), new JsonFilmDAO())) {
+            StringWriter writer = new StringWriter();
+            generatore.scrivi(dao, 1000, writer);
+
+            List<Film> letti = dao.leggiFilms(new StringReader(writer.toString()));
+            assertEquals(1000, letti.size());
+            for (int i = 0; i < letti.size(); i++) {
+                Film atteso = generatore.genera(i);
+                assertEquals(atteso, letti.get(i));
+                assertEquals(atteso.getTitolo(), letti.get(i).getTitolo());
+                assertEquals(atteso.getGenere(), letti.get(i).getGenere());
+                assertEquals(atteso.getValutazione(), letti.get(i).getValutazione());
+                assertEquals(atteso.getStatoVisione(), letti.get(i).getStatoVisione());
+            }
+        }
+    }
+
+    @Test
+    public void testParametriNonValidi() {
+        assertThrows(IllegalArgumentException.class, () -> new GeneratoreCatalogo(1, 0, 1.0));
+        assertThrows(IllegalArgumentException.class, () -> new GeneratoreCatalogo(1, 10, -1.0));
+        assertThrows(IllegalArgumentException.class, () -> new GeneratoreCatalogo(1).films(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> new GeneratoreCatalogo(1).films(10).get(10));
+    }
+}
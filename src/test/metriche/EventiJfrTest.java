@@ -0,0 +1,91 @@
+package test.metriche;
+
+import controller.FilmController;
+import controller.GestoreVideoteca;
+import controller.RegistroVideoteche;
+import model.Film;
+import model.StatoVisione;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import strategy.OrdinaTitoloAZStrategy;
+import strategy.dao.CsvFilmDAO;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitari per gli eventi JFR della videoteca.
+ * Verifica che DAO, ricerche, ordinamenti e comandi producano eventi con i campi attesi.
+ */
+public class EventiJfrTest {
+
+    private static final String CSV = "temp_test/eventi_test.csv";
+    private static final String REGISTRAZIONE = "temp_test/eventi_test.jfr";
+
+    @AfterEach
+    public void tearDown() {
+        new File(CSV).delete();
+        new File(REGISTRAZIONE).delete();
+        new File("temp_test").delete();
+    }
+
+    @Test
+    public void testEventiRegistrati() throws IOException {
+        new File("temp_test").mkdir();
+        List<RecordedEvent> eventi;
+        try (Recording registrazione = new Recording()) {
+            for (String nome : List.of("videoteca.DAO", "videoteca.Ricerca", "videoteca.Ordinamento", "videoteca.Comando")) {
+                registrazione.enable(nome).withThreshold(Duration.ZERO);
+            }
+            registrazione.start();
+
+            GestoreVideoteca gestore = new RegistroVideoteche().ottieni("test-jfr");
+            FilmController controller = new FilmController(null, gestore);
+            controller.aggiungiFilm("Dune", "Denis Villeneuve", "2021", "fantascienza", 4, StatoVisione.VISTO);
+            controller.undo();
+
+            CsvFilmDAO dao = new CsvFilmDAO();
+            List<Film> films = List.of(new Film("Dune", "Denis Villeneuve", "2021", "fantascienza", 4, StatoVisione.VISTO));
+            dao.salvaFilms(films, CSV);
+            dao.caricaFilms(CSV);
+
+            gestore.cercaPerTitolo(films, "dun");
+            gestore.ordinaFilms(films, new OrdinaTitoloAZStrategy());
+
+            registrazione.stop();
+            registrazione.dump(Path.of(REGISTRAZIONE));
+            eventi = RecordingFile.readAllEvents(Path.of(REGISTRAZIONE));
+        }
+
+        List<RecordedEvent> dao = filtra(eventi, "videoteca.DAO");
+        assertEquals(2, dao.size());
+        RecordedEvent lettura = dao.stream().filter(e -> "lettura".equals(e.getString("operazione"))).findFirst().orElseThrow();
+        assertEquals("CSV", lettura.getString("formato"));
+        assertEquals(1, lettura.getInt("films"));
+        assertEquals(new File(CSV).length(), lettura.getLong("dimensione"));
+        assertTrue(lettura.getBoolean("riuscito"));
+
+        RecordedEvent ricerca = filtra(eventi, "videoteca.Ricerca").get(0);
+        assertEquals(1, ricerca.getInt("risultati"));
+        assertEquals("OrdinaTitoloAZStrategy", filtra(eventi, "videoteca.Ordinamento").get(0).getString("strategia"));
+
+        List<String> operazioni = filtra(eventi, "videoteca.Comando").stream()
+                .sorted((a, b) -> a.getStartTime().compareTo(b.getStartTime()))
+                .map(e -> e.getString("operazione")).collect(Collectors.toList());
+        assertEquals(List.of("esecuzione", "annullamento"), operazioni);
+    }
+
+    private static List<RecordedEvent> filtra(List<RecordedEvent> eventi, String nome) {
+        return eventi.stream().filter(e -> e.getEventType().getName().equals(nome)).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,77 @@
+package test.metriche;
+
+import metriche.Istogramma;
+import metriche.RegistroMetriche;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitari per la classe Istogramma.
+ * Verifica precisione dei percentili, massimo, azzeramento e registrazioni concorrenti.
+ */
+public class IstogrammaTest {
+
+    private Istogramma istogramma;
+
+    @BeforeEach
+    public void setUp() {
+        istogramma = RegistroMetriche.getInstance().istogramma("test.istogramma");
+        istogramma.azzera();
+    }
+
+    @Test
+    public void testPercentili() {
+        for (long i = 1; i <= 1000; i++) {
+            istogramma.registra(i * 1000); // da 1 µs a 1 ms
+        }
+        assertEquals(1000, istogramma.getConteggio());
+        assertEquals(1.0, istogramma.getMassimoMs(), 1e-9);
+        assertEquals(0.5005, istogramma.getMediaMs(), 1e-9);
+
+        // L'errore dei percentili è limitato dalla larghezza degli intervalli
+        assertEquals(500_000, istogramma.percentile(50), 500_000 * 0.07);
+        assertEquals(990_000, istogramma.percentile(99), 990_000 * 0.07);
+        assertEquals(1_000_000, istogramma.percentile(100));
+        assertTrue(istogramma.percentile(50) >= 500_000);
+    }
+
+    @Test
+    public void testValoriPiccoliEVuoto() {
+        assertEquals(0, istogramma.percentile(99));
+        istogramma.registra(-5);
+        istogramma.registra(3);
+        assertEquals(3, istogramma.percentile(100));
+        assertEquals(0, istogramma.percentile(50));
+        assertThrows(IllegalArgumentException.class, () -> istogramma.percentile(101));
+
+        istogramma.azzera();
+        assertEquals(0, istogramma.getConteggio());
+        assertEquals(0.0, istogramma.getMassimoMs());
+    }
+
+    @Test
+    public void testRegistrazioniConcorrenti() throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            long valore = (t + 1) * 1_000_000L;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    istogramma.registra(valore);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(80_000, istogramma.getConteggio());
+        assertEquals(8.0, istogramma.getMassimoMs(), 1e-9);
+        assertEquals(4.5, istogramma.getMediaMs(), 1e-9);
+    }
+}
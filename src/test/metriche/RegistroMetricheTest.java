@@ -0,0 +1,72 @@
+package test.metriche;
+
+import controller.CriteriRicerca;
+import controller.FilmController;
+import controller.RegistroVideoteche;
+import metriche.RegistroMetriche;
+import model.Film;
+import model.StatoVisione;
+import org.junit.jupiter.api.Test;
+import strategy.dao.CsvFilmDAO;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitari per la classe RegistroMetriche.
+ * Verifica le metriche raccolte da controller, DAO e comandi, il rapporto testuale e la pubblicazione JMX.
+ */
+public class RegistroMetricheTest {
+
+    private final RegistroMetriche registro = RegistroMetriche.getInstance();
+
+    @Test
+    public void testMetricheDeiPercorsiCritici() throws IOException {
+        registro.azzera();
+        FilmController controller = new FilmController(null, new RegistroVideoteche().ottieni("test-metriche"));
+
+        controller.aggiungiFilm("Interstellar", "Christopher Nolan", "2014", "fantascienza", 3, StatoVisione.DA_VEDERE);
+        controller.undo();
+        controller.redo();
+        controller.filtraVideoteca(new CriteriRicerca("inter", "Titolo", "Tutti", "Tutti", "Tutti", "Tutti", -1,
+                "Titolo (A-Z)"));
+
+        CsvFilmDAO dao = new CsvFilmDAO();
+        StringWriter writer = new StringWriter();
+        List<Film> films = List.of(new Film("Dune", "Denis Villeneuve", "2021", "fantascienza", 4, StatoVisione.VISTO));
+        dao.scriviFilms(films, writer);
+        dao.leggiFilms(new StringReader(writer.toString()));
+
+        assertEquals(1, registro.istogramma("comandi.esecuzione").getConteggio());
+        assertEquals(1, registro.istogramma("comandi.annullamento").getConteggio());
+        assertEquals(1, registro.istogramma("comandi.ripristino").getConteggio());
+        assertEquals(1, registro.istogramma("elaborazione.ordinamento").getConteggio());
+        assertEquals(1, registro.istogramma("dao.csv.scrittura").getConteggio());
+        assertEquals(1, registro.contatore("dao.csv.lettura.films").getValore());
+
+        String rapporto = registro.getRapporto();
+        assertTrue(rapporto.contains("elaborazione.ricerca"));
+        assertTrue(rapporto.contains("dao.csv.lettura.films"));
+    }
+
+    @Test
+    public void testPubblicazioneJmx() throws Exception {
+        registro.registraMBean();
+        registro.istogramma("test.jmx").registra(2_000_000);
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        assertTrue(server.isRegistered(new ObjectName("videoteca:type=Metriche")));
+        ObjectName nome = new ObjectName("videoteca:type=Istogramma,name=" + ObjectName.quote("test.jmx"));
+        assertEquals(1L, server.getAttribute(nome, "Conteggio"));
+        assertEquals(2.0, (Double) server.getAttribute(nome, "MassimoMs"), 1e-9);
+        assertTrue(((String) server.getAttribute(new ObjectName("videoteca:type=Metriche"), "Rapporto"))
+                .contains("test.jmx"));
+    }
+}
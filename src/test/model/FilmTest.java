@@ -136,4 +136,51 @@ public class FilmTest {
         assertEquals(expected, film.toString());
     }
 
+    @Test
+    public void testAnnoNumerico() {
+        // L'anno è conservato come numero ma restituito come stringa di quattro cifre
+        assertEquals(2014, film.getAnno());
+        film.setAnnoUscita("0999");
+        assertEquals(999, film.getAnno());
+        assertEquals("0999", film.getAnnoUscita());
+        assertSame(film.getAnnoUscita(), Film.testoAnno(999));
+        assertEquals(Film.ANNO_ASSENTE, Film.leggiAnno("99a9"));
+        assertEquals(Film.ANNO_ASSENTE, Film.leggiAnno("19999"));
+    }
+
+    @Test
+    public void testValutazioneEStatoCompattati() {
+        // Valutazione e stato condividono un byte: modificarne uno non deve alterare l'altro
+        for (StatoVisione stato : StatoVisione.values()) {
+            for (int valutazione = 0; valutazione <= 5; valutazione++) {
+                film.setStatoVisione(stato);
+                film.setValutazione(valutazione);
+                assertEquals(valutazione, film.getValutazione());
+                assertEquals(stato, film.getStatoVisione());
+            }
+        }
+    }
+
+    @Test
+    public void testValidazioneSenzaEspressioniRegolari() {
+        // Gli spazi, tabulazioni e a capo da soli equivalgono a un valore vuoto
+        assertThrows(IllegalArgumentException.class,
+                () -> new Film(" \t\n", "Regista", "2014", "dramma", 0, StatoVisione.VISTO));
+        assertThrows(IllegalArgumentException.class, () -> film.setGenere("   "));
+        assertThrows(IllegalArgumentException.class, () -> film.setAnnoUscita("2O14"));
+        assertThrows(IllegalArgumentException.class, () -> film.setAnnoUscita(" 2014"));
+        film.setRegista(" W. Anderson ");
+        assertEquals(" W. Anderson ", film.getRegista());
+    }
+
+    @Test
+    public void testDaDatiVerificati() {
+        Film verificato = Film.daDatiVerificati("The Grand Budapest Hotel", "Wes Anderson", 2014,
+                "commedia", 5, StatoVisione.VISTO);
+        assertEquals(film, verificato);
+        assertEquals("2014", verificato.getAnnoUscita());
+        assertEquals(StatoVisione.VISTO, verificato.getStatoVisione());
+        assertTrue(verificato.isValid());
+    }
+
 }
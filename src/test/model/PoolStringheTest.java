@@ -0,0 +1,75 @@
+package test.model;
+
+import model.Film;
+import model.PoolStringhe;
+import model.StatoVisione;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitari per la classe PoolStringhe.
+ * Verifica la condivisione delle istanze, il comportamento a pool pieno e l'uso nei setter di Film.
+ */
+public class PoolStringheTest {
+
+    @Test
+    public void testIstanzaCondivisa() {
+        String primo = PoolStringhe.condividi(new String("Fantascienza"));
+        String secondo = PoolStringhe.condividi(new String("Fantascienza"));
+        assertSame(primo, secondo);
+        assertNull(PoolStringhe.condividi(null));
+    }
+
+    @Test
+    public void testMoltiValoriDistinti() {
+        // Molti più valori delle posizioni disponibili: il pool non cresce e restituisce sempre valori uguali
+        for (int i = 0; i < PoolStringhe.CAPACITA * 4; i++) {
+            String valore = "regista " + i;
+            assertEquals(valore, PoolStringhe.condividi(valore));
+        }
+        // Un valore usato di frequente resta condiviso
+        String frequente = PoolStringhe.condividi(new String("Drammatico"));
+        assertSame(frequente, PoolStringhe.condividi(new String("Drammatico")));
+    }
+
+    @Test
+    public void testCondivisioneConcorrente() throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        String[] risultati = new String[8];
+        for (int t = 0; t < risultati.length; t++) {
+            int indice = t;
+            Thread thread = new Thread(() -> {
+                String valore = null;
+                for (int i = 0; i < 1000; i++) {
+                    valore = PoolStringhe.condividi(new String("Noir"));
+                }
+                risultati[indice] = valore;
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        for (String risultato : risultati) {
+            assertSame(risultati[0], risultato);
+        }
+    }
+
+    @Test
+    public void testSetterFilmCondividonoIValori() {
+        Film primo = new Film("Alien", new String("Ridley Scott"), new String("1979"), new String("horror"), 5, StatoVisione.VISTO);
+        Film secondo = new Film();
+        secondo.setRegista(new String("Ridley Scott"));
+        secondo.setAnnoUscita(new String("1979"));
+        secondo.setGenere(new String("horror"));
+
+        assertSame(primo.getRegista(), secondo.getRegista());
+        assertSame(primo.getAnnoUscita(), secondo.getAnnoUscita());
+        assertSame(primo.getGenere(), secondo.getGenere());
+    }
+}
@@ -0,0 +1,207 @@
+package test.server;
+
+import controller.GestoreVideoteca;
+import controller.RegistroVideoteche;
+import model.Film;
+import model.StatoVisione;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import server.ServerVideoteca;
+import strategy.dao.JsonFilmDAO;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitari per la classe ServerVideoteca.
+ * Verifica ricerca, aggiunta, modifica, eliminazione e undo/redo tramite richieste HTTP.
+ */
+public class ServerVideotecaTest {
+
+    private GestoreVideoteca gestore;
+    private ServerVideoteca server;
+    private JsonFilmDAO jsonDAO;
+
+    /**
+     * Risposta di una richiesta HTTP.
+     */
+    private static class Risposta {
+        final int codice;
+        final String corpo;
+
+        Risposta(int codice, String corpo) {
+            this.codice = codice;
+            this.corpo = corpo;
+        }
+    }
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        gestore = new RegistroVideoteche().ottieni("test-server");
+        server = new ServerVideoteca(gestore, 0, 4);
+        server.avvia();
+        jsonDAO = new JsonFilmDAO();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.ferma(0);
+    }
+
+    private Risposta richiesta(String metodo, String percorso, String corpo) throws IOException {
+        URL url = new URL("http://localhost:" + server.getPorta() + percorso);
+        HttpURLConnection connessione = (HttpURLConnection) url.openConnection();
+        connessione.setRequestMethod(metodo);
+        if (corpo != null) {
+            connessione.setDoOutput(true);
+            try (OutputStream out = connessione.getOutputStream()) {
+                out.write(corpo.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        int codice = connessione.getResponseCode();
+        InputStream in = codice < 400 ? connessione.getInputStream() : connessione.getErrorStream();
+        ByteArrayOutputStream letto = new ByteArrayOutputStream();
+        if (in != null) {
+            try (InputStream sorgente = in) {
+                sorgente.transferTo(letto);
+            }
+        }
+        return new Risposta(codice, letto.toString(StandardCharsets.UTF_8));
+    }
+
+    private String json(Film... films) throws IOException {
+        StringWriter writer = new StringWriter();
+        jsonDAO.scriviFilms(List.of(films), writer);
+        return writer.toString();
+    }
+
+    private List<Film> films(Risposta risposta) throws IOException {
+        return jsonDAO.leggiFilms(new StringReader(risposta.corpo));
+    }
+
+    private static String codifica(String valore) {
+        return URLEncoder.encode(valore, StandardCharsets.UTF_8);
+    }
+
+    private void aggiungiEsempi() throws IOException {
+        Risposta risposta = richiesta("POST", "/films", json(
+                new Film("Il Padrino", "Francis Ford Coppola", "1972", "dramma", 5, StatoVisione.VISTO),
+                new Film("Interstellar", "Christopher Nolan", "2014", "fantascienza", 3, StatoVisione.DA_VEDERE),
+                new Film("Inception", "Christopher Nolan", "2010", "fantascienza", 4, StatoVisione.VISTO)));
+        assertEquals(201, risposta.codice);
+        assertEquals(3, films(risposta).size());
+    }
+
+    @Test
+    public void testAggiuntaERicerca() throws IOException {
+        aggiungiEsempi();
+        assertEquals(3, gestore.getFilms().size());
+
+        Risposta tutti = richiesta("GET", "/films", null);
+        assertEquals(200, tutti.codice);
+        assertEquals(3, films(tutti).size());
+
+        Risposta nolan = richiesta("GET", "/films?cerca=nolan&tipo=regista&ordina="
+                + codifica("Anno di Uscita (ASC)"), null);
+        List<Film> trovati = films(nolan);
+        assertEquals(2, trovati.size());
+        assertEquals("Inception", trovati.get(0).getTitolo());
+        assertEquals("Interstellar", trovati.get(1).getTitolo());
+
+        Risposta filtrati = richiesta("GET", "/films?genere=fantascienza&valutazione=3", null);
+        assertEquals("Interstellar", films(filtrati).get(0).getTitolo());
+
+        // Gli stessi films non vengono aggiunti una seconda volta
+        assertEquals(409, richiesta("POST", "/films", json(gestore.getFilms().get(0))).codice);
+    }
+
+    @Test
+    public void testModificaEliminazione() throws IOException {
+        aggiungiEsempi();
+        String chiave = "?titolo=" + codifica("Il Padrino") + "&regista=" + codifica("Francis Ford Coppola") + "&anno=1972";
+
+        Film modificato = new Film("Il Padrino", "Francis Ford Coppola", "1972", "gangster", 4, StatoVisione.VISTO);
+        Risposta modifica = richiesta("PUT", "/films" + chiave, json(modificato));
+        assertEquals(200, modifica.codice);
+        assertEquals("gangster", gestore.getCatalogo().trova(modificato).getGenere());
+        // La risposta contiene il film memorizzato nella videoteca
+        Film restituito = films(modifica).get(0);
+        Film memorizzato = gestore.getCatalogo().trova(modificato);
+        assertEquals(memorizzato, restituito);
+        assertEquals(memorizzato.getGenere(), restituito.getGenere());
+        assertEquals(memorizzato.getValutazione(), restituito.getValutazione());
+        assertEquals(404, richiesta("PUT", "/films?titolo=Dune&regista=" + codifica("Denis Villeneuve") + "&anno=2021",
+                json(modificato)).codice);
+
+        assertEquals(204, richiesta("DELETE", "/films" + chiave, null).codice);
+        assertEquals(2, gestore.getFilms().size());
+        assertEquals(404, richiesta("DELETE", "/films" + chiave, null).codice);
+    }
+
+    @Test
+    public void testUndoRedo() throws IOException {
+        aggiungiEsempi();
+
+        assertEquals(200, richiesta("POST", "/undo", null).codice);
+        assertTrue(gestore.getFilms().isEmpty());
+        assertEquals(409, richiesta("POST", "/undo", null).codice);
+
+        assertEquals(200, richiesta("POST", "/redo", null).codice);
+        assertEquals(3, gestore.getFilms().size());
+    }
+
+    @Test
+    public void testRichiesteNonValide() throws IOException {
+        assertEquals(400, richiesta("POST", "/films", "[{\"titolo\": \"\"}]").codice);
+        // Un corpo vuoto, un singolo oggetto o un array vuoto non sono films già presenti (409)
+        assertEquals(400, richiesta("POST", "/films", "").codice);
+        assertEquals(400, richiesta("POST", "/films", "[]").codice);
+        assertEquals(400, richiesta("POST", "/films", "{\"titolo\": \"Dune\", \"regista\": \"Denis Villeneuve\", "
+                + "\"annoUscita\": \"2021\", \"genere\": \"fantascienza\", \"valutazione\": 4, "
+                + "\"statoVisione\": \"VISTO\"}").codice);
+        assertEquals(400, richiesta("GET", "/films?valutazione=tre", null).codice);
+        assertEquals(400, richiesta("DELETE", "/films?titolo=Dune", null).codice);
+        assertEquals(405, richiesta("OPTIONS", "/films", null).codice);
+        assertEquals(405, richiesta("GET", "/undo", null).codice);
+    }
+
+    @Test
+    public void testRicercheConcorrenti() throws Exception {
+        aggiungiEsempi();
+        List<Thread> threads = new ArrayList<>();
+        List<Throwable> errori = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    for (int i = 0; i < 20; i++) {
+                        assertEquals(3, films(richiesta("GET", "/films", null)).size());
+                    }
+                } catch (Throwable e) {
+                    synchronized (errori) {
+                        errori.add(e);
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(errori.isEmpty(), errori.toString());
+    }
+}
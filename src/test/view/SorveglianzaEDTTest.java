@@ -0,0 +1,118 @@
+package test.view;
+
+import controller.GestoreVideoteca;
+import controller.RegistroVideoteche;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import view.SorveglianzaEDT;
+
+import javax.swing.JDialog;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import java.awt.Frame;
+import java.awt.GraphicsEnvironment;
+import java.awt.SecondaryLoop;
+import java.awt.Toolkit;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitari per la classe SorveglianzaEDT.
+ * Verifica che un evento lento venga segnalato con stack e operazione del controller, e che non lo siano
+ * un evento rapido né l'attesa di un dialogo modale.
+ */
+public class SorveglianzaEDTTest {
+
+    private ByteArrayOutputStream log;
+    private SorveglianzaEDT sorveglianza;
+
+    @BeforeEach
+    public void setUp() {
+        log = new ByteArrayOutputStream();
+        sorveglianza = SorveglianzaEDT.installa(100, new PrintStream(log, true, StandardCharsets.UTF_8));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        sorveglianza.ferma();
+    }
+
+    private void esegui(Runnable azione) throws InterruptedException {
+        CountDownLatch fatto = new CountDownLatch(1);
+        SwingUtilities.invokeLater(() -> {
+            try {
+                azione.run();
+            } finally {
+                fatto.countDown();
+            }
+        });
+        assertTrue(fatto.await(5, TimeUnit.SECONDS));
+        Thread.sleep(50); // lascia terminare la gestione dell'evento
+    }
+
+    @Test
+    public void testEventoLentoSegnalato() throws InterruptedException {
+        GestoreVideoteca gestore = new RegistroVideoteche().ottieni("test-edt");
+        esegui(() -> gestore.ordinaFilms(List.of(), films -> {
+            try {
+                Thread.sleep(400);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+
+        String segnalazione = log.toString(StandardCharsets.UTF_8);
+        assertTrue(segnalazione.contains("Thread di eventi Swing bloccato"), segnalazione);
+        assertTrue(segnalazione.contains("Operazione del controller: GestoreVideoteca.ordinaFilms"), segnalazione);
+        assertTrue(segnalazione.contains("Thread.sleep"), segnalazione);
+        assertTrue(segnalazione.contains("Evento Swing terminato dopo"), segnalazione);
+    }
+
+    @Test
+    public void testEventoRapidoIgnorato() throws InterruptedException {
+        esegui(() -> {
+        });
+        Thread.sleep(150);
+        assertEquals("", log.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testCicloAnnidatoInattivoIgnorato() throws InterruptedException {
+        // Un dialogo modale attende l'utente in un ciclo di eventi annidato, come questo SecondaryLoop
+        esegui(() -> {
+            SecondaryLoop ciclo = Toolkit.getDefaultToolkit().getSystemEventQueue().createSecondaryLoop();
+            Timer chiusura = new Timer(400, e -> ciclo.exit());
+            chiusura.setRepeats(false);
+            chiusura.start();
+            ciclo.enter();
+        });
+        assertEquals("", log.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testDialogoModaleIgnorato() throws InterruptedException {
+        if (GraphicsEnvironment.isHeadless()) {
+            return; // senza display non si possono aprire finestre: il ciclo annidato è verificato sopra
+        }
+        esegui(() -> {
+            JDialog dialogo = new JDialog((Frame) null, "Conferma", true);
+            Timer chiusura = new Timer(400, e -> dialogo.dispose());
+            chiusura.setRepeats(false);
+            chiusura.start();
+            dialogo.setVisible(true);
+        });
+        assertEquals("", log.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testSogliaNonValida() {
+        assertThrows(IllegalArgumentException.class, () -> new SorveglianzaEDT(0, System.err));
+    }
+}
@@ -0,0 +1,176 @@
+package view;
+
+import model.StatoVisione;
+
+import javax.swing.*;
+import javax.swing.border.EmptyBorder;
+import java.awt.*;
+
+/**
+ * Finestra di dialogo per modificare contemporaneamente più films selezionati.
+ * Permette di impostare genere, valutazione e stato di visione; i campi non spuntati restano invariati.
+ */
+public class DialogModificaMultipla extends JDialog {
+
+    private JCheckBox checkGenere;
+    private JCheckBox checkValutazione;
+    private JCheckBox checkStatoVisione;
+    private JTextField campoGenere;
+    private JComboBox<String> comboValutazione;
+    private JComboBox<String> comboStatoVisione;
+
+    private boolean confermato = false;
+
+    /**
+     * Costruttore per la finestra di dialogo.
+     *
+     * @param parent      Frame genitore
+     * @param numeroFilms Numero di films selezionati
+     */
+    public DialogModificaMultipla(JFrame parent, int numeroFilms) {
+        super(parent, "Modifica " + numeroFilms + " films", true);
+
+        initUI();
+    }
+
+    /**
+     * Inizializza l'interfaccia utente del dialogo.
+     */
+    private void initUI() {
+        // Impostazioni base della finestra
+        setSize(450, 220);
+        setLocationRelativeTo(getParent());
+        setResizable(false);
+
+        // Layout principale
+        JPanel contentPane = new JPanel(new BorderLayout(10, 10));
+        contentPane.setBorder(new EmptyBorder(10, 10, 10, 10));
+        setContentPane(contentPane);
+
+        // Pannello per i campi di input: ogni campo viene applicato solo se spuntato
+        JPanel panelCampi = new JPanel(new GridLayout(3, 2, 10, 10));
+
+        campoGenere = new JTextField();
+        comboValutazione = new JComboBox<>(new String[]{"Da valutare", "1", "2", "3", "4", "5"});
+        comboStatoVisione = new JComboBox<>();
+        for (StatoVisione stato : StatoVisione.values()) {
+            comboStatoVisione.addItem(stato.getDescrizione());
+        }
+
+        checkGenere = creaCheckCampo("Genere:", campoGenere);
+        checkValutazione = creaCheckCampo("Valutazione:", comboValutazione);
+        checkStatoVisione = creaCheckCampo("Stato Visione:", comboStatoVisione);
+
+        panelCampi.add(checkGenere);
+        panelCampi.add(campoGenere);
+        panelCampi.add(checkValutazione);
+        panelCampi.add(comboValutazione);
+        panelCampi.add(checkStatoVisione);
+        panelCampi.add(comboStatoVisione);
+
+        // Pannello per i pulsanti
+        JPanel panelPulsanti = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+
+        JButton btnAnnulla = new JButton("Annulla");
+        btnAnnulla.addActionListener(e -> dispose());
+
+        JButton btnConferma = new JButton("Modifica");
+        btnConferma.addActionListener(e -> {
+            if (validaCampi()) {
+                confermato = true;
+                dispose();
+            }
+        });
+
+        panelPulsanti.add(btnAnnulla);
+        panelPulsanti.add(btnConferma);
+
+        // Aggiungi i pannelli al layout principale
+        contentPane.add(panelCampi, BorderLayout.CENTER);
+        contentPane.add(panelPulsanti, BorderLayout.SOUTH);
+    }
+
+    /**
+     * Crea la casella di spunta che abilita il campo associato.
+     *
+     * @param etichetta Testo della casella
+     * @param campo     Campo abilitato dalla casella
+     * @return Casella di spunta
+     */
+    private JCheckBox creaCheckCampo(String etichetta, JComponent campo) {
+        JCheckBox check = new JCheckBox(etichetta);
+        campo.setEnabled(false);
+        check.addActionListener(e -> campo.setEnabled(check.isSelected()));
+        return check;
+    }
+
+    /**
+     * Valida i campi di input.
+     *
+     * @return true se almeno un campo è selezionato e tutti i campi selezionati sono validi, false altrimenti
+     */
+    private boolean validaCampi() {
+        if (!checkGenere.isSelected() && !checkValutazione.isSelected() && !checkStatoVisione.isSelected()) {
+            JOptionPane.showMessageDialog(this,
+                    "Seleziona almeno un campo da modificare.",
+                    "Errore di validazione",
+                    JOptionPane.ERROR_MESSAGE);
+            return false;
+        }
+
+        // Validazione genere
+        if (checkGenere.isSelected() && campoGenere.getText().trim().isEmpty()) {
+            JOptionPane.showMessageDialog(this,
+                    "Il genere non può essere vuoto.",
+                    "Errore di validazione",
+                    JOptionPane.ERROR_MESSAGE);
+            campoGenere.requestFocus();
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Verifica se l'utente ha confermato l'operazione.
+     *
+     * @return true se l'utente ha confermato, false altrimenti
+     */
+    public boolean isConfermato() {
+        return confermato;
+    }
+
+    /**
+     * Ottiene il genere inserito.
+     *
+     * @return Nuovo genere, o null se il genere non deve essere modificato
+     */
+    public String getGenere() {
+        return checkGenere.isSelected() ? campoGenere.getText().trim() : null;
+    }
+
+    /**
+     * Ottiene la valutazione selezionata.
+     *
+     * @return Nuova valutazione (0 = da valutare, 1-5 = stelle), o null se non deve essere modificata
+     */
+    public Integer getValutazione() {
+        if (!checkValutazione.isSelected()) {
+            return null;
+        }
+        String val = (String) comboValutazione.getSelectedItem();
+        return "Da valutare".equals(val) || val == null ? 0 : Integer.parseInt(val);
+    }
+
+    /**
+     * Ottiene lo stato di visione selezionato.
+     *
+     * @return Nuovo stato visione, o null se non deve essere modificato
+     */
+    public StatoVisione getStatoVisione() {
+        if (!checkStatoVisione.isSelected()) {
+            return null;
+        }
+        return StatoVisione.fromString((String) comboStatoVisione.getSelectedItem());
+    }
+}
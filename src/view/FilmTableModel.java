@@ -0,0 +1,144 @@
+package view;
+
+import model.Film;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Modello della tabella dei films.
+ * Mantiene per ogni riga il riferimento al film memorizzato nella videoteca,
+ * in modo che la selezione restituisca direttamente il film senza ricostruirlo dalle celle.
+ */
+public class FilmTableModel extends AbstractTableModel {
+
+    private static final String[] COLONNE = {"Titolo", "Regista", "Anno di Uscita", "Genere", "Valutazione", "Stato Visione"};
+
+    private List<Film> films;
+
+    /**
+     * Costruttore che inizializza il modello con una tabella vuota.
+     */
+    public FilmTableModel() {
+        this.films = new ArrayList<>();
+    }
+
+    /**
+     * Sostituisce i films visualizzati nella tabella.
+     *
+     * @param films Lista di films da visualizzare
+     */
+    public void setFilms(List<Film> films) {
+        this.films = new ArrayList<>(films);
+        fireTableDataChanged();
+    }
+
+    /**
+     * Aggiunge un film in fondo alla tabella, notificando solo la nuova riga.
+     *
+     * @param riga Riga attesa per il nuovo film, cioè il numero di righe attuale
+     * @param film Film da aggiungere
+     * @return true se il film è stato aggiunto, false se la tabella non ha il numero di righe atteso
+     */
+    public boolean aggiungiFilm(int riga, Film film) {
+        if (riga != films.size()) {
+            return false;
+        }
+        films.add(film);
+        fireTableRowsInserted(riga, riga);
+        return true;
+    }
+
+    /**
+     * Sostituisce il film visualizzato in una riga con la sua nuova versione, notificando solo quella riga.
+     *
+     * @param riga        Riga del film
+     * @param vecchioFilm Film che la riga deve visualizzare (stesso riferimento)
+     * @param nuovoFilm   Film da visualizzare al suo posto
+     * @return true se la riga visualizzava il film, false altrimenti
+     */
+    public boolean sostituisciFilm(int riga, Film vecchioFilm, Film nuovoFilm) {
+        if (!visualizza(riga, vecchioFilm)) {
+            return false;
+        }
+        films.set(riga, nuovoFilm);
+        fireTableRowsUpdated(riga, riga);
+        return true;
+    }
+
+    /**
+     * Rimuove il film visualizzato in una riga, notificando solo la riga eliminata.
+     *
+     * @param riga Riga del film
+     * @param film Film che la riga deve visualizzare (stesso riferimento)
+     * @return true se la riga visualizzava il film, false altrimenti
+     */
+    public boolean rimuoviFilm(int riga, Film film) {
+        if (!visualizza(riga, film)) {
+            return false;
+        }
+        films.remove(riga);
+        fireTableRowsDeleted(riga, riga);
+        return true;
+    }
+
+    /**
+     * Verifica che la riga indicata esista e visualizzi esattamente il film indicato (stesso riferimento).
+     */
+    private boolean visualizza(int riga, Film film) {
+        return riga >= 0 && riga < films.size() && films.get(riga) == film;
+    }
+
+    /**
+     * Ottiene il film visualizzato nella riga indicata.
+     *
+     * @param riga Indice della riga nel modello
+     * @return Film della riga
+     */
+    public Film getFilmAt(int riga) {
+        return films.get(riga);
+    }
+
+    @Override
+    public int getRowCount() {
+        return films.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLONNE.length;
+    }
+
+    @Override
+    public String getColumnName(int colonna) {
+        return COLONNE[colonna];
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false; // Non permette la modifica diretta nella tabella
+    }
+
+    @Override
+    public Object getValueAt(int riga, int colonna) {
+        Film film = films.get(riga);
+        switch (colonna) {
+            case 0:
+                return film.getTitolo();
+            case 1:
+                return film.getRegista();
+            case 2:
+                return film.getAnnoUscita();
+            case 3:
+                return film.getGenere();
+            case 4:
+                // Visualizza la valutazione come stringa ("da valutare" o stelle)
+                return film.getValutazioneAsString();
+            case 5:
+                return film.getStatoVisioneAsString();
+            default:
+                return null;
+        }
+    }
+}
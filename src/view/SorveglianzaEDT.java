@@ -0,0 +1,201 @@
+package view;
+
+import metriche.Contatore;
+import metriche.Istogramma;
+import metriche.RegistroMetriche;
+
+import java.awt.AWTEvent;
+import java.awt.EventQueue;
+import java.awt.Toolkit;
+import java.io.PrintStream;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sorveglianza del thread di eventi Swing: segnala gli eventi la cui gestione blocca l'interfaccia
+ * oltre una soglia, ad esempio filtri, ordinamenti o caricamenti eseguiti nei listener della vista.
+ * <p>
+ * Sostituisce la coda degli eventi AWT per sapere quando inizia e finisce la gestione di ogni evento;
+ * un thread di controllo separato verifica periodicamente che la coda avanzi e, quando resta ferma oltre
+ * la soglia, registra lo stack del thread di eventi, l'evento in corso e l'operazione del controller che
+ * lo sta eseguendo. La durata di ogni evento è registrata anche nelle metriche ("edt.evento").
+ * <p>
+ * I dialoghi modali gestiscono gli eventi dentro quello che li ha aperti, con un ciclo di eventi annidato:
+ * per questo conta il tempo trascorso dall'ultimo avanzamento della coda, non dall'inizio dell'evento più esterno,
+ * e il thread di eventi in attesa del prossimo evento (ad esempio mentre un dialogo attende l'utente) non è
+ * considerato bloccato. Anche la durata registrata di un evento esclude il tempo trascorso nei cicli annidati.
+ */
+public class SorveglianzaEDT extends EventQueue {
+
+    /**
+     * Soglia predefinita oltre la quale un evento è considerato un blocco dell'interfaccia.
+     */
+    public static final long SOGLIA_PREDEFINITA_MS = 250;
+
+    private static final Istogramma TEMPO_EVENTO = RegistroMetriche.getInstance().istogramma("edt.evento");
+    private static final Contatore BLOCCHI = RegistroMetriche.getInstance().contatore("edt.blocchi");
+    private static final String PACKAGE_CONTROLLER = "controller.";
+
+    private final long sogliaNanos;
+    private final PrintStream log;
+    private final ScheduledExecutorService controllo;
+
+    // Stato della coda, scritto dal thread di eventi e letto dal thread di controllo
+    private volatile Thread threadEventi;
+    private volatile AWTEvent eventoCorrente;
+    private volatile long ultimoAvanzamento;
+    private volatile int profondita;
+    private volatile boolean inAttesa; // thread di eventi fermo in getNextEvent, cioè inattivo
+
+    // Tempo trascorso nei cicli di eventi annidati (attese ed eventi interni), usato solo dal thread di eventi
+    private long tempoAnnidato;
+
+    // Avanzamento già segnalato, usato solo dal thread di controllo per segnalare ogni blocco una sola volta
+    private long avanzamentoSegnalato;
+
+    /**
+     * Crea una sorveglianza senza installarla.
+     *
+     * @param sogliaMs Durata oltre la quale un evento viene segnalato
+     * @param log      Destinazione delle segnalazioni
+     * @throws IllegalArgumentException se la soglia non è positiva
+     */
+    public SorveglianzaEDT(long sogliaMs, PrintStream log) {
+        if (sogliaMs <= 0) {
+            throw new IllegalArgumentException("La soglia deve essere positiva.");
+        }
+        this.sogliaNanos = TimeUnit.MILLISECONDS.toNanos(sogliaMs);
+        this.log = log;
+        this.controllo = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "sorveglianza-edt");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long periodo = Math.max(1, sogliaMs / 4);
+        controllo.scheduleAtFixedRate(this::controlla, periodo, periodo, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Installa la sorveglianza sulla coda degli eventi di sistema.
+     *
+     * @param sogliaMs Durata oltre la quale un evento viene segnalato
+     * @param log      Destinazione delle segnalazioni
+     * @return Sorveglianza installata
+     */
+    public static SorveglianzaEDT installa(long sogliaMs, PrintStream log) {
+        SorveglianzaEDT sorveglianza = new SorveglianzaEDT(sogliaMs, log);
+        Toolkit.getDefaultToolkit().getSystemEventQueue().push(sorveglianza);
+        return sorveglianza;
+    }
+
+    /**
+     * Interrompe la sorveglianza e, se installata, ripristina la coda degli eventi precedente.
+     */
+    public void ferma() {
+        controllo.shutdownNow();
+        if (Toolkit.getDefaultToolkit().getSystemEventQueue() == this) {
+            pop();
+        }
+    }
+
+    @Override
+    public AWTEvent getNextEvent() throws InterruptedException {
+        long inizio = System.nanoTime();
+        inAttesa = true;
+        try {
+            return super.getNextEvent();
+        } finally {
+            inAttesa = false;
+            long fine = System.nanoTime();
+            ultimoAvanzamento = fine;
+            if (profondita > 0 && Thread.currentThread() == threadEventi) {
+                tempoAnnidato += fine - inizio; // attesa in un ciclo annidato, ad esempio di un dialogo modale
+            }
+        }
+    }
+
+    @Override
+    protected void dispatchEvent(AWTEvent evento) {
+        AWTEvent precedente = eventoCorrente;
+        threadEventi = Thread.currentThread();
+        eventoCorrente = evento;
+        long inizio = System.nanoTime();
+        long annidatoIniziale = tempoAnnidato;
+        ultimoAvanzamento = inizio;
+        profondita++;
+        try {
+            super.dispatchEvent(evento);
+        } finally {
+            long fine = System.nanoTime();
+            // Durata propria dell'evento: senza attese ed eventi dei cicli annidati che ha aperto
+            long durata = fine - inizio - (tempoAnnidato - annidatoIniziale);
+            profondita--;
+            eventoCorrente = precedente;
+            ultimoAvanzamento = fine;
+            if (profondita > 0) {
+                tempoAnnidato += durata;
+            }
+            TEMPO_EVENTO.registra(durata);
+            if (durata > sogliaNanos && profondita == 0) {
+                log.println("Evento Swing terminato dopo " + TimeUnit.NANOSECONDS.toMillis(durata)
+                        + " ms: " + descrivi(evento));
+            }
+        }
+    }
+
+    /**
+     * Controllo periodico: se la coda è ferma su un evento da più della soglia, registra lo stack del thread di eventi.
+     */
+    private void controlla() {
+        Thread thread = threadEventi;
+        long avanzamento = ultimoAvanzamento;
+        if (thread == null || profondita == 0 || inAttesa || avanzamento == avanzamentoSegnalato) {
+            return;
+        }
+        long bloccato = System.nanoTime() - avanzamento;
+        if (bloccato <= sogliaNanos) {
+            return;
+        }
+
+        StackTraceElement[] stack = thread.getStackTrace();
+        AWTEvent evento = eventoCorrente;
+        // Lo stack va letto prima di verificare che la coda non sia avanzata nel frattempo
+        if (avanzamento != ultimoAvanzamento || profondita == 0 || inAttesa) {
+            return;
+        }
+        avanzamentoSegnalato = avanzamento;
+        BLOCCHI.incrementa();
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("Thread di eventi Swing bloccato da ").append(TimeUnit.NANOSECONDS.toMillis(bloccato))
+                .append(" ms durante ").append(descrivi(evento)).append(System.lineSeparator());
+        sb.append("Operazione del controller: ").append(operazioneController(stack)).append(System.lineSeparator());
+        for (StackTraceElement elemento : stack) {
+            sb.append("\tat ").append(elemento).append(System.lineSeparator());
+        }
+        log.print(sb);
+    }
+
+    /**
+     * Individua l'operazione del controller in corso: il metodo più esterno del package controller nello stack,
+     * cioè quello chiamato direttamente dalla vista (ad esempio FilmController.aggiornaTabella).
+     */
+    private static String operazioneController(StackTraceElement[] stack) {
+        for (int i = stack.length - 1; i >= 0; i--) {
+            String classe = stack[i].getClassName();
+            if (classe.startsWith(PACKAGE_CONTROLLER)) {
+                return classe.substring(PACKAGE_CONTROLLER.length()) + "." + stack[i].getMethodName();
+            }
+        }
+        return "nessuna";
+    }
+
+    private static String descrivi(AWTEvent evento) {
+        if (evento == null) {
+            return "evento sconosciuto";
+        }
+        String descrizione = evento.paramString();
+        return evento.getClass().getSimpleName() + (descrizione == null || descrizione.isEmpty() ? "" : " [" + descrizione + "]");
+    }
+}
@@ -7,12 +7,15 @@ import model.Status;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.filechooser.FileNameExtensionFilter;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.io.File;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Vector;
 
 /**
  * Classe che implementa l'interfaccia grafica Swing per la gestione della videoteca.
@@ -20,14 +23,19 @@ import java.util.Vector;
  */
 public class VideotecaView extends JFrame {
 
+    // Attesa dopo l'ultimo tasto premuto prima di avviare la ricerca istantanea
+    private static final int RITARDO_RICERCA_MS = 250;
+
     // Controller
     private final FilmController controller;
 
     // Componenti UI
     private JTable tabellaFilms;
-    private DefaultTableModel modelloTabella;
+    private FilmTableModel modelloTabella;
     private JTextField campoCerca;
     private JComboBox<String> comboTipoCerca;
+    private JCheckBox checkRicercaIstantanea;
+    private Timer timerRicerca;
     private JComboBox<String> comboGenere;
     private JComboBox<String> comboRegista;
     private JComboBox<String> comboAnnoUscita;
@@ -41,6 +49,12 @@ public class VideotecaView extends JFrame {
     private JButton btnInfo;
     private JButton btnUndo, btnRedo;
 
+    // true mentre le combo box dei filtri vengono ricostruite, per non aggiornare la tabella a ogni elemento
+    private boolean ricostruzioneFiltriInCorso;
+
+    // Azione eseguita una sola volta, al primo disegno della finestra (es. misura del tempo di avvio)
+    private Runnable azionePrimoDisegno;
+
     /**
      * Costruttore che inizializza la vista.
      */
@@ -55,6 +69,34 @@ public class VideotecaView extends JFrame {
 
         // Carica i films iniziali
         controller.caricaFilms();
+
+        // L'ultima videoteca usata viene letta in background solo dopo l'apertura della finestra
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowOpened(WindowEvent e) {
+                controller.caricaUltimaVideoteca();
+            }
+        });
+    }
+
+    /**
+     * Imposta un'azione da eseguire nel thread di eventi Swing dopo il primo disegno della finestra.
+     *
+     * @param azione Azione da eseguire una sola volta
+     */
+    public void setAzionePrimoDisegno(Runnable azione) {
+        this.azionePrimoDisegno = azione;
+    }
+
+    @Override
+    public void paint(Graphics g) {
+        super.paint(g);
+        if (azionePrimoDisegno != null) {
+            Runnable azione = azionePrimoDisegno;
+            azionePrimoDisegno = null;
+            // Eseguita dopo che il disegno è stato completato
+            SwingUtilities.invokeLater(azione);
+        }
     }
 
     /**
@@ -97,10 +139,32 @@ public class VideotecaView extends JFrame {
         btnCerca = new JButton("Cerca");
         btnCerca.addActionListener(e -> controller.aggiornaTabella());
 
+        // Ricerca istantanea: la ricerca parte quando l'utente smette di digitare per qualche istante
+        checkRicercaIstantanea = new JCheckBox("Ricerca istantanea", true);
+        timerRicerca = new Timer(RITARDO_RICERCA_MS, e -> controller.cercaMentreDigiti());
+        timerRicerca.setRepeats(false);
+        campoCerca.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                programmaRicercaIstantanea();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                programmaRicercaIstantanea();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                programmaRicercaIstantanea();
+            }
+        });
+
         panelRicerca.add(new JLabel("Cerca per:"));
         panelRicerca.add(comboTipoCerca);
         panelRicerca.add(campoCerca);
         panelRicerca.add(btnCerca);
+        panelRicerca.add(checkRicercaIstantanea);
 
         // Pannello dei filtri
         JPanel panelFiltri = new JPanel(new FlowLayout(FlowLayout.LEFT));
@@ -108,22 +172,22 @@ public class VideotecaView extends JFrame {
 
         comboGenere = new JComboBox<>();
         comboGenere.addItem("Tutti");
-        comboGenere.addActionListener(e -> controller.aggiornaTabella());
+        comboGenere.addActionListener(e -> filtroModificato());
 
         comboRegista = new JComboBox<>();
         comboRegista.addItem("Tutti");
-        comboRegista.addActionListener(e -> controller.aggiornaTabella());
+        comboRegista.addActionListener(e -> filtroModificato());
 
         comboAnnoUscita = new JComboBox<>();
         comboAnnoUscita.addItem("Tutti");
-        comboAnnoUscita.addActionListener(e -> controller.aggiornaTabella());
+        comboAnnoUscita.addActionListener(e -> filtroModificato());
 
         comboStatoVisione = new JComboBox<>(new String[]{"Tutti", "Visto", "In visione", "Da vedere"});
-        comboStatoVisione.addActionListener(e -> controller.aggiornaTabella());
+        comboStatoVisione.addActionListener(e -> filtroModificato());
 
         comboValutazione = new JComboBox<>(new String[]{"Tutti", "Da valutare", "1", "2", "3", "4", "5"});
         comboValutazione.setSelectedIndex(0);
-        comboValutazione.addActionListener(e -> controller.aggiornaTabella());
+        comboValutazione.addActionListener(e -> filtroModificato());
 
         btnResetFiltri = new JButton("Reset Filtri");
         btnResetFiltri.addActionListener(e -> resetFiltri());
@@ -149,7 +213,7 @@ public class VideotecaView extends JFrame {
                 "Regista (A-Z)", "Regista (Z-A)", "Anno di Uscita (ASC)", "Anno di Uscita (DESC)",
                 "Valutazione (1-5)", "Valutazione (5-1)"
         });
-        comboOrdinamento.addActionListener(e -> controller.aggiornaTabella());
+        comboOrdinamento.addActionListener(e -> filtroModificato());
 
         panelOrdinamento.add(new JLabel("Ordina per:"));
         panelOrdinamento.add(comboOrdinamento);
@@ -173,20 +237,34 @@ public class VideotecaView extends JFrame {
         return panelSuperiore;
     }
 
+    /**
+     * Aggiorna la tabella quando l'utente cambia un filtro o l'ordinamento.
+     * Le modifiche dovute alla ricostruzione delle combo box vengono ignorate.
+     */
+    private void filtroModificato() {
+        if (!ricostruzioneFiltriInCorso) {
+            controller.aggiornaTabella();
+        }
+    }
+
+    /**
+     * Riavvia il timer della ricerca istantanea a ogni modifica del campo di ricerca,
+     * così che venga eseguita una sola ricerca quando l'utente smette di digitare.
+     */
+    private void programmaRicercaIstantanea() {
+        if (checkRicercaIstantanea.isSelected()) {
+            timerRicerca.restart();
+        }
+    }
+
     private JPanel creaPanelCentrale() {
         JPanel panelCentrale = new JPanel(new BorderLayout());
 
         // Crea la tabella con il modello dati
-        String[] colonne = {"Titolo", "Regista", "Anno di Uscita", "Genere", "Valutazione", "Stato Visione"};
-        modelloTabella = new DefaultTableModel(colonne, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false; // Non permette la modifica diretta nella tabella
-            }
-        };
+        modelloTabella = new FilmTableModel();
 
         tabellaFilms = new JTable(modelloTabella);
-        tabellaFilms.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        tabellaFilms.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
         tabellaFilms.getTableHeader().setReorderingAllowed(false);
 
         // Imposta le dimensioni preferite delle colonne
@@ -321,6 +399,7 @@ public class VideotecaView extends JFrame {
                 "Versione: v1.0\n\n" +
                 "Descrizione:\n" +
                 "- Aggiungi, modifica e elimina i tuoi films\n" +
+                "- Seleziona più films per modificarli o eliminarli in un'unica operazione\n" +
                 "- Cerca films per titolo o regista\n" +
                 "- Filtra per genere, regista, anno, stato di visione, valutazione\n" +
                 "- Ordina i films secondo diversi criteri\n" +
@@ -340,93 +419,114 @@ public class VideotecaView extends JFrame {
      * @param films Lista di films da visualizzare
      */
     public void aggiornaTabella(List<Film> films) {
-        // Pulisci la tabella
-        modelloTabella.setRowCount(0);
-
-        // Aggiungi le righe per ogni film
-        for (Film film : films) {
-            Vector<Object> riga = new Vector<>();
-            riga.add(film.getTitolo());
-            riga.add(film.getRegista());
-            riga.add(film.getAnnoUscita());
-            riga.add(film.getGenere());
+        modelloTabella.setFilms(films);
+    }
 
-            // Visualizza la valutazione come stringa ("da valutare" o stelle)
-            riga.add(film.getValutazioneAsString());
+    /**
+     * Aggiunge un film in fondo alla tabella senza ricostruirla.
+     *
+     * @param riga Riga attesa per il nuovo film
+     * @param film Film da aggiungere
+     * @return true se il film è stato aggiunto, false se la tabella non è allineata alla videoteca
+     */
+    public boolean aggiungiFilmInTabella(int riga, Film film) {
+        return modelloTabella.aggiungiFilm(riga, film);
+    }
 
-            riga.add(film.getStatoVisioneAsString());
+    /**
+     * Sostituisce nella tabella un film con la sua nuova versione senza ricostruirla.
+     *
+     * @param riga        Riga del film nel modello della tabella
+     * @param vecchioFilm Film attualmente visualizzato
+     * @param nuovoFilm   Film da visualizzare al suo posto
+     * @return true se la riga visualizzava il film, false altrimenti
+     */
+    public boolean sostituisciFilmInTabella(int riga, Film vecchioFilm, Film nuovoFilm) {
+        return modelloTabella.sostituisciFilm(riga, vecchioFilm, nuovoFilm);
+    }
 
-            modelloTabella.addRow(riga);
-        }
+    /**
+     * Rimuove un film dalla tabella senza ricostruirla.
+     *
+     * @param riga Riga del film nel modello della tabella
+     * @param film Film da rimuovere
+     * @return true se la riga visualizzava il film, false altrimenti
+     */
+    public boolean rimuoviFilmDallaTabella(int riga, Film film) {
+        return modelloTabella.rimuoviFilm(riga, film);
     }
 
     /**
      * Aggiorna la combo box dei generi con i generi unici disponibili.
      *
      * @param generi Lista di generi unici
+     * @return true se il genere selezionato non è più disponibile e la selezione è tornata a "Tutti"
      */
-    public void aggiornaComboBoxGeneri(List<String> generi) {
-        String genereSelezionato = (String) comboGenere.getSelectedItem();
-
-        comboGenere.removeAllItems();
-        comboGenere.addItem("Tutti");
-
-        for (String genere : generi) {
-            comboGenere.addItem(genere);
-        }
-
-        // Ripristina la selezione precedente se possibile
-        if (genereSelezionato != null) {
-            comboGenere.setSelectedItem(genereSelezionato);
-        } else {
-            comboGenere.setSelectedIndex(0);
-        }
+    public boolean aggiornaComboBoxGeneri(List<String> generi) {
+        return aggiornaComboBoxFiltro(comboGenere, generi);
     }
 
     /**
      * Aggiorna la combo box dei registi con i registi unici disponibili.
      *
      * @param registi Lista di registi unici
+     * @return true se il regista selezionato non è più disponibile e la selezione è tornata a "Tutti"
      */
-    public void aggiornaComboBoxRegisti(List<String> registi) {
-        String registaSelezionato = (String) comboRegista.getSelectedItem();
-
-        comboRegista.removeAllItems();
-        comboRegista.addItem("Tutti");
-
-        for (String regista : registi) {
-            comboRegista.addItem(regista);
-        }
-
-        // Ripristina la selezione precedente se possibile
-        if (registaSelezionato != null) {
-            comboRegista.setSelectedItem(registaSelezionato);
-        } else {
-            comboRegista.setSelectedIndex(0);
-        }
+    public boolean aggiornaComboBoxRegisti(List<String> registi) {
+        return aggiornaComboBoxFiltro(comboRegista, registi);
     }
 
     /**
      * Aggiorna la combo box degli anni di uscita con gli anni unici disponibili.
      *
      * @param anniUscita Lista di anni di uscita unici
+     * @return true se l'anno selezionato non è più disponibile e la selezione è tornata a "Tutti"
      */
-    public void aggiornaComboBoxAnnoUscita(List<String> anniUscita) {
-        String annoSelezionato = (String) comboAnnoUscita.getSelectedItem();
-
-        comboAnnoUscita.removeAllItems();
-        comboAnnoUscita.addItem("Tutti");
+    public boolean aggiornaComboBoxAnnoUscita(List<String> anniUscita) {
+        return aggiornaComboBoxFiltro(comboAnnoUscita, anniUscita);
+    }
 
-        for (String anno : anniUscita) {
-            comboAnnoUscita.addItem(anno);
+    /**
+     * Ricostruisce una combo box di filtro con "Tutti" seguito dai valori indicati,
+     * senza scatenare un aggiornamento della tabella per ogni elemento inserito.
+     * Se i valori non sono cambiati la combo box non viene toccata.
+     *
+     * @param combo  Combo box da aggiornare
+     * @param valori Valori disponibili per il filtro
+     * @return true se il valore selezionato non è più disponibile e la selezione è tornata a "Tutti"
+     */
+    private boolean aggiornaComboBoxFiltro(JComboBox<String> combo, List<String> valori) {
+        if (combo.getItemCount() == valori.size() + 1) {
+            boolean invariata = true;
+            for (int i = 0; invariata && i < valori.size(); i++) {
+                invariata = valori.get(i).equals(combo.getItemAt(i + 1));
+            }
+            if (invariata) {
+                return false;
+            }
         }
 
-        // Ripristina la selezione precedente se possibile
-        if (annoSelezionato != null) {
-            comboAnnoUscita.setSelectedItem(annoSelezionato);
-        } else {
-            comboAnnoUscita.setSelectedIndex(0);
+        String valoreSelezionato = (String) combo.getSelectedItem();
+        ricostruzioneFiltriInCorso = true;
+        try {
+            combo.removeAllItems();
+            combo.addItem("Tutti");
+
+            for (String valore : valori) {
+                combo.addItem(valore);
+            }
+
+            // Ripristina la selezione precedente se possibile
+            if (valoreSelezionato != null) {
+                combo.setSelectedItem(valoreSelezionato);
+            } else {
+                combo.setSelectedIndex(0);
+            }
+        } finally {
+            ricostruzioneFiltriInCorso = false;
         }
+
+        return valoreSelezionato != null && !valoreSelezionato.equals(combo.getSelectedItem());
     }
 
     /**
@@ -458,8 +558,14 @@ public class VideotecaView extends JFrame {
 
     /**
      * Mostra la finestra di dialogo per modificare un film esistente.
+     * Se sono selezionati più films, mostra la finestra di modifica multipla.
      */
     private void mostraDialogModificaFilm() {
+        if (tabellaFilms.getSelectedRowCount() > 1) {
+            mostraDialogModificaMultipla();
+            return;
+        }
+
         Film filmSelezionato = getFilmSelezionato();
 
         if (filmSelezionato == null) {
@@ -509,10 +615,40 @@ public class VideotecaView extends JFrame {
         }
     }
 
+    /**
+     * Mostra la finestra di dialogo per modificare genere, valutazione e stato di visione
+     * di tutti i films selezionati con un'unica operazione.
+     */
+    private void mostraDialogModificaMultipla() {
+        List<Film> filmsSelezionati = getFilmsSelezionati();
+
+        DialogModificaMultipla dialog = new DialogModificaMultipla(this, filmsSelezionati.size());
+        dialog.setVisible(true);
+
+        if (dialog.isConfermato()) {
+            boolean successo = controller.modificaFilms(filmsSelezionati, dialog.getGenere(),
+                    dialog.getValutazione(), dialog.getStatoVisione());
+
+            if (successo) {
+                JOptionPane.showMessageDialog(this, "Films modificati con successo!", "Operazione completata",
+                        JOptionPane.INFORMATION_MESSAGE);
+            } else {
+                JOptionPane.showMessageDialog(this, "Nessun film è stato modificato: i films selezionati hanno già questi valori.",
+                        "Warning: Modifica", JOptionPane.WARNING_MESSAGE);
+            }
+        }
+    }
+
     /**
      * Elimina il film selezionato dalla tabella.
+     * Se sono selezionati più films, li elimina tutti con un'unica operazione.
      */
     private void eliminaFilmSelezionato() {
+        if (tabellaFilms.getSelectedRowCount() > 1) {
+            eliminaFilmsSelezionati();
+            return;
+        }
+
         Film filmSelezionato = getFilmSelezionato();
 
         if (filmSelezionato == null) {
@@ -539,8 +675,47 @@ public class VideotecaView extends JFrame {
         }
     }
 
+    /**
+     * Elimina tutti i films selezionati con un'unica operazione, annullabile in un solo passo.
+     */
+    private void eliminaFilmsSelezionati() {
+        List<Film> filmsSelezionati = getFilmsSelezionati();
+
+        int conferma = JOptionPane.showConfirmDialog(this,
+                "Sei sicuro di voler eliminare i " + filmsSelezionati.size() + " films selezionati?",
+                "Conferma eliminazione",
+                JOptionPane.YES_NO_OPTION);
+
+        if (conferma == JOptionPane.YES_OPTION) {
+            boolean successo = controller.eliminaFilms(filmsSelezionati);
+
+            if (successo) {
+                JOptionPane.showMessageDialog(this, "Films eliminati con successo!", "Operazione completata",
+                        JOptionPane.INFORMATION_MESSAGE);
+            } else {
+                JOptionPane.showMessageDialog(this, "Impossibile eliminare i films.",
+                        "Errore", JOptionPane.ERROR_MESSAGE);
+            }
+        }
+    }
+
+    /**
+     * Ottiene tutti i films selezionati nella tabella.
+     *
+     * @return Lista dei films selezionati, nell'ordine in cui compaiono nella tabella
+     */
+    private List<Film> getFilmsSelezionati() {
+        int[] righeSelezionate = tabellaFilms.getSelectedRows();
+        List<Film> films = new ArrayList<>(righeSelezionate.length);
+        for (int riga : righeSelezionate) {
+            films.add(modelloTabella.getFilmAt(tabellaFilms.convertRowIndexToModel(riga)));
+        }
+        return films;
+    }
+
     /**
      * Ottiene il film selezionato nella tabella.
+     * Restituisce lo stesso riferimento memorizzato nella videoteca, senza ricostruirlo dai valori delle celle.
      *
      * @return Film selezionato o null se nessun film è selezionato
      */
@@ -551,34 +726,7 @@ public class VideotecaView extends JFrame {
             return null;
         }
 
-        String titolo = (String) tabellaFilms.getValueAt(rigaSelezionata, 0);
-        String regista = (String) tabellaFilms.getValueAt(rigaSelezionata, 1);
-        String annoUscita = (String) tabellaFilms.getValueAt(rigaSelezionata, 2);
-        String genere = (String) tabellaFilms.getValueAt(rigaSelezionata, 3);
-
-        // Gestione della valutazione come stringa
-        String valutazioneString = (String) tabellaFilms.getValueAt(rigaSelezionata, 4);
-        int valutazione;
-        if ("Da valutare".equalsIgnoreCase(valutazioneString)) {
-            valutazione = 0;
-        } else {
-            try {
-                valutazione = Integer.parseInt(valutazioneString);
-            } catch (NumberFormatException e) {
-                valutazione = 0; // Default a "da valutare" in caso di errore
-            }
-        }
-
-        String statoVisioneString = (String) tabellaFilms.getValueAt(rigaSelezionata, 5);
-
-        StatoVisione statoVisione;
-        try {
-            statoVisione = StatoVisione.fromString(statoVisioneString);
-        } catch (IllegalArgumentException e) {
-            statoVisione = StatoVisione.DA_VEDERE;
-        }
-
-        return new Film(titolo, regista, annoUscita, genere, valutazione, statoVisione);
+        return modelloTabella.getFilmAt(tabellaFilms.convertRowIndexToModel(rigaSelezionata));
     }
 
     /**
@@ -586,6 +734,7 @@ public class VideotecaView extends JFrame {
      */
     private void resetFiltri() {
         campoCerca.setText("");
+        timerRicerca.stop(); // Il reset aggiorna già la tabella, la ricerca istantanea non serve
         comboTipoCerca.setSelectedIndex(0);
         comboGenere.setSelectedIndex(0);
         comboRegista.setSelectedIndex(0);
@@ -773,7 +922,7 @@ public class VideotecaView extends JFrame {
     private void pulisciVideoteca() {
         int conferma = JOptionPane.showConfirmDialog(this,
                 "Sei sicuro di voler pulire la videoteca? Tutti i films saranno rimossi.\n" +
-                        "Questa operazione non può essere annullata e cancellerà anche la cronologia di Undo/Redo.",
+                        "L'operazione potrà essere annullata con Undo.",
                 "Conferma pulizia videoteca",
                 JOptionPane.YES_NO_OPTION,
                 JOptionPane.WARNING_MESSAGE);